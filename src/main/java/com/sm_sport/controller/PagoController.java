@@ -79,19 +79,26 @@ public class PagoController {
                     responseCode = "404",
                     description = "Reserva o cliente no encontrado",
                     content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Idempotency-Key reutilizada con otros datos o pago original aún en proceso",
+                    content = @Content
             )
     })
     @PostMapping
     @PreAuthorize("hasRole('CLIENTE')")
     public ResponseEntity<PagoResponse> procesarPago(
-            @Valid @RequestBody PagoRequest request
+            @Valid @RequestBody PagoRequest request,
+            @Parameter(description = "Clave única por intento de pago; los reintentos con la misma clave devuelven el pago original")
+            @RequestHeader(value = "Idempotency-Key", required = false) String claveIdempotencia
     ) {
         String idCliente = obtenerIdUsuarioAutenticado();
 
         log.info("POST /api/v1/pagos - Cliente {} procesando pago para reserva {}",
                 idCliente, request.getIdReserva());
 
-        PagoResponse response = pagoService.procesarPago(idCliente, request);
+        PagoResponse response = pagoService.procesarPago(idCliente, request, claveIdempotencia);
 
         log.info("Pago procesado exitosamente: {} - Estado: {}",
                 response.getIdPago(), response.getEstadoPago());
@@ -2,6 +2,7 @@ package com.sm_sport.controller;
 
 import com.sm_sport.dto.request.CrearResenaRequest;
 import com.sm_sport.dto.request.ResponderResenaRequest;
+import com.sm_sport.dto.response.CursorPageResponse;
 import com.sm_sport.dto.response.MessageResponse;
 import com.sm_sport.dto.response.ResenaResponse;
 import com.sm_sport.service.ResenaService;
@@ -207,6 +208,60 @@ public class ResenaController {
         return ResponseEntity.ok(resenas);
     }
 
+    /**
+     * Lista las reseñas de un servicio paginando por cursor
+     */
+    @GetMapping("/servicio/{idServicio}/cursor")
+    @PreAuthorize("hasAnyRole('CLIENTE', 'PROVEEDOR', 'ADMINISTRADOR')")
+    @Operation(
+            summary = "Listar reseñas de un servicio por cursor",
+            description = "Reseñas de un servicio paginadas por cursor para scroll infinito: enviar en 'cursor' " +
+                    "el valor 'nextCursor' de la respuesta anterior. Ordenable por fechaCreacion o calificacion"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Página de reseñas obtenida exitosamente",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = CursorPageResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Cursor, orden o tamaño de página inválido",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Servicio no encontrado",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<CursorPageResponse<ResenaResponse>> listarResenasPorServicioPorCursor(
+            @Parameter(description = "ID del servicio", required = true)
+            @PathVariable String idServicio,
+
+            @Parameter(description = "Cursor de la página anterior; vacío para la primera")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Cantidad de elementos por página")
+            @RequestParam(defaultValue = "10") int tamano,
+
+            @Parameter(description = "Campo por el cual ordenar (fechaCreacion o calificacion)")
+            @RequestParam(defaultValue = "fechaCreacion") String ordenarPor,
+
+            @Parameter(description = "Dirección del ordenamiento (ASC o DESC)")
+            @RequestParam(defaultValue = "DESC") String direccion) {
+
+        log.info("GET /api/v1/resenas/servicio/{}/cursor - Orden: {} {}", idServicio, ordenarPor, direccion);
+
+        CursorPageResponse<ResenaResponse> resenas = resenaService.listarPorServicioPorCursor(
+                idServicio, ordenarPor, direccion, cursor, tamano);
+
+        return ResponseEntity.ok(resenas);
+    }
+
     /**
      * Lista todas las reseñas creadas por el cliente autenticado
      */
@@ -2,11 +2,14 @@ package com.sm_sport.controller;
 
 import com.sm_sport.dto.request.CancelarReservaRequest;
 import com.sm_sport.dto.request.CrearReservaRequest;
+import com.sm_sport.dto.request.CrearReservasLoteRequest;
 import com.sm_sport.dto.request.FiltroReservaRequest;
+import com.sm_sport.dto.response.CursorPageResponse;
 import com.sm_sport.dto.response.MessageResponse;
 import com.sm_sport.dto.response.PageResponse;
 import com.sm_sport.dto.response.ReservaDetalleResponse;
 import com.sm_sport.dto.response.ReservaResponse;
+import com.sm_sport.dto.response.ReservasLoteResponse;
 import com.sm_sport.service.ReservaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -78,17 +81,25 @@ public class ReservaController {
                     responseCode = "404",
                     description = "Servicio no encontrado",
                     content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Idempotency-Key reutilizada con otros datos o solicitud original aún en proceso",
+                    content = @Content
             )
     })
     public ResponseEntity<ReservaResponse> crearReserva(
             @Parameter(description = "Datos de la reserva: ID del servicio, fecha, hora y notas opcionales", required = true)
-            @Valid @RequestBody CrearReservaRequest request) {
+            @Valid @RequestBody CrearReservaRequest request,
+
+            @Parameter(description = "Clave única por intento lógico; los reintentos con la misma clave devuelven la reserva original")
+            @RequestHeader(value = "Idempotency-Key", required = false) String claveIdempotencia) {
 
         String idCliente = obtenerIdUsuarioAutenticado();
         log.info("POST /api/v1/reservas - Cliente: {} - Servicio: {} - Fecha: {}",
                 idCliente, request.getIdServicio(), request.getFechaReserva());
 
-        ReservaResponse reserva = reservaService.crearReserva(idCliente, request);
+        ReservaResponse reserva = reservaService.crearReserva(idCliente, request, claveIdempotencia);
 
         log.info("Reserva creada exitosamente con ID: {} - Estado: {}",
                 reserva.getIdReserva(), reserva.getEstado());
@@ -96,6 +107,64 @@ public class ReservaController {
         return ResponseEntity.status(HttpStatus.CREATED).body(reserva);
     }
 
+    /**
+     * Crea varias reservas en una sola petición (p. ej. el mismo horario cada semana)
+     */
+    @PostMapping("/lote")
+    @PreAuthorize("hasRole('CLIENTE')")
+    @Operation(
+            summary = "Crear reservas en lote",
+            description = "Crea hasta 100 reservas en una sola transacción. En modo TODO_O_NADA si alguna falla no se crea ninguna; en modo PARCIAL se crean las que tengan disponibilidad. Devuelve el resultado de cada reserva"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "Todas las reservas fueron creadas",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ReservasLoteResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "207",
+                    description = "Modo PARCIAL - Algunas reservas no se pudieron crear",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ReservasLoteResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Datos inválidos - Error de validación",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "No se creó ninguna reserva",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ReservasLoteResponse.class)
+                    )
+            )
+    })
+    public ResponseEntity<ReservasLoteResponse> crearReservasLote(
+            @Parameter(description = "Reservas a crear y modo del lote", required = true)
+            @Valid @RequestBody CrearReservasLoteRequest request) {
+
+        String idCliente = obtenerIdUsuarioAutenticado();
+        log.info("POST /api/v1/reservas/lote - Cliente: {} - Cantidad: {} - Modo: {}",
+                idCliente, request.getReservas().size(), request.getModo());
+
+        ReservasLoteResponse resultado = reservaService.crearReservasLote(idCliente, request);
+
+        log.info("Lote procesado: {} creadas, {} fallidas", resultado.getCreadas(), resultado.getFallidas());
+
+        HttpStatus estado = resultado.getFallidas() == 0 ? HttpStatus.CREATED
+                : resultado.getCreadas() > 0 ? HttpStatus.MULTI_STATUS
+                : HttpStatus.CONFLICT;
+        return ResponseEntity.status(estado).body(resultado);
+    }
+
     /**
      * Lista todas las reservas del usuario autenticado
      * Los clientes ven sus reservas, los proveedores ven las reservas recibidas
@@ -148,6 +217,51 @@ public class ReservaController {
         return ResponseEntity.ok(reservas);
     }
 
+    /**
+     * Lista las reservas del usuario autenticado paginando por cursor
+     */
+    @GetMapping("/cursor")
+    @PreAuthorize("hasAnyRole('CLIENTE', 'PROVEEDOR')")
+    @Operation(
+            summary = "Listar mis reservas por cursor",
+            description = "Igual que el listado de reservas pero paginado por cursor para scroll infinito: " +
+                    "enviar en 'cursor' el valor 'nextCursor' de la respuesta anterior. No calcula totales"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Página de reservas obtenida exitosamente",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = CursorPageResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Cursor o tamaño de página inválido",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<CursorPageResponse<ReservaResponse>> listarMisReservasPorCursor(
+            @Parameter(description = "Cursor de la página anterior; vacío para la primera")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Cantidad de elementos por página")
+            @RequestParam(defaultValue = "20") Integer tamano) {
+
+        String idUsuario = obtenerIdUsuarioAutenticado();
+        boolean esCliente = esCliente();
+
+        log.info("GET /api/v1/reservas/cursor - Usuario: {} - Rol: {}",
+                idUsuario, esCliente ? "CLIENTE" : "PROVEEDOR");
+
+        CursorPageResponse<ReservaResponse> reservas = esCliente
+                ? reservaService.listarPorClientePorCursor(idUsuario, cursor, tamano)
+                : reservaService.listarPorProveedorPorCursor(idUsuario, cursor, tamano);
+
+        return ResponseEntity.ok(reservas);
+    }
+
     /**
      * Obtiene los detalles básicos de una reserva
      */
@@ -522,6 +636,52 @@ public class ReservaController {
         return ResponseEntity.ok(reservas);
     }
 
+    /**
+     * Busca reservas con filtros avanzados paginando por cursor
+     */
+    @PostMapping("/buscar/cursor")
+    @PreAuthorize("hasAnyRole('PROVEEDOR', 'ADMINISTRADOR')")
+    @Operation(
+            summary = "Buscar reservas con filtros por cursor",
+            description = "Aplica los mismos filtros que /buscar pero pagina por cursor (keyset): " +
+                    "enviar en 'cursor' el valor 'nextCursor' de la respuesta anterior. " +
+                    "No calcula totales y el costo de cada página no depende de su profundidad"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Búsqueda realizada exitosamente",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = CursorPageResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Cursor o campo de orden inválido",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "No autorizado - Solo proveedores y administradores",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<CursorPageResponse<ReservaResponse>> buscarReservasPorCursor(
+            @Parameter(description = "Filtros de búsqueda y cursor", required = true)
+            @Valid @RequestBody FiltroReservaRequest filtros) {
+
+        String idUsuario = obtenerIdUsuarioAutenticado();
+        log.info("POST /api/v1/reservas/buscar/cursor - Usuario: {} - Filtros: {}", idUsuario, filtros);
+
+        CursorPageResponse<ReservaResponse> reservas = reservaService.filtrarReservasPorCursor(filtros);
+
+        log.info("Búsqueda por cursor completada: {} reservas, hay más: {}",
+                reservas.getContent().size(), reservas.getHasNext());
+
+        return ResponseEntity.ok(reservas);
+    }
+
     /**
      * Verifica disponibilidad para una reserva sin crearla
      */
@@ -4,11 +4,19 @@ import com.sm_sport.dto.request.ActualizarServicioRequest;
 import com.sm_sport.dto.request.BusquedaServicioRequest;
 import com.sm_sport.dto.request.CrearServicioRequest;
 import com.sm_sport.dto.request.DisponibilidadRequest;
+import com.sm_sport.dto.request.ExcepcionDisponibilidadRequest;
+import com.sm_sport.dto.request.ReglaDisponibilidadRequest;
+import com.sm_sport.dto.response.AutocompletadoResponse;
+import com.sm_sport.dto.response.CalendarioDisponibilidadResponse;
+import com.sm_sport.dto.response.CursorPageResponse;
+import com.sm_sport.dto.response.GrupoMapaResponse;
+import com.sm_sport.dto.response.ImportacionServiciosResponse;
 import com.sm_sport.dto.response.MessageResponse;
 import com.sm_sport.dto.response.PageResponse;
 import com.sm_sport.dto.response.ServicioDetalleResponse;
 import com.sm_sport.dto.response.ServicioResponse;
 import com.sm_sport.model.enums.EstadoServicio;
+import com.sm_sport.model.enums.FormatoImportacion;
 import com.sm_sport.service.ServicioService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -21,13 +29,19 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -99,6 +113,75 @@ public class ServicioController {
         return ResponseEntity.status(HttpStatus.CREATED).body(servicio);
     }
 
+    /**
+     * Importa servicios en bloque desde un archivo CSV o NDJSON
+     * Solo proveedores pueden importar servicios
+     */
+    @PostMapping(value = "/importar", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasRole('PROVEEDOR')")
+    @Operation(
+            summary = "Importar servicios",
+            description = "Publica muchos servicios en una sola petición. El cuerpo se lee como flujo: en NDJSON, un " +
+                    "servicio en JSON por línea (mismo formato que publicar servicio); en CSV, un encabezado con las " +
+                    "columnas nombre, deporte, descripcion, precio, capacidadSimultanea, direccion, ciudad, " +
+                    "departamento, pais, latitud y longitud. Cada fila se valida por separado y se guardan las " +
+                    "válidas. Devuelve los errores por número de línea (hasta 1000)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "Todas las filas fueron importadas",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ImportacionServiciosResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "207",
+                    description = "Algunas filas no se pudieron importar",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ImportacionServiciosResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Archivo ilegible, encabezado inválido o saldo insuficiente",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "No autorizado - Solo proveedores",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "No se importó ninguna fila",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ImportacionServiciosResponse.class)
+                    )
+            )
+    })
+    public ResponseEntity<ImportacionServiciosResponse> importarServicios(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String tipoContenido,
+            InputStream contenido) {
+
+        String idProveedor = obtenerIdUsuarioAutenticado();
+        boolean csv = MediaType.parseMediaType(tipoContenido).isCompatibleWith(MediaType.valueOf("text/csv"));
+        FormatoImportacion formato = csv ? FormatoImportacion.CSV : FormatoImportacion.NDJSON;
+        log.info("POST /api/v1/servicios/importar - Proveedor: {} - Formato: {}", idProveedor, formato);
+
+        ImportacionServiciosResponse resultado = servicioService.importarServicios(idProveedor, contenido, formato);
+
+        log.info("Importación procesada: {} importadas, {} fallidas", resultado.getImportadas(), resultado.getFallidas());
+
+        HttpStatus estado = resultado.getFallidas() == 0 ? HttpStatus.CREATED
+                : resultado.getImportadas() > 0 ? HttpStatus.MULTI_STATUS
+                : HttpStatus.CONFLICT;
+        return ResponseEntity.status(estado).body(resultado);
+    }
+
     /**
      * Lista todos los servicios publicados con paginación
      */
@@ -140,6 +223,45 @@ public class ServicioController {
         return ResponseEntity.ok(servicios);
     }
 
+    /**
+     * Lista los servicios publicados paginando por cursor
+     */
+    @GetMapping("/cursor")
+    @PreAuthorize("hasAnyRole('CLIENTE', 'PROVEEDOR', 'ADMINISTRADOR')")
+    @Operation(
+            summary = "Listar servicios por cursor",
+            description = "Listado de servicios publicados para scroll infinito: enviar en 'cursor' el valor 'nextCursor' " +
+                    "de la respuesta anterior. No calcula totales"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Página de servicios obtenida exitosamente",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = CursorPageResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Cursor o tamaño de página inválido",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<CursorPageResponse<ServicioResponse>> listarServiciosPorCursor(
+            @Parameter(description = "Cursor de la página anterior; vacío para la primera")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Cantidad de elementos por página")
+            @RequestParam(defaultValue = "20") Integer tamano) {
+
+        log.info("GET /api/v1/servicios/cursor - Tamaño: {}", tamano);
+
+        CursorPageResponse<ServicioResponse> servicios = servicioService.listarServiciosPorCursor(cursor, tamano);
+
+        return ResponseEntity.ok(servicios);
+    }
+
     /**
      * Obtiene los detalles básicos de un servicio
      */
@@ -345,7 +467,8 @@ public class ServicioController {
     @PreAuthorize("hasAnyRole('CLIENTE', 'PROVEEDOR', 'ADMINISTRADOR')")
     @Operation(
             summary = "Búsqueda avanzada de servicios",
-            description = "Busca servicios aplicando múltiples filtros: deporte, ciudad, rango de precios, calificación mínima. Incluye paginación y ordenamiento personalizado"
+            description = "Busca servicios aplicando múltiples filtros: deporte, ciudad, rango de precios, calificación mínima. Incluye paginación y ordenamiento personalizado. " +
+                    "Con incluirFacetas la respuesta agrega la cantidad de resultados por deporte, ciudad y rango de precio"
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -376,6 +499,190 @@ public class ServicioController {
         return ResponseEntity.ok(servicios);
     }
 
+    /**
+     * Sugerencias para la barra de búsqueda
+     */
+    @GetMapping("/autocompletar")
+    @PreAuthorize("hasAnyRole('CLIENTE', 'PROVEEDOR', 'ADMINISTRADOR')")
+    @Operation(
+            summary = "Autocompletar búsqueda",
+            description = "Sugiere servicios, deportes y ciudades que empiezan con el texto escrito, sin distinguir " +
+                    "tildes. Los servicios también se sugieren por cualquier palabra de su nombre. Las sugerencias " +
+                    "se ordenan por popularidad: calificación y reseñas para los servicios, cantidad de servicios " +
+                    "para deportes y ciudades"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Sugerencias obtenidas",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = AutocompletadoResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Cantidad inválida",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "No autenticado - Token inválido o ausente",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<AutocompletadoResponse> autocompletar(
+            @Parameter(description = "Texto escrito hasta el momento", required = true, example = "fut")
+            @RequestParam String prefijo,
+
+            @Parameter(description = "Sugerencias por tipo (máximo 10)", example = "5")
+            @RequestParam(defaultValue = "5") Integer cantidad) {
+
+        // Sin log por petición: se llama en cada tecla
+        return ResponseEntity.ok(servicioService.autocompletar(prefijo, cantidad));
+    }
+
+    /**
+     * Servicios mejor calificados por deporte y ciudad
+     */
+    @GetMapping("/mejores")
+    @PreAuthorize("hasAnyRole('CLIENTE', 'PROVEEDOR', 'ADMINISTRADOR')")
+    @Operation(
+            summary = "Mejores servicios",
+            description = "Lista los servicios mejor calificados, por deporte, por ciudad, por ambos o en general. " +
+                    "El puntaje es un promedio bayesiano de la calificación, para que pocas reseñas no superen a " +
+                    "muchas, y baja levemente cuando la última reseña es antigua"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Servicios obtenidos",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ServicioResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Cantidad inválida",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "No autenticado - Token inválido o ausente",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<List<ServicioResponse>> listarMejoresServicios(
+            @Parameter(description = "Deporte", example = "Fútbol")
+            @RequestParam(required = false) String deporte,
+
+            @Parameter(description = "Ciudad", example = "Santa Marta")
+            @RequestParam(required = false) String ciudad,
+
+            @Parameter(description = "Cantidad de servicios (máximo 50)", example = "10")
+            @RequestParam(defaultValue = "10") Integer cantidad) {
+
+        log.info("GET /api/v1/servicios/mejores - Deporte: {} - Ciudad: {} - Cantidad: {}", deporte, ciudad, cantidad);
+
+        return ResponseEntity.ok(servicioService.listarMejoresServicios(deporte, ciudad, cantidad));
+    }
+
+    /**
+     * Servicios recomendados para el cliente autenticado
+     */
+    @GetMapping("/recomendados")
+    @PreAuthorize("hasRole('CLIENTE')")
+    @Operation(
+            summary = "Servicios recomendados",
+            description = "Recomienda servicios al cliente autenticado según los deportes que prefiere, las ciudades " +
+                    "donde reserva y los servicios que reservaron otros clientes con reservas parecidas. No incluye " +
+                    "servicios que ya reservó. Sin historial ni preferencias, devuelve los mejor calificados"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Servicios recomendados obtenidos",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ServicioResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Cantidad inválida",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "No autenticado - Token inválido o ausente",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "No autorizado - Solo clientes",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<List<ServicioResponse>> listarServiciosRecomendados(
+            @Parameter(description = "Cantidad de servicios (máximo 50)", example = "10")
+            @RequestParam(defaultValue = "10") Integer cantidad) {
+
+        String idCliente = obtenerIdUsuarioAutenticado();
+        log.info("GET /api/v1/servicios/recomendados - Cliente: {} - Cantidad: {}", idCliente, cantidad);
+
+        return ResponseEntity.ok(servicioService.listarServiciosRecomendados(idCliente, cantidad));
+    }
+
+    /**
+     * Busca servicios por texto
+     */
+    @GetMapping("/texto")
+    @PreAuthorize("hasAnyRole('CLIENTE', 'PROVEEDOR', 'ADMINISTRADOR')")
+    @Operation(
+            summary = "Buscar servicios por texto",
+            description = "Busca en el nombre, el deporte y la descripción de los servicios publicados. No distingue " +
+                    "tildes ni singular y plural, y tolera errores de tipeo. Los resultados se ordenan por relevancia"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Búsqueda realizada exitosamente",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = PageResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Texto vacío o paginación inválida",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "No autenticado - Token inválido o ausente",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<PageResponse<ServicioResponse>> buscarPorTexto(
+            @Parameter(description = "Texto a buscar", required = true, example = "cancha futbol")
+            @RequestParam String texto,
+
+            @Parameter(description = "Número de página (inicia en 0)")
+            @RequestParam(defaultValue = "0") Integer pagina,
+
+            @Parameter(description = "Cantidad de elementos por página")
+            @RequestParam(defaultValue = "20") Integer tamano) {
+
+        String idUsuario = obtenerIdUsuarioAutenticado();
+        log.info("GET /api/v1/servicios/texto - Usuario: {} - Texto: '{}' - Página: {}/{}",
+                idUsuario, texto, pagina, tamano);
+
+        PageResponse<ServicioResponse> servicios = servicioService.buscarPorTexto(texto, pagina, tamano);
+
+        return ResponseEntity.ok(servicios);
+    }
+
     /**
      * Busca servicios cercanos a una ubicación
      */
@@ -421,6 +728,171 @@ public class ServicioController {
         return ResponseEntity.ok(servicios);
     }
 
+    /**
+     * Busca los servicios más cercanos a una ubicación
+     */
+    @GetMapping("/mas-cercanos")
+    @PreAuthorize("hasAnyRole('CLIENTE', 'PROVEEDOR', 'ADMINISTRADOR')")
+    @Operation(
+            summary = "Buscar los servicios más cercanos",
+            description = "Devuelve los N servicios publicados más cercanos a una ubicación, sin límite de radio, " +
+                    "ordenados por distancia. Se pueden filtrar por deporte y rango de precio; cada servicio " +
+                    "incluye su distancia en kilómetros"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Servicios más cercanos encontrados",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ServicioResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Cantidad o rango de precios inválido",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "No autenticado - Token inválido o ausente",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<List<ServicioResponse>> buscarServiciosMasCercanos(
+            @Parameter(description = "Latitud de la ubicación", required = true, example = "11.0041")
+            @RequestParam Double latitud,
+
+            @Parameter(description = "Longitud de la ubicación", required = true, example = "-74.8070")
+            @RequestParam Double longitud,
+
+            @Parameter(description = "Cantidad de servicios (máximo 100)", example = "20")
+            @RequestParam(defaultValue = "20") Integer cantidad,
+
+            @Parameter(description = "Deporte", example = "Fútbol")
+            @RequestParam(required = false) String deporte,
+
+            @Parameter(description = "Precio mínimo", example = "20000")
+            @RequestParam(required = false) BigDecimal precioMinimo,
+
+            @Parameter(description = "Precio máximo", example = "80000")
+            @RequestParam(required = false) BigDecimal precioMaximo) {
+
+        String idUsuario = obtenerIdUsuarioAutenticado();
+        log.info("GET /api/v1/servicios/mas-cercanos - Usuario: {} - Ubicación: {},{} - Cantidad: {} - Deporte: {}",
+                idUsuario, latitud, longitud, cantidad, deporte);
+
+        List<ServicioResponse> servicios = servicioService.buscarServiciosMasCercanos(
+                latitud, longitud, cantidad, deporte, precioMinimo, precioMaximo);
+
+        return ResponseEntity.ok(servicios);
+    }
+
+    /**
+     * Agrupa los servicios visibles en un área del mapa
+     */
+    @GetMapping("/mapa")
+    @PreAuthorize("hasAnyRole('CLIENTE', 'PROVEEDOR', 'ADMINISTRADOR')")
+    @Operation(
+            summary = "Servicios agrupados para el mapa",
+            description = "Devuelve los servicios publicados dentro del área visible ya agrupados según el zoom. " +
+                    "Cada grupo incluye la cantidad de servicios, su centroide y la cantidad por deporte; " +
+                    "los grupos de un solo servicio incluyen su ID"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Grupos del área obtenidos",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = GrupoMapaResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Área o zoom inválidos, o área demasiado grande para el zoom",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "No autenticado - Token inválido o ausente",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<List<GrupoMapaResponse>> agruparServiciosMapa(
+            @Parameter(description = "Latitud del borde sur", required = true, example = "11.15")
+            @RequestParam Double latitudMin,
+
+            @Parameter(description = "Longitud del borde oeste", required = true, example = "-74.25")
+            @RequestParam Double longitudMin,
+
+            @Parameter(description = "Latitud del borde norte", required = true, example = "11.30")
+            @RequestParam Double latitudMax,
+
+            @Parameter(description = "Longitud del borde este", required = true, example = "-74.10")
+            @RequestParam Double longitudMax,
+
+            @Parameter(description = "Nivel de zoom del mapa (0 a 20)", required = true, example = "13")
+            @RequestParam Integer zoom) {
+
+        log.info("GET /api/v1/servicios/mapa - Área: [{}, {}] - [{}, {}] - Zoom: {}",
+                latitudMin, longitudMin, latitudMax, longitudMax, zoom);
+
+        List<GrupoMapaResponse> grupos = servicioService.agruparServiciosMapa(
+                latitudMin, longitudMin, latitudMax, longitudMax, zoom);
+
+        return ResponseEntity.ok(grupos);
+    }
+
+    /**
+     * Obtiene el calendario de disponibilidad de varios servicios en una sola consulta
+     */
+    @GetMapping("/calendario")
+    @PreAuthorize("hasAnyRole('CLIENTE', 'PROVEEDOR', 'ADMINISTRADOR')")
+    @Operation(
+            summary = "Calendario de disponibilidad",
+            description = "Obtiene la disponibilidad de varios servicios en un rango de fechas. Por cada servicio y día devuelve los rangos horarios con cupos (\"HH:mm-HH:mm\"), omitiendo los días sin cupos"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Calendario obtenido exitosamente",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = CalendarioDisponibilidadResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Rango de fechas o cantidad de servicios inválidos",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "No autenticado - Token inválido o ausente",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<CalendarioDisponibilidadResponse> obtenerCalendarioDisponibilidad(
+            @Parameter(description = "IDs de los servicios (máximo 50)", required = true)
+            @RequestParam List<String> idsServicio,
+
+            @Parameter(description = "Fecha inicial (inclusive)", required = true, example = "2025-01-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+
+            @Parameter(description = "Fecha final (inclusive, máximo 62 días)", required = true, example = "2025-01-31")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
+
+        String idUsuario = obtenerIdUsuarioAutenticado();
+        log.info("GET /api/v1/servicios/calendario - Usuario: {} - Servicios: {} - Rango: {} a {}",
+                idUsuario, idsServicio.size(), fechaInicio, fechaFin);
+
+        CalendarioDisponibilidadResponse calendario =
+                servicioService.obtenerCalendarioDisponibilidad(idsServicio, fechaInicio, fechaFin);
+
+        return ResponseEntity.ok(calendario);
+    }
+
     /**
      * Lista los servicios publicados por un proveedor
      */
@@ -561,6 +1033,120 @@ public class ServicioController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Agregar reglas de disponibilidad
+     */
+    @PostMapping("/{id}/reglas-disponibilidad")
+    @PreAuthorize("hasRole('PROVEEDOR')")
+    @Operation(
+            summary = "Agregar reglas de disponibilidad",
+            description = "Permite al proveedor dueño definir horarios semanales recurrentes (día de la semana, horas, cupos y vigencia). Las franjas se calculan al consultar y sólo se guardan cuando se reservan"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "Reglas agregadas exitosamente",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Datos inválidos - Error de validación",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "No autenticado - Token inválido o ausente",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "No autorizado - Solo el proveedor dueño",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Servicio no encontrado",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<MessageResponse> agregarReglasDisponibilidad(
+            @Parameter(description = "ID del servicio", required = true)
+            @PathVariable String id,
+
+            @Parameter(description = "Lista de reglas semanales", required = true)
+            @Valid @RequestBody List<ReglaDisponibilidadRequest> reglas) {
+
+        String idProveedor = obtenerIdUsuarioAutenticado();
+        log.info("POST /api/v1/servicios/{}/reglas-disponibilidad - Proveedor: {} - Cantidad: {}",
+                id, idProveedor, reglas.size());
+
+        MessageResponse response = servicioService.agregarReglasDisponibilidad(id, reglas);
+
+        log.info("Reglas de disponibilidad agregadas para servicio {}", id);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * Agregar excepciones de disponibilidad
+     */
+    @PostMapping("/{id}/excepciones-disponibilidad")
+    @PreAuthorize("hasRole('PROVEEDOR')")
+    @Operation(
+            summary = "Agregar excepciones de disponibilidad",
+            description = "Permite al proveedor dueño cerrar días completos o rangos horarios (festivos, mantenimiento) sobre sus reglas semanales"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "Excepciones agregadas exitosamente",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Datos inválidos - Error de validación",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "No autenticado - Token inválido o ausente",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "No autorizado - Solo el proveedor dueño",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Servicio no encontrado",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<MessageResponse> agregarExcepcionesDisponibilidad(
+            @Parameter(description = "ID del servicio", required = true)
+            @PathVariable String id,
+
+            @Parameter(description = "Lista de días u horas cerrados", required = true)
+            @Valid @RequestBody List<ExcepcionDisponibilidadRequest> excepciones) {
+
+        String idProveedor = obtenerIdUsuarioAutenticado();
+        log.info("POST /api/v1/servicios/{}/excepciones-disponibilidad - Proveedor: {} - Cantidad: {}",
+                id, idProveedor, excepciones.size());
+
+        MessageResponse response = servicioService.agregarExcepcionesDisponibilidad(id, excepciones);
+
+        log.info("Excepciones de disponibilidad agregadas para servicio {}", id);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
     /**
      * Cambia el estado de un servicio
      * Solo el proveedor dueño puede cambiar el estado
@@ -370,6 +370,48 @@ public class UsuarioController {
         return ResponseEntity.ok(usuarios);
     }
 
+    /**
+     * Lista usuarios con filtros paginando por cursor (solo administradores)
+     */
+    @PostMapping("/buscar/cursor")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    @Operation(
+            summary = "Buscar usuarios con filtros por cursor",
+            description = "[ADMIN] Aplica los mismos filtros que /buscar pero pagina por cursor: enviar en 'cursor' " +
+                    "el valor 'nextCursor' de la respuesta anterior. Ordenable por fechaRegistro o nombre"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Búsqueda realizada exitosamente",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = CursorPageResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Cursor, orden o tamaño de página inválido",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "No autorizado - Solo administradores",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<CursorPageResponse<UsuarioResponse>> buscarUsuariosPorCursor(
+            @Parameter(description = "Filtros de búsqueda y cursor", required = true)
+            @Valid @RequestBody FiltroUsuarioRequest filtros) {
+
+        String idAdmin = obtenerIdUsuarioAutenticado();
+        log.info("POST /api/v1/usuarios/buscar/cursor - Admin: {}", idAdmin);
+
+        CursorPageResponse<UsuarioResponse> usuarios = usuarioService.listarUsuariosPorCursor(filtros);
+
+        return ResponseEntity.ok(usuarios);
+    }
+
     /**
      * Cambia el estado de un usuario (solo administradores)
      */
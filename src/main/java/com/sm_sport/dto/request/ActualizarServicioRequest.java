@@ -3,6 +3,8 @@ package com.sm_sport.dto.request;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -30,6 +32,10 @@ public class ActualizarServicioRequest {
     @DecimalMax(value = "9999999.99", message = "El precio no puede exceder 9,999,999.99")
     private BigDecimal precio;
 
+    @Min(value = 1, message = "La capacidad simultánea debe ser al menos 1")
+    @Max(value = 1000, message = "La capacidad simultánea no puede exceder 1000")
+    private Integer capacidadSimultanea;
+
     @Valid
     private UbicacionRequest ubicacion;
 }
@@ -1,5 +1,8 @@
 package com.sm_sport.dto.request;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,11 +24,21 @@ public class BusquedaServicioRequest {
     private BigDecimal calificacionMinima;
     private String texto; // Búsqueda en nombre o descripción
 
-    // Para búsqueda por proximidad
+    // Para búsqueda por proximidad; con latitud y longitud se puede ordenar por "distancia"
+    @DecimalMin(value = "-90", message = "La latitud debe estar entre -90 y 90")
+    @DecimalMax(value = "90", message = "La latitud debe estar entre -90 y 90")
     private BigDecimal latitud;
+
+    @DecimalMin(value = "-180", message = "La longitud debe estar entre -180 y 180")
+    @DecimalMax(value = "180", message = "La longitud debe estar entre -180 y 180")
     private BigDecimal longitud;
+
+    @Positive(message = "El radio debe ser mayor a 0")
     private Integer radioKm;
 
+    // Con true la respuesta incluye los conteos por deporte, ciudad y rango de precio
+    private Boolean incluirFacetas;
+
     // Paginación
     private Integer pagina = 0;
     private Integer tamano = 20;
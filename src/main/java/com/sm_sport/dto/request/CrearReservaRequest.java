@@ -1,6 +1,8 @@
 package com.sm_sport.dto.request;
 
 import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -28,6 +30,10 @@ public class CrearReservaRequest {
     @NotNull(message = "La hora de reserva es obligatoria")
     private LocalTime horaReserva;
 
+    @Min(value = 15, message = "La duración mínima es de 15 minutos")
+    @Max(value = 720, message = "La duración máxima es de 12 horas")
+    private Integer duracionMinutos;
+
     @Size(max = 500, message = "Las notas no pueden exceder 500 caracteres")
     private String notasCliente;
 }
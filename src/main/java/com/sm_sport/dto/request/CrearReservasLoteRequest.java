@@ -0,0 +1,29 @@
+package com.sm_sport.dto.request;
+
+import com.sm_sport.model.enums.ModoLote;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CrearReservasLoteRequest {
+
+    @NotEmpty(message = "Debe incluir al menos una reserva")
+    @Size(max = 100, message = "No se pueden crear más de 100 reservas por lote")
+    private List<@Valid CrearReservaRequest> reservas;
+
+    // TODO_O_NADA por defecto: si una falla no se crea ninguna
+    @Builder.Default
+    @NotNull(message = "El modo del lote es obligatorio")
+    private ModoLote modo = ModoLote.TODO_O_NADA;
+}
@@ -33,6 +33,10 @@ public class CrearServicioRequest {
     @Digits(integer = 7, fraction = 2, message = "El precio debe tener máximo 7 dígitos enteros y 2 decimales")
     private BigDecimal precio;
 
+    @Min(value = 1, message = "La capacidad simultánea debe ser al menos 1")
+    @Max(value = 1000, message = "La capacidad simultánea no puede exceder 1000")
+    private Integer capacidadSimultanea;
+
     @NotNull(message = "La ubicación es obligatoria")
     @Valid
     private UbicacionRequest ubicacion;
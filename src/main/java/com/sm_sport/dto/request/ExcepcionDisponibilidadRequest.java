@@ -0,0 +1,31 @@
+package com.sm_sport.dto.request;
+
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExcepcionDisponibilidadRequest {
+
+    @NotNull(message = "La fecha es obligatoria")
+    @FutureOrPresent(message = "La fecha debe ser actual o futura")
+    private LocalDate fecha;
+
+    // Sin horas se cierra el día completo
+    private LocalTime horaInicio;
+
+    private LocalTime horaFin;
+
+    @Size(max = 200, message = "El motivo no puede exceder 200 caracteres")
+    private String motivo;
+}
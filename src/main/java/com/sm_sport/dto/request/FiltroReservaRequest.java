@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -21,10 +22,15 @@ public class FiltroReservaRequest {
     private List<EstadoReserva> estados;
     private LocalDate fechaInicio;
     private LocalDate fechaFin;
+    private BigDecimal costoMinimo;
+    private BigDecimal costoMaximo;
 
     // Paginación
     private Integer pagina = 0;
     private Integer tamano = 20;
     private String ordenarPor = "fechaReserva";
     private String direccion = "DESC";
+
+    // Paginación por cursor: valor opaco devuelto en nextCursor de la página anterior
+    private String cursor;
 }
@@ -27,4 +27,7 @@ public class FiltroUsuarioRequest {
     private Integer tamano = 20;
     private String ordenarPor = "fechaRegistro";
     private String direccion = "DESC";
+
+    // Paginación por cursor: valor opaco devuelto en nextCursor de la página anterior
+    private String cursor;
 }
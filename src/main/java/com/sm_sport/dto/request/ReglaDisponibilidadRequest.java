@@ -0,0 +1,38 @@
+package com.sm_sport.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReglaDisponibilidadRequest {
+
+    @NotNull(message = "El día de la semana es obligatorio")
+    private DayOfWeek diaSemana;
+
+    @NotNull(message = "La hora de inicio es obligatoria")
+    private LocalTime horaInicio;
+
+    @NotNull(message = "La hora de fin es obligatoria")
+    private LocalTime horaFin;
+
+    @NotNull(message = "Los cupos son obligatorios")
+    @Min(value = 1, message = "Debe haber al menos 1 cupo disponible")
+    @Max(value = 100, message = "No puede haber más de 100 cupos")
+    private Integer cupos;
+
+    private LocalDate vigenteDesde;
+
+    private LocalDate vigenteHasta;
+}
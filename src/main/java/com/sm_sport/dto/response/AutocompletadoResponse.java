@@ -0,0 +1,23 @@
+package com.sm_sport.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Sugerencias para la barra de búsqueda, separadas por tipo y ordenadas de la
+ * más a la menos popular
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AutocompletadoResponse {
+
+    private List<SugerenciaResponse> servicios;
+    private List<SugerenciaResponse> deportes;
+    private List<SugerenciaResponse> ciudades;
+}
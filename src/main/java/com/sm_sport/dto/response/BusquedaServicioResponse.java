@@ -0,0 +1,26 @@
+package com.sm_sport.dto.response;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Página de resultados de la búsqueda de servicios con los conteos por
+ * faceta. Conserva los campos de {@link PageResponse}, así que los clientes
+ * que no piden facetas no ven ningún cambio.
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class BusquedaServicioResponse extends PageResponse<ServicioResponse> {
+
+    private FacetasResponse facetas;
+
+    public BusquedaServicioResponse(PageResponse<ServicioResponse> pagina, FacetasResponse facetas) {
+        super(pagina.getContent(), pagina.getPageNumber(), pagina.getPageSize(), pagina.getTotalElements(),
+                pagina.getTotalPages(), pagina.getLast(), pagina.getFirst(), pagina.getEmpty());
+        this.facetas = facetas;
+    }
+}
@@ -0,0 +1,26 @@
+package com.sm_sport.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calendario de disponibilidad de varios servicios.
+ * Por cada servicio, un mapa de fecha (ISO) a rangos "HH:mm-HH:mm" con cupos,
+ * con las franjas contiguas o solapadas ya unidas. Los días sin cupos se omiten.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CalendarioDisponibilidadResponse {
+
+    private LocalDate fechaInicio;
+    private LocalDate fechaFin;
+    private Map<String, Map<String, List<String>>> servicios;
+}
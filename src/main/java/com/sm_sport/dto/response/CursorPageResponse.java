@@ -0,0 +1,24 @@
+package com.sm_sport.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página obtenida por cursor (keyset). No incluye totales: el costo de la
+ * consulta no depende de la profundidad de la página ni exige un COUNT.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+    private Integer pageSize;
+    private String nextCursor;
+    private Boolean hasNext;
+}
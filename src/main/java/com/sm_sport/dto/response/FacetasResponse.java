@@ -0,0 +1,25 @@
+package com.sm_sport.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Cantidad de servicios que cumplen los filtros de la búsqueda, por deporte,
+ * por ciudad y por rango de precio. Deportes y ciudades van de mayor a menor;
+ * los rangos de precio, de menor a mayor ("0-20000", ..., "100000+").
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetasResponse {
+
+    private Long total;
+    private Map<String, Long> deportes;
+    private Map<String, Long> ciudades;
+    private Map<String, Long> rangosPrecio;
+}
@@ -0,0 +1,25 @@
+package com.sm_sport.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Grupo de servicios cercanos para dibujar en el mapa.
+ * Cuando el grupo tiene un solo servicio se informa su ID para mostrarlo como marcador.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GrupoMapaResponse {
+
+    private Double latitud;
+    private Double longitud;
+    private Integer cantidad;
+    private Map<String, Integer> deportes; // cantidad de servicios por deporte, de mayor a menor
+    private String idServicio;
+}
@@ -0,0 +1,20 @@
+package com.sm_sport.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportacionServiciosResponse {
+
+    private Integer filas;
+    private Integer importadas;
+    private Integer fallidas;
+    private List<ErrorImportacionResponse> errores;
+}
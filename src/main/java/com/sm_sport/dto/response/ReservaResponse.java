@@ -20,6 +20,8 @@ public class ReservaResponse {
     private String idReserva;
     private LocalDate fechaReserva;
     private LocalTime horaReserva;
+    private LocalTime horaFin;
+    private Integer duracionMinutos;
     private EstadoReserva estado;
     private LocalDateTime fechaCreacion;
     private LocalDateTime fechaActualizacion;
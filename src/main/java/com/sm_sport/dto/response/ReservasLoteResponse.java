@@ -0,0 +1,22 @@
+package com.sm_sport.dto.response;
+
+import com.sm_sport.model.enums.ModoLote;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservasLoteResponse {
+
+    private ModoLote modo;
+    private Integer solicitadas;
+    private Integer creadas;
+    private Integer fallidas;
+    private List<ResultadoReservaLoteResponse> resultados;
+}
@@ -0,0 +1,18 @@
+package com.sm_sport.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResultadoReservaLoteResponse {
+
+    private Integer indice;
+    private Boolean exitosa;
+    private ReservaResponse reserva;
+    private String error;
+}
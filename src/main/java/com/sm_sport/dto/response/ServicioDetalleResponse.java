@@ -9,6 +9,7 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -35,6 +36,9 @@ public class ServicioDetalleResponse {
     // Disponibilidades próximas
     private List<DisponibilidadResponse> disponibilidades;
 
-    // Reseñas recientes
+    // Reseñas publicadas más recientes
     private List<ResenaResponse> resenas;
+
+    // Cantidad de reseñas publicadas por calificación, de 5 a 1 estrellas
+    private Map<Integer, Integer> histogramaCalificaciones;
 }
@@ -25,6 +25,7 @@ public class ServicioResponse {
     private LocalDateTime fechaActualizacion;
     private BigDecimal calificacionPromedio;
     private Integer totalResenas;
+    private Integer capacidadSimultanea;
 
     // Información del proveedor
     private String idProveedor;
@@ -35,4 +36,7 @@ public class ServicioResponse {
     private String ciudad;
     private String departamento;
     private String direccion;
+
+    // Distancia al punto consultado; sólo en búsquedas por cercanía
+    private Double distanciaKm;
 }
@@ -0,0 +1,16 @@
+package com.sm_sport.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SugerenciaResponse {
+
+    private String texto;
+    private String idServicio; // sólo en las sugerencias de servicios
+}
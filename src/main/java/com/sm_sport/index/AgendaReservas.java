@@ -0,0 +1,254 @@
+package com.sm_sport.index;
+
+import com.sm_sport.repository.ReservaRepository;
+import com.sm_sport.repository.ServicioRepository;
+import com.sm_sport.util.Transacciones;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Agenda de las reservas activas (pendientes y confirmadas) por
+ * (servicio, fecha), usada para detectar reservas que se cruzan en el tiempo.
+ * Cada día es una {@link OcupacionDia}: comprobar si cabe una reserva cuesta
+ * O(log n) sin importar cuántas reservas tenga el día.
+ * <p>
+ * La base de datos decide: para ocupar un horario se toma un bloqueo
+ * consultivo de PostgreSQL por (servicio, fecha) hasta el fin de la
+ * transacción y el día se lee de nuevo con ese bloqueo, así que dos
+ * instancias de la aplicación no pueden cruzar reservas. Sólo se serializan
+ * las reservas del mismo servicio en la misma fecha, y la fila del servicio
+ * queda libre para otras escrituras. Las reservas que la transacción ocupa o
+ * libera se acumulan en esa copia del día (un lote ve sus propias reservas)
+ * y se descartan si se revierte.
+ * <p>
+ * Para consultar sin reservar se usa una copia en memoria cargada de forma
+ * perezosa. Cada cambio confirmado la descarta, y cada día cargado vence tras
+ * {@code app.reservas.agenda.vigencia} para acotar la desactualización
+ * cuando hay varias instancias. Las reservas anteriores a la duración
+ * guardada se toman con la duración predeterminada.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AgendaReservas {
+
+    private static final int SEGMENTOS = 1024;
+
+    // Orden de las claves del bloqueo consultivo; con colisiones de hash el orden sigue siendo el mismo en todos
+    private static final Comparator<Clave> ORDEN_BLOQUEO = Comparator
+            .comparingInt((Clave clave) -> clave.idServicio().hashCode())
+            .thenComparingLong(clave -> clave.fecha().toEpochDay())
+            .thenComparing(Clave::idServicio);
+
+    private final ReservaRepository reservaRepository;
+    private final ServicioRepository servicioRepository;
+
+    @Value("${app.reservas.duracion-predeterminada:60}")
+    private int duracionPredeterminada = 60;
+
+    @Value("${app.reservas.agenda.vigencia:5m}")
+    private Duration vigencia = Duration.ofMinutes(5);
+
+    @Value("${app.reservas.agenda.max-dias:20000}")
+    private int maxDias = 20_000;
+
+    private final Map<Clave, OcupacionDia> dias = new ConcurrentHashMap<>();
+
+    // Versión por segmento de claves: una carga sólo se guarda si nadie
+    // confirmó cambios sobre su segmento mientras se leía de la base de datos
+    private final AtomicLongArray versiones = new AtomicLongArray(SEGMENTOS);
+
+    /**
+     * Intenta ocupar el horario [inicio, fin) dentro de la transacción en
+     * curso. La primera vez que la transacción toca el servicio en esa fecha
+     * bloquea ese día y relee sus reservas activas.
+     *
+     * @return false si el horario se cruza con reservas que ya agotan la capacidad
+     */
+    public boolean ocupar(String idServicio, LocalDate fecha, LocalTime inicio, LocalTime fin) {
+        Clave clave = new Clave(idServicio, fecha);
+        OcupacionDia dia = diaBloqueado(clave);
+        if (!dia.cabe(inicio, fin)) {
+            return false;
+        }
+        dia.ocupar(inicio, fin);
+        Transacciones.despuesDelCommit(() -> invalidarAhora(clave));
+        return true;
+    }
+
+    /**
+     * Bloquea de una vez los días que va a ocupar un lote de reservas, siempre
+     * en el mismo orden, para que dos lotes con los mismos días en distinto
+     * orden no se bloqueen mutuamente
+     */
+    public void bloquearDias(Map<String, ? extends Collection<LocalDate>> fechasPorServicio) {
+        fechasPorServicio.entrySet().stream()
+                .flatMap(e -> e.getValue().stream().map(fecha -> new Clave(e.getKey(), fecha)))
+                .distinct()
+                .sorted(ORDEN_BLOQUEO)
+                .forEach(this::diaBloqueado);
+    }
+
+    /**
+     * Indica si el horario [inicio, fin) todavía admite una reserva
+     */
+    public boolean estaLibre(String idServicio, LocalDate fecha, LocalTime inicio, LocalTime fin) {
+        Clave clave = new Clave(idServicio, fecha);
+        OcupacionDia dia = diaDeLaTransaccion(clave);
+        return (dia != null ? dia : obtenerDia(clave)).cabe(inicio, fin);
+    }
+
+    /**
+     * Libera el horario de una reserva cancelada, rechazada o expirada. Si la
+     * transacción ya leyó el día, se descuenta allí; la copia en memoria se
+     * descarta tras el commit.
+     *
+     * @param fin Fin de la reserva, o null si es anterior a la duración guardada
+     */
+    public void liberar(String idServicio, LocalDate fecha, LocalTime inicio, LocalTime fin) {
+        Clave clave = new Clave(idServicio, fecha);
+        OcupacionDia dia = diaDeLaTransaccion(clave);
+        if (dia != null && dia.getReservas() > 0) {
+            dia.liberar(inicio, finOPredeterminado(inicio, fin));
+        }
+        Transacciones.despuesDelCommit(() -> invalidarAhora(clave));
+    }
+
+    /**
+     * Fin de una reserva según su duración; null si pasaría de la medianoche.
+     * Una reserva que termina justo a la medianoche devuelve {@link LocalTime#MIDNIGHT}.
+     */
+    public static LocalTime calcularFin(LocalTime inicio, int duracionMinutos) {
+        int finEnMinutos = inicio.toSecondOfDay() / 60 + duracionMinutos;
+        if (finEnMinutos > 24 * 60) {
+            return null;
+        }
+        return inicio.plusMinutes(duracionMinutos);
+    }
+
+    /**
+     * Elimina los días que ya pasaron
+     */
+    @Scheduled(cron = "0 20 0 * * *")
+    public void purgarDiasPasados() {
+        LocalDate hoy = LocalDate.now();
+        int antes = dias.size();
+        dias.keySet().removeIf(clave -> clave.fecha().isBefore(hoy));
+        log.info("Agenda de reservas purgada: {} días eliminados", antes - dias.size());
+    }
+
+    int tamano() {
+        return dias.size();
+    }
+
+    // Día leído con su bloqueo tomado; se reutiliza hasta el fin de la transacción
+    private OcupacionDia diaBloqueado(Clave clave) {
+        Map<Clave, OcupacionDia> diasTransaccion = diasDeLaTransaccion();
+        OcupacionDia dia = diasTransaccion.get(clave);
+        if (dia == null) {
+            reservaRepository.bloquearAgendaDia(clave.idServicio().hashCode(), (int) clave.fecha().toEpochDay());
+            dia = leer(clave, servicioRepository.findCapacidadSimultanea(clave.idServicio()));
+            diasTransaccion.put(clave, dia);
+        }
+        return dia;
+    }
+
+    // Sin transacción activa cada llamada lee el día otra vez
+    @SuppressWarnings("unchecked")
+    private Map<Clave, OcupacionDia> diasDeLaTransaccion() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new HashMap<>();
+        }
+        Map<Clave, OcupacionDia> diasTransaccion =
+                (Map<Clave, OcupacionDia>) TransactionSynchronizationManager.getResource(this);
+        if (diasTransaccion == null) {
+            diasTransaccion = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, diasTransaccion);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AgendaReservas.this);
+                }
+            });
+        }
+        return diasTransaccion;
+    }
+
+    // Día que la transacción en curso ya leyó con el bloqueo, o null
+    @SuppressWarnings("unchecked")
+    private OcupacionDia diaDeLaTransaccion(Clave clave) {
+        Map<Clave, OcupacionDia> diasTransaccion =
+                (Map<Clave, OcupacionDia>) TransactionSynchronizationManager.getResource(this);
+        return diasTransaccion != null ? diasTransaccion.get(clave) : null;
+    }
+
+    private OcupacionDia obtenerDia(Clave clave) {
+        OcupacionDia dia = dias.get(clave);
+        if (dia != null && !dia.cargadoAntesDe(System.nanoTime() - vigencia.toNanos())) {
+            return dia;
+        }
+
+        int segmento = segmento(clave);
+        long version = versiones.get(segmento);
+        OcupacionDia cargado = leer(clave, servicioRepository.findCapacidadSimultanea(clave.idServicio()));
+
+        if (dias.size() >= maxDias) {
+            log.warn("Agenda de reservas llena ({} días), se vacía", dias.size());
+            dias.clear();
+        }
+        // Sólo se guarda si nadie confirmó cambios sobre el segmento durante la lectura
+        dias.compute(clave, (k, actual) -> versiones.get(segmento) == version ? cargado : actual);
+        return cargado;
+    }
+
+    private OcupacionDia leer(Clave clave, Integer capacidad) {
+        OcupacionDia dia = new OcupacionDia(capacidad != null ? capacidad : 1);
+
+        List<ReservaRepository.IntervaloReserva> intervalos =
+                reservaRepository.findIntervalosActivos(clave.idServicio(), clave.fecha());
+        for (ReservaRepository.IntervaloReserva intervalo : intervalos) {
+            dia.ocupar(intervalo.getHoraReserva(),
+                    finOPredeterminado(intervalo.getHoraReserva(), intervalo.getHoraFin()));
+        }
+
+        log.debug("Agenda de reservas: servicio {} el {} leído con {} reservas",
+                clave.idServicio(), clave.fecha(), intervalos.size());
+        return dia;
+    }
+
+    private LocalTime finOPredeterminado(LocalTime inicio, LocalTime fin) {
+        if (fin != null) {
+            return fin;
+        }
+        LocalTime calculado = calcularFin(inicio, duracionPredeterminada);
+        return calculado != null ? calculado : LocalTime.MIDNIGHT;
+    }
+
+    private void invalidarAhora(Clave clave) {
+        versiones.incrementAndGet(segmento(clave));
+        dias.remove(clave);
+    }
+
+    private static int segmento(Clave clave) {
+        return Math.floorMod(clave.hashCode(), SEGMENTOS);
+    }
+
+    private record Clave(String idServicio, LocalDate fecha) {
+    }
+}
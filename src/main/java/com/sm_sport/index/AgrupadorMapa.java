@@ -0,0 +1,199 @@
+package com.sm_sport.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Agrupa los servicios del {@link IndiceGeografico} para el mapa.
+ * <p>
+ * La grilla es jerárquica y sigue las teselas de los mapas web (Mercator):
+ * en el zoom z el mundo se divide en 2^z × 2^z teselas, y cada tesela se
+ * parte en 8 × 8 casillas, que son las teselas del zoom z + 3. Cada casilla
+ * con servicios es un grupo con su cantidad, su centroide y la cantidad de
+ * servicios por deporte. Como las casillas de un zoom son la unión exacta de
+ * cuatro casillas del zoom siguiente, los grupos se dividen de forma estable
+ * al acercar el mapa.
+ * <p>
+ * Los grupos de cada tesela se calculan una vez y se guardan por zoom; la
+ * caché de un zoom se descarta cuando cambia la versión del índice, es decir,
+ * cuando se publica, modifica o retira un servicio.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AgrupadorMapa {
+
+    public static final int ZOOM_MAXIMO = 20;
+    private static final int BITS_SUBDIVISION = 3;
+    private static final int CASILLAS_POR_LADO = 1 << BITS_SUBDIVISION;
+    private static final double LATITUD_MAXIMA_MERCATOR = 85.05112878;
+
+    private final IndiceGeografico indiceGeografico;
+
+    @Value("${app.geo.mapa.max-teselas-por-zoom:5000}")
+    private int maxTeselasPorZoom = 5_000;
+
+    private final Map<Integer, TeselasZoom> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Grupos de servicios visibles en el rectángulo para el zoom dado.
+     * Si lngMin es mayor que lngMax, el rectángulo cruza el antimeridiano.
+     *
+     * @param maxTeselas Máximo de teselas que puede cubrir el rectángulo
+     * @return null si el rectángulo cubre más teselas que las permitidas
+     */
+    public List<Grupo> agrupar(double latMin, double lngMin, double latMax, double lngMax, int zoom, int maxTeselas) {
+        int lado = 1 << zoom;
+        int xMin = teselaX(lngMin, zoom);
+        int xMax = teselaX(lngMax, zoom);
+        // En Mercator la y crece hacia el sur
+        int yMin = teselaY(latMax, zoom);
+        int yMax = teselaY(latMin, zoom);
+
+        int ancho = lngMin > lngMax || xMax < xMin ? lado - xMin + xMax + 1 : xMax - xMin + 1;
+        ancho = Math.min(ancho, lado);
+        if ((long) ancho * (yMax - yMin + 1) > maxTeselas) {
+            return null;
+        }
+
+        Map<Long, List<Grupo>> teselas = teselasDelZoom(zoom);
+        List<Grupo> resultado = new ArrayList<>();
+        for (int i = 0; i < ancho; i++) {
+            int x = (xMin + i) % lado;
+            for (int y = yMin; y <= yMax; y++) {
+                resultado.addAll(teselas.computeIfAbsent(clave(x, y), k -> calcularTesela(zoom, k)));
+            }
+        }
+        return resultado;
+    }
+
+    int teselasEnCache(int zoom) {
+        TeselasZoom teselas = cache.get(zoom);
+        return teselas == null ? 0 : teselas.grupos().size();
+    }
+
+    private Map<Long, List<Grupo>> teselasDelZoom(int zoom) {
+        long version = indiceGeografico.getVersion();
+        TeselasZoom actual = cache.get(zoom);
+        if (actual == null || actual.version() != version || actual.grupos().size() >= maxTeselasPorZoom) {
+            if (actual != null && actual.version() == version) {
+                log.debug("Mapa: caché del zoom {} llena ({} teselas), se vacía", zoom, actual.grupos().size());
+            }
+            // Las teselas calculadas con una versión anterior se descartan en la próxima consulta
+            actual = new TeselasZoom(version, new ConcurrentHashMap<>());
+            cache.put(zoom, actual);
+        }
+        return actual.grupos();
+    }
+
+    private List<Grupo> calcularTesela(int zoom, long claveTesela) {
+        int x = (int) (claveTesela >>> 32);
+        int y = (int) claveTesela;
+        int zoomCasilla = zoom + BITS_SUBDIVISION;
+
+        Map<Integer, Acumulado> casillas = new HashMap<>();
+        indiceGeografico.recorrer(latitudY(y + 1, zoom), latitudY(y, zoom),
+                longitudX(x, zoom), longitudX(x + 1, zoom), punto -> {
+                    // Un punto en el borde puede caer en el rectángulo de dos teselas; cuenta sólo en la suya
+                    if (teselaX(punto.longitud(), zoom) != x || teselaY(punto.latitud(), zoom) != y) {
+                        return;
+                    }
+                    int cx = teselaX(punto.longitud(), zoomCasilla) - (x << BITS_SUBDIVISION);
+                    int cy = teselaY(punto.latitud(), zoomCasilla) - (y << BITS_SUBDIVISION);
+                    casillas.computeIfAbsent(cx * CASILLAS_POR_LADO + cy, k -> new Acumulado()).agregar(punto);
+                });
+
+        List<Grupo> grupos = new ArrayList<>(casillas.size());
+        casillas.values().forEach(acumulado -> grupos.add(acumulado.grupo()));
+        return List.copyOf(grupos);
+    }
+
+    private static int teselaX(double longitud, int zoom) {
+        int lado = 1 << zoom;
+        int x = (int) Math.floor((longitud + 180) / 360 * lado);
+        return Math.max(0, Math.min(lado - 1, x));
+    }
+
+    private static int teselaY(double latitud, int zoom) {
+        int lado = 1 << zoom;
+        double lat = Math.toRadians(Math.max(-LATITUD_MAXIMA_MERCATOR, Math.min(LATITUD_MAXIMA_MERCATOR, latitud)));
+        double y = (1 - Math.log(Math.tan(lat) + 1 / Math.cos(lat)) / Math.PI) / 2 * lado;
+        return Math.max(0, Math.min(lado - 1, (int) Math.floor(y)));
+    }
+
+    private static double longitudX(int x, int zoom) {
+        return (double) x / (1 << zoom) * 360 - 180;
+    }
+
+    // Las teselas del borde se extienden hasta el polo para no perder servicios fuera de Mercator
+    private static double latitudY(int y, int zoom) {
+        int lado = 1 << zoom;
+        if (y <= 0) {
+            return 90;
+        }
+        if (y >= lado) {
+            return -90;
+        }
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2.0 * y / lado))));
+    }
+
+    private static long clave(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    /**
+     * Grupo de servicios de una casilla. idServicio sólo se informa cuando el grupo tiene un único servicio.
+     *
+     * @param deportes Cantidad de servicios por deporte, de mayor a menor
+     */
+    public record Grupo(double latitud, double longitud, int cantidad, Map<String, Integer> deportes,
+                        String idServicio) {
+    }
+
+    private static final class Acumulado {
+        private int cantidad;
+        private double sumaLatitud;
+        private double sumaSeno;
+        private double sumaCoseno;
+        private String idServicio;
+        private final Map<String, Integer> deportes = new HashMap<>();
+
+        void agregar(IndiceGeografico.Punto punto) {
+            cantidad++;
+            sumaLatitud += punto.latitud();
+            sumaSeno += Math.sin(Math.toRadians(punto.longitud()));
+            sumaCoseno += Math.cos(Math.toRadians(punto.longitud()));
+            idServicio = punto.idServicio();
+            if (punto.deporte() != null) {
+                deportes.merge(punto.deporte(), 1, Integer::sum);
+            }
+        }
+
+        Grupo grupo() {
+            Map<String, Integer> ordenados = new LinkedHashMap<>();
+            deportes.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .forEach(e -> ordenados.put(e.getKey(), e.getValue()));
+
+            // La longitud se promedia como ángulo para que un grupo que cruza el antimeridiano no caiga en el otro lado
+            double longitud = Math.toDegrees(Math.atan2(sumaSeno, sumaCoseno));
+            return new Grupo(sumaLatitud / cantidad, longitud, cantidad, Collections.unmodifiableMap(ordenados),
+                    cantidad == 1 ? idServicio : null);
+        }
+    }
+
+    private record TeselasZoom(long version, Map<Long, List<Grupo>> grupos) {
+    }
+}
@@ -0,0 +1,99 @@
+package com.sm_sport.index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Convierte texto en español a los términos del {@link IndiceTexto}:
+ * minúsculas, sin tildes ni diéresis ("Fútbol" y "futbol" dan lo mismo), sin
+ * palabras vacías y con una raíz ligera que une singular y plural
+ * ("canchas", "cancha" → "canch").
+ * <p>
+ * La raíz es deliberadamente conservadora: quita el plural y la vocal final,
+ * más algunos sufijos frecuentes. Une las variantes habituales de una
+ * búsqueda sin mezclar palabras distintas; lo que no alcanza a unir lo
+ * recupera la búsqueda aproximada por trigramas.
+ */
+final class AnalizadorTexto {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+            "a", "al", "ante", "con", "de", "del", "desde", "e", "el", "en", "entre", "es", "la", "las", "lo",
+            "los", "mas", "muy", "ni", "o", "para", "pero", "por", "que", "se", "sin", "sobre", "su", "sus",
+            "u", "un", "una", "unas", "unos", "y");
+
+    // De más largo a más corto para quitar siempre el sufijo más específico
+    private static final String[] SUFIJOS = {
+            "amientos", "imientos", "amiento", "imiento", "aciones", "uciones", "idades", "acion", "ucion",
+            "mente", "idad", "ista"};
+
+    private AnalizadorTexto() {
+    }
+
+    /**
+     * Términos del texto en orden, con repeticiones
+     */
+    static List<String> terminos(String texto) {
+        List<String> terminos = new ArrayList<>();
+        if (texto == null || texto.isBlank()) {
+            return terminos;
+        }
+        for (String palabra : SEPARADORES.split(normalizar(texto))) {
+            if (!palabra.isEmpty() && !PALABRAS_VACIAS.contains(palabra)) {
+                terminos.add(raiz(palabra));
+            }
+        }
+        return terminos;
+    }
+
+    /**
+     * Minúsculas sin tildes, diéresis ni virgulilla
+     */
+    static String normalizar(String texto) {
+        String descompuesto = Normalizer.normalize(texto.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return MARCAS.matcher(descompuesto).replaceAll("");
+    }
+
+    static String raiz(String palabra) {
+        if (palabra.length() <= 3 || Character.isDigit(palabra.charAt(palabra.length() - 1))) {
+            return palabra;
+        }
+        for (String sufijo : SUFIJOS) {
+            if (palabra.endsWith(sufijo) && palabra.length() - sufijo.length() >= 3) {
+                return palabra.substring(0, palabra.length() - sufijo.length());
+            }
+        }
+
+        String raiz = palabra;
+        if (raiz.endsWith("ces") && raiz.length() > 4) {
+            // lápices → lapiz
+            raiz = raiz.substring(0, raiz.length() - 3) + "z";
+        } else if (raiz.endsWith("s") && raiz.length() > 3) {
+            raiz = raiz.substring(0, raiz.length() - 1);
+        }
+        char ultima = raiz.charAt(raiz.length() - 1);
+        if ((ultima == 'a' || ultima == 'e' || ultima == 'o') && raiz.length() > 3) {
+            raiz = raiz.substring(0, raiz.length() - 1);
+        }
+        return raiz;
+    }
+
+    /**
+     * Trigramas del término con bordes marcados: "canch" → "$ca", "can", "anc", "nch", "ch$"
+     */
+    static Set<String> trigramas(String termino) {
+        String conBordes = "$" + termino + "$";
+        Set<String> trigramas = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= conBordes.length(); i++) {
+            trigramas.add(conBordes.substring(i, i + 3));
+        }
+        return trigramas;
+    }
+}
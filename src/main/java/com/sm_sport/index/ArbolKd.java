@@ -0,0 +1,132 @@
+package com.sm_sport.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * Árbol k-d inmutable para buscar los k servicios más cercanos a un punto.
+ * Cada ubicación se representa por su vector unitario (x, y, z) sobre la
+ * esfera, así que la distancia euclidiana (cuerda) crece igual que la
+ * distancia de círculo máximo y no hay casos especiales en el antimeridiano.
+ * <p>
+ * El árbol es implícito: en el rango [desde, hasta) del arreglo, el nodo es
+ * el elemento del medio, ordenado por el eje de su profundidad. Los filtros
+ * (deporte, precio) se evalúan durante el recorrido, de modo que las ramas se
+ * siguen podando por distancia aunque muchos puntos no cumplan el filtro.
+ */
+final class ArbolKd {
+
+    private static final ArbolKd VACIO = new ArbolKd(new IndiceGeografico.Punto[0]);
+
+    private final IndiceGeografico.Punto[] puntos;
+
+    private ArbolKd(IndiceGeografico.Punto[] puntos) {
+        this.puntos = puntos;
+    }
+
+    static ArbolKd vacio() {
+        return VACIO;
+    }
+
+    static ArbolKd construir(Collection<IndiceGeografico.Punto> ubicaciones) {
+        IndiceGeografico.Punto[] puntos = ubicaciones.toArray(new IndiceGeografico.Punto[0]);
+        ordenar(puntos, 0, puntos.length, 0);
+        return new ArbolKd(puntos);
+    }
+
+    int tamano() {
+        return puntos.length;
+    }
+
+    /**
+     * Los k puntos más cercanos que cumplen el filtro, del más cercano al más lejano
+     */
+    List<IndiceGeografico.Cercano> masCercanos(double latitud, double longitud, int k,
+                                               Predicate<IndiceGeografico.Punto> filtro) {
+        if (k <= 0 || puntos.length == 0) {
+            return List.of();
+        }
+        double[] consulta = IndiceGeografico.Punto.vector(latitud, longitud);
+
+        // Montículo de máximos: en la cima está el peor de los k mejores encontrados
+        PriorityQueue<Candidato> mejores = new PriorityQueue<>(k + 1,
+                Comparator.comparingDouble(Candidato::cuerda2).reversed());
+        buscar(0, puntos.length, 0, consulta, k, filtro, mejores);
+
+        List<Candidato> ordenados = new ArrayList<>(mejores);
+        ordenados.sort(Comparator.comparingDouble(Candidato::cuerda2));
+        List<IndiceGeografico.Cercano> resultado = new ArrayList<>(ordenados.size());
+        for (Candidato candidato : ordenados) {
+            resultado.add(new IndiceGeografico.Cercano(candidato.punto().idServicio(),
+                    kilometros(candidato.cuerda2())));
+        }
+        return resultado;
+    }
+
+    /**
+     * Convierte el cuadrado de la cuerda entre dos vectores unitarios a kilómetros sobre la esfera
+     */
+    static double kilometros(double cuerda2) {
+        double cuerda = Math.sqrt(cuerda2);
+        return 2 * IndiceGeografico.RADIO_TIERRA_KM * Math.asin(Math.min(1, cuerda / 2));
+    }
+
+    private void buscar(int desde, int hasta, int eje, double[] consulta, int k,
+                        Predicate<IndiceGeografico.Punto> filtro, PriorityQueue<Candidato> mejores) {
+        if (desde >= hasta) {
+            return;
+        }
+        int medio = (desde + hasta) >>> 1;
+        IndiceGeografico.Punto punto = puntos[medio];
+
+        if (filtro.test(punto)) {
+            double cuerda2 = distancia2(punto, consulta);
+            if (mejores.size() < k) {
+                mejores.add(new Candidato(punto, cuerda2));
+            } else if (cuerda2 < mejores.peek().cuerda2()) {
+                mejores.poll();
+                mejores.add(new Candidato(punto, cuerda2));
+            }
+        }
+
+        double diferencia = consulta[eje] - punto.coordenada(eje);
+        int siguienteEje = (eje + 1) % 3;
+        if (diferencia < 0) {
+            buscar(desde, medio, siguienteEje, consulta, k, filtro, mejores);
+            if (mejores.size() < k || diferencia * diferencia < mejores.peek().cuerda2()) {
+                buscar(medio + 1, hasta, siguienteEje, consulta, k, filtro, mejores);
+            }
+        } else {
+            buscar(medio + 1, hasta, siguienteEje, consulta, k, filtro, mejores);
+            if (mejores.size() < k || diferencia * diferencia < mejores.peek().cuerda2()) {
+                buscar(desde, medio, siguienteEje, consulta, k, filtro, mejores);
+            }
+        }
+    }
+
+    private static void ordenar(IndiceGeografico.Punto[] puntos, int desde, int hasta, int eje) {
+        if (hasta - desde <= 1) {
+            return;
+        }
+        Arrays.sort(puntos, desde, hasta, Comparator.comparingDouble(p -> p.coordenada(eje)));
+        int medio = (desde + hasta) >>> 1;
+        int siguienteEje = (eje + 1) % 3;
+        ordenar(puntos, desde, medio, siguienteEje);
+        ordenar(puntos, medio + 1, hasta, siguienteEje);
+    }
+
+    private static double distancia2(IndiceGeografico.Punto punto, double[] consulta) {
+        double dx = punto.x() - consulta[0];
+        double dy = punto.y() - consulta[1];
+        double dz = punto.z() - consulta[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private record Candidato(IndiceGeografico.Punto punto, double cuerda2) {
+    }
+}
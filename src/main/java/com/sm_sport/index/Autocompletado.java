@@ -0,0 +1,375 @@
+package com.sm_sport.index;
+
+import com.sm_sport.model.entity.Servicio;
+import com.sm_sport.model.entity.UbicacionServicio;
+import com.sm_sport.model.enums.EstadoServicio;
+import com.sm_sport.repository.ServicioRepository;
+import com.sm_sport.util.Transacciones;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sugerencias para la barra de búsqueda a partir de lo que el usuario lleva
+ * escrito: nombres de servicios, deportes y ciudades.
+ * <p>
+ * Cada tipo tiene su propio trie sobre el texto normalizado (minúsculas y sin
+ * tildes). Cada nodo guarda ya calculadas las mejores sugerencias de todo su
+ * subárbol, así que responder cuesta lo que mide el prefijo, sin recorrer el
+ * subárbol ni consultar la base de datos. Un servicio se encuentra también
+ * por cualquier palabra de su nombre ("tenis" sugiere "Club de Tenis").
+ * <p>
+ * Los servicios pesan según su calificación y cantidad de reseñas; los
+ * deportes y las ciudades, según cuántos servicios publicados tienen. Al
+ * registrar o retirar un servicio sólo se recalculan los nodos de los caminos
+ * afectados. Los cambios se aplican después del commit y todo se reconstruye
+ * periódicamente desde la base de datos.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class Autocompletado {
+
+    public static final int MAX_SUGERENCIAS = 10;
+
+    private final ServicioRepository servicioRepository;
+
+    private final Object escritura = new Object();
+    private volatile Contenido contenido = new Contenido();
+    private long version;
+
+    /**
+     * Carga las sugerencias de todos los servicios publicados
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.autocompletado.reconstruccion:0 */30 * * * *}")
+    public void reconstruir() {
+        long versionInicial;
+        synchronized (escritura) {
+            versionInicial = version;
+        }
+
+        // En la carga completa los mejores de cada nodo se calculan una sola vez al final
+        Contenido nuevo = new Contenido();
+        nuevo.diferirRecalculo(true);
+        for (ServicioRepository.SugerenciaServicio s : servicioRepository.findSugerenciasPublicadas()) {
+            nuevo.agregar(new Entrada(s.getIdServicio(), s.getNombre(), s.getDeporte(), s.getCiudad(),
+                    peso(s.getCalificacionPromedio(), s.getTotalResenas())));
+        }
+        nuevo.diferirRecalculo(false);
+
+        synchronized (escritura) {
+            // Si hubo cambios durante la lectura se conserva lo actual hasta la próxima vuelta
+            if (version != versionInicial) {
+                log.debug("Autocompletado: reconstrucción descartada por cambios concurrentes");
+                return;
+            }
+            contenido = nuevo;
+        }
+        log.info("Autocompletado reconstruido: {} servicios", nuevo.entradas.size());
+    }
+
+    /**
+     * Agrega o actualiza un servicio; si no está publicado, lo retira (se aplica tras el commit)
+     */
+    public void registrar(Servicio servicio, UbicacionServicio ubicacion) {
+        if (servicio.getEstado() != EstadoServicio.PUBLICADO) {
+            retirar(servicio.getIdServicio());
+            return;
+        }
+        Entrada entrada = new Entrada(servicio.getIdServicio(), servicio.getNombre(), servicio.getDeporte(),
+                ubicacion != null ? ubicacion.getCiudad() : null,
+                peso(servicio.getCalificacionPromedio(), servicio.getTotalResenas()));
+        Transacciones.despuesDelCommit(() -> {
+            synchronized (escritura) {
+                version++;
+                contenido.quitar(entrada.idServicio());
+                contenido.agregar(entrada);
+            }
+        });
+    }
+
+    /**
+     * Saca un servicio de las sugerencias (se aplica tras el commit)
+     */
+    public void retirar(String idServicio) {
+        Transacciones.despuesDelCommit(() -> {
+            synchronized (escritura) {
+                version++;
+                contenido.quitar(idServicio);
+            }
+        });
+    }
+
+    /**
+     * Mejores sugerencias de cada tipo para el prefijo
+     *
+     * @param cantidad Sugerencias por tipo, como máximo {@link #MAX_SUGERENCIAS}
+     */
+    public Sugerencias sugerir(String prefijo, int cantidad) {
+        String clave = AnalizadorTexto.normalizar(prefijo).trim().replaceAll("\\s+", " ");
+        Contenido vista = contenido;
+        if (clave.isEmpty()) {
+            return new Sugerencias(List.of(), List.of(), List.of());
+        }
+        return new Sugerencias(vista.servicios.buscar(clave, cantidad),
+                vista.deportes.buscar(clave, cantidad),
+                vista.ciudades.buscar(clave, cantidad));
+    }
+
+    // Calificación de 0 a 5 más un aporte que crece lento con la cantidad de reseñas
+    static double peso(BigDecimal calificacion, Integer totalResenas) {
+        double estrellas = calificacion != null ? calificacion.doubleValue() : 0;
+        int resenas = totalResenas != null ? totalResenas : 0;
+        return estrellas + Math.log1p(resenas);
+    }
+
+    /**
+     * Texto a mostrar; idServicio sólo se informa en las sugerencias de servicios
+     */
+    public record Sugerencia(String texto, String idServicio, double peso) {
+    }
+
+    public record Sugerencias(List<Sugerencia> servicios, List<Sugerencia> deportes, List<Sugerencia> ciudades) {
+    }
+
+    private record Entrada(String idServicio, String nombre, String deporte, String ciudad, double peso) {
+    }
+
+    /**
+     * Los tres tries y lo necesario para deshacer un servicio: su entrada y
+     * cuántos servicios tiene cada deporte y ciudad. Se modifica con el
+     * bloqueo de escritura tomado.
+     */
+    private static final class Contenido {
+        private final Map<String, Entrada> entradas = new HashMap<>();
+        private final Map<String, Conteo> porDeporte = new HashMap<>();
+        private final Map<String, Conteo> porCiudad = new HashMap<>();
+        private final Trie servicios = new Trie();
+        private final Trie deportes = new Trie();
+        private final Trie ciudades = new Trie();
+
+        void diferirRecalculo(boolean diferir) {
+            servicios.diferirRecalculo(diferir);
+            deportes.diferirRecalculo(diferir);
+            ciudades.diferirRecalculo(diferir);
+        }
+
+        void agregar(Entrada entrada) {
+            if (entrada.nombre() == null || entrada.nombre().isBlank()) {
+                return;
+            }
+            entradas.put(entrada.idServicio(), entrada);
+            Sugerencia sugerencia = new Sugerencia(entrada.nombre(), entrada.idServicio(), entrada.peso());
+            for (String clave : clavesDelNombre(entrada.nombre())) {
+                servicios.poner(clave, entrada.idServicio(), sugerencia);
+            }
+            contar(porDeporte, deportes, entrada.deporte(), 1);
+            contar(porCiudad, ciudades, entrada.ciudad(), 1);
+        }
+
+        void quitar(String idServicio) {
+            Entrada entrada = entradas.remove(idServicio);
+            if (entrada == null) {
+                return;
+            }
+            for (String clave : clavesDelNombre(entrada.nombre())) {
+                servicios.quitar(clave, idServicio);
+            }
+            contar(porDeporte, deportes, entrada.deporte(), -1);
+            contar(porCiudad, ciudades, entrada.ciudad(), -1);
+        }
+
+        // El deporte o la ciudad pesa según cuántos servicios publicados lo tienen
+        private static void contar(Map<String, Conteo> conteos, Trie trie, String valor, int delta) {
+            if (valor == null || valor.isBlank()) {
+                return;
+            }
+            String clave = AnalizadorTexto.normalizar(valor).trim();
+            Conteo conteo = conteos.computeIfAbsent(clave, k -> new Conteo(valor.trim()));
+            conteo.servicios += delta;
+            if (conteo.servicios <= 0) {
+                conteos.remove(clave);
+                trie.quitar(clave, clave);
+            } else {
+                trie.poner(clave, clave, new Sugerencia(conteo.texto, null, conteo.servicios));
+            }
+        }
+
+        // El nombre completo y el resto del nombre desde cada palabra: "club de tenis" → "de tenis", "tenis"
+        private static Set<String> clavesDelNombre(String nombre) {
+            String normalizado = AnalizadorTexto.normalizar(nombre).trim().replaceAll("\\s+", " ");
+            Set<String> claves = new LinkedHashSet<>();
+            claves.add(normalizado);
+            for (int i = normalizado.indexOf(' '); i >= 0; i = normalizado.indexOf(' ', i + 1)) {
+                claves.add(normalizado.substring(i + 1));
+            }
+            return claves;
+        }
+    }
+
+    private static final class Conteo {
+        private final String texto;
+        private int servicios;
+
+        Conteo(String texto) {
+            this.texto = texto;
+        }
+    }
+
+    /**
+     * Trie por carácter. Cada nodo tiene las entradas que terminan en él y las
+     * {@link #MAX_SUGERENCIAS} mejores de su subárbol. Las claves se cortan a
+     * {@link #MAX_LONGITUD_CLAVE} caracteres: nadie escribe más antes de
+     * elegir una sugerencia, y así el tamaño del trie no depende del largo de
+     * los nombres.
+     * <p>
+     * Las escrituras llegan con el bloqueo tomado. Los hijos y los mejores de
+     * cada nodo se reemplazan enteros (copia en escritura), así que las
+     * lecturas no se bloquean y nunca ven un nodo a medio cambiar.
+     */
+    private static final class Trie {
+        private static final int MAX_LONGITUD_CLAVE = 32;
+        private static final Comparator<Sugerencia> POR_PESO = Comparator.comparingDouble(Sugerencia::peso)
+                .reversed()
+                .thenComparing(Sugerencia::texto);
+
+        private final Nodo raiz = new Nodo();
+        private boolean diferido;
+
+        // Al dejar de diferir se recalcula todo el trie de las hojas a la raíz
+        void diferirRecalculo(boolean diferir) {
+            diferido = diferir;
+            if (!diferir) {
+                recalcularSubarbol(raiz);
+            }
+        }
+
+        void poner(String clave, String id, Sugerencia sugerencia) {
+            List<Nodo> camino = camino(recortar(clave), true);
+            Nodo ultimo = camino.get(camino.size() - 1);
+            if (ultimo.propias == null) {
+                ultimo.propias = new HashMap<>(2);
+            }
+            ultimo.propias.put(id, sugerencia);
+            if (!diferido) {
+                recalcular(camino);
+            }
+        }
+
+        void quitar(String clave, String id) {
+            String recortada = recortar(clave);
+            List<Nodo> camino = camino(recortada, false);
+            Nodo ultimo = camino.get(camino.size() - 1);
+            if (camino.size() <= recortada.length() || ultimo.propias == null || ultimo.propias.remove(id) == null) {
+                return;
+            }
+            // Se podan los nodos que quedaron vacíos
+            for (int i = camino.size() - 1; i > 0; i--) {
+                Nodo nodo = camino.get(i);
+                if ((nodo.propias != null && !nodo.propias.isEmpty()) || !nodo.hijos.isEmpty()) {
+                    break;
+                }
+                camino.get(i - 1).quitarHijo(recortada.charAt(i - 1));
+            }
+            recalcular(camino);
+        }
+
+        List<Sugerencia> buscar(String prefijo, int cantidad) {
+            String recortado = recortar(prefijo);
+            Nodo nodo = raiz;
+            for (int i = 0; i < recortado.length() && nodo != null; i++) {
+                nodo = nodo.hijos.get(recortado.charAt(i));
+            }
+            if (nodo == null) {
+                return List.of();
+            }
+            Sugerencia[] mejores = nodo.mejores;
+            return List.of(Arrays.copyOf(mejores, Math.min(cantidad, mejores.length)));
+        }
+
+        private List<Nodo> camino(String clave, boolean crear) {
+            List<Nodo> camino = new ArrayList<>(clave.length() + 1);
+            Nodo nodo = raiz;
+            camino.add(nodo);
+            for (int i = 0; i < clave.length(); i++) {
+                Nodo hijo = nodo.hijos.get(clave.charAt(i));
+                if (hijo == null && crear) {
+                    hijo = nodo.agregarHijo(clave.charAt(i));
+                }
+                if (hijo == null) {
+                    break;
+                }
+                camino.add(hijo);
+                nodo = hijo;
+            }
+            return camino;
+        }
+
+        // De la hoja a la raíz, sólo los nodos del camino
+        private static void recalcular(List<Nodo> camino) {
+            for (int i = camino.size() - 1; i >= 0; i--) {
+                recalcularNodo(camino.get(i));
+            }
+        }
+
+        private static void recalcularSubarbol(Nodo nodo) {
+            nodo.hijos.values().forEach(Trie::recalcularSubarbol);
+            recalcularNodo(nodo);
+        }
+
+        // Los mejores de un nodo salen de sus propias entradas y de los mejores de sus hijos
+        private static void recalcularNodo(Nodo nodo) {
+            List<Sugerencia> candidatas = new ArrayList<>();
+            if (nodo.propias != null) {
+                candidatas.addAll(nodo.propias.values());
+            }
+            for (Nodo hijo : nodo.hijos.values()) {
+                candidatas.addAll(Arrays.asList(hijo.mejores));
+            }
+            // Un servicio puede llegar por varias claves (el nombre y cada palabra); se deja una vez
+            nodo.mejores = candidatas.stream()
+                    .sorted(POR_PESO)
+                    .distinct()
+                    .limit(MAX_SUGERENCIAS)
+                    .toArray(Sugerencia[]::new);
+        }
+
+        private static String recortar(String clave) {
+            return clave.length() > MAX_LONGITUD_CLAVE ? clave.substring(0, MAX_LONGITUD_CLAVE) : clave;
+        }
+    }
+
+    private static final class Nodo {
+        private volatile Map<Character, Nodo> hijos = Map.of();
+        private Map<String, Sugerencia> propias;
+        private volatile Sugerencia[] mejores = new Sugerencia[0];
+
+        Nodo agregarHijo(char caracter) {
+            Nodo hijo = new Nodo();
+            Map<Character, Nodo> nuevos = new HashMap<>(hijos);
+            nuevos.put(caracter, hijo);
+            hijos = Map.copyOf(nuevos);
+            return hijo;
+        }
+
+        void quitarHijo(char caracter) {
+            Map<Character, Nodo> nuevos = new HashMap<>(hijos);
+            nuevos.remove(caracter);
+            hijos = Map.copyOf(nuevos);
+        }
+    }
+}
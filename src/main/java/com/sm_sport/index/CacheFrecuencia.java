@@ -0,0 +1,259 @@
+package com.sm_sport.index;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Caché acotada por peso con admisión por frecuencia (W-TinyLFU simplificado).
+ * <p>
+ * Las entradas nuevas entran a una ventana LRU pequeña (1 % del peso); al
+ * salir de ella compiten con la entrada menos usada de la zona principal y
+ * sólo se quedan si se pidieron más veces, según un contador aproximado
+ * (count-min de 4 funciones sobre contadores de 4 bits) que se reduce a la
+ * mitad periódicamente para olvidar la popularidad antigua. Así, un
+ * recorrido por servicios que se consultan una sola vez no desplaza a los
+ * servicios populares.
+ * <p>
+ * Cada invalidación incrementa la versión: un valor cargado antes de una
+ * invalidación se devuelve al llamador pero no se guarda, para no volver a
+ * poner en la caché un dato que ya cambió.
+ */
+final class CacheFrecuencia<V> {
+
+    private static final int PROFUNDIDAD_CONTADOR = 4;
+    private static final int FRECUENCIA_MAXIMA = 15;
+    private static final int[] SEMILLAS = {0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F};
+    private static final long MITAD = 0x7777_7777_7777_7777L;
+
+    private final IntSupplier capacidad;
+    private final Supplier<Duration> vigencia;
+    private final ToIntFunction<V> peso;
+    private final LongSupplier reloj;
+
+    private final LinkedHashMap<String, Entrada<V>> ventana = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Entrada<V>> principal = new LinkedHashMap<>(256, 0.75f, true);
+    private long pesoVentana;
+    private long pesoPrincipal;
+    private long version;
+
+    // 16 contadores de 4 bits por posición; se crea en el primer acceso, cuando ya se conoce la capacidad
+    private long[] contadores;
+    private int accesos;
+
+    private long aciertos;
+    private long fallos;
+    private long cargas;
+    private long expulsiones;
+    private long pesoExpulsado;
+
+    /**
+     * @param capacidad Peso máximo de todas las entradas
+     * @param peso      Peso de un valor, al menos 1
+     */
+    CacheFrecuencia(IntSupplier capacidad, Supplier<Duration> vigencia, ToIntFunction<V> peso) {
+        this(capacidad, vigencia, peso, System::nanoTime);
+    }
+
+    CacheFrecuencia(IntSupplier capacidad, Supplier<Duration> vigencia, ToIntFunction<V> peso, LongSupplier reloj) {
+        this.capacidad = capacidad;
+        this.vigencia = vigencia;
+        this.peso = peso;
+        this.reloj = reloj;
+    }
+
+    /**
+     * Valor guardado para la clave o, si no está o venció, el que devuelve la carga
+     */
+    V obtener(String clave, Supplier<V> carga) {
+        V valor = buscar(clave);
+        return valor != null ? valor : cargar(clave, carga);
+    }
+
+    /**
+     * Valor guardado para la clave, o null si no está o venció. Cuenta el
+     * acceso como acierto o fallo.
+     */
+    synchronized V buscar(String clave) {
+        registrarAcceso(clave);
+        Entrada<V> entrada = vigente(clave);
+        if (entrada != null) {
+            aciertos++;
+            return entrada.valor();
+        }
+        fallos++;
+        return null;
+    }
+
+    /**
+     * Ejecuta la carga y guarda su valor si no hubo invalidaciones mientras
+     * corría. La versión se toma aquí, al empezar la carga: quien comparte una
+     * carga ajena debe recibir el valor sin llamar a este método.
+     */
+    V cargar(String clave, Supplier<V> carga) {
+        long versionInicial;
+        synchronized (this) {
+            versionInicial = version;
+        }
+
+        // La carga se hace fuera del bloqueo para no serializar las consultas a la base de datos
+        V valor = carga.get();
+        synchronized (this) {
+            if (valor != null && version == versionInicial) {
+                guardar(clave, valor);
+            }
+        }
+        return valor;
+    }
+
+    synchronized void invalidar(String clave) {
+        version++;
+        quitar(clave);
+    }
+
+    synchronized long cantidad() {
+        return ventana.size() + principal.size();
+    }
+
+    synchronized long pesoTotal() {
+        return pesoVentana + pesoPrincipal;
+    }
+
+    synchronized long aciertos() {
+        return aciertos;
+    }
+
+    synchronized long fallos() {
+        return fallos;
+    }
+
+    synchronized long cargas() {
+        return cargas;
+    }
+
+    synchronized long expulsiones() {
+        return expulsiones;
+    }
+
+    synchronized long pesoExpulsado() {
+        return pesoExpulsado;
+    }
+
+    synchronized boolean contiene(String clave) {
+        return ventana.containsKey(clave) || principal.containsKey(clave);
+    }
+
+    private Entrada<V> vigente(String clave) {
+        Entrada<V> entrada = ventana.get(clave);
+        if (entrada == null) {
+            entrada = principal.get(clave);
+        }
+        if (entrada != null && reloj.getAsLong() - entrada.expiracion() >= 0) {
+            quitar(clave);
+            return null;
+        }
+        return entrada;
+    }
+
+    private void guardar(String clave, V valor) {
+        int pesoValor = Math.max(1, peso.applyAsInt(valor));
+        int maximo = capacidad.getAsInt();
+        if (pesoValor > maximo) {
+            return;
+        }
+        quitar(clave);
+        cargas++;
+        ventana.put(clave, new Entrada<>(valor, pesoValor, reloj.getAsLong() + vigencia.get().toNanos()));
+        pesoVentana += pesoValor;
+
+        long maximoVentana = Math.max(1, maximo / 100);
+        long maximoPrincipal = maximo - maximoVentana;
+        while (pesoVentana > maximoVentana && !ventana.isEmpty()) {
+            // La entrada que sale de la ventana pasa a la zona principal y compite por quedarse
+            Map.Entry<String, Entrada<V>> candidato = ventana.entrySet().iterator().next();
+            ventana.remove(candidato.getKey());
+            pesoVentana -= candidato.getValue().peso();
+            principal.put(candidato.getKey(), candidato.getValue());
+            pesoPrincipal += candidato.getValue().peso();
+            admitir(candidato.getKey(), maximoPrincipal);
+        }
+    }
+
+    // Expulsa de la zona principal hasta respetar su peso; entre el candidato y la víctima queda el más pedido
+    private void admitir(String candidato, long maximoPrincipal) {
+        int frecuenciaCandidato = frecuencia(candidato);
+        while (pesoPrincipal > maximoPrincipal) {
+            Iterator<Map.Entry<String, Entrada<V>>> menosUsadas = principal.entrySet().iterator();
+            Map.Entry<String, Entrada<V>> victima = menosUsadas.next();
+            if (!victima.getKey().equals(candidato) && frecuenciaCandidato <= frecuencia(victima.getKey())) {
+                expulsar(candidato);
+                return;
+            }
+            expulsar(victima.getKey());
+        }
+    }
+
+    private void expulsar(String clave) {
+        Entrada<V> entrada = principal.remove(clave);
+        if (entrada != null) {
+            pesoPrincipal -= entrada.peso();
+            expulsiones++;
+            pesoExpulsado += entrada.peso();
+        }
+    }
+
+    private void quitar(String clave) {
+        Entrada<V> entrada = ventana.remove(clave);
+        if (entrada != null) {
+            pesoVentana -= entrada.peso();
+        }
+        entrada = principal.remove(clave);
+        if (entrada != null) {
+            pesoPrincipal -= entrada.peso();
+        }
+    }
+
+    private void registrarAcceso(String clave) {
+        if (contadores == null) {
+            contadores = new long[Integer.highestOneBit(Math.max(64, capacidad.getAsInt() - 1)) << 1];
+        }
+        for (int funcion = 0; funcion < PROFUNDIDAD_CONTADOR; funcion++) {
+            int hash = hash(clave, funcion);
+            int posicion = hash & (contadores.length - 1);
+            int desplazamiento = (hash >>> 26) & 0x3C;
+            if (((contadores[posicion] >>> desplazamiento) & 0xF) < FRECUENCIA_MAXIMA) {
+                contadores[posicion] += 1L << desplazamiento;
+            }
+        }
+        // Tras 10 accesos por posición se reducen todos los contadores a la mitad
+        if (++accesos >= 10 * contadores.length) {
+            accesos = 0;
+            for (int i = 0; i < contadores.length; i++) {
+                contadores[i] = (contadores[i] >>> 1) & MITAD;
+            }
+        }
+    }
+
+    private int frecuencia(String clave) {
+        int minimo = FRECUENCIA_MAXIMA;
+        for (int funcion = 0; funcion < PROFUNDIDAD_CONTADOR; funcion++) {
+            int hash = hash(clave, funcion);
+            int contador = (int) ((contadores[hash & (contadores.length - 1)] >>> ((hash >>> 26) & 0x3C)) & 0xF);
+            minimo = Math.min(minimo, contador);
+        }
+        return minimo;
+    }
+
+    private static int hash(String clave, int funcion) {
+        int hash = (clave.hashCode() + funcion) * SEMILLAS[funcion];
+        return hash ^ (hash >>> 15);
+    }
+
+    private record Entrada<V>(V valor, int peso, long expiracion) {
+    }
+}
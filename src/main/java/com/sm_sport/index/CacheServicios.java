@@ -0,0 +1,160 @@
+package com.sm_sport.index;
+
+import com.sm_sport.dto.response.ServicioDetalleResponse;
+import com.sm_sport.dto.response.ServicioResponse;
+import com.sm_sport.util.Transacciones;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Caché de lectura de las respuestas de un servicio ({@link ServicioResponse})
+ * y de su detalle ({@link ServicioDetalleResponse}), para no consultar la base
+ * de datos ni recorrer las asociaciones del servicio en cada visita a los
+ * servicios más vistos.
+ * <p>
+ * Cada caché está acotada por peso con {@link CacheFrecuencia}: un resumen
+ * pesa 1 y un detalle, 1 más sus disponibilidades y reseñas. Las escrituras
+ * que cambian la respuesta invalidan el servicio tras el commit; la vigencia
+ * acota los cambios que no pasan por el servicio, como los datos del
+ * proveedor. Las visitas simultáneas a un servicio que no está en caché
+ * comparten una sola carga con {@link CargasCompartidas}, y sólo quien la
+ * ejecuta la guarda. Los aciertos, fallos y expulsiones se publican en las métricas
+ * cache.* de actuator con las etiquetas cache=servicios.resumen y
+ * cache=servicios.detalle.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheServicios implements MeterBinder {
+
+    private final CargasCompartidas cargasCompartidas;
+
+    @Value("${app.servicios.cache.capacidad:20000}")
+    private int capacidad = 20_000;
+
+    @Value("${app.servicios.cache.vigencia:10m}")
+    private Duration vigencia = Duration.ofMinutes(10);
+
+    private final CacheFrecuencia<ServicioResponse> resumenes =
+            new CacheFrecuencia<>(() -> capacidad, () -> vigencia, respuesta -> 1);
+
+    private final CacheFrecuencia<ServicioDetalleResponse> detalles =
+            new CacheFrecuencia<>(() -> capacidad, () -> vigencia, CacheServicios::peso);
+
+    /**
+     * Respuesta del servicio desde la caché o, si no está, la que devuelve la carga
+     */
+    public ServicioResponse resumen(String idServicio, Supplier<ServicioResponse> carga) {
+        ServicioResponse respuesta = resumenes.buscar(idServicio);
+        if (respuesta != null) {
+            return respuesta;
+        }
+        return cargasCompartidas.cargar("servicio.resumen", idServicio, () -> resumenes.cargar(idServicio, carga));
+    }
+
+    /**
+     * Detalle del servicio desde la caché o, si no está, el que devuelve la carga
+     */
+    public ServicioDetalleResponse detalle(String idServicio, Supplier<ServicioDetalleResponse> carga) {
+        ServicioDetalleResponse detalle = detalles.buscar(idServicio);
+        if (detalle != null) {
+            return detalle;
+        }
+        return cargasCompartidas.cargar("servicio.detalle", idServicio, () -> detalles.cargar(idServicio, carga));
+    }
+
+    /**
+     * Descarta el resumen y el detalle del servicio (se aplica tras el commit)
+     */
+    public void invalidar(String idServicio) {
+        Transacciones.despuesDelCommit(() -> {
+            resumenes.invalidar(idServicio);
+            detalles.invalidar(idServicio);
+            log.debug("Caché de servicios: {} invalidado", idServicio);
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new Metricas(resumenes, "servicios.resumen").bindTo(registry);
+        new Metricas(detalles, "servicios.detalle").bindTo(registry);
+    }
+
+    private static int peso(ServicioDetalleResponse detalle) {
+        int peso = 1;
+        if (detalle.getDisponibilidades() != null) {
+            peso += detalle.getDisponibilidades().size();
+        }
+        if (detalle.getResenas() != null) {
+            peso += detalle.getResenas().size();
+        }
+        return peso;
+    }
+
+    /**
+     * Métricas estándar de caché de Micrometer (cache.gets, cache.puts,
+     * cache.evictions, cache.size), más el peso ocupado y la tasa de aciertos
+     */
+    private static final class Metricas extends CacheMeterBinder<CacheFrecuencia<?>> {
+
+        Metricas(CacheFrecuencia<?> cache, String nombre) {
+            super(cache, nombre, Tags.empty());
+        }
+
+        @Override
+        protected Long size() {
+            return getCache().cantidad();
+        }
+
+        @Override
+        protected long hitCount() {
+            return getCache().aciertos();
+        }
+
+        @Override
+        protected Long missCount() {
+            return getCache().fallos();
+        }
+
+        @Override
+        protected Long evictionCount() {
+            return getCache().expulsiones();
+        }
+
+        @Override
+        protected long putCount() {
+            return getCache().cargas();
+        }
+
+        @Override
+        protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+            Gauge.builder("cache.weight", getCache(), CacheFrecuencia::pesoTotal)
+                    .tags(getTagsWithCacheName())
+                    .description("Peso de las entradas guardadas")
+                    .register(registry);
+            FunctionCounter.builder("cache.eviction.weight", getCache(), CacheFrecuencia::pesoExpulsado)
+                    .tags(getTagsWithCacheName())
+                    .description("Peso total de las entradas expulsadas")
+                    .register(registry);
+            Gauge.builder("cache.hit.ratio", getCache(), cache -> {
+                        long aciertos = cache.aciertos();
+                        long total = aciertos + cache.fallos();
+                        return total == 0 ? 0 : (double) aciertos / total;
+                    })
+                    .tags(getTagsWithCacheName())
+                    .description("Proporción de lecturas respondidas desde la caché")
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.sm_sport.index;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Une las lecturas concurrentes de un mismo dato en una sola carga.
+ * <p>
+ * La primera llamada para una clave ejecuta la carga; las que llegan
+ * mientras sigue en curso esperan su resultado en lugar de repetir la
+ * consulta, así que cien visitas simultáneas a un servicio sin caché hacen
+ * una sola lectura a la base de datos. Si la carga falla, todas reciben la
+ * misma excepción. Terminada la carga la clave se olvida: no es una caché.
+ * <p>
+ * Sólo debe usarse con cargas de lectura que devuelvan objetos inmutables o
+ * DTOs, nunca entidades, porque el resultado se comparte entre hilos y
+ * transacciones. Las cargas ejecutadas y compartidas se publican en la
+ * métrica cargas.compartidas, con las etiquetas grupo y resultado.
+ */
+@Component
+@RequiredArgsConstructor
+public class CargasCompartidas {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Clave, CompletableFuture<Object>> enCurso = new ConcurrentHashMap<>();
+
+    /**
+     * Resultado de la carga en curso para la clave, o de una nueva si no hay ninguna
+     *
+     * @param grupo Tipo de dato cargado; separa las claves y etiqueta las métricas
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T cargar(String grupo, Object clave, Supplier<T> carga) {
+        Clave claveGrupo = new Clave(grupo, clave);
+        CompletableFuture<Object> propia = new CompletableFuture<>();
+        CompletableFuture<Object> existente = enCurso.putIfAbsent(claveGrupo, propia);
+        if (existente != null) {
+            meterRegistry.counter("cargas.compartidas", "grupo", grupo, "resultado", "compartida").increment();
+            return (T) esperar(existente);
+        }
+
+        meterRegistry.counter("cargas.compartidas", "grupo", grupo, "resultado", "ejecutada").increment();
+        try {
+            T valor = carga.get();
+            propia.complete(valor);
+            return valor;
+        } catch (RuntimeException | Error e) {
+            propia.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(claveGrupo, propia);
+        }
+    }
+
+    int enCurso() {
+        return enCurso.size();
+    }
+
+    // Propaga la excepción original de la carga para que el llamador la trate igual que si la hubiera ejecutado
+    private static Object esperar(CompletableFuture<Object> carga) {
+        try {
+            return carga.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private record Clave(String grupo, Object clave) {
+    }
+}
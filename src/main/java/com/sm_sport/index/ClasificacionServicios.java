@@ -0,0 +1,259 @@
+package com.sm_sport.index;
+
+import com.sm_sport.model.entity.Servicio;
+import com.sm_sport.model.entity.UbicacionServicio;
+import com.sm_sport.model.enums.EstadoServicio;
+import com.sm_sport.repository.ServicioRepository;
+import com.sm_sport.util.Transacciones;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Clasificación en memoria de los servicios publicados, por deporte, por
+ * ciudad, por ambos y en general ("mejores canchas de fútbol en Santa Marta").
+ * <p>
+ * El puntaje es el promedio bayesiano de la calificación: cada servicio suma
+ * 10 reseñas virtuales con la calificación media de todos los servicios, así
+ * que una sola reseña de 5 estrellas no supera a cuatrocientas de 4,8. Ese
+ * promedio se multiplica por un factor de recencia según la fecha de la
+ * última reseña publicada, que resta hasta un 15 % del puntaje cuando la
+ * última reseña es antigua (vida media de 180 días).
+ * <p>
+ * Cada tabla se mantiene ordenada por puntaje, de modo que leer los k
+ * primeros cuesta O(k). Al cambiar la calificación o los datos de un servicio
+ * sólo se reubica ese servicio (tras el commit); la clasificación completa y
+ * la calificación media se recalculan periódicamente desde la base de datos.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ClasificacionServicios {
+
+    public static final int MAX_POSICIONES = 50;
+
+    private static final double RESENAS_PREVIAS = 10;
+    private static final double CALIFICACION_PREVIA = 3.5;
+    private static final double PESO_RECENCIA = 0.15;
+    private static final double VIDA_MEDIA_DIAS = 180;
+    private static final String TODOS = "*";
+
+    private final ServicioRepository servicioRepository;
+
+    private final Object escritura = new Object();
+    private volatile Contenido contenido = new Contenido(CALIFICACION_PREVIA);
+    private long version;
+
+    /**
+     * Recalcula la calificación media y el puntaje de todos los servicios publicados
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.clasificacion.reconstruccion:0 */30 * * * *}")
+    public void reconstruir() {
+        long versionInicial;
+        synchronized (escritura) {
+            versionInicial = version;
+        }
+
+        List<ServicioRepository.ClasificacionServicio> servicios = servicioRepository.findClasificacionesPublicadas();
+        Contenido nuevo = new Contenido(calificacionMedia(servicios));
+        LocalDateTime ahora = LocalDateTime.now();
+        for (ServicioRepository.ClasificacionServicio s : servicios) {
+            nuevo.agregar(s.getIdServicio(), s.getDeporte(), s.getCiudad(), s.getCalificacionPromedio(),
+                    s.getTotalResenas(), s.getUltimaResena(), ahora);
+        }
+
+        synchronized (escritura) {
+            // Si hubo cambios durante la lectura se conserva lo actual hasta la próxima vuelta
+            if (version != versionInicial) {
+                log.debug("Clasificación: reconstrucción descartada por cambios concurrentes");
+                return;
+            }
+            contenido = nuevo;
+        }
+        log.info("Clasificación reconstruida: {} servicios, {} tablas, calificación media {}",
+                servicios.size(), nuevo.tablas.size(), String.format("%.2f", nuevo.media));
+    }
+
+    /**
+     * Reubica un servicio conservando la fecha de su última reseña (se aplica tras el commit)
+     */
+    public void registrar(Servicio servicio, UbicacionServicio ubicacion) {
+        registrar(servicio, ubicacion, null, false);
+    }
+
+    /**
+     * Reubica un servicio después de un cambio en sus reseñas (se aplica tras el commit)
+     *
+     * @param ultimaResena Fecha de la última reseña publicada, o null si no tiene
+     */
+    public void registrar(Servicio servicio, UbicacionServicio ubicacion, LocalDateTime ultimaResena) {
+        registrar(servicio, ubicacion, ultimaResena, true);
+    }
+
+    /**
+     * Saca un servicio de la clasificación (se aplica tras el commit)
+     */
+    public void retirar(String idServicio) {
+        Transacciones.despuesDelCommit(() -> {
+            synchronized (escritura) {
+                version++;
+                contenido.quitar(idServicio);
+            }
+        });
+    }
+
+    /**
+     * Los servicios con mejor puntaje; deporte y ciudad vacíos no filtran
+     *
+     * @param cantidad Máximo de posiciones
+     */
+    public List<Posicion> mejores(String deporte, String ciudad, int cantidad) {
+        NavigableSet<Posicion> tabla = contenido.tablas.get(clave(deporte, ciudad));
+        if (tabla == null) {
+            return List.of();
+        }
+        List<Posicion> mejores = new ArrayList<>(cantidad);
+        Iterator<Posicion> posiciones = tabla.iterator();
+        while (mejores.size() < cantidad && posiciones.hasNext()) {
+            mejores.add(posiciones.next());
+        }
+        return mejores;
+    }
+
+    /**
+     * Calificación media de todas las reseñas, ponderada por la cantidad de reseñas de cada servicio
+     */
+    static double calificacionMedia(List<ServicioRepository.ClasificacionServicio> servicios) {
+        double suma = 0;
+        long resenas = 0;
+        for (ServicioRepository.ClasificacionServicio s : servicios) {
+            if (s.getCalificacionPromedio() != null && s.getTotalResenas() != null && s.getTotalResenas() > 0) {
+                suma += s.getCalificacionPromedio().doubleValue() * s.getTotalResenas();
+                resenas += s.getTotalResenas();
+            }
+        }
+        return resenas > 0 ? suma / resenas : CALIFICACION_PREVIA;
+    }
+
+    /**
+     * Promedio bayesiano de la calificación multiplicado por el factor de recencia
+     *
+     * @param media Calificación media de todos los servicios, hacia la que se acercan los que tienen pocas reseñas
+     */
+    static double puntaje(double media, BigDecimal calificacion, Integer resenas, LocalDateTime ultimaResena,
+                          LocalDateTime ahora) {
+        int cantidad = resenas != null ? Math.max(0, resenas) : 0;
+        double promedio = calificacion != null ? calificacion.doubleValue() : 0;
+        double bayesiano = (RESENAS_PREVIAS * media + promedio * cantidad) / (RESENAS_PREVIAS + cantidad);
+
+        double frescura = 0;
+        if (ultimaResena != null) {
+            double dias = Math.max(0, Duration.between(ultimaResena, ahora).toHours() / 24.0);
+            frescura = Math.pow(0.5, dias / VIDA_MEDIA_DIAS);
+        }
+        return bayesiano * (1 - PESO_RECENCIA + PESO_RECENCIA * frescura);
+    }
+
+    private void registrar(Servicio servicio, UbicacionServicio ubicacion, LocalDateTime ultimaResena,
+                           boolean conFecha) {
+        String idServicio = servicio.getIdServicio();
+        if (servicio.getEstado() != EstadoServicio.PUBLICADO) {
+            retirar(idServicio);
+            return;
+        }
+        String deporte = servicio.getDeporte();
+        String ciudad = ubicacion != null ? ubicacion.getCiudad() : null;
+        BigDecimal calificacion = servicio.getCalificacionPromedio();
+        Integer resenas = servicio.getTotalResenas();
+        Transacciones.despuesDelCommit(() -> {
+            synchronized (escritura) {
+                version++;
+                Registro anterior = contenido.registros.get(idServicio);
+                LocalDateTime fecha = conFecha || anterior == null ? ultimaResena : anterior.ultimaResena();
+                contenido.agregar(idServicio, deporte, ciudad, calificacion, resenas, fecha, LocalDateTime.now());
+            }
+        });
+    }
+
+    private static String clave(String deporte, String ciudad) {
+        return normalizar(deporte) + "|" + normalizar(ciudad);
+    }
+
+    private static String normalizar(String texto) {
+        return texto == null || texto.isBlank() ? TODOS : AnalizadorTexto.normalizar(texto.trim());
+    }
+
+    /**
+     * Servicio en una tabla de clasificación con su puntaje
+     */
+    public record Posicion(String idServicio, double puntaje) {
+    }
+
+    // Posición del servicio y las tablas en que aparece, para reubicarlo sin recorrerlas
+    private record Registro(Posicion posicion, List<String> tablas, LocalDateTime ultimaResena) {
+    }
+
+    /**
+     * Tablas ordenadas por puntaje (deporte|ciudad, deporte|*, *|ciudad y *|*).
+     * Se modifican con el bloqueo de escritura tomado; las lecturas recorren
+     * conjuntos concurrentes y no se bloquean.
+     */
+    private static final class Contenido {
+        private static final Comparator<Posicion> ORDEN = Comparator.comparingDouble(Posicion::puntaje)
+                .reversed()
+                .thenComparing(Posicion::idServicio);
+
+        private final double media;
+        private final Map<String, NavigableSet<Posicion>> tablas = new ConcurrentHashMap<>();
+        private final Map<String, Registro> registros = new ConcurrentHashMap<>();
+
+        Contenido(double media) {
+            this.media = media;
+        }
+
+        void agregar(String idServicio, String deporte, String ciudad, BigDecimal calificacion, Integer resenas,
+                     LocalDateTime ultimaResena, LocalDateTime ahora) {
+            quitar(idServicio);
+            Posicion posicion = new Posicion(idServicio, puntaje(media, calificacion, resenas, ultimaResena, ahora));
+            List<String> claves = List.copyOf(new LinkedHashSet<>(List.of(
+                    clave(deporte, ciudad), clave(deporte, null), clave(null, ciudad), clave(null, null))));
+            for (String clave : claves) {
+                tablas.computeIfAbsent(clave, k -> new ConcurrentSkipListSet<>(ORDEN)).add(posicion);
+            }
+            registros.put(idServicio, new Registro(posicion, claves, ultimaResena));
+        }
+
+        void quitar(String idServicio) {
+            Registro registro = registros.remove(idServicio);
+            if (registro == null) {
+                return;
+            }
+            for (String clave : registro.tablas()) {
+                NavigableSet<Posicion> tabla = tablas.get(clave);
+                if (tabla != null) {
+                    tabla.remove(registro.posicion());
+                    if (tabla.isEmpty()) {
+                        tablas.remove(clave);
+                    }
+                }
+            }
+        }
+    }
+}
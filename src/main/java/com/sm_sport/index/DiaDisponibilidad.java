@@ -0,0 +1,132 @@
+package com.sm_sport.index;
+
+import com.sm_sport.model.entity.DisponibilidadServicio;
+
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Disponibilidad de un servicio en un día, compactada en arreglos.
+ * El mapa de bits marca las franjas de 30 minutos cubiertas por alguna
+ * disponibilidad con cupos, y sirve como filtro rápido antes de revisar
+ * los cupos de cada disponibilidad.
+ * Es inmutable: cada cambio de cupos produce una copia nueva.
+ */
+public final class DiaDisponibilidad {
+
+    public static final int SEGUNDOS_POR_FRANJA = 30 * 60;
+    public static final int FRANJAS_POR_DIA = 48;
+
+    private final String[] ids;       // null en franjas de reglas aún no materializadas
+    private final int[] inicios;   // segundos desde medianoche
+    private final int[] fines;     // segundos desde medianoche
+    private final int[] cupos;     // cupos efectivos (0 si no está disponible)
+    private final long mascara;
+    private final long cargadoEn;
+
+    private DiaDisponibilidad(String[] ids, int[] inicios, int[] fines, int[] cupos, long cargadoEn) {
+        this.ids = ids;
+        this.inicios = inicios;
+        this.fines = fines;
+        this.cupos = cupos;
+        this.mascara = calcularMascara(inicios, fines, cupos);
+        this.cargadoEn = cargadoEn;
+    }
+
+    public static DiaDisponibilidad desde(List<DisponibilidadServicio> disponibilidades) {
+        int n = disponibilidades.size();
+        String[] ids = new String[n];
+        int[] inicios = new int[n];
+        int[] fines = new int[n];
+        int[] cupos = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            DisponibilidadServicio d = disponibilidades.get(i);
+            ids[i] = d.getIdDisponibilidad();
+            inicios[i] = d.getHoraInicio().toSecondOfDay();
+            fines[i] = d.getHoraFin().toSecondOfDay();
+            boolean disponible = Boolean.TRUE.equals(d.getDisponible());
+            cupos[i] = disponible && d.getCuposDisponibles() != null ? d.getCuposDisponibles() : 0;
+        }
+
+        return new DiaDisponibilidad(ids, inicios, fines, cupos, System.nanoTime());
+    }
+
+    /**
+     * Misma semántica que la consulta del repositorio: alguna disponibilidad
+     * con cupos cuyo rango [inicio, fin] contiene la hora.
+     */
+    public boolean estaDisponible(LocalTime hora) {
+        int segundo = hora.toSecondOfDay();
+        if ((mascara & (1L << franja(segundo))) == 0) {
+            return false;
+        }
+        for (int i = 0; i < ids.length; i++) {
+            if (cupos[i] > 0 && inicios[i] <= segundo && segundo <= fines[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copia con los cupos de una disponibilidad ajustados.
+     *
+     * @return null si la disponibilidad no estaba cargada (hay que recargar el día)
+     */
+    DiaDisponibilidad conDelta(String idDisponibilidad, int delta) {
+        for (int i = 0; i < ids.length; i++) {
+            if (idDisponibilidad.equals(ids[i])) {
+                int[] nuevosCupos = cupos.clone();
+                nuevosCupos[i] = Math.max(0, nuevosCupos[i] + delta);
+                return new DiaDisponibilidad(ids, inicios, fines, nuevosCupos, cargadoEn);
+            }
+        }
+        return null;
+    }
+
+    boolean cargadoAntesDe(long nanos) {
+        return cargadoEn - nanos < 0;
+    }
+
+    public long getMascara() {
+        return mascara;
+    }
+
+    public int getCantidad() {
+        return ids.length;
+    }
+
+    public String getIdDisponibilidad(int i) {
+        return ids[i];
+    }
+
+    public LocalTime getHoraInicio(int i) {
+        return LocalTime.ofSecondOfDay(inicios[i]);
+    }
+
+    public LocalTime getHoraFin(int i) {
+        return LocalTime.ofSecondOfDay(fines[i]);
+    }
+
+    public int getCupos(int i) {
+        return cupos[i];
+    }
+
+    static int franja(int segundoDelDia) {
+        return Math.min(segundoDelDia / SEGUNDOS_POR_FRANJA, FRANJAS_POR_DIA - 1);
+    }
+
+    private static long calcularMascara(int[] inicios, int[] fines, int[] cupos) {
+        long mascara = 0L;
+        for (int i = 0; i < inicios.length; i++) {
+            if (cupos[i] <= 0 || fines[i] < inicios[i]) {
+                continue;
+            }
+            int desde = franja(inicios[i]);
+            int hasta = franja(fines[i]);
+            mascara |= ((1L << (hasta + 1)) - 1) & (-1L << desde);
+        }
+        return mascara;
+    }
+}
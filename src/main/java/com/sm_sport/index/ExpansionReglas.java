@@ -0,0 +1,174 @@
+package com.sm_sport.index;
+
+import com.sm_sport.model.entity.DisponibilidadServicio;
+import com.sm_sport.model.entity.ExcepcionDisponibilidad;
+import com.sm_sport.model.entity.ReglaDisponibilidad;
+import com.sm_sport.repository.DisponibilidadServicioRepository;
+import com.sm_sport.repository.ExcepcionDisponibilidadRepository;
+import com.sm_sport.repository.ReglaDisponibilidadRepository;
+import com.sm_sport.util.UuidOrdenado;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Expande las reglas semanales de disponibilidad en franjas concretas.
+ * Una franja generada por una regla no existe en la base de datos hasta que
+ * alguien reserva en ella; mientras tanto se representa como una
+ * DisponibilidadServicio sin ID con los cupos de la regla.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExpansionReglas {
+
+    private final ReglaDisponibilidadRepository reglaRepository;
+    private final ExcepcionDisponibilidadRepository excepcionRepository;
+    private final DisponibilidadServicioRepository disponibilidadRepository;
+
+    /**
+     * Carga las reglas y excepciones de varios servicios para un rango de fechas
+     */
+    public Reglas cargar(Collection<String> idsServicio, LocalDate desde, LocalDate hasta) {
+        Map<String, List<ReglaDisponibilidad>> reglas = reglaRepository
+                .findVigentesEnRango(idsServicio, desde, hasta).stream()
+                .collect(Collectors.groupingBy(r -> r.getServicio().getIdServicio()));
+
+        // Las excepciones sólo importan para los servicios que tienen reglas
+        Map<String, List<ExcepcionDisponibilidad>> excepciones = reglas.isEmpty()
+                ? Map.of()
+                : excepcionRepository.findByServiciosEnRango(reglas.keySet(), desde, hasta).stream()
+                .collect(Collectors.groupingBy(e -> e.getServicio().getIdServicio()));
+
+        return new Reglas(reglas, excepciones);
+    }
+
+    /**
+     * Materializa las franjas de reglas que contienen la reserva [hora, horaFin),
+     * para poder descontar sus cupos
+     *
+     * @return cantidad de franjas de reglas que la contienen (ya materializadas o nuevas)
+     */
+    public int materializar(String idServicio, LocalDate fecha, LocalTime hora, LocalTime horaFin) {
+        List<DisponibilidadServicio> franjas = cargar(List.of(idServicio), fecha, fecha)
+                .franjas(idServicio, fecha, List.of());
+
+        int cubren = 0;
+        for (DisponibilidadServicio franja : franjas) {
+            if (hora.isBefore(franja.getHoraInicio()) || !hora.isBefore(franja.getHoraFin())
+                    || horaFin.isAfter(franja.getHoraFin())) {
+                continue;
+            }
+            cubren++;
+            int creadas = disponibilidadRepository.materializarFranja(
+                    UuidOrdenado.nuevo(), idServicio, fecha,
+                    franja.getHoraInicio(), franja.getHoraFin(), franja.getCuposDisponibles());
+            if (creadas > 0) {
+                log.debug("Franja materializada para servicio {}: {} {}-{}",
+                        idServicio, fecha, franja.getHoraInicio(), franja.getHoraFin());
+            }
+        }
+        return cubren;
+    }
+
+    /**
+     * Reglas y excepciones ya cargadas de un conjunto de servicios
+     */
+    public static final class Reglas {
+
+        private final Map<String, List<ReglaDisponibilidad>> reglas;
+        private final Map<String, List<ExcepcionDisponibilidad>> excepciones;
+
+        private Reglas(Map<String, List<ReglaDisponibilidad>> reglas,
+                       Map<String, List<ExcepcionDisponibilidad>> excepciones) {
+            this.reglas = reglas;
+            this.excepciones = excepciones;
+        }
+
+        /**
+         * Franjas del día: las materializadas más las generadas por reglas que no
+         * estén materializadas, ordenadas por hora de inicio. Una excepción con
+         * horas sólo quita ese rango: la regla se parte en los tramos que quedan
+         * abiertos.
+         */
+        public List<DisponibilidadServicio> franjas(String idServicio, LocalDate fecha,
+                                                    List<DisponibilidadServicio> materializadas) {
+            List<ReglaDisponibilidad> delServicio = reglas.getOrDefault(idServicio, List.of());
+            if (delServicio.isEmpty()) {
+                return materializadas;
+            }
+
+            List<ExcepcionDisponibilidad> cierres = excepciones.getOrDefault(idServicio, List.of()).stream()
+                    .filter(e -> e.getFecha().equals(fecha))
+                    .toList();
+
+            List<DisponibilidadServicio> franjas = new ArrayList<>(materializadas);
+            for (ReglaDisponibilidad regla : delServicio) {
+                if (!regla.aplicaEn(fecha)) {
+                    continue;
+                }
+                for (Tramo tramo : tramosAbiertos(regla.getHoraInicio(), regla.getHoraFin(), cierres)) {
+                    if (estaMaterializada(materializadas, tramo)) {
+                        continue;
+                    }
+                    franjas.add(DisponibilidadServicio.builder()
+                            .fecha(fecha)
+                            .horaInicio(tramo.inicio())
+                            .horaFin(tramo.fin())
+                            .disponible(true)
+                            .cuposDisponibles(regla.getCupos())
+                            .build());
+                }
+            }
+
+            franjas.sort(Comparator.comparing(DisponibilidadServicio::getHoraInicio));
+            return franjas;
+        }
+
+        // Partes de [inicio, fin] que no cierra ninguna excepción del día
+        private static List<Tramo> tramosAbiertos(LocalTime inicio, LocalTime fin,
+                                                  List<ExcepcionDisponibilidad> cierres) {
+            if (cierres.stream().anyMatch(ExcepcionDisponibilidad::esDiaCompleto)) {
+                return List.of();
+            }
+
+            List<ExcepcionDisponibilidad> porInicio = cierres.stream()
+                    .sorted(Comparator.comparing(ExcepcionDisponibilidad::getHoraInicio))
+                    .toList();
+
+            List<Tramo> tramos = new ArrayList<>();
+            LocalTime desde = inicio;
+            for (ExcepcionDisponibilidad cierre : porInicio) {
+                if (!cierre.getHoraFin().isAfter(desde) || !cierre.getHoraInicio().isBefore(fin)) {
+                    continue;
+                }
+                if (cierre.getHoraInicio().isAfter(desde)) {
+                    tramos.add(new Tramo(desde, cierre.getHoraInicio()));
+                }
+                desde = cierre.getHoraFin();
+                if (!desde.isBefore(fin)) {
+                    return tramos;
+                }
+            }
+            tramos.add(new Tramo(desde, fin));
+            return tramos;
+        }
+
+        private static boolean estaMaterializada(List<DisponibilidadServicio> materializadas, Tramo tramo) {
+            return materializadas.stream().anyMatch(d ->
+                    d.getHoraInicio().equals(tramo.inicio()) && d.getHoraFin().equals(tramo.fin()));
+        }
+
+        private record Tramo(LocalTime inicio, LocalTime fin) {
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.sm_sport.index;
+
+import com.sm_sport.model.entity.DisponibilidadServicio;
+import com.sm_sport.repository.DisponibilidadServicioRepository;
+import com.sm_sport.util.Transacciones;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+/**
+ * Índice en memoria de la disponibilidad por (servicio, fecha).
+ * Los días se cargan de forma perezosa desde la base de datos (franjas
+ * guardadas más las generadas por reglas semanales) y luego se
+ * mantienen al día con los cupos que toman y liberan las reservas, de modo
+ * que verificar disponibilidad no consulta la base de datos.
+ * <p>
+ * Los cambios se aplican después del commit. Cada día cargado vence tras
+ * {@code app.disponibilidad.indice.vigencia} para acotar la desactualización
+ * cuando hay varias instancias de la aplicación.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IndiceDisponibilidad {
+
+    private static final int SEGMENTOS = 1024;
+
+    private final DisponibilidadServicioRepository disponibilidadRepository;
+    private final ExpansionReglas expansionReglas;
+    private final CargasCompartidas cargasCompartidas;
+
+    @Value("${app.disponibilidad.indice.vigencia:5m}")
+    private Duration vigencia = Duration.ofMinutes(5);
+
+    @Value("${app.disponibilidad.indice.max-dias:50000}")
+    private int maxDias = 50_000;
+
+    private final Map<Clave, DiaDisponibilidad> dias = new ConcurrentHashMap<>();
+
+    // Versión por segmento de claves: una carga sólo se guarda si nadie
+    // escribió sobre su segmento mientras se leía de la base de datos
+    private final AtomicLongArray versiones = new AtomicLongArray(SEGMENTOS);
+
+    public boolean verificarDisponibilidad(String idServicio, LocalDate fecha, LocalTime hora) {
+        return obtenerDia(idServicio, fecha).estaDisponible(hora);
+    }
+
+    public DiaDisponibilidad obtenerDia(String idServicio, LocalDate fecha) {
+        Clave clave = new Clave(idServicio, fecha);
+        DiaDisponibilidad dia = dias.get(clave);
+        if (dia != null && !dia.cargadoAntesDe(System.nanoTime() - vigencia.toNanos())) {
+            return dia;
+        }
+        return cargar(clave);
+    }
+
+    /**
+     * Obtiene los días de varios servicios en un rango de fechas.
+     * Los días que no están en el índice (o vencieron) se cargan todos con
+     * una única consulta sobre el rango.
+     *
+     * @return para cada servicio, sus días ordenados por fecha
+     */
+    public Map<String, SortedMap<LocalDate, DiaDisponibilidad>> obtenerDias(
+            Collection<String> idsServicio, LocalDate desde, LocalDate hasta) {
+        long limite = System.nanoTime() - vigencia.toNanos();
+        Map<String, SortedMap<LocalDate, DiaDisponibilidad>> resultado = new LinkedHashMap<>();
+        Map<Clave, Long> faltantes = new LinkedHashMap<>();
+
+        for (String idServicio : idsServicio) {
+            SortedMap<LocalDate, DiaDisponibilidad> diasServicio =
+                    resultado.computeIfAbsent(idServicio, k -> new TreeMap<>());
+            for (LocalDate fecha = desde; !fecha.isAfter(hasta); fecha = fecha.plusDays(1)) {
+                Clave clave = new Clave(idServicio, fecha);
+                DiaDisponibilidad dia = dias.get(clave);
+                if (dia != null && !dia.cargadoAntesDe(limite)) {
+                    diasServicio.put(fecha, dia);
+                } else {
+                    faltantes.put(clave, versiones.get(segmento(clave)));
+                }
+            }
+        }
+
+        if (!faltantes.isEmpty()) {
+            cargarFaltantes(faltantes, resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * Registra un cupo tomado por una reserva (se aplica tras el commit)
+     */
+    public void registrarCupoTomado(String idServicio, LocalDate fecha, String idDisponibilidad) {
+        aplicarDelta(new Clave(idServicio, fecha), idDisponibilidad, -1);
+    }
+
+    /**
+     * Registra un cupo devuelto por una reserva cancelada o rechazada (se aplica tras el commit)
+     */
+    public void registrarCupoLiberado(String idServicio, LocalDate fecha, String idDisponibilidad) {
+        aplicarDelta(new Clave(idServicio, fecha), idDisponibilidad, 1);
+    }
+
+    /**
+     * Descarta un día para que se recargue en la próxima consulta (tras el commit)
+     */
+    public void invalidar(String idServicio, LocalDate fecha) {
+        Clave clave = new Clave(idServicio, fecha);
+        Transacciones.despuesDelCommit(() -> {
+            versiones.incrementAndGet(segmento(clave));
+            dias.remove(clave);
+        });
+    }
+
+    /**
+     * Descarta todos los días de un servicio, p. ej. cuando cambian sus reglas (tras el commit)
+     */
+    public void invalidarServicio(String idServicio) {
+        Transacciones.despuesDelCommit(() -> {
+            for (int i = 0; i < SEGMENTOS; i++) {
+                versiones.incrementAndGet(i);
+            }
+            dias.keySet().removeIf(clave -> clave.idServicio().equals(idServicio));
+        });
+    }
+
+    /**
+     * Elimina los días que ya pasaron
+     */
+    @Scheduled(cron = "0 15 0 * * *")
+    public void purgarDiasPasados() {
+        LocalDate hoy = LocalDate.now();
+        int antes = dias.size();
+        dias.keySet().removeIf(clave -> clave.fecha().isBefore(hoy));
+        log.info("Índice de disponibilidad purgado: {} días eliminados", antes - dias.size());
+    }
+
+    int tamano() {
+        return dias.size();
+    }
+
+    // Las consultas simultáneas del mismo día vencido comparten una sola carga
+    private DiaDisponibilidad cargar(Clave clave) {
+        return cargasCompartidas.cargar("disponibilidad.dia", clave, () -> {
+            long version = versiones.get(segmento(clave));
+
+            List<DisponibilidadServicio> materializadas =
+                    disponibilidadRepository.findByServicioAndFecha(clave.idServicio(), clave.fecha());
+            DiaDisponibilidad dia = DiaDisponibilidad.desde(expansionReglas
+                    .cargar(List.of(clave.idServicio()), clave.fecha(), clave.fecha())
+                    .franjas(clave.idServicio(), clave.fecha(), materializadas));
+
+            guardar(clave, dia, version);
+            return dia;
+        });
+    }
+
+    private void cargarFaltantes(Map<Clave, Long> faltantes,
+                                 Map<String, SortedMap<LocalDate, DiaDisponibilidad>> resultado) {
+        Set<String> idsServicio = new HashSet<>();
+        LocalDate desde = null;
+        LocalDate hasta = null;
+        for (Clave clave : faltantes.keySet()) {
+            idsServicio.add(clave.idServicio());
+            desde = desde == null || clave.fecha().isBefore(desde) ? clave.fecha() : desde;
+            hasta = hasta == null || clave.fecha().isAfter(hasta) ? clave.fecha() : hasta;
+        }
+
+        Map<Clave, List<DisponibilidadServicio>> porDia = disponibilidadRepository
+                .findByServiciosEnRango(idsServicio, desde, hasta).stream()
+                .collect(Collectors.groupingBy(d -> new Clave(d.getServicio().getIdServicio(), d.getFecha())));
+
+        ExpansionReglas.Reglas reglas = expansionReglas.cargar(idsServicio, desde, hasta);
+
+        faltantes.forEach((clave, version) -> {
+            DiaDisponibilidad dia = DiaDisponibilidad.desde(reglas.franjas(
+                    clave.idServicio(), clave.fecha(), porDia.getOrDefault(clave, List.of())));
+            guardar(clave, dia, version);
+            resultado.get(clave.idServicio()).put(clave.fecha(), dia);
+        });
+
+        log.debug("Índice de disponibilidad: {} días cargados en una consulta", faltantes.size());
+    }
+
+    // Sólo se guarda si nadie escribió sobre el segmento durante la lectura
+    private void guardar(Clave clave, DiaDisponibilidad dia, long version) {
+        int segmento = segmento(clave);
+
+        if (dias.size() >= maxDias) {
+            log.warn("Índice de disponibilidad lleno ({} días), se vacía", dias.size());
+            dias.clear();
+        }
+
+        dias.compute(clave, (k, actual) -> versiones.get(segmento) == version ? dia : actual);
+    }
+
+    private void aplicarDelta(Clave clave, String idDisponibilidad, int delta) {
+        Transacciones.despuesDelCommit(() -> {
+            versiones.incrementAndGet(segmento(clave));
+            dias.computeIfPresent(clave, (k, dia) -> dia.conDelta(idDisponibilidad, delta));
+        });
+    }
+
+    private static int segmento(Clave clave) {
+        return Math.floorMod(clave.hashCode(), SEGMENTOS);
+    }
+
+    private record Clave(String idServicio, LocalDate fecha) {
+    }
+}
@@ -0,0 +1,397 @@
+package com.sm_sport.index;
+
+import com.sm_sport.model.entity.Servicio;
+import com.sm_sport.model.entity.UbicacionServicio;
+import com.sm_sport.repository.UbicacionServicioRepository;
+import com.sm_sport.util.Transacciones;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Índice geográfico en memoria de los servicios publicados.
+ * Las ubicaciones se reparten en una grilla de celdas de
+ * {@code app.geo.tamano-celda} grados; una búsqueda por radio sólo revisa
+ * las celdas que tocan el rectángulo que envuelve al círculo y calcula la
+ * distancia exacta (haversine) únicamente para los puntos de esas celdas.
+ * <p>
+ * Para "los k más cercanos" se usa además un {@link ArbolKd}. Como el árbol
+ * es inmutable, los cambios posteriores a su construcción se guardan aparte
+ * (ubicaciones recientes y servicios retirados) y se combinan en cada
+ * consulta; cuando se acumulan demasiados, el árbol se reconstruye.
+ * <p>
+ * Cada celda es un arreglo que se reemplaza entero al cambiar (copia en
+ * escritura), así que las lecturas no se bloquean. Los cambios se aplican
+ * después del commit y el índice se reconstruye periódicamente desde la
+ * base de datos para recoger cambios de otras instancias.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IndiceGeografico {
+
+    public static final double RADIO_TIERRA_KM = 6371.0;
+    private static final double KM_POR_GRADO = Math.PI * RADIO_TIERRA_KM / 180;
+    private static final int MAX_CAMBIOS_FUERA_DEL_ARBOL = 512;
+
+    private final UbicacionServicioRepository ubicacionRepository;
+
+    @Value("${app.geo.tamano-celda:0.05}")
+    private double tamanoCelda = 0.05;
+
+    private final Object escritura = new Object();
+    private volatile Map<Long, Punto[]> celdas = new ConcurrentHashMap<>();
+    private volatile Map<String, Punto> puntos = new ConcurrentHashMap<>();
+    private volatile Vecindario vecindario = new Vecindario(ArbolKd.vacio(), new Punto[0], Set.of());
+    private volatile long version;
+
+    /**
+     * Carga todas las ubicaciones de servicios publicados
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.geo.reconstruccion:0 */15 * * * *}")
+    public void reconstruir() {
+        long versionInicial;
+        synchronized (escritura) {
+            versionInicial = version;
+        }
+
+        Map<Long, List<Punto>> porCelda = new HashMap<>();
+        Map<String, Punto> nuevosPuntos = new ConcurrentHashMap<>();
+        for (UbicacionServicioRepository.PuntoServicio p : ubicacionRepository.findPuntosPublicados()) {
+            Punto punto = crearPunto(p.getIdServicio(), p.getLatitud().doubleValue(), p.getLongitud().doubleValue(),
+                    p.getDeporte(), p.getPrecio());
+            nuevosPuntos.put(punto.idServicio(), punto);
+            porCelda.computeIfAbsent(punto.celda(), k -> new ArrayList<>()).add(punto);
+        }
+
+        Map<Long, Punto[]> nuevasCeldas = new ConcurrentHashMap<>();
+        porCelda.forEach((celda, lista) -> nuevasCeldas.put(celda, lista.toArray(new Punto[0])));
+        ArbolKd arbol = ArbolKd.construir(nuevosPuntos.values());
+
+        synchronized (escritura) {
+            // Si hubo cambios durante la lectura se conserva el índice actual hasta la próxima vuelta
+            if (version != versionInicial) {
+                log.debug("Índice geográfico: reconstrucción descartada por cambios concurrentes");
+                return;
+            }
+            version++;
+            celdas = nuevasCeldas;
+            puntos = nuevosPuntos;
+            vecindario = new Vecindario(arbol, new Punto[0], Set.of());
+        }
+        log.info("Índice geográfico reconstruido: {} servicios en {} celdas", nuevosPuntos.size(), nuevasCeldas.size());
+    }
+
+    /**
+     * Registra o actualiza un servicio publicado con su ubicación (se aplica tras el commit)
+     */
+    public void registrar(Servicio servicio, UbicacionServicio ubicacion) {
+        String idServicio = servicio.getIdServicio();
+        if (ubicacion == null || ubicacion.getCoordenadasLat() == null || ubicacion.getCoordenadasLng() == null) {
+            retirar(idServicio);
+            return;
+        }
+        Punto punto = crearPunto(idServicio, ubicacion.getCoordenadasLat().doubleValue(),
+                ubicacion.getCoordenadasLng().doubleValue(), servicio.getDeporte(), servicio.getPrecio());
+        Transacciones.despuesDelCommit(() -> {
+            synchronized (escritura) {
+                version++;
+                quitar(idServicio);
+                Punto[] actual = celdas.getOrDefault(punto.celda(), new Punto[0]);
+                Punto[] nueva = Arrays.copyOf(actual, actual.length + 1);
+                nueva[actual.length] = punto;
+                celdas.put(punto.celda(), nueva);
+                puntos.put(idServicio, punto);
+                actualizarVecindario(idServicio, punto);
+            }
+        });
+    }
+
+    /**
+     * Saca un servicio del índice, p. ej. al despublicarlo o eliminarlo (se aplica tras el commit)
+     */
+    public void retirar(String idServicio) {
+        Transacciones.despuesDelCommit(() -> {
+            synchronized (escritura) {
+                version++;
+                quitar(idServicio);
+                actualizarVecindario(idServicio, null);
+            }
+        });
+    }
+
+    /**
+     * Servicios a menos de radioKm del punto, ordenados del más cercano al más lejano
+     */
+    public List<Cercano> buscarCercanos(double latitud, double longitud, double radioKm) {
+        Map<Long, Punto[]> vista = celdas;
+        List<Cercano> resultado = new ArrayList<>();
+
+        double deltaLat = radioKm / KM_POR_GRADO;
+        int filaMin = fila(latitud - deltaLat);
+        int filaMax = fila(latitud + deltaLat);
+
+        // El ancho en longitud del rectángulo crece con la latitud más alejada del ecuador
+        double latExtrema = Math.min(90, Math.max(Math.abs(latitud - deltaLat), Math.abs(latitud + deltaLat)));
+        double coseno = Math.cos(Math.toRadians(latExtrema));
+        int columnas = columnas();
+        int colMin;
+        int colMax;
+        if (coseno < 1e-6 || deltaLat / coseno >= 180) {
+            colMin = 0;
+            colMax = columnas - 1;
+        } else {
+            double deltaLng = deltaLat / coseno;
+            colMin = (int) Math.floor((longitud - deltaLng + 180) / tamanoCelda);
+            colMax = (int) Math.floor((longitud + deltaLng + 180) / tamanoCelda);
+            if (colMax - colMin + 1 >= columnas) {
+                colMin = 0;
+                colMax = columnas - 1;
+            }
+        }
+
+        long celdasRectangulo = (long) (filaMax - filaMin + 1) * (colMax - colMin + 1);
+        if (celdasRectangulo > vista.size()) {
+            // Radio muy grande: es más barato recorrer sólo las celdas ocupadas
+            vista.values().forEach(celda -> refinar(celda, latitud, longitud, radioKm, resultado));
+        } else {
+            for (int f = filaMin; f <= filaMax; f++) {
+                for (int c = colMin; c <= colMax; c++) {
+                    Punto[] celda = vista.get(clave(f, Math.floorMod(c, columnas)));
+                    if (celda != null) {
+                        refinar(celda, latitud, longitud, radioKm, resultado);
+                    }
+                }
+            }
+        }
+
+        resultado.sort(Comparator.comparingDouble(Cercano::distanciaKm));
+        return resultado;
+    }
+
+    /**
+     * Los k servicios más cercanos que cumplen el filtro, sin límite de radio,
+     * ordenados del más cercano al más lejano
+     */
+    public List<Cercano> buscarMasCercanos(double latitud, double longitud, int k, Filtro filtro) {
+        Vecindario v = vecindario;
+
+        // Las versiones del árbol que cambiaron después de construirlo se ignoran
+        List<Cercano> resultado = new ArrayList<>(v.arbol().masCercanos(latitud, longitud, k,
+                p -> !v.retirados().contains(p.idServicio()) && filtro.admite(p)));
+
+        for (Punto punto : v.recientes()) {
+            if (filtro.admite(punto)) {
+                resultado.add(new Cercano(punto.idServicio(),
+                        distanciaKm(latitud, longitud, punto.latitud(), punto.longitud())));
+            }
+        }
+
+        resultado.sort(Comparator.comparingDouble(Cercano::distanciaKm));
+        return resultado.size() > k ? List.copyOf(resultado.subList(0, k)) : resultado;
+    }
+
+    /**
+     * Distancia de círculo máximo (haversine) en kilómetros
+     */
+    public static double distanciaKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * RADIO_TIERRA_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Número que cambia cada vez que cambia el contenido del índice; sirve
+     * para invalidar lo que se calcula a partir de él
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Recorre los servicios dentro del rectángulo. Si lngMin es mayor que
+     * lngMax, el rectángulo cruza el antimeridiano.
+     */
+    void recorrer(double latMin, double latMax, double lngMin, double lngMax, Consumer<Punto> accion) {
+        Map<Long, Punto[]> vista = celdas;
+        boolean cruzaAntimeridiano = lngMin > lngMax;
+        int columnas = columnas();
+        int colMin = Math.floorMod((int) Math.floor((lngMin + 180) / tamanoCelda), columnas);
+        int colMax = Math.floorMod((int) Math.floor((lngMax + 180) / tamanoCelda), columnas);
+        if (lngMax >= 180) {
+            colMax = columnas - 1;
+        }
+        int anchoColumnas = cruzaAntimeridiano || colMax < colMin
+                ? columnas - colMin + colMax + 1
+                : colMax - colMin + 1;
+        int filaMin = fila(latMin);
+        int filaMax = fila(latMax);
+
+        Consumer<Punto[]> revisar = celda -> {
+            for (Punto punto : celda) {
+                boolean enLongitud = cruzaAntimeridiano
+                        ? punto.longitud() >= lngMin || punto.longitud() <= lngMax
+                        : punto.longitud() >= lngMin && punto.longitud() <= lngMax;
+                if (enLongitud && punto.latitud() >= latMin && punto.latitud() <= latMax) {
+                    accion.accept(punto);
+                }
+            }
+        };
+
+        if ((long) (filaMax - filaMin + 1) * anchoColumnas > vista.size()) {
+            vista.values().forEach(revisar);
+            return;
+        }
+        for (int f = filaMin; f <= filaMax; f++) {
+            for (int i = 0; i < anchoColumnas; i++) {
+                Punto[] celda = vista.get(clave(f, (colMin + i) % columnas));
+                if (celda != null) {
+                    revisar.accept(celda);
+                }
+            }
+        }
+    }
+
+    int tamano() {
+        return puntos.size();
+    }
+
+    private static void refinar(Punto[] celda, double latitud, double longitud, double radioKm,
+                                List<Cercano> resultado) {
+        for (Punto punto : celda) {
+            double distancia = distanciaKm(latitud, longitud, punto.latitud(), punto.longitud());
+            if (distancia <= radioKm) {
+                resultado.add(new Cercano(punto.idServicio(), distancia));
+            }
+        }
+    }
+
+    // Debe llamarse con el bloqueo de escritura tomado.
+    // punto es la nueva versión del servicio, o null si se retiró
+    private void actualizarVecindario(String idServicio, Punto punto) {
+        Vecindario actual = vecindario;
+        List<Punto> recientes = new ArrayList<>(actual.recientes().length + 1);
+        for (Punto reciente : actual.recientes()) {
+            if (!reciente.idServicio().equals(idServicio)) {
+                recientes.add(reciente);
+            }
+        }
+        if (punto != null) {
+            recientes.add(punto);
+        }
+        Set<String> retirados = new HashSet<>(actual.retirados());
+        retirados.add(idServicio);
+
+        if (recientes.size() + retirados.size() > MAX_CAMBIOS_FUERA_DEL_ARBOL) {
+            vecindario = new Vecindario(ArbolKd.construir(puntos.values()), new Punto[0], Set.of());
+        } else {
+            vecindario = new Vecindario(actual.arbol(), recientes.toArray(new Punto[0]), Set.copyOf(retirados));
+        }
+    }
+
+    // Debe llamarse con el bloqueo de escritura tomado
+    private void quitar(String idServicio) {
+        Punto anterior = puntos.remove(idServicio);
+        if (anterior == null) {
+            return;
+        }
+        Punto[] actual = celdas.get(anterior.celda());
+        if (actual == null) {
+            return;
+        }
+        Punto[] nueva = Arrays.stream(actual)
+                .filter(p -> !p.idServicio().equals(idServicio))
+                .toArray(Punto[]::new);
+        if (nueva.length == 0) {
+            celdas.remove(anterior.celda());
+        } else {
+            celdas.put(anterior.celda(), nueva);
+        }
+    }
+
+    private Punto crearPunto(String idServicio, double latitud, double longitud, String deporte, BigDecimal precio) {
+        int columna = Math.floorMod((int) Math.floor((longitud + 180) / tamanoCelda), columnas());
+        double[] vector = Punto.vector(latitud, longitud);
+        return new Punto(idServicio, latitud, longitud, deporte, precio, clave(fila(latitud), columna),
+                vector[0], vector[1], vector[2]);
+    }
+
+    private int fila(double latitud) {
+        int filas = (int) Math.ceil(180 / tamanoCelda);
+        int fila = (int) Math.floor((latitud + 90) / tamanoCelda);
+        return Math.max(0, Math.min(filas - 1, fila));
+    }
+
+    private int columnas() {
+        return (int) Math.ceil(360 / tamanoCelda);
+    }
+
+    private long clave(int fila, int columna) {
+        return (long) fila * columnas() + columna;
+    }
+
+    /**
+     * Servicio encontrado y su distancia al punto consultado
+     */
+    public record Cercano(String idServicio, double distanciaKm) {
+    }
+
+    /**
+     * Criterios que deben cumplir los servicios en la búsqueda de los más cercanos; null no filtra
+     */
+    public record Filtro(String deporte, BigDecimal precioMinimo, BigDecimal precioMaximo) {
+
+        public static final Filtro NINGUNO = new Filtro(null, null, null);
+
+        boolean admite(Punto punto) {
+            if (deporte != null && !deporte.equalsIgnoreCase(punto.deporte())) {
+                return false;
+            }
+            if (precioMinimo != null && (punto.precio() == null || punto.precio().compareTo(precioMinimo) < 0)) {
+                return false;
+            }
+            return precioMaximo == null || (punto.precio() != null && punto.precio().compareTo(precioMaximo) <= 0);
+        }
+    }
+
+    /**
+     * Servicio indexado con su celda de la grilla y su vector unitario (x, y, z) para el árbol k-d
+     */
+    record Punto(String idServicio, double latitud, double longitud, String deporte, BigDecimal precio,
+                 long celda, double x, double y, double z) {
+
+        static double[] vector(double latitud, double longitud) {
+            double lat = Math.toRadians(latitud);
+            double lng = Math.toRadians(longitud);
+            return new double[]{Math.cos(lat) * Math.cos(lng), Math.cos(lat) * Math.sin(lng), Math.sin(lat)};
+        }
+
+        double coordenada(int eje) {
+            return eje == 0 ? x : eje == 1 ? y : z;
+        }
+    }
+
+    // Árbol k-d y cambios posteriores a su construcción; se reemplaza entero en cada cambio
+    private record Vecindario(ArbolKd arbol, Punto[] recientes, Set<String> retirados) {
+    }
+}
@@ -0,0 +1,285 @@
+package com.sm_sport.index;
+
+import com.sm_sport.model.entity.Servicio;
+import com.sm_sport.model.enums.EstadoServicio;
+import com.sm_sport.repository.ServicioRepository;
+import com.sm_sport.util.Transacciones;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice invertido en memoria del nombre, el deporte y la descripción de los
+ * servicios publicados, para la búsqueda por texto sin recorrer la tabla.
+ * <p>
+ * El texto pasa por {@link AnalizadorTexto} (sin tildes, sin palabras vacías
+ * y con raíz ligera), así que "Fútbol" encuentra "futbol" y "canchas"
+ * encuentra "cancha". Un término de la consulta que no existe en el
+ * vocabulario se reemplaza por los términos más parecidos según sus
+ * trigramas, lo que tolera errores de tipeo ("futbool").
+ * <p>
+ * Los resultados se ordenan primero por la cantidad de términos de la
+ * consulta que contienen y luego por BM25, con más peso para el nombre que
+ * para el deporte y la descripción. Los cambios se aplican después del commit
+ * y el índice se reconstruye periódicamente desde la base de datos para
+ * recoger cambios de otras instancias.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IndiceTexto {
+
+    private static final float PESO_NOMBRE = 3f;
+    private static final float PESO_DEPORTE = 2f;
+    private static final float PESO_DESCRIPCION = 1f;
+
+    // Parámetros habituales de BM25
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final double SIMILITUD_MINIMA = 0.5;
+    private static final int MAX_TERMINOS_APROXIMADOS = 5;
+
+    private final ServicioRepository servicioRepository;
+
+    private final Object escritura = new Object();
+    private volatile Contenido contenido = new Contenido();
+    private long version;
+
+    /**
+     * Carga el texto de todos los servicios publicados
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.texto.reconstruccion:0 */30 * * * *}")
+    public void reconstruir() {
+        long versionInicial;
+        synchronized (escritura) {
+            versionInicial = version;
+        }
+
+        Contenido nuevo = new Contenido();
+        for (ServicioRepository.TextoServicio texto : servicioRepository.findTextosPublicados()) {
+            nuevo.agregar(texto.getIdServicio(), texto.getNombre(), texto.getDeporte(), texto.getDescripcion());
+        }
+
+        synchronized (escritura) {
+            // Si hubo cambios durante la lectura se conserva el índice actual hasta la próxima vuelta
+            if (version != versionInicial) {
+                log.debug("Índice de texto: reconstrucción descartada por cambios concurrentes");
+                return;
+            }
+            contenido = nuevo;
+        }
+        log.info("Índice de texto reconstruido: {} servicios, {} términos",
+                nuevo.documentos.size(), nuevo.publicaciones.size());
+    }
+
+    /**
+     * Indexa o actualiza un servicio; si no está publicado, lo retira (se aplica tras el commit)
+     */
+    public void registrar(Servicio servicio) {
+        if (servicio.getEstado() != EstadoServicio.PUBLICADO) {
+            retirar(servicio.getIdServicio());
+            return;
+        }
+        String idServicio = servicio.getIdServicio();
+        String nombre = servicio.getNombre();
+        String deporte = servicio.getDeporte();
+        String descripcion = servicio.getDescripcion();
+        Transacciones.despuesDelCommit(() -> {
+            synchronized (escritura) {
+                version++;
+                contenido.quitar(idServicio);
+                contenido.agregar(idServicio, nombre, deporte, descripcion);
+            }
+        });
+    }
+
+    /**
+     * Saca un servicio del índice (se aplica tras el commit)
+     */
+    public void retirar(String idServicio) {
+        Transacciones.despuesDelCommit(() -> {
+            synchronized (escritura) {
+                version++;
+                contenido.quitar(idServicio);
+            }
+        });
+    }
+
+    /**
+     * Servicios que contienen los términos del texto, del más al menos relevante
+     *
+     * @param limite Máximo de resultados
+     */
+    public List<Resultado> buscar(String texto, int limite) {
+        Contenido vista = contenido;
+        Set<String> consulta = new LinkedHashSet<>(AnalizadorTexto.terminos(texto));
+        if (consulta.isEmpty() || vista.documentos.isEmpty()) {
+            return List.of();
+        }
+
+        int total = vista.documentos.size();
+        double longitudPromedio = Math.max(1, vista.longitudTotal / total);
+        Map<String, Acumulado> acumulados = new HashMap<>();
+
+        for (String termino : consulta) {
+            // Un mismo documento cuenta una sola vez por término de la consulta, con su mejor variante
+            Map<String, Double> mejorPorDocumento = new HashMap<>();
+            for (Map.Entry<String, Double> variante : variantes(vista, termino).entrySet()) {
+                Map<String, Float> publicacion = vista.publicaciones.get(variante.getKey());
+                if (publicacion == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (total - publicacion.size() + 0.5) / (publicacion.size() + 0.5));
+                publicacion.forEach((idServicio, frecuencia) -> {
+                    Documento documento = vista.documentos.get(idServicio);
+                    if (documento == null) {
+                        return;
+                    }
+                    double normalizada = frecuencia * (K1 + 1)
+                            / (frecuencia + K1 * (1 - B + B * documento.longitud() / longitudPromedio));
+                    mejorPorDocumento.merge(idServicio, variante.getValue() * idf * normalizada, Math::max);
+                });
+            }
+            mejorPorDocumento.forEach((idServicio, puntaje) ->
+                    acumulados.computeIfAbsent(idServicio, k -> new Acumulado()).sumar(puntaje));
+        }
+
+        return acumulados.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<String, Acumulado>>comparingInt(e -> e.getValue().terminos)
+                        .thenComparingDouble(e -> e.getValue().puntaje)
+                        .reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .limit(limite)
+                .map(e -> new Resultado(e.getKey(), e.getValue().puntaje))
+                .toList();
+    }
+
+    int tamano() {
+        return contenido.documentos.size();
+    }
+
+    // El término exacto si está en el vocabulario; si no, los más parecidos por trigramas con su similitud
+    private static Map<String, Double> variantes(Contenido vista, String termino) {
+        if (vista.publicaciones.containsKey(termino)) {
+            return Map.of(termino, 1.0);
+        }
+
+        Set<String> trigramas = AnalizadorTexto.trigramas(termino);
+        Map<String, Integer> compartidos = new HashMap<>();
+        for (String trigrama : trigramas) {
+            Set<String> terminos = vista.trigramas.get(trigrama);
+            if (terminos != null) {
+                terminos.forEach(t -> compartidos.merge(t, 1, Integer::sum));
+            }
+        }
+
+        Map<String, Double> variantes = new HashMap<>();
+        compartidos.entrySet().stream()
+                .map(e -> Map.entry(e.getKey(), 2.0 * e.getValue()
+                        / (trigramas.size() + AnalizadorTexto.trigramas(e.getKey()).size())))
+                .filter(e -> e.getValue() >= SIMILITUD_MINIMA && vista.publicaciones.containsKey(e.getKey()))
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .limit(MAX_TERMINOS_APROXIMADOS)
+                .forEach(e -> variantes.put(e.getKey(), e.getValue()));
+        return variantes;
+    }
+
+    /**
+     * Servicio encontrado y su relevancia para la consulta
+     */
+    public record Resultado(String idServicio, double puntaje) {
+    }
+
+    private static final class Acumulado {
+        private int terminos;
+        private double puntaje;
+
+        void sumar(double puntajeTermino) {
+            terminos++;
+            puntaje += puntajeTermino;
+        }
+    }
+
+    // Frecuencia ponderada de cada término en el servicio y la suma de pesos de sus palabras
+    private record Documento(Map<String, Float> frecuencias, float longitud) {
+    }
+
+    /**
+     * Documentos, listas de publicación (término → servicio → frecuencia) y
+     * trigramas del vocabulario. Se modifica con el bloqueo de escritura
+     * tomado; las lecturas usan mapas concurrentes y no se bloquean.
+     */
+    private static final class Contenido {
+        private final Map<String, Documento> documentos = new ConcurrentHashMap<>();
+        private final Map<String, Map<String, Float>> publicaciones = new ConcurrentHashMap<>();
+        private final Map<String, Set<String>> trigramas = new ConcurrentHashMap<>();
+        private volatile double longitudTotal;
+
+        void agregar(String idServicio, String nombre, String deporte, String descripcion) {
+            Map<String, Float> frecuencias = new HashMap<>();
+            float longitud = sumar(frecuencias, nombre, PESO_NOMBRE)
+                    + sumar(frecuencias, deporte, PESO_DEPORTE)
+                    + sumar(frecuencias, descripcion, PESO_DESCRIPCION);
+            if (frecuencias.isEmpty()) {
+                return;
+            }
+
+            documentos.put(idServicio, new Documento(Map.copyOf(frecuencias), longitud));
+            longitudTotal += longitud;
+            frecuencias.forEach((termino, frecuencia) -> {
+                Map<String, Float> publicacion = publicaciones.computeIfAbsent(termino, t -> {
+                    AnalizadorTexto.trigramas(t).forEach(trigrama ->
+                            trigramas.computeIfAbsent(trigrama, k -> ConcurrentHashMap.newKeySet()).add(t));
+                    return new ConcurrentHashMap<>();
+                });
+                publicacion.put(idServicio, frecuencia);
+            });
+        }
+
+        void quitar(String idServicio) {
+            Documento documento = documentos.remove(idServicio);
+            if (documento == null) {
+                return;
+            }
+            longitudTotal -= documento.longitud();
+            for (String termino : documento.frecuencias().keySet()) {
+                Map<String, Float> publicacion = publicaciones.get(termino);
+                if (publicacion == null) {
+                    continue;
+                }
+                publicacion.remove(idServicio);
+                if (publicacion.isEmpty()) {
+                    publicaciones.remove(termino);
+                    for (String trigrama : AnalizadorTexto.trigramas(termino)) {
+                        Set<String> terminos = trigramas.get(trigrama);
+                        if (terminos != null) {
+                            terminos.remove(termino);
+                            if (terminos.isEmpty()) {
+                                trigramas.remove(trigrama);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        private static float sumar(Map<String, Float> frecuencias, String texto, float peso) {
+            List<String> terminos = AnalizadorTexto.terminos(texto);
+            terminos.forEach(termino -> frecuencias.merge(termino, peso, Float::sum));
+            return terminos.size() * peso;
+        }
+    }
+}
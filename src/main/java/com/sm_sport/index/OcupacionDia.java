@@ -0,0 +1,112 @@
+package com.sm_sport.index;
+
+import java.time.LocalTime;
+
+/**
+ * Ocupación de un servicio en un día: cuántas reservas activas se cruzan en
+ * cada instante. Es un árbol de segmentos sobre casillas de 5 minutos con
+ * suma por rango y máximo por rango, así que registrar una reserva y
+ * consultar el cruce más alto dentro de un intervalo cuestan O(log n) sin
+ * importar cuántas reservas tenga el día.
+ * <p>
+ * Los intervalos son semiabiertos [inicio, fin) y se redondean hacia afuera
+ * a la casilla: una reserva de 10:03 a 11:00 ocupa desde las 10:00.
+ * No es seguro para hilos: {@link AgendaReservas} sólo modifica la copia de
+ * cada transacción, y las copias compartidas no cambian después de cargarse.
+ */
+public final class OcupacionDia {
+
+    public static final int MINUTOS_POR_CASILLA = 5;
+    public static final int CASILLAS_POR_DIA = 24 * 60 / MINUTOS_POR_CASILLA;
+
+    // Menor potencia de dos que cubre el día
+    private static final int HOJAS = Integer.highestOneBit(CASILLAS_POR_DIA - 1) << 1;
+
+    private final int[] maximo = new int[2 * HOJAS];  // máximo del subárbol, incluida su propia suma
+    private final int[] suma = new int[2 * HOJAS];    // suma pendiente aplicada a todo el subárbol
+    private int reservas;
+    private final int capacidad;
+    private final long cargadoEn;
+
+    OcupacionDia(int capacidad) {
+        this.capacidad = capacidad;
+        this.cargadoEn = System.nanoTime();
+    }
+
+    /**
+     * Mayor cantidad de reservas que se cruzan en algún instante de [inicio, fin)
+     */
+    public int ocupacionMaxima(LocalTime inicio, LocalTime fin) {
+        return maximo(1, 0, HOJAS, casillaInicio(inicio), casillaFin(fin));
+    }
+
+    /**
+     * Indica si cabe una reserva más en [inicio, fin) sin superar la capacidad
+     */
+    public boolean cabe(LocalTime inicio, LocalTime fin) {
+        return ocupacionMaxima(inicio, fin) < capacidad;
+    }
+
+    void ocupar(LocalTime inicio, LocalTime fin) {
+        sumar(1, 0, HOJAS, casillaInicio(inicio), casillaFin(fin), 1);
+        reservas++;
+    }
+
+    void liberar(LocalTime inicio, LocalTime fin) {
+        sumar(1, 0, HOJAS, casillaInicio(inicio), casillaFin(fin), -1);
+        reservas--;
+    }
+
+    public int getReservas() {
+        return reservas;
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    boolean cargadoAntesDe(long nanos) {
+        return cargadoEn - nanos < 0;
+    }
+
+    private void sumar(int nodo, int izquierda, int derecha, int desde, int hasta, int delta) {
+        if (hasta <= izquierda || derecha <= desde) {
+            return;
+        }
+        if (desde <= izquierda && derecha <= hasta) {
+            suma[nodo] += delta;
+            maximo[nodo] += delta;
+            return;
+        }
+        int medio = (izquierda + derecha) >>> 1;
+        sumar(2 * nodo, izquierda, medio, desde, hasta, delta);
+        sumar(2 * nodo + 1, medio, derecha, desde, hasta, delta);
+        maximo[nodo] = suma[nodo] + Math.max(maximo[2 * nodo], maximo[2 * nodo + 1]);
+    }
+
+    private int maximo(int nodo, int izquierda, int derecha, int desde, int hasta) {
+        if (hasta <= izquierda || derecha <= desde) {
+            return 0;
+        }
+        if (desde <= izquierda && derecha <= hasta) {
+            return maximo[nodo];
+        }
+        int medio = (izquierda + derecha) >>> 1;
+        return suma[nodo] + Math.max(
+                maximo(2 * nodo, izquierda, medio, desde, hasta),
+                maximo(2 * nodo + 1, medio, derecha, desde, hasta));
+    }
+
+    private static int casillaInicio(LocalTime hora) {
+        return hora.toSecondOfDay() / (MINUTOS_POR_CASILLA * 60);
+    }
+
+    // LocalTime.MIDNIGHT como fin representa el final del día
+    private static int casillaFin(LocalTime hora) {
+        if (hora.equals(LocalTime.MIDNIGHT)) {
+            return CASILLAS_POR_DIA;
+        }
+        int segundosPorCasilla = MINUTOS_POR_CASILLA * 60;
+        return (hora.toSecondOfDay() + segundosPorCasilla - 1) / segundosPorCasilla;
+    }
+}
@@ -0,0 +1,369 @@
+package com.sm_sport.index;
+
+import com.sm_sport.repository.ClienteRepository;
+import com.sm_sport.repository.ReservaRepository;
+import com.sm_sport.repository.ServicioRepository;
+import com.sm_sport.util.Transacciones;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Recomendaciones de servicios para cada cliente ("servicios para ti").
+ * <p>
+ * Se combinan dos fuentes de candidatos:
+ * <ul>
+ *     <li>Contenido: un índice invertido de deporte y ciudad a los servicios
+ *     publicados, ordenados por el mismo puntaje de {@link ClasificacionServicios}.
+ *     La afinidad del cliente por cada deporte sale de sus preferencias declaradas
+ *     y de lo que reservó; la de cada ciudad, de dónde reservó.</li>
+ *     <li>Reservas en común: la similitud coseno entre dos servicios según los
+ *     clientes que reservaron ambos ("quienes reservaron esta cancha también
+ *     reservaron..."), con los 20 servicios más parecidos de cada uno.</li>
+ * </ul>
+ * Cada reserva pesa más cuanto mejor la calificó el cliente; un servicio
+ * calificado con 1 estrella no aporta candidatos. Los servicios que el
+ * cliente ya reservó no se recomiendan.
+ * <p>
+ * El índice, las similitudes y las recomendaciones de todos los clientes se
+ * calculan en un proceso nocturno. Las reservas, reseñas y cambios de
+ * preferencias marcan al cliente (tras el commit) y sus recomendaciones se
+ * recalculan en lote cada minuto con los datos de ese momento. Las lecturas
+ * se sirven desde memoria; los clientes sin historial ni preferencias reciben
+ * los servicios mejor clasificados.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecomendacionesServicios {
+
+    public static final int MAX_RECOMENDACIONES = 50;
+
+    private static final int MAX_HISTORIAL = 50;
+    private static final int MAX_VECINOS = 20;
+    private static final int CANDIDATOS_POR_TABLA = 30;
+    private static final int TAMANO_LOTE = 500;
+    private static final double PESO_SIMILITUD = 1.0;
+    private static final double PESO_CONTENIDO = 0.5;
+    private static final double PESO_OTRAS_CIUDADES = 0.2;
+    private static final String TODOS = "*";
+    private static final String GENERAL = TODOS + "|" + TODOS;
+    private static final Pattern SEPARADORES = Pattern.compile("\\s*(?:[,;/|\\n]|\\s+y\\s+)\\s*");
+
+    private final ServicioRepository servicioRepository;
+    private final ClienteRepository clienteRepository;
+    private final ReservaRepository reservaRepository;
+
+    private final Object escritura = new Object();
+    private volatile Contenido contenido = new Contenido(Map.of(), Map.of());
+    private final Set<String> pendientes = ConcurrentHashMap.newKeySet();
+    private final Set<String> actualizadosDuranteReconstruccion = new HashSet<>();
+    private boolean reconstruyendo;
+
+    /**
+     * Recalcula el índice de servicios, las similitudes y las recomendaciones de todos los clientes
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.recomendaciones.reconstruccion:0 0 3 * * *}")
+    public void reconstruir() {
+        synchronized (escritura) {
+            reconstruyendo = true;
+            actualizadosDuranteReconstruccion.clear();
+        }
+        try {
+            Map<String, Perfil> perfiles = new HashMap<>();
+            for (ClienteRepository.PreferenciaCliente p : clienteRepository.findPreferenciasActivas()) {
+                perfiles.put(p.getIdCliente(), new Perfil(p.getPreferencias()));
+            }
+            for (ReservaRepository.HistorialCliente h : reservaRepository.findHistorialClientes()) {
+                Perfil perfil = perfiles.get(h.getIdCliente());
+                if (perfil != null) {
+                    perfil.historial.add(h);
+                }
+            }
+
+            Contenido nuevo = new Contenido(indexarServicios(), similitudes(perfiles.values()));
+            perfiles.forEach((idCliente, perfil) -> nuevo.actualizar(idCliente, perfil));
+
+            synchronized (escritura) {
+                contenido = nuevo;
+                // Lo recalculado durante la lectura pudo quedar con datos anteriores; se repite en la próxima vuelta
+                pendientes.addAll(actualizadosDuranteReconstruccion);
+            }
+            log.info("Recomendaciones reconstruidas: {} servicios, {} clientes con recomendaciones",
+                    nuevo.servicios.size(), nuevo.porCliente.size());
+        } finally {
+            synchronized (escritura) {
+                reconstruyendo = false;
+                actualizadosDuranteReconstruccion.clear();
+            }
+        }
+    }
+
+    /**
+     * Marca a un cliente para recalcular sus recomendaciones (se aplica tras el commit)
+     */
+    public void marcar(String idCliente) {
+        Transacciones.despuesDelCommit(() -> pendientes.add(idCliente));
+    }
+
+    /**
+     * Recalcula las recomendaciones de los clientes marcados
+     */
+    @Scheduled(fixedDelayString = "${app.recomendaciones.actualizacion.intervalo:60000}")
+    public void actualizarPendientes() {
+        if (pendientes.isEmpty()) {
+            return;
+        }
+        List<String> ids = new ArrayList<>(pendientes);
+        pendientes.removeAll(ids);
+
+        for (int inicio = 0; inicio < ids.size(); inicio += TAMANO_LOTE) {
+            List<String> lote = ids.subList(inicio, Math.min(ids.size(), inicio + TAMANO_LOTE));
+            Map<String, Perfil> perfiles = new HashMap<>();
+            for (ClienteRepository.PreferenciaCliente p : clienteRepository.findPreferenciasActivas(lote)) {
+                perfiles.put(p.getIdCliente(), new Perfil(p.getPreferencias()));
+            }
+            for (ReservaRepository.HistorialCliente h : reservaRepository.findHistorialClientes(lote)) {
+                Perfil perfil = perfiles.get(h.getIdCliente());
+                if (perfil != null) {
+                    perfil.historial.add(h);
+                }
+            }
+
+            synchronized (escritura) {
+                for (String idCliente : lote) {
+                    contenido.actualizar(idCliente, perfiles.get(idCliente));
+                }
+                if (reconstruyendo) {
+                    actualizadosDuranteReconstruccion.addAll(lote);
+                }
+            }
+        }
+        log.debug("Recomendaciones actualizadas para {} clientes", ids.size());
+    }
+
+    /**
+     * Servicios recomendados para el cliente, del más al menos afín
+     *
+     * @param cantidad Máximo de servicios
+     */
+    public List<Recomendacion> recomendar(String idCliente, int cantidad) {
+        Contenido actual = contenido;
+        List<Recomendacion> recomendaciones = actual.porCliente.getOrDefault(idCliente, actual.populares);
+        return recomendaciones.subList(0, Math.min(cantidad, recomendaciones.size()));
+    }
+
+    // Servicios publicados con su deporte, ciudad y puntaje, y las tablas del índice invertido
+    private Map<String, ServicioIndexado> indexarServicios() {
+        List<ServicioRepository.ClasificacionServicio> servicios = servicioRepository.findClasificacionesPublicadas();
+        double media = ClasificacionServicios.calificacionMedia(servicios);
+        LocalDateTime ahora = LocalDateTime.now();
+
+        Map<String, ServicioIndexado> indexados = new HashMap<>();
+        for (ServicioRepository.ClasificacionServicio s : servicios) {
+            indexados.put(s.getIdServicio(), new ServicioIndexado(s.getIdServicio(), normalizar(s.getDeporte()),
+                    normalizar(s.getCiudad()), ClasificacionServicios.puntaje(media, s.getCalificacionPromedio(),
+                    s.getTotalResenas(), s.getUltimaResena(), ahora)));
+        }
+        return indexados;
+    }
+
+    // Similitud coseno por reservas en común: coincidencias / raíz(clientes de uno × clientes del otro)
+    private static Map<String, List<Recomendacion>> similitudes(Collection<Perfil> perfiles) {
+        Map<String, Integer> clientesPorServicio = new HashMap<>();
+        Map<String, Map<String, Integer>> coincidencias = new HashMap<>();
+        for (Perfil perfil : perfiles) {
+            List<String> servicios = perfil.historial.stream()
+                    .filter(h -> interes(h) > 0)
+                    .sorted(Comparator.comparingDouble(RecomendacionesServicios::interes).reversed())
+                    .limit(MAX_HISTORIAL)
+                    .map(ReservaRepository.HistorialCliente::getIdServicio)
+                    .toList();
+            for (String a : servicios) {
+                clientesPorServicio.merge(a, 1, Integer::sum);
+                Map<String, Integer> conA = coincidencias.computeIfAbsent(a, k -> new HashMap<>());
+                for (String b : servicios) {
+                    if (!a.equals(b)) {
+                        conA.merge(b, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+
+        Map<String, List<Recomendacion>> vecinos = new HashMap<>();
+        coincidencias.forEach((a, conA) -> {
+            int clientesA = clientesPorServicio.get(a);
+            List<Recomendacion> masParecidos = conA.entrySet().stream()
+                    .map(e -> new Recomendacion(e.getKey(),
+                            e.getValue() / Math.sqrt((double) clientesA * clientesPorServicio.get(e.getKey()))))
+                    .sorted(Contenido.ORDEN)
+                    .limit(MAX_VECINOS)
+                    .toList();
+            if (!masParecidos.isEmpty()) {
+                vecinos.put(a, masParecidos);
+            }
+        });
+        return vecinos;
+    }
+
+    // Peso de un servicio reservado: crece con las reservas y con la calificación (1 estrella = 0, 3 = 1, 5 = 2)
+    private static double interes(ReservaRepository.HistorialCliente historial) {
+        double reservas = Math.log1p(historial.getReservas() != null ? historial.getReservas() : 1);
+        double calificacion = historial.getCalificacion() != null ? (historial.getCalificacion() - 1) / 2 : 1;
+        return reservas * calificacion;
+    }
+
+    private static Set<String> deportesDeclarados(String preferencias) {
+        Set<String> deportes = new LinkedHashSet<>();
+        if (preferencias != null) {
+            for (String deporte : SEPARADORES.split(preferencias.trim())) {
+                if (!deporte.isBlank()) {
+                    deportes.add(normalizar(deporte));
+                }
+            }
+        }
+        return deportes;
+    }
+
+    private static String clave(String deporte, String ciudad) {
+        return deporte + "|" + ciudad;
+    }
+
+    private static String normalizar(String texto) {
+        return texto == null || texto.isBlank() ? TODOS : AnalizadorTexto.normalizar(texto.trim());
+    }
+
+    /**
+     * Servicio recomendado con su afinidad
+     */
+    public record Recomendacion(String idServicio, double puntaje) {
+    }
+
+    private record ServicioIndexado(String idServicio, String deporte, String ciudad, double puntaje) {
+    }
+
+    // Deportes declarados y servicios reservados de un cliente
+    private static final class Perfil {
+        private final String preferencias;
+        private final List<ReservaRepository.HistorialCliente> historial = new ArrayList<>();
+
+        Perfil(String preferencias) {
+            this.preferencias = preferencias;
+        }
+    }
+
+    /**
+     * Índice invertido y similitudes del último proceso nocturno, y las
+     * recomendaciones por cliente, que se reemplazan con el bloqueo de
+     * escritura tomado y se leen sin bloqueo.
+     */
+    private static final class Contenido {
+        private static final Comparator<Recomendacion> ORDEN = Comparator.comparingDouble(Recomendacion::puntaje)
+                .reversed()
+                .thenComparing(Recomendacion::idServicio);
+
+        private final Map<String, ServicioIndexado> servicios;
+        private final Map<String, List<Recomendacion>> vecinos;
+        private final Map<String, List<Recomendacion>> tablas = new HashMap<>();
+        private final List<Recomendacion> populares;
+        private final Map<String, List<Recomendacion>> porCliente = new ConcurrentHashMap<>();
+
+        Contenido(Map<String, ServicioIndexado> servicios, Map<String, List<Recomendacion>> vecinos) {
+            this.servicios = servicios;
+            this.vecinos = vecinos;
+
+            // Tablas deporte|ciudad, deporte|* y *|* (general) con los mejores servicios de cada una
+            Map<String, List<Recomendacion>> todas = new HashMap<>();
+            for (ServicioIndexado s : servicios.values()) {
+                Recomendacion r = new Recomendacion(s.idServicio(), s.puntaje());
+                for (String clave : new LinkedHashSet<>(List.of(clave(s.deporte(), s.ciudad()),
+                        clave(s.deporte(), TODOS), GENERAL))) {
+                    todas.computeIfAbsent(clave, k -> new ArrayList<>()).add(r);
+                }
+            }
+            todas.forEach((clave, lista) -> tablas.put(clave, lista.stream()
+                    .sorted(ORDEN)
+                    .limit(clave.equals(GENERAL) ? MAX_RECOMENDACIONES : CANDIDATOS_POR_TABLA)
+                    .toList()));
+            this.populares = tablas.getOrDefault(GENERAL, List.of());
+        }
+
+        // Sin perfil (cliente inactivo) o sin candidatos, el cliente recibe los populares
+        void actualizar(String idCliente, Perfil perfil) {
+            List<Recomendacion> recomendaciones = perfil != null ? calcular(perfil) : List.of();
+            if (recomendaciones.isEmpty()) {
+                porCliente.remove(idCliente);
+            } else {
+                porCliente.put(idCliente, recomendaciones);
+            }
+        }
+
+        private List<Recomendacion> calcular(Perfil perfil) {
+            Set<String> reservados = new HashSet<>();
+            Map<String, Double> deportes = new HashMap<>();
+            Map<String, Double> ciudades = new HashMap<>();
+            Map<String, Double> puntajes = new HashMap<>();
+
+            for (String deporte : deportesDeclarados(perfil.preferencias)) {
+                deportes.merge(deporte, 1.0, Double::sum);
+            }
+            for (ReservaRepository.HistorialCliente h : perfil.historial) {
+                reservados.add(h.getIdServicio());
+                double interes = interes(h);
+                if (interes <= 0) {
+                    continue;
+                }
+                for (Recomendacion vecino : vecinos.getOrDefault(h.getIdServicio(), List.of())) {
+                    puntajes.merge(vecino.idServicio(), PESO_SIMILITUD * interes * vecino.puntaje(), Double::sum);
+                }
+                ServicioIndexado servicio = servicios.get(h.getIdServicio());
+                if (servicio != null) {
+                    deportes.merge(servicio.deporte(), interes, Double::sum);
+                    if (!TODOS.equals(servicio.ciudad())) {
+                        ciudades.merge(servicio.ciudad(), interes, Double::sum);
+                    }
+                }
+            }
+
+            // Afinidad por deporte relativa al preferido; por ciudad, proporción de lo reservado en cada una.
+            // Las demás ciudades aportan menos, para no quedar sin candidatos donde el deporte no tiene servicios
+            double maximoDeporte = deportes.values().stream().mapToDouble(Double::doubleValue).max().orElse(1);
+            double totalCiudades = ciudades.values().stream().mapToDouble(Double::doubleValue).sum();
+            deportes.forEach((deporte, afinidad) -> {
+                Map<String, Double> tablasDelDeporte = new HashMap<>();
+                ciudades.forEach((ciudad, peso) -> tablasDelDeporte.put(clave(deporte, ciudad), peso / totalCiudades));
+                tablasDelDeporte.put(clave(deporte, TODOS), ciudades.isEmpty() ? 1.0 : PESO_OTRAS_CIUDADES);
+                tablasDelDeporte.forEach((clave, proporcion) -> {
+                    for (Recomendacion r : tablas.getOrDefault(clave, List.of())) {
+                        puntajes.merge(r.idServicio(),
+                                PESO_CONTENIDO * afinidad / maximoDeporte * proporcion * r.puntaje() / 5, Double::sum);
+                    }
+                });
+            });
+
+            return puntajes.entrySet().stream()
+                    .filter(e -> !reservados.contains(e.getKey()) && servicios.containsKey(e.getKey()))
+                    .map(e -> new Recomendacion(e.getKey(), e.getValue()))
+                    .sorted(ORDEN)
+                    .limit(MAX_RECOMENDACIONES)
+                    .toList();
+        }
+    }
+}
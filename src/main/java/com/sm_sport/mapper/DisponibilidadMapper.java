@@ -1,8 +1,12 @@
 package com.sm_sport.mapper;
 
 import com.sm_sport.dto.request.DisponibilidadRequest;
+import com.sm_sport.dto.request.ExcepcionDisponibilidadRequest;
+import com.sm_sport.dto.request.ReglaDisponibilidadRequest;
 import com.sm_sport.dto.response.DisponibilidadResponse;
 import com.sm_sport.model.entity.DisponibilidadServicio;
+import com.sm_sport.model.entity.ExcepcionDisponibilidad;
+import com.sm_sport.model.entity.ReglaDisponibilidad;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.NullValuePropertyMappingStrategy;
@@ -27,4 +31,19 @@ public interface DisponibilidadMapper {
     DisponibilidadServicio toEntity(DisponibilidadRequest request);
 
     List<DisponibilidadServicio> toEntityList(List<DisponibilidadRequest> requests);
+
+    // ReglaDisponibilidadRequest a ReglaDisponibilidad
+    @Mapping(target = "idRegla", ignore = true)
+    @Mapping(target = "servicio", ignore = true)
+    @Mapping(target = "activa", constant = "true")
+    ReglaDisponibilidad toReglaEntity(ReglaDisponibilidadRequest request);
+
+    List<ReglaDisponibilidad> toReglaEntityList(List<ReglaDisponibilidadRequest> requests);
+
+    // ExcepcionDisponibilidadRequest a ExcepcionDisponibilidad
+    @Mapping(target = "idExcepcion", ignore = true)
+    @Mapping(target = "servicio", ignore = true)
+    ExcepcionDisponibilidad toExcepcionEntity(ExcepcionDisponibilidadRequest request);
+
+    List<ExcepcionDisponibilidad> toExcepcionEntityList(List<ExcepcionDisponibilidadRequest> requests);
 }
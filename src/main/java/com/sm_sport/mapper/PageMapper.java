@@ -1,9 +1,12 @@
 package com.sm_sport.mapper;
 
+import com.sm_sport.dto.response.CursorPageResponse;
 import com.sm_sport.dto.response.PageResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Component;
 
+import java.util.function.Function;
+
 @Component
 public class PageMapper {
 
@@ -19,4 +22,13 @@ public class PageMapper {
                 .empty(page.isEmpty())
                 .build();
     }
+
+    public <S, T> CursorPageResponse<T> toCursorPageResponse(CursorPageResponse<S> page, Function<S, T> mapper) {
+        return CursorPageResponse.<T>builder()
+                .content(page.getContent().stream().map(mapper).toList())
+                .pageSize(page.getPageSize())
+                .nextCursor(page.getNextCursor())
+                .hasNext(page.getHasNext())
+                .build();
+    }
 }
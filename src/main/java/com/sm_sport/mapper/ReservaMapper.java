@@ -44,6 +44,7 @@ public interface ReservaMapper {
     @Mapping(target = "cliente", ignore = true)
     @Mapping(target = "servicio", ignore = true)
     @Mapping(target = "proveedor", ignore = true)
+    @Mapping(target = "disponibilidad", ignore = true)
     @Mapping(target = "estado", constant = "PENDIENTE")
     @Mapping(target = "fechaCreacion", ignore = true)
     @Mapping(target = "fechaActualizacion", ignore = true)
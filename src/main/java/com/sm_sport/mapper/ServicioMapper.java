@@ -4,7 +4,6 @@ import com.sm_sport.dto.request.ActualizarServicioRequest;
 import com.sm_sport.dto.request.CrearServicioRequest;
 import com.sm_sport.dto.response.ServicioDetalleResponse;
 import com.sm_sport.dto.response.ServicioResponse;
-import com.sm_sport.model.entity.Resena;
 import com.sm_sport.model.entity.Servicio;
 import org.mapstruct.*;
 
@@ -31,7 +30,8 @@ public interface ServicioMapper {
     @Mapping(source = "proveedor", target = "proveedor")
     @Mapping(source = "ubicacion", target = "ubicacion")
     @Mapping(source = "disponibilidad", target = "disponibilidades")
-    @Mapping(source = "resenas", target = "resenas", qualifiedByName = "limitResenas")
+    @Mapping(target = "resenas", ignore = true)
+    @Mapping(target = "histogramaCalificaciones", ignore = true)
     ServicioDetalleResponse toDetalleResponse(Servicio servicio);
 
     // CrearServicioRequest a Servicio
@@ -57,12 +57,4 @@ public interface ServicioMapper {
     @Mapping(target = "reservas", ignore = true)
     @Mapping(target = "resenas", ignore = true)
     void updateEntityFromRequest(ActualizarServicioRequest request, @MappingTarget Servicio servicio);
-
-    // Método personalizado para limitar reseñas en detalle
-    @Named("limitResenas")
-    default List<Resena> limitResenas(
-            List<Resena> resenas) {
-        if (resenas == null) return null;
-        return resenas.stream().limit(5).toList();
-    }
 }
@@ -22,7 +22,7 @@ import java.time.LocalDateTime;
 public class AuditoriaReserva {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @IdOrdenado
     @Column(name = "id_auditoria", length = 50)
     private String idAuditoria;
 
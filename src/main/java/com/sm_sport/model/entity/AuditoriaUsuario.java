@@ -23,7 +23,7 @@ import java.time.LocalDateTime;
 public class AuditoriaUsuario {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @IdOrdenado
     @Column(name = "id_auditoria", length = 50)
     private String idAuditoria;
 
@@ -0,0 +1,40 @@
+package com.sm_sport.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resultado guardado de una operación ejecutada con cabecera Idempotency-Key.
+ * El id combina operación, usuario y clave; la huella identifica el cuerpo de la
+ * solicitud para rechazar la reutilización de una clave con otros datos.
+ * La respuesta es nula mientras la operación original no ha terminado.
+ */
+@Entity
+@Table(name = "claves_idempotencia", indexes = {
+        @Index(name = "idx_idempotencia_expiracion", columnList = "fecha_expiracion")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClaveIdempotencia {
+
+    @Id
+    @Column(name = "id_clave", length = 200)
+    private String idClave;
+
+    @Column(nullable = false, length = 64)
+    private String huella;
+
+    @Column(columnDefinition = "TEXT")
+    private String respuesta;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "fecha_expiracion", nullable = false)
+    private LocalDateTime fechaExpiracion;
+}
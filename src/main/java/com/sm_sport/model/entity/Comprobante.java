@@ -20,7 +20,7 @@ import java.time.LocalDateTime;
 public class Comprobante {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @IdOrdenado
     @Column(name = "id_comprobante", length = 50)
     private String idComprobante;
 
@@ -20,7 +20,7 @@ import java.time.LocalDateTime;
 public class ConfiguracionSistema {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @IdOrdenado
     @Column(name = "id_configuracion", length = 50)
     private String idConfiguracion;
 
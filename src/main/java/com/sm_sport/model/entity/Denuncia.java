@@ -28,7 +28,7 @@ import java.time.LocalDateTime;
 public class Denuncia {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @IdOrdenado
     @Column(name = "id_denuncia", length = 50)
     private String idDenuncia;
 
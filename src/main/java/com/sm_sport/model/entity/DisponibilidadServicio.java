@@ -13,6 +13,10 @@ import java.time.LocalTime;
         @Index(name = "idx_disponibilidad_servicio", columnList = "id_servicio"),
         @Index(name = "idx_disponibilidad_fecha", columnList = "fecha"),
         @Index(name = "idx_disponibilidad_disponible", columnList = "disponible")
+}, uniqueConstraints = {
+        // Si ya hay franjas repetidas, ddl-auto no la crea: ver db/migracion/disponibilidad-franja-unica.sql
+        @UniqueConstraint(name = "uk_disponibilidad_franja",
+                columnNames = {"id_servicio", "fecha", "hora_inicio", "hora_fin"})
 })
 @Getter
 @Setter
@@ -22,7 +26,7 @@ import java.time.LocalTime;
 public class DisponibilidadServicio {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @IdOrdenado
     @Column(name = "id_disponibilidad", length = 50)
     private String idDisponibilidad;
 
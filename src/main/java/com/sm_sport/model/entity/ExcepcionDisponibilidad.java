@@ -0,0 +1,51 @@
+package com.sm_sport.model.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Excepción a las reglas de disponibilidad (festivo, cierre, mantenimiento).
+ * Sin horas cierra el día completo; con horas cierra sólo ese rango.
+ */
+@Entity
+@Table(name = "excepciones_disponibilidad", indexes = {
+        @Index(name = "idx_excepcion_servicio_fecha", columnList = "id_servicio, fecha")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExcepcionDisponibilidad {
+
+    @Id
+    @IdOrdenado
+    @Column(name = "id_excepcion", length = 50)
+    private String idExcepcion;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_servicio", nullable = false)
+    @JsonIgnoreProperties({"disponibilidad", "resenas", "reservas"})
+    private Servicio servicio;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(name = "hora_inicio")
+    private LocalTime horaInicio;
+
+    @Column(name = "hora_fin")
+    private LocalTime horaFin;
+
+    @Column(length = 200)
+    private String motivo;
+
+    // True si la excepción cierra el día completo
+    public boolean esDiaCompleto() {
+        return horaInicio == null || horaFin == null;
+    }
+}
@@ -0,0 +1,28 @@
+package com.sm_sport.model.entity;
+
+import com.sm_sport.util.UuidOrdenado;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+
+import java.util.EnumSet;
+
+import static org.hibernate.generator.EventTypeSets.INSERT_ONLY;
+
+/**
+ * Generador de Hibernate para {@link IdOrdenado}: asigna un {@link UuidOrdenado}
+ * en memoria antes del INSERT, sin consultar la base de datos
+ */
+public class GeneradorIdOrdenado implements BeforeExecutionGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return UuidOrdenado.nuevo();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return INSERT_ONLY;
+    }
+}
@@ -0,0 +1,21 @@
+package com.sm_sport.model.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Genera el ID como UUID versión 7 ordenado por tiempo, en lugar del UUID
+ * aleatorio de {@code GenerationType.UUID}: las inserciones van al final del
+ * índice de la clave primaria y de los índices que la incluyen
+ */
+@IdGeneratorType(GeneradorIdOrdenado.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface IdOrdenado {
+}
@@ -23,7 +23,7 @@ import java.time.LocalDateTime;
 public class KPI {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @IdOrdenado
     @Column(name = "id_kpi", length = 50)
     private String idKpi;
 
@@ -24,7 +24,7 @@ import java.time.LocalDateTime;
 public class MetricaSistema {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @IdOrdenado
     @Column(name = "id_metrica", length = 50)
     private String idMetrica;
 
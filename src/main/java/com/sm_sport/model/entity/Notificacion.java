@@ -25,7 +25,7 @@ import java.time.LocalDateTime;
 public class Notificacion {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @IdOrdenado
     @Column(name = "id_notificacion", length = 50)
     private String idNotificacion;
 
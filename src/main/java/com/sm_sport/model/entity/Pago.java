@@ -27,7 +27,7 @@ import java.time.LocalDateTime;
 public class Pago {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @IdOrdenado
     @Column(name = "id_pago", length = 50)
     private String idPago;
 
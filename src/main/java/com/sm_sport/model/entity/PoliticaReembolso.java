@@ -17,7 +17,7 @@ import java.math.BigDecimal;
 public class PoliticaReembolso {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @IdOrdenado
     @Column(name = "id_politica", length = 50)
     private String idPolitica;
 
@@ -0,0 +1,67 @@
+package com.sm_sport.model.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Regla semanal de disponibilidad (p. ej. lunes de 06:00 a 22:00 con 10 cupos).
+ * Las franjas concretas se calculan al consultar; sólo se guarda una fila de
+ * DisponibilidadServicio cuando alguien reserva en la franja.
+ */
+@Entity
+@Table(name = "reglas_disponibilidad", indexes = {
+        @Index(name = "idx_regla_servicio", columnList = "id_servicio")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReglaDisponibilidad {
+
+    @Id
+    @IdOrdenado
+    @Column(name = "id_regla", length = 50)
+    private String idRegla;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_servicio", nullable = false)
+    @JsonIgnoreProperties({"disponibilidad", "resenas", "reservas"})
+    private Servicio servicio;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dia_semana", nullable = false, length = 10)
+    private DayOfWeek diaSemana;
+
+    @Column(name = "hora_inicio", nullable = false)
+    private LocalTime horaInicio;
+
+    @Column(name = "hora_fin", nullable = false)
+    private LocalTime horaFin;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer cupos = 1;
+
+    @Column(name = "vigente_desde")
+    private LocalDate vigenteDesde;
+
+    @Column(name = "vigente_hasta")
+    private LocalDate vigenteHasta;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Boolean activa = true;
+
+    public boolean aplicaEn(LocalDate fecha) {
+        return Boolean.TRUE.equals(activa)
+                && fecha.getDayOfWeek() == diaSemana
+                && (vigenteDesde == null || !fecha.isBefore(vigenteDesde))
+                && (vigenteHasta == null || !fecha.isAfter(vigenteHasta));
+    }
+}
@@ -24,7 +24,7 @@ import java.time.LocalDateTime;
 public class ReporteDesempeno {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @IdOrdenado
     @Column(name = "id_reporte", length = 50)
     private String idReporte;
 
@@ -11,7 +11,8 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "resenas", indexes = {
-        @Index(name = "idx_resena_servicio", columnList = "id_servicio"),
+        @Index(name = "idx_resena_servicio_fecha", columnList = "id_servicio, fecha_creacion, id_resena"),
+        @Index(name = "idx_resena_servicio_calificacion", columnList = "id_servicio, calificacion, id_resena"),
         @Index(name = "idx_resena_cliente", columnList = "id_cliente"),
         @Index(name = "idx_resena_calificacion", columnList = "calificacion"),
         @Index(name = "idx_resena_reportada", columnList = "reportada")
@@ -25,7 +26,7 @@ import java.time.LocalDateTime;
 public class Resena {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @IdOrdenado
     @Column(name = "id_resena", length = 50)
     private String idResena;
 
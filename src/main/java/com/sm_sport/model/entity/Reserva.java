@@ -17,11 +17,14 @@ import java.util.List;
 
 @Entity
 @Table(name = "reservas", indexes = {
-        @Index(name = "idx_reserva_cliente", columnList = "id_cliente"),
-        @Index(name = "idx_reserva_servicio", columnList = "id_servicio"),
-        @Index(name = "idx_reserva_proveedor", columnList = "id_proveedor"),
-        @Index(name = "idx_reserva_estado", columnList = "estado"),
-        @Index(name = "idx_reserva_fecha", columnList = "fecha_reserva")
+        // Índices compuestos alineados con el orden (fecha_reserva, hora_reserva, id_reserva)
+        // de la paginación por cursor: el filtro de igualdad va primero y el orden después
+        @Index(name = "idx_reserva_cliente_fecha", columnList = "id_cliente, fecha_reserva, hora_reserva, id_reserva"),
+        @Index(name = "idx_reserva_servicio_fecha", columnList = "id_servicio, fecha_reserva, hora_reserva, id_reserva"),
+        @Index(name = "idx_reserva_proveedor_fecha", columnList = "id_proveedor, fecha_reserva, hora_reserva, id_reserva"),
+        @Index(name = "idx_reserva_proveedor_creacion", columnList = "id_proveedor, fecha_creacion, id_reserva"),
+        @Index(name = "idx_reserva_estado_fecha", columnList = "estado, fecha_reserva, hora_reserva, id_reserva"),
+        @Index(name = "idx_reserva_fecha", columnList = "fecha_reserva, hora_reserva, id_reserva")
 })
 @EntityListeners(AuditingEntityListener.class)
 @Getter
@@ -32,7 +35,7 @@ import java.util.List;
 public class Reserva {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @IdOrdenado
     @Column(name = "id_reserva", length = 50)
     private String idReserva;
 
@@ -51,12 +54,25 @@ public class Reserva {
     @JsonIgnoreProperties({"serviciosPublicados", "reservas", "reportes"})
     private Proveedor proveedor;
 
+    // Franja de disponibilidad de la que se tomó el cupo
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_disponibilidad")
+    @JsonIgnoreProperties("servicio")
+    private DisponibilidadServicio disponibilidad;
+
     @Column(name = "fecha_reserva", nullable = false)
     private LocalDate fechaReserva;
 
     @Column(name = "hora_reserva", nullable = false)
     private LocalTime horaReserva;
 
+    // Fin del intervalo [hora_reserva, hora_fin); 00:00 si termina a medianoche
+    @Column(name = "hora_fin")
+    private LocalTime horaFin;
+
+    @Column(name = "duracion_minutos")
+    private Integer duracionMinutos;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     private EstadoReserva estado = EstadoReserva.PENDIENTE;
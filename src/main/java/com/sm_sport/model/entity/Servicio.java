@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.sm_sport.model.enums.EstadoServicio;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -17,7 +18,7 @@ import java.util.List;
 @Table(name = "servicios", indexes = {
         @Index(name = "idx_servicio_proveedor", columnList = "id_proveedor"),
         @Index(name = "idx_servicio_deporte", columnList = "deporte"),
-        @Index(name = "idx_servicio_estado", columnList = "estado"),
+        @Index(name = "idx_servicio_estado_publicacion", columnList = "estado, fecha_publicacion, id_servicio"),
         @Index(name = "idx_servicio_precio", columnList = "precio")
 })
 @EntityListeners(AuditingEntityListener.class)
@@ -29,7 +30,7 @@ import java.util.List;
 public class Servicio {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @IdOrdenado
     @Column(name = "id_servicio", length = 50)
     private String idServicio;
 
@@ -68,6 +69,27 @@ public class Servicio {
     @Column(name = "total_resenas")
     private Integer totalResenas = 0;
 
+    // Reseñas publicadas por calificación; se recalculan junto con el promedio (null si aún no se calcularon)
+    @Column(name = "resenas_1_estrella")
+    private Integer resenasUnaEstrella;
+
+    @Column(name = "resenas_2_estrellas")
+    private Integer resenasDosEstrellas;
+
+    @Column(name = "resenas_3_estrellas")
+    private Integer resenasTresEstrellas;
+
+    @Column(name = "resenas_4_estrellas")
+    private Integer resenasCuatroEstrellas;
+
+    @Column(name = "resenas_5_estrellas")
+    private Integer resenasCincoEstrellas;
+
+    // Reservas que pueden cruzarse en el tiempo (1 = uso exclusivo, p. ej. una cancha)
+    @Builder.Default
+    @Column(name = "capacidad_simultanea")
+    private Integer capacidadSimultanea = 1;
+
     // Composición con Ubicacion (1:1)
     @OneToOne(mappedBy = "servicio", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnoreProperties("servicio")
@@ -75,16 +97,19 @@ public class Servicio {
 
     // Composición con Disponibilidad (1:N)
     @OneToMany(mappedBy = "servicio", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     @JsonIgnoreProperties("servicio")
     private List<DisponibilidadServicio> disponibilidad = new ArrayList<>();
 
     // Agregación con Reseñas
     @OneToMany(mappedBy = "servicio", cascade = CascadeType.ALL)
+    @BatchSize(size = 50)
     @JsonIgnoreProperties("servicio")
     private List<Resena> resenas = new ArrayList<>();
 
     // Relación con Reservas
     @OneToMany(mappedBy = "servicio")
+    @BatchSize(size = 50)
     @JsonIgnoreProperties("servicio")
     private List<Reserva> reservas = new ArrayList<>();
 }
@@ -24,7 +24,7 @@ import java.time.LocalDateTime;
 public class SolicitudReembolso {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @IdOrdenado
     @Column(name = "id_solicitud", length = 50)
     private String idSolicitud;
 
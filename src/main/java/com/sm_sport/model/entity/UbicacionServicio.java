@@ -9,7 +9,9 @@ import java.math.BigDecimal;
 @Entity
 @Table(name = "ubicaciones_servicio", indexes = {
         @Index(name = "idx_ubicacion_ciudad", columnList = "ciudad"),
-        @Index(name = "idx_ubicacion_departamento", columnList = "departamento")
+        @Index(name = "idx_ubicacion_departamento", columnList = "departamento"),
+        // Prefiltro por rectángulo de la búsqueda por distancia
+        @Index(name = "idx_ubicacion_coordenadas", columnList = "coordenadas_lat, coordenadas_lng")
 })
 @Getter
 @Setter
@@ -19,7 +21,7 @@ import java.math.BigDecimal;
 public class UbicacionServicio {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @IdOrdenado
     @Column(name = "id_ubicacion", length = 50)
     private String idUbicacion;
 
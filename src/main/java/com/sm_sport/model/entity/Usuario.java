@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 @Table(name = "usuarios", indexes = {
         @Index(name = "idx_usuario_correo", columnList = "correo"),
         @Index(name = "idx_usuario_rol", columnList = "rol"),
-        @Index(name = "idx_usuario_estado", columnList = "estado")
+        @Index(name = "idx_usuario_estado", columnList = "estado"),
+        @Index(name = "idx_usuario_fecha_registro", columnList = "fecha_registro, id_usuario")
 })
 @Inheritance(strategy = InheritanceType.JOINED)
 @DiscriminatorColumn(name = "rol", discriminatorType = DiscriminatorType.STRING)
@@ -29,7 +30,7 @@ import java.time.LocalDateTime;
 public abstract class Usuario {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @IdOrdenado
     @Column(name = "id_usuario", length = 50)
     private String idUsuario;
 
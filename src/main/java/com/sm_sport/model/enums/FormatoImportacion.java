@@ -0,0 +1,6 @@
+package com.sm_sport.model.enums;
+
+public enum FormatoImportacion {
+    CSV,
+    NDJSON
+}
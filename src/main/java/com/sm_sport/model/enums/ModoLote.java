@@ -0,0 +1,6 @@
+package com.sm_sport.model.enums;
+
+public enum ModoLote {
+    TODO_O_NADA,
+    PARCIAL
+}
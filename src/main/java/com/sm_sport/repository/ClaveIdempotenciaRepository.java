@@ -0,0 +1,43 @@
+package com.sm_sport.repository;
+
+import com.sm_sport.model.entity.ClaveIdempotencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ClaveIdempotenciaRepository extends JpaRepository<ClaveIdempotencia, String> {
+
+    /**
+     * Registra la clave antes de ejecutar la operación. Si otra transacción tiene la
+     * misma clave sin confirmar, Postgres espera a que termine: si confirma no se
+     * inserta nada y si revierte la inserción procede. Una clave vencida se reutiliza.
+     *
+     * @return 1 si la clave quedó reservada para esta transacción, 0 si ya existía vigente
+     */
+    @Modifying
+    @Query(value = "INSERT INTO claves_idempotencia (id_clave, huella, respuesta, fecha_creacion, fecha_expiracion) " +
+            "VALUES (:idClave, :huella, NULL, :ahora, :expiracion) " +
+            "ON CONFLICT (id_clave) DO UPDATE SET huella = EXCLUDED.huella, respuesta = NULL, " +
+            "fecha_creacion = EXCLUDED.fecha_creacion, fecha_expiracion = EXCLUDED.fecha_expiracion " +
+            "WHERE claves_idempotencia.fecha_expiracion < :ahora",
+            nativeQuery = true)
+    int reservar(@Param("idClave") String idClave,
+                 @Param("huella") String huella,
+                 @Param("ahora") LocalDateTime ahora,
+                 @Param("expiracion") LocalDateTime expiracion);
+
+    @Modifying
+    @Query("UPDATE ClaveIdempotencia c SET c.respuesta = :respuesta WHERE c.idClave = :idClave")
+    int guardarRespuesta(@Param("idClave") String idClave, @Param("respuesta") String respuesta);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ClaveIdempotencia c WHERE c.fechaExpiracion < :ahora")
+    int eliminarVencidas(@Param("ahora") LocalDateTime ahora);
+}
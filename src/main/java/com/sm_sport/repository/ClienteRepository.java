@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,6 +17,15 @@ public interface ClienteRepository extends JpaRepository<Cliente, String> {
     @Query("SELECT c FROM Cliente c WHERE c.preferenciaDeportes LIKE %:deporte%")
     List<Cliente> findByPreferenciaDeporte(@Param("deporte") String deporte);
 
+    // Deportes declarados por los clientes activos, para las recomendaciones
+    @Query("SELECT c.idUsuario AS idCliente, c.preferenciaDeportes AS preferencias FROM Cliente c " +
+            "WHERE c.estado = 'ACTIVO'")
+    List<PreferenciaCliente> findPreferenciasActivas();
+
+    @Query("SELECT c.idUsuario AS idCliente, c.preferenciaDeportes AS preferencias FROM Cliente c " +
+            "WHERE c.estado = 'ACTIVO' AND c.idUsuario IN :idsClientes")
+    List<PreferenciaCliente> findPreferenciasActivas(@Param("idsClientes") Collection<String> idsClientes);
+
     // Clientes por nivel de experiencia
     List<Cliente> findByNivelExperiencia(String nivelExperiencia);
 
@@ -30,5 +40,9 @@ public interface ClienteRepository extends JpaRepository<Cliente, String> {
     @Query("SELECT COUNT(c) FROM Cliente c JOIN c.historialReservas r WHERE r.estado = 'FINALIZADA'")
     Long contarClientesConReservas();
 
+    interface PreferenciaCliente {
+        String getIdCliente();
 
+        String getPreferencias();
+    }
 }
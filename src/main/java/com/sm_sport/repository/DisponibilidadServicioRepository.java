@@ -2,12 +2,14 @@ package com.sm_sport.repository;
 
 import com.sm_sport.model.entity.DisponibilidadServicio;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -37,6 +39,17 @@ public interface DisponibilidadServicioRepository extends JpaRepository<Disponib
             @Param("fechaFin") LocalDate fechaFin
     );
 
+    // Disponibilidad de varios servicios en un rango de fechas (calendario)
+    @Query("SELECT d FROM DisponibilidadServicio d WHERE " +
+            "d.servicio.idServicio IN :idsServicio " +
+            "AND d.fecha BETWEEN :fechaInicio AND :fechaFin " +
+            "ORDER BY d.fecha, d.horaInicio")
+    List<DisponibilidadServicio> findByServiciosEnRango(
+            @Param("idsServicio") Collection<String> idsServicio,
+            @Param("fechaInicio") LocalDate fechaInicio,
+            @Param("fechaFin") LocalDate fechaFin
+    );
+
     // Verificar disponibilidad específica
     @Query("SELECT CASE WHEN COUNT(d) > 0 THEN true ELSE false END FROM DisponibilidadServicio d WHERE " +
             "d.servicio.idServicio = :idServicio AND d.fecha = :fecha " +
@@ -48,6 +61,60 @@ public interface DisponibilidadServicioRepository extends JpaRepository<Disponib
             @Param("hora") LocalTime hora
     );
 
+    // Franjas candidatas para una reserva de [hora, horaFin): la franja debe contenerla completa
+    @Query("SELECT d FROM DisponibilidadServicio d WHERE " +
+            "d.servicio.idServicio = :idServicio AND d.fecha = :fecha " +
+            "AND d.horaInicio <= :hora AND :hora < d.horaFin AND :horaFin <= d.horaFin " +
+            "AND d.disponible = true AND d.cuposDisponibles > 0 " +
+            "ORDER BY d.horaInicio")
+    List<DisponibilidadServicio> findCandidatasParaHora(
+            @Param("idServicio") String idServicio,
+            @Param("fecha") LocalDate fecha,
+            @Param("hora") LocalTime hora,
+            @Param("horaFin") LocalTime horaFin
+    );
+
+    /**
+     * Toma un cupo de la franja con un único UPDATE condicional.
+     * La condición se reevalúa tras adquirir el bloqueo de la fila, por lo que
+     * reservas concurrentes nunca dejan los cupos en negativo.
+     *
+     * @return 1 si se tomó el cupo, 0 si la franja ya no tenía cupos
+     */
+    @Modifying
+    @Query("UPDATE DisponibilidadServicio d SET " +
+            "d.cuposDisponibles = d.cuposDisponibles - 1, " +
+            "d.disponible = CASE WHEN d.cuposDisponibles > 1 THEN true ELSE false END " +
+            "WHERE d.idDisponibilidad = :idDisponibilidad " +
+            "AND d.disponible = true AND d.cuposDisponibles > 0")
+    int reservarCupo(@Param("idDisponibilidad") String idDisponibilidad);
+
+    /**
+     * Materializa una franja generada por una regla para poder descontar sus cupos.
+     * Si otra reserva ya la materializó no hace nada (restricción uk_disponibilidad_franja).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO disponibilidad_servicio " +
+            "(id_disponibilidad, id_servicio, fecha, hora_inicio, hora_fin, disponible, cupos_disponibles) " +
+            "VALUES (:idDisponibilidad, :idServicio, :fecha, :horaInicio, :horaFin, true, :cupos) " +
+            "ON CONFLICT (id_servicio, fecha, hora_inicio, hora_fin) DO NOTHING",
+            nativeQuery = true)
+    int materializarFranja(
+            @Param("idDisponibilidad") String idDisponibilidad,
+            @Param("idServicio") String idServicio,
+            @Param("fecha") LocalDate fecha,
+            @Param("horaInicio") LocalTime horaInicio,
+            @Param("horaFin") LocalTime horaFin,
+            @Param("cupos") Integer cupos
+    );
+
+    // Devolver un cupo a la franja (reserva cancelada o rechazada)
+    @Modifying
+    @Query("UPDATE DisponibilidadServicio d SET " +
+            "d.cuposDisponibles = d.cuposDisponibles + 1, d.disponible = true " +
+            "WHERE d.idDisponibilidad = :idDisponibilidad")
+    int liberarCupo(@Param("idDisponibilidad") String idDisponibilidad);
+
     // Eliminar disponibilidades antiguas
     @Query("DELETE FROM DisponibilidadServicio d WHERE d.fecha < :fecha")
     void eliminarDisponibilidadesAntiguas(@Param("fecha") LocalDate fecha);
@@ -0,0 +1,25 @@
+package com.sm_sport.repository;
+
+import com.sm_sport.model.entity.ExcepcionDisponibilidad;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ExcepcionDisponibilidadRepository extends JpaRepository<ExcepcionDisponibilidad, String> {
+
+    // Excepciones de varios servicios en un rango de fechas
+    @Query("SELECT e FROM ExcepcionDisponibilidad e WHERE " +
+            "e.servicio.idServicio IN :idsServicio " +
+            "AND e.fecha BETWEEN :fechaInicio AND :fechaFin")
+    List<ExcepcionDisponibilidad> findByServiciosEnRango(
+            @Param("idsServicio") Collection<String> idsServicio,
+            @Param("fechaInicio") LocalDate fechaInicio,
+            @Param("fechaFin") LocalDate fechaFin
+    );
+}
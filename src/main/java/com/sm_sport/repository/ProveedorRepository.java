@@ -4,6 +4,7 @@ import com.sm_sport.model.entity.Proveedor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -37,4 +38,10 @@ public interface ProveedorRepository extends JpaRepository<Proveedor, String> {
 
     @Query("SELECT COUNT(p) FROM Proveedor p WHERE p.totalServiciosPublicados > 0")
     Long contarProveedoresActivos();
+
+    // Suma los servicios de una importación al contador en una sola sentencia
+    @Modifying
+    @Query("UPDATE Proveedor p SET p.totalServiciosPublicados = COALESCE(p.totalServiciosPublicados, 0) + :cantidad " +
+            "WHERE p.idUsuario = :idProveedor")
+    int sumarServiciosPublicados(@Param("idProveedor") String idProveedor, @Param("cantidad") int cantidad);
 }
@@ -0,0 +1,30 @@
+package com.sm_sport.repository;
+
+import com.sm_sport.model.entity.ReglaDisponibilidad;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReglaDisponibilidadRepository extends JpaRepository<ReglaDisponibilidad, String> {
+
+    // Reglas por servicio
+    List<ReglaDisponibilidad> findByServicioIdServicio(String idServicio);
+
+    // Reglas activas de varios servicios con vigencia en el rango
+    @Query("SELECT r FROM ReglaDisponibilidad r WHERE " +
+            "r.servicio.idServicio IN :idsServicio AND r.activa = true " +
+            "AND (r.vigenteDesde IS NULL OR r.vigenteDesde <= :fechaFin) " +
+            "AND (r.vigenteHasta IS NULL OR r.vigenteHasta >= :fechaInicio) " +
+            "ORDER BY r.horaInicio")
+    List<ReglaDisponibilidad> findVigentesEnRango(
+            @Param("idsServicio") Collection<String> idsServicio,
+            @Param("fechaInicio") LocalDate fechaInicio,
+            @Param("fechaFin") LocalDate fechaFin
+    );
+}
@@ -5,16 +5,18 @@ import com.sm_sport.model.enums.EstadoRevision;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ResenaRepository extends JpaRepository<Resena, String> {
+public interface ResenaRepository extends JpaRepository<Resena, String>, JpaSpecificationExecutor<Resena> {
 
     // Reseña por reserva
     Optional<Resena> findByReservaIdReserva(String idReserva);
@@ -29,6 +31,11 @@ public interface ResenaRepository extends JpaRepository<Resena, String> {
             "AND r.estadoRevision = 'PUBLICADA' ORDER BY r.fechaCreacion DESC")
     List<Resena> findResenasByServicio(@Param("idServicio") String idServicio);
 
+    // Reseñas publicadas más recientes de un servicio, con su cliente (el límite lo da el Pageable)
+    @Query("SELECT r FROM Resena r JOIN FETCH r.cliente WHERE r.servicio.idServicio = :idServicio " +
+            "AND r.estadoRevision = 'PUBLICADA' ORDER BY r.fechaCreacion DESC, r.idResena DESC")
+    List<Resena> findRecientesPublicadas(@Param("idServicio") String idServicio, Pageable pageable);
+
     // Reseñas por cliente
     List<Resena> findByClienteIdUsuario(String idCliente);
 
@@ -51,4 +58,14 @@ public interface ResenaRepository extends JpaRepository<Resena, String> {
     @Query("SELECT COUNT(r) FROM Resena r WHERE r.servicio.idServicio = :idServicio " +
             "AND r.estadoRevision = 'PUBLICADA'")
     Long contarResenasPorServicio(@Param("idServicio") String idServicio);
+
+    // Fecha de la última reseña publicada de un servicio
+    @Query("SELECT MAX(r.fechaCreacion) FROM Resena r WHERE r.servicio.idServicio = :idServicio " +
+            "AND r.estadoRevision = 'PUBLICADA'")
+    LocalDateTime findUltimaFechaPublicada(@Param("idServicio") String idServicio);
+
+    // Cantidad de reseñas publicadas por calificación: [calificacion, cantidad]
+    @Query("SELECT r.calificacion, COUNT(r) FROM Resena r WHERE r.servicio.idServicio = :idServicio " +
+            "AND r.estadoRevision = 'PUBLICADA' GROUP BY r.calificacion")
+    List<Object[]> contarPorCalificacion(@Param("idServicio") String idServicio);
 }
@@ -5,18 +5,21 @@ import com.sm_sport.model.enums.EstadoReserva;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ReservaRepository extends JpaRepository<Reserva, String> {
+public interface ReservaRepository extends JpaRepository<Reserva, String>, JpaSpecificationExecutor<Reserva> {
 
     // Reservas por cliente
     List<Reserva> findByClienteIdUsuario(String idCliente);
@@ -73,23 +76,71 @@ public interface ReservaRepository extends JpaRepository<Reserva, String> {
             @Param("fechaFin") LocalDate fechaFin
     );
 
-    // Verificar conflicto de reserva
-    @Query("SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END FROM Reserva r WHERE " +
-            "r.servicio.idServicio = :idServicio " +
-            "AND r.fechaReserva = :fecha " +
-            "AND r.horaReserva = :hora " +
+    // Intervalos ocupados por las reservas activas de un servicio en un día (carga de la agenda)
+    @Query("SELECT r.horaReserva AS horaReserva, r.horaFin AS horaFin FROM Reserva r " +
+            "WHERE r.servicio.idServicio = :idServicio AND r.fechaReserva = :fecha " +
             "AND r.estado IN ('PENDIENTE', 'CONFIRMADA')")
-    Boolean existeReservaEnHorario(
+    List<IntervaloReserva> findIntervalosActivos(
             @Param("idServicio") String idServicio,
-            @Param("fecha") LocalDate fecha,
-            @Param("hora") LocalTime hora
+            @Param("fecha") LocalDate fecha
     );
 
+    // Bloqueo consultivo de la agenda de un servicio en un día hasta el fin de la transacción:
+    // serializa sólo las reservas de ese servicio en esa fecha y no bloquea la fila del servicio
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:servicio, :dia)", nativeQuery = true)
+    Integer bloquearAgendaDia(@Param("servicio") int servicio, @Param("dia") int dia);
+
     // Reservas pendientes antiguas (para cancelar automáticamente)
     @Query("SELECT r FROM Reserva r WHERE r.estado = 'PENDIENTE' " +
             "AND r.fechaCreacion < :fechaLimite")
     List<Reserva> findReservasPendientesAntiguas(@Param("fechaLimite") LocalDateTime fechaLimite);
 
+    @Query("SELECT r.idReserva FROM Reserva r WHERE r.estado = 'PENDIENTE' " +
+            "AND r.fechaCreacion < :fechaLimite")
+    List<String> findIdsPendientesAntiguas(@Param("fechaLimite") LocalDateTime fechaLimite);
+
+    // Reservas pendientes con su fecha de creación (para programar su vencimiento)
+    @Query("SELECT r.idReserva AS idReserva, r.fechaCreacion AS fechaCreacion " +
+            "FROM Reserva r WHERE r.estado = 'PENDIENTE'")
+    List<PendienteVencimiento> findPendientesParaVencimiento();
+
+    /**
+     * Cancela en una sola sentencia las reservas que sigan pendientes y devuelve
+     * sus cupos a la disponibilidad. Las que ya se pagaron o cancelaron se ignoran.
+     *
+     * @return reservas efectivamente expiradas
+     */
+    @Transactional
+    @Query(value = "WITH expiradas AS ( " +
+            "  UPDATE reservas SET estado = 'CANCELADA', fecha_actualizacion = now() " +
+            "  WHERE id_reserva IN (:idsReserva) AND estado = 'PENDIENTE' " +
+            "  RETURNING id_reserva, id_servicio, fecha_reserva, hora_reserva, hora_fin, id_disponibilidad " +
+            "), liberadas AS ( " +
+            "  UPDATE disponibilidad_servicio d " +
+            "  SET cupos_disponibles = d.cupos_disponibles + e.cupos, disponible = true " +
+            "  FROM (SELECT id_disponibilidad, COUNT(*) AS cupos FROM expiradas " +
+            "        WHERE id_disponibilidad IS NOT NULL GROUP BY id_disponibilidad) e " +
+            "  WHERE d.id_disponibilidad = e.id_disponibilidad " +
+            ") " +
+            "SELECT id_reserva AS idReserva, id_servicio AS idServicio, " +
+            "fecha_reserva AS fechaReserva, hora_reserva AS horaReserva, hora_fin AS horaFin, " +
+            "id_disponibilidad AS idDisponibilidad FROM expiradas",
+            nativeQuery = true)
+    List<ReservaExpirada> expirarPendientes(@Param("idsReserva") Collection<String> idsReserva);
+
+    // Servicios reservados por cada cliente, con la calificación media que les dio, para las recomendaciones
+    @Query("SELECT r.cliente.idUsuario AS idCliente, r.servicio.idServicio AS idServicio, " +
+            "COUNT(r) AS reservas, AVG(res.calificacion) AS calificacion " +
+            "FROM Reserva r LEFT JOIN r.resena res WHERE r.estado NOT IN ('CANCELADA', 'RECHAZADA') " +
+            "GROUP BY r.cliente.idUsuario, r.servicio.idServicio")
+    List<HistorialCliente> findHistorialClientes();
+
+    @Query("SELECT r.cliente.idUsuario AS idCliente, r.servicio.idServicio AS idServicio, " +
+            "COUNT(r) AS reservas, AVG(res.calificacion) AS calificacion " +
+            "FROM Reserva r LEFT JOIN r.resena res WHERE r.estado NOT IN ('CANCELADA', 'RECHAZADA') " +
+            "AND r.cliente.idUsuario IN :idsClientes GROUP BY r.cliente.idUsuario, r.servicio.idServicio")
+    List<HistorialCliente> findHistorialClientes(@Param("idsClientes") Collection<String> idsClientes);
+
     // Estadísticas
     @Query("SELECT COUNT(r) FROM Reserva r WHERE r.estado = 'FINALIZADA' " +
             "AND r.fechaReserva BETWEEN :inicio AND :fin")
@@ -104,4 +155,40 @@ public interface ReservaRepository extends JpaRepository<Reserva, String> {
             @Param("inicio") LocalDate inicio,
             @Param("fin") LocalDate fin
     );
+
+    interface PendienteVencimiento {
+        String getIdReserva();
+
+        LocalDateTime getFechaCreacion();
+    }
+
+    interface ReservaExpirada {
+        String getIdReserva();
+
+        String getIdServicio();
+
+        LocalDate getFechaReserva();
+
+        LocalTime getHoraReserva();
+
+        LocalTime getHoraFin();
+
+        String getIdDisponibilidad();
+    }
+
+    interface HistorialCliente {
+        String getIdCliente();
+
+        String getIdServicio();
+
+        Long getReservas();
+
+        Double getCalificacion();
+    }
+
+    interface IntervaloReserva {
+        LocalTime getHoraReserva();
+
+        LocalTime getHoraFin();
+    }
 }
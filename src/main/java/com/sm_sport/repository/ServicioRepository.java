@@ -4,25 +4,33 @@ import com.sm_sport.model.entity.Servicio;
 import com.sm_sport.model.enums.EstadoServicio;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ServicioRepository extends JpaRepository<Servicio, String> {
+public interface ServicioRepository extends JpaRepository<Servicio, String>, JpaSpecificationExecutor<Servicio>,
+        ServicioRepositoryCustom {
 
     // Búsqueda básica
     List<Servicio> findByEstado(EstadoServicio estado);
 
     List<Servicio> findByDeporte(String deporte);
 
+    // Los listados traen proveedor y ubicación en la misma consulta (evita N+1 al mapear)
+    @EntityGraph(attributePaths = {"proveedor", "ubicacion"})
     Page<Servicio> findByEstado(EstadoServicio estado, Pageable pageable);
 
     // Servicios por proveedor
+    @EntityGraph(attributePaths = {"proveedor", "ubicacion"})
     List<Servicio> findByProveedorIdUsuario(String idProveedor);
 
     @Query("SELECT s FROM Servicio s WHERE s.proveedor.idUsuario = :idProveedor AND s.estado = :estado")
@@ -78,12 +86,32 @@ public interface ServicioRepository extends JpaRepository<Servicio, String> {
             Pageable pageable
     );
 
-    // Búsqueda por texto (nombre o descripción)
-    @Query("SELECT s FROM Servicio s WHERE " +
-            "(LOWER(s.nombre) LIKE LOWER(CONCAT('%', :texto, '%')) OR " +
-            "LOWER(s.descripcion) LIKE LOWER(CONCAT('%', :texto, '%'))) AND " +
-            "s.estado = 'PUBLICADO'")
-    Page<Servicio> buscarPorTexto(@Param("texto") String texto, Pageable pageable);
+    // Texto de los servicios publicados para el índice de búsqueda por texto
+    @Query("SELECT s.idServicio AS idServicio, s.nombre AS nombre, s.deporte AS deporte, " +
+            "s.descripcion AS descripcion FROM Servicio s WHERE s.estado = 'PUBLICADO'")
+    List<TextoServicio> findTextosPublicados();
+
+    // Nombre, deporte, ciudad y popularidad de los servicios publicados para el autocompletado
+    @Query("SELECT s.idServicio AS idServicio, s.nombre AS nombre, s.deporte AS deporte, u.ciudad AS ciudad, " +
+            "s.calificacionPromedio AS calificacionPromedio, s.totalResenas AS totalResenas " +
+            "FROM Servicio s LEFT JOIN s.ubicacion u WHERE s.estado = 'PUBLICADO'")
+    List<SugerenciaServicio> findSugerenciasPublicadas();
+
+    // Datos para la clasificación de los servicios publicados, con la fecha de su última reseña publicada
+    @Query("SELECT s.idServicio AS idServicio, s.deporte AS deporte, u.ciudad AS ciudad, " +
+            "s.calificacionPromedio AS calificacionPromedio, s.totalResenas AS totalResenas, " +
+            "(SELECT MAX(r.fechaCreacion) FROM Resena r WHERE r.servicio = s AND r.estadoRevision = 'PUBLICADA') " +
+            "AS ultimaResena FROM Servicio s LEFT JOIN s.ubicacion u WHERE s.estado = 'PUBLICADO'")
+    List<ClasificacionServicio> findClasificacionesPublicadas();
+
+    // Servicios con proveedor y ubicación en una sola consulta (evita N+1 al mapear)
+    @Query("SELECT s FROM Servicio s JOIN FETCH s.proveedor LEFT JOIN FETCH s.ubicacion " +
+            "WHERE s.idServicio IN :ids")
+    List<Servicio> findConProveedorYUbicacion(@Param("ids") Collection<String> ids);
+
+    // Reservas simultáneas que admite el servicio
+    @Query("SELECT s.capacidadSimultanea FROM Servicio s WHERE s.idServicio = :idServicio")
+    Integer findCapacidadSimultanea(@Param("idServicio") String idServicio);
 
     // Estadísticas
     @Query("SELECT COUNT(s) FROM Servicio s WHERE s.estado = 'PUBLICADO'")
@@ -93,4 +121,42 @@ public interface ServicioRepository extends JpaRepository<Servicio, String> {
     List<Object[]> contarServiciosPorDeporte();
 
     Long countByEstado(EstadoServicio estado);
+
+    interface TextoServicio {
+        String getIdServicio();
+
+        String getNombre();
+
+        String getDeporte();
+
+        String getDescripcion();
+    }
+
+    interface SugerenciaServicio {
+        String getIdServicio();
+
+        String getNombre();
+
+        String getDeporte();
+
+        String getCiudad();
+
+        BigDecimal getCalificacionPromedio();
+
+        Integer getTotalResenas();
+    }
+
+    interface ClasificacionServicio {
+        String getIdServicio();
+
+        String getDeporte();
+
+        String getCiudad();
+
+        BigDecimal getCalificacionPromedio();
+
+        Integer getTotalResenas();
+
+        LocalDateTime getUltimaResena();
+    }
 }
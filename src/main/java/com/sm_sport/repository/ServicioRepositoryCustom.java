@@ -0,0 +1,26 @@
+package com.sm_sport.repository;
+
+import com.sm_sport.model.entity.Servicio;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Consultas de servicios que no se pueden expresar como métodos derivados ni con {@code @Query}
+ */
+public interface ServicioRepositoryCustom {
+
+    /**
+     * Cuenta los servicios que cumplen la Specification agrupados a la vez por
+     * deporte, ciudad y rango de precio, en una sola consulta. Sumando las
+     * filas por cada columna se obtienen los conteos de cada faceta.
+     *
+     * @param limitesPrecio Límites ascendentes de los rangos: con [a, b] los rangos son
+     *                      0 = precio &lt; a, 1 = a &lt;= precio &lt; b y 2 = precio &gt;= b
+     */
+    List<ConteoFacetas> contarFacetas(Specification<Servicio> spec, List<BigDecimal> limitesPrecio);
+
+    record ConteoFacetas(String deporte, String ciudad, Integer rangoPrecio, long cantidad) {
+    }
+}
@@ -0,0 +1,71 @@
+package com.sm_sport.repository;
+
+import com.sm_sport.model.entity.Servicio;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Implementación de {@link ServicioRepositoryCustom}; Spring Data la combina con {@link ServicioRepository}
+ */
+public class ServicioRepositoryImpl implements ServicioRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ConteoFacetas> contarFacetas(Specification<Servicio> spec, List<BigDecimal> limitesPrecio) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Servicio> root = query.from(Servicio.class);
+
+        Predicate predicado = spec.toPredicate(root, query, cb);
+
+        // Se reutiliza el join a la ubicación de la Specification para no unir la tabla dos veces
+        From<Servicio, ?> ubicacion = root.getJoins().stream()
+                .filter(join -> join.getAttribute().getName().equals("ubicacion"))
+                .<From<Servicio, ?>>map(join -> (Join<Servicio, ?>) join)
+                .findFirst()
+                .orElseGet(() -> root.join("ubicacion", JoinType.LEFT));
+
+        Expression<String> deporte = root.get("deporte");
+        Expression<String> ciudad = ubicacion.get("ciudad");
+        Expression<Integer> rangoPrecio = rangoPrecio(cb, root.get("precio"), limitesPrecio);
+
+        query.multiselect(deporte, ciudad, rangoPrecio, cb.count(root))
+                .groupBy(deporte, ciudad, rangoPrecio);
+        if (predicado != null) {
+            query.where(predicado);
+        }
+
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(fila -> new ConteoFacetas(fila.get(0, String.class), fila.get(1, String.class),
+                        fila.get(2, Integer.class), fila.get(3, Long.class)))
+                .toList();
+    }
+
+    // CASE WHEN precio < l0 THEN 0 WHEN precio < l1 THEN 1 ... ELSE n END
+    private static Expression<Integer> rangoPrecio(CriteriaBuilder cb, Expression<BigDecimal> precio,
+                                                   List<BigDecimal> limites) {
+        if (limites.isEmpty()) {
+            return cb.literal(0);
+        }
+        CriteriaBuilder.Case<Integer> rango = cb.selectCase();
+        for (int i = 0; i < limites.size(); i++) {
+            rango = rango.when(cb.lessThan(precio, limites.get(i)), i);
+        }
+        return rango.otherwise(limites.size());
+    }
+}
@@ -35,7 +35,27 @@ public interface UbicacionServicioRepository extends JpaRepository<UbicacionServ
             @Param("radioKm") Integer radioKm
     );
 
+    // Coordenadas de los servicios publicados (carga del índice geográfico)
+    @Query("SELECT u.servicio.idServicio AS idServicio, u.coordenadasLat AS latitud, " +
+            "u.coordenadasLng AS longitud, u.servicio.deporte AS deporte, u.servicio.precio AS precio " +
+            "FROM UbicacionServicio u " +
+            "WHERE u.servicio.estado = 'PUBLICADO' " +
+            "AND u.coordenadasLat IS NOT NULL AND u.coordenadasLng IS NOT NULL")
+    List<PuntoServicio> findPuntosPublicados();
+
     // Estadísticas
     @Query("SELECT u.ciudad, COUNT(u) FROM UbicacionServicio u GROUP BY u.ciudad ORDER BY COUNT(u) DESC")
     List<Object[]> contarServiciosPorCiudad();
+
+    interface PuntoServicio {
+        String getIdServicio();
+
+        BigDecimal getLatitud();
+
+        BigDecimal getLongitud();
+
+        String getDeporte();
+
+        BigDecimal getPrecio();
+    }
 }
@@ -0,0 +1,126 @@
+package com.sm_sport.scheduler;
+
+import com.sm_sport.index.AgendaReservas;
+import com.sm_sport.index.CacheServicios;
+import com.sm_sport.index.IndiceDisponibilidad;
+import com.sm_sport.repository.ReservaRepository;
+import com.sm_sport.util.RuedaTemporizadora;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Expiración de reservas pendientes de pago.
+ * Cada reserva pendiente se programa en una rueda de temporización con su
+ * vencimiento; cada segundo se expiran en lote las que vencieron y sus cupos
+ * vuelven de inmediato a la disponibilidad.
+ * <p>
+ * La rueda se reconstruye desde la base de datos al arrancar. Un barrido
+ * periódico cubre las reservas creadas en otras instancias.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExpiracionReservas {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int NIVELES = 4;
+    private static final int TAMANO_LOTE = 500;
+
+    private final ReservaRepository reservaRepository;
+    private final IndiceDisponibilidad indiceDisponibilidad;
+    private final AgendaReservas agendaReservas;
+    private final CacheServicios cacheServicios;
+
+    @Value("${app.reservas.vigencia-pendiente:48h}")
+    private Duration vigenciaPendiente = Duration.ofHours(48);
+
+    private final RuedaTemporizadora<String> rueda =
+            new RuedaTemporizadora<>(TICK_MILLIS, NIVELES, System.currentTimeMillis());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rehidratar() {
+        List<ReservaRepository.PendienteVencimiento> pendientes = reservaRepository.findPendientesParaVencimiento();
+        pendientes.forEach(p -> programar(p.getIdReserva(), p.getFechaCreacion()));
+        log.info("Expiración de reservas: {} reservas pendientes programadas", pendientes.size());
+    }
+
+    /**
+     * Programa el vencimiento de una reserva pendiente
+     */
+    public void programar(String idReserva, LocalDateTime fechaCreacion) {
+        LocalDateTime creacion = fechaCreacion != null ? fechaCreacion : LocalDateTime.now();
+        long vencimiento = creacion.plus(vigenciaPendiente)
+                .atZone(ZoneId.systemDefault())
+                .toInstant()
+                .toEpochMilli();
+        rueda.programar(idReserva, vencimiento);
+    }
+
+    /**
+     * Deja de seguir una reserva que ya salió de PENDIENTE
+     */
+    public void descartar(String idReserva) {
+        rueda.cancelar(idReserva);
+    }
+
+    @Scheduled(fixedDelayString = "${app.reservas.expiracion.intervalo:1000}")
+    public void procesarVencidas() {
+        List<String> vencidas = rueda.avanzar(System.currentTimeMillis());
+        if (!vencidas.isEmpty()) {
+            expirar(vencidas);
+        }
+    }
+
+    /**
+     * Barrido de respaldo sobre la base de datos
+     *
+     * @return cantidad de reservas expiradas
+     */
+    @Scheduled(cron = "${app.reservas.expiracion.barrido:0 */10 * * * *}")
+    public int barrerPendientesAntiguas() {
+        LocalDateTime fechaLimite = LocalDateTime.now().minus(vigenciaPendiente);
+        return expirar(reservaRepository.findIdsPendientesAntiguas(fechaLimite));
+    }
+
+    int tamano() {
+        return rueda.tamano();
+    }
+
+    private int expirar(List<String> idsReserva) {
+        int total = 0;
+        for (int desde = 0; desde < idsReserva.size(); desde += TAMANO_LOTE) {
+            List<String> lote = idsReserva.subList(desde, Math.min(desde + TAMANO_LOTE, idsReserva.size()));
+            List<ReservaRepository.ReservaExpirada> expiradas = reservaRepository.expirarPendientes(lote);
+
+            expiradas.forEach(r -> {
+                agendaReservas.liberar(r.getIdServicio(), r.getFechaReserva(), r.getHoraReserva(), r.getHoraFin());
+                if (r.getIdDisponibilidad() != null) {
+                    indiceDisponibilidad.registrarCupoLiberado(
+                            r.getIdServicio(), r.getFechaReserva(), r.getIdDisponibilidad());
+                }
+            });
+            // El detalle en caché de cada servicio muestra los cupos de sus franjas
+            expiradas.stream()
+                    .filter(r -> r.getIdDisponibilidad() != null)
+                    .map(ReservaRepository.ReservaExpirada::getIdServicio)
+                    .distinct()
+                    .forEach(cacheServicios::invalidar);
+            total += expiradas.size();
+        }
+
+        if (total > 0) {
+            log.info("Reservas canceladas por expiración: {}", total);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,25 @@
+package com.sm_sport.service;
+
+import java.util.function.Supplier;
+
+public interface IdempotenciaService {
+
+    /**
+     * Ejecuta una operación como máximo una vez por clave de idempotencia.
+     * Los reintentos con la misma clave y la misma solicitud devuelven el resultado
+     * original sin volver a ejecutarla. La operación se ejecuta en una transacción
+     * junto con la clave, así que el llamador no debe abrir la suya: un reintento
+     * respondido desde memoria no usa la base de datos.
+     *
+     * @param clave     Valor de la cabecera Idempotency-Key; sin clave la operación se ejecuta siempre
+     * @param idUsuario Usuario que realiza la solicitud
+     * @param operacion Nombre de la operación protegida
+     * @param solicitud Datos que identifican la solicitud; sin datos de tarjeta ni otros secretos
+     * @param tipo      Tipo del resultado
+     * @param accion    Operación a ejecutar
+     * @return Resultado de la operación, original o repetido
+     * @throws ConflictException si la clave se usó con otra solicitud o la original sigue en proceso
+     */
+    <T> T ejecutar(String clave, String idUsuario, String operacion, Object solicitud,
+                   Class<T> tipo, Supplier<T> accion);
+}
@@ -19,6 +19,16 @@ public interface PagoService {
      */
     PagoResponse procesarPago(String idCliente, PagoRequest request);
 
+    /**
+     * Procesa un pago una sola vez por clave de idempotencia
+     *
+     * @param idCliente         ID del cliente
+     * @param request           Datos del pago
+     * @param claveIdempotencia Cabecera Idempotency-Key; los reintentos devuelven el pago original
+     * @return Información del pago procesado
+     */
+    PagoResponse procesarPago(String idCliente, PagoRequest request, String claveIdempotencia);
+
     /**
      * Obtiene información de un pago
      *
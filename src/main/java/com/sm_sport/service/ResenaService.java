@@ -2,6 +2,7 @@ package com.sm_sport.service;
 
 import com.sm_sport.dto.request.CrearResenaRequest;
 import com.sm_sport.dto.request.ResponderResenaRequest;
+import com.sm_sport.dto.response.CursorPageResponse;
 import com.sm_sport.dto.response.MessageResponse;
 import com.sm_sport.dto.response.ResenaResponse;
 import org.springframework.data.domain.Page;
@@ -38,6 +39,19 @@ public interface ResenaService {
      */
     Page<ResenaResponse> listarPorServicio(String idServicio, Pageable pageable);
 
+    /**
+     * Lista reseñas de un servicio paginando por cursor
+     *
+     * @param idServicio ID del servicio
+     * @param ordenarPor Campo de orden (fechaCreacion o calificacion)
+     * @param direccion  Dirección del orden (ASC o DESC)
+     * @param cursor     Cursor de la página anterior, o null para la primera
+     * @param tamano     Tamaño de página
+     * @return Página de reseñas con el cursor de la siguiente
+     */
+    CursorPageResponse<ResenaResponse> listarPorServicioPorCursor(String idServicio, String ordenarPor,
+                                                                  String direccion, String cursor, Integer tamano);
+
     /**
      * Lista reseñas de un cliente
      *
@@ -2,11 +2,14 @@ package com.sm_sport.service;
 
 import com.sm_sport.dto.request.CancelarReservaRequest;
 import com.sm_sport.dto.request.CrearReservaRequest;
+import com.sm_sport.dto.request.CrearReservasLoteRequest;
 import com.sm_sport.dto.request.FiltroReservaRequest;
+import com.sm_sport.dto.response.CursorPageResponse;
 import com.sm_sport.dto.response.MessageResponse;
 import com.sm_sport.dto.response.PageResponse;
 import com.sm_sport.dto.response.ReservaDetalleResponse;
 import com.sm_sport.dto.response.ReservaResponse;
+import com.sm_sport.dto.response.ReservasLoteResponse;
 
 public interface ReservaService {
 
@@ -20,6 +23,25 @@ public interface ReservaService {
      */
     ReservaResponse crearReserva(String idCliente, CrearReservaRequest request);
 
+    /**
+     * Crea una nueva reserva una sola vez por clave de idempotencia
+     *
+     * @param idCliente         ID del cliente
+     * @param request           Datos de la reserva
+     * @param claveIdempotencia Cabecera Idempotency-Key; los reintentos devuelven la reserva original
+     * @return Reserva creada
+     */
+    ReservaResponse crearReserva(String idCliente, CrearReservaRequest request, String claveIdempotencia);
+
+    /**
+     * Crea varias reservas en una sola transacción
+     *
+     * @param idCliente ID del cliente
+     * @param request   Reservas a crear y modo del lote (todo o nada, o parcial)
+     * @return Resultado por cada reserva solicitada
+     */
+    ReservasLoteResponse crearReservasLote(String idCliente, CrearReservasLoteRequest request);
+
     /**
      * Obtiene una reserva por su ID
      *
@@ -57,6 +79,26 @@ public interface ReservaService {
      */
     PageResponse<ReservaResponse> listarPorProveedor(String idProveedor, Integer pagina, Integer tamano);
 
+    /**
+     * Lista las reservas de un cliente paginando por cursor
+     *
+     * @param idCliente ID del cliente
+     * @param cursor    Cursor de la página anterior, o null para la primera
+     * @param tamano    Tamaño de página
+     * @return Página de reservas con el cursor de la siguiente
+     */
+    CursorPageResponse<ReservaResponse> listarPorClientePorCursor(String idCliente, String cursor, Integer tamano);
+
+    /**
+     * Lista las reservas recibidas por un proveedor paginando por cursor
+     *
+     * @param idProveedor ID del proveedor
+     * @param cursor      Cursor de la página anterior, o null para la primera
+     * @param tamano      Tamaño de página
+     * @return Página de reservas con el cursor de la siguiente
+     */
+    CursorPageResponse<ReservaResponse> listarPorProveedorPorCursor(String idProveedor, String cursor, Integer tamano);
+
     /**
      * Filtra reservas con múltiples criterios
      *
@@ -65,6 +107,14 @@ public interface ReservaService {
      */
     PageResponse<ReservaResponse> filtrarReservas(FiltroReservaRequest filtros);
 
+    /**
+     * Filtra reservas paginando por cursor (keyset) en lugar de por número de página
+     *
+     * @param filtros Criterios de búsqueda; cursor vacío para la primera página
+     * @return Página de reservas con el cursor de la siguiente
+     */
+    CursorPageResponse<ReservaResponse> filtrarReservasPorCursor(FiltroReservaRequest filtros);
+
     /**
      * Confirma una reserva (proveedor)
      *
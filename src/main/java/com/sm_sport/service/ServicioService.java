@@ -4,12 +4,23 @@ import com.sm_sport.dto.request.ActualizarServicioRequest;
 import com.sm_sport.dto.request.BusquedaServicioRequest;
 import com.sm_sport.dto.request.CrearServicioRequest;
 import com.sm_sport.dto.request.DisponibilidadRequest;
+import com.sm_sport.dto.request.ExcepcionDisponibilidadRequest;
+import com.sm_sport.dto.request.ReglaDisponibilidadRequest;
+import com.sm_sport.dto.response.AutocompletadoResponse;
+import com.sm_sport.dto.response.CalendarioDisponibilidadResponse;
+import com.sm_sport.dto.response.CursorPageResponse;
+import com.sm_sport.dto.response.GrupoMapaResponse;
+import com.sm_sport.dto.response.ImportacionServiciosResponse;
 import com.sm_sport.dto.response.MessageResponse;
 import com.sm_sport.dto.response.PageResponse;
 import com.sm_sport.dto.response.ServicioDetalleResponse;
 import com.sm_sport.dto.response.ServicioResponse;
 import com.sm_sport.model.enums.EstadoServicio;
+import com.sm_sport.model.enums.FormatoImportacion;
 
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 public interface ServicioService {
@@ -24,6 +35,18 @@ public interface ServicioService {
      */
     ServicioResponse publicarServicio(String idProveedor, CrearServicioRequest request);
 
+    /**
+     * Importa servicios en bloque leyendo el archivo como flujo; cada fila se valida por separado
+     *
+     * @param idProveedor ID del proveedor
+     * @param contenido   Archivo CSV o NDJSON con una fila por servicio
+     * @param formato     Formato del archivo
+     * @return Cantidad de filas importadas y fallidas, con el error de cada fila fallida
+     * @throws BusinessException si el proveedor no tiene saldo suficiente o el archivo no se puede leer
+     */
+    ImportacionServiciosResponse importarServicios(String idProveedor, InputStream contenido,
+                                                   FormatoImportacion formato);
+
     /**
      * Obtiene un servicio por su ID
      *
@@ -78,6 +101,15 @@ public interface ServicioService {
      */
     PageResponse<ServicioResponse> listarServicios(Integer pagina, Integer tamano);
 
+    /**
+     * Lista servicios publicados paginando por cursor
+     *
+     * @param cursor Cursor de la página anterior, o null para la primera
+     * @param tamano Tamaño de página
+     * @return Página de servicios con el cursor de la siguiente
+     */
+    CursorPageResponse<ServicioResponse> listarServiciosPorCursor(String cursor, Integer tamano);
+
     /**
      * Lista servicios de un proveedor
      *
@@ -94,6 +126,45 @@ public interface ServicioService {
      */
     PageResponse<ServicioResponse> buscarServicios(BusquedaServicioRequest filtros);
 
+    /**
+     * Busca servicios publicados por texto en su nombre, deporte y descripción,
+     * sin distinguir tildes y tolerando errores de tipeo
+     *
+     * @param texto  Texto a buscar
+     * @param pagina Número de página
+     * @param tamano Tamaño de página
+     * @return Página de servicios ordenados por relevancia
+     */
+    PageResponse<ServicioResponse> buscarPorTexto(String texto, Integer pagina, Integer tamano);
+
+    /**
+     * Sugerencias de servicios, deportes y ciudades para lo que el usuario lleva escrito
+     *
+     * @param prefijo  Texto escrito hasta el momento
+     * @param cantidad Sugerencias por tipo (máximo 10)
+     * @return Sugerencias de cada tipo, de la más a la menos popular
+     */
+    AutocompletadoResponse autocompletar(String prefijo, Integer cantidad);
+
+    /**
+     * Servicios mejor calificados, por deporte, por ciudad o en general
+     *
+     * @param deporte  Deporte (opcional)
+     * @param ciudad   Ciudad (opcional)
+     * @param cantidad Cantidad de servicios (máximo 50)
+     * @return Servicios de mayor a menor puntaje
+     */
+    List<ServicioResponse> listarMejoresServicios(String deporte, String ciudad, Integer cantidad);
+
+    /**
+     * Servicios recomendados para un cliente según sus preferencias, reservas y reseñas
+     *
+     * @param idCliente ID del cliente
+     * @param cantidad  Cantidad de servicios (máximo 50)
+     * @return Servicios del más al menos afín; los mejor clasificados si el cliente no tiene historial
+     */
+    List<ServicioResponse> listarServiciosRecomendados(String idCliente, Integer cantidad);
+
     /**
      * Busca servicios cercanos a una ubicación
      *
@@ -104,6 +175,34 @@ public interface ServicioService {
      */
     List<ServicioResponse> buscarServiciosCercanos(Double latitud, Double longitud, Integer radioKm);
 
+    /**
+     * Busca los servicios más cercanos a un punto, sin límite de radio
+     *
+     * @param latitud      Latitud
+     * @param longitud     Longitud
+     * @param cantidad     Cantidad de servicios a devolver (máximo 100)
+     * @param deporte      Deporte (opcional)
+     * @param precioMinimo Precio mínimo (opcional)
+     * @param precioMaximo Precio máximo (opcional)
+     * @return Servicios ordenados del más cercano al más lejano, con su distancia
+     */
+    List<ServicioResponse> buscarServiciosMasCercanos(Double latitud, Double longitud, Integer cantidad,
+                                                      String deporte, BigDecimal precioMinimo,
+                                                      BigDecimal precioMaximo);
+
+    /**
+     * Agrupa los servicios publicados visibles en un área del mapa
+     *
+     * @param latitudMin  Latitud del borde sur
+     * @param longitudMin Longitud del borde oeste
+     * @param latitudMax  Latitud del borde norte
+     * @param longitudMax Longitud del borde este (menor que la del oeste si el área cruza el antimeridiano)
+     * @param zoom        Nivel de zoom del mapa (0 a 20)
+     * @return Grupos con su cantidad, centroide y servicios por deporte
+     */
+    List<GrupoMapaResponse> agruparServiciosMapa(Double latitudMin, Double longitudMin,
+                                                 Double latitudMax, Double longitudMax, Integer zoom);
+
     /**
      * Agrega disponibilidad a un servicio
      *
@@ -112,4 +211,36 @@ public interface ServicioService {
      * @return Mensaje de confirmación
      */
     MessageResponse agregarDisponibilidad(String idServicio, List<DisponibilidadRequest> disponibilidades);
+
+    /**
+     * Agrega reglas semanales de disponibilidad a un servicio
+     *
+     * @param idServicio ID del servicio
+     * @param reglas     Reglas por día de la semana
+     * @return Mensaje de confirmación
+     * @throws BusinessException si alguna regla tiene un rango horario o de vigencia inválido
+     */
+    MessageResponse agregarReglasDisponibilidad(String idServicio, List<ReglaDisponibilidadRequest> reglas);
+
+    /**
+     * Agrega excepciones (festivos, cierres) a las reglas de disponibilidad de un servicio
+     *
+     * @param idServicio  ID del servicio
+     * @param excepciones Días u horas cerrados
+     * @return Mensaje de confirmación
+     */
+    MessageResponse agregarExcepcionesDisponibilidad(String idServicio, List<ExcepcionDisponibilidadRequest> excepciones);
+
+    /**
+     * Obtiene el calendario de disponibilidad de varios servicios en un rango de fechas
+     *
+     * @param idsServicio IDs de los servicios
+     * @param fechaInicio Fecha inicial (inclusive)
+     * @param fechaFin    Fecha final (inclusive)
+     * @return Rangos con cupos por servicio y fecha
+     * @throws BusinessException si el rango o la cantidad de servicios excede el límite
+     */
+    CalendarioDisponibilidadResponse obtenerCalendarioDisponibilidad(List<String> idsServicio,
+                                                                     LocalDate fechaInicio,
+                                                                     LocalDate fechaFin);
 }
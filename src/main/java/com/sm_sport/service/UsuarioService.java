@@ -41,6 +41,14 @@ public interface UsuarioService {
      */
     PageResponse<UsuarioResponse> listarUsuarios(FiltroUsuarioRequest filtros);
 
+    /**
+     * Lista usuarios con filtros paginando por cursor (solo administrador)
+     *
+     * @param filtros Criterios de búsqueda; cursor vacío para la primera página
+     * @return Página de usuarios con el cursor de la siguiente
+     */
+    CursorPageResponse<UsuarioResponse> listarUsuariosPorCursor(FiltroUsuarioRequest filtros);
+
     /**
      * Cambia el estado de un usuario (solo administrador)
      *
@@ -0,0 +1,164 @@
+package com.sm_sport.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sm_sport.exception.BusinessException;
+import com.sm_sport.exception.ConflictException;
+import com.sm_sport.model.entity.ClaveIdempotencia;
+import com.sm_sport.repository.ClaveIdempotenciaRepository;
+import com.sm_sport.service.IdempotenciaService;
+import com.sm_sport.util.Transacciones;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Claves de idempotencia en dos niveles: un LRU acotado en memoria con las
+ * respuestas recientes y la tabla claves_idempotencia como fuente de verdad
+ * compartida entre instancias. Los reintentos que aciertan en memoria no tocan
+ * la base de datos: la transacción de la operación se abre aquí, sólo cuando
+ * la respuesta no está en memoria.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotenciaServiceImpl implements IdempotenciaService {
+
+    private static final int LONGITUD_MAXIMA_CLAVE = 100;
+
+    private final ClaveIdempotenciaRepository claveRepository;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.idempotencia.vigencia:24h}")
+    private Duration vigencia = Duration.ofHours(24);
+
+    @Value("${app.idempotencia.capacidad-memoria:10000}")
+    private int capacidadMemoria = 10_000;
+
+    // LRU por orden de acceso; se descarta la entrada menos usada al superar la capacidad
+    private final Map<String, Entrada> recientes = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entrada> mayor) {
+                    return size() > capacidadMemoria;
+                }
+            });
+
+    @Override
+    public <T> T ejecutar(String clave, String idUsuario, String operacion, Object solicitud,
+                          Class<T> tipo, Supplier<T> accion) {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        if (clave == null || clave.isBlank()) {
+            return transaccion.execute(estado -> accion.get());
+        }
+        if (clave.length() > LONGITUD_MAXIMA_CLAVE) {
+            throw new BusinessException("La clave de idempotencia no puede superar "
+                    + LONGITUD_MAXIMA_CLAVE + " caracteres");
+        }
+
+        String idClave = operacion + ":" + idUsuario + ":" + clave;
+        String huella = huella(clave, solicitud);
+
+        // Fuera de la transacción: un reintento reciente no pide conexión a la base de datos
+        Entrada enMemoria = recientes.get(idClave);
+        if (enMemoria != null && enMemoria.expiracion().isAfter(LocalDateTime.now())) {
+            log.info("Solicitud repetida {} respondida desde memoria", idClave);
+            return repetir(enMemoria, huella, tipo);
+        }
+
+        // La clave y el efecto de la operación se confirman juntos
+        return transaccion.execute(estado -> ejecutarConClave(idClave, huella, tipo, accion));
+    }
+
+    private <T> T ejecutarConClave(String idClave, String huella, Class<T> tipo, Supplier<T> accion) {
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime expiracion = ahora.plus(vigencia);
+        if (claveRepository.reservar(idClave, huella, ahora, expiracion) == 0) {
+            ClaveIdempotencia existente = claveRepository.findById(idClave)
+                    .orElseThrow(() -> new ConflictException("La solicitud original sigue en proceso"));
+            if (existente.getRespuesta() == null) {
+                throw new ConflictException("La solicitud original sigue en proceso");
+            }
+
+            Entrada guardada = new Entrada(existente.getHuella(), existente.getRespuesta(),
+                    existente.getFechaExpiracion());
+            recientes.put(idClave, guardada);
+            log.info("Solicitud repetida {} respondida desde base de datos", idClave);
+            return repetir(guardada, huella, tipo);
+        }
+
+        T resultado = accion.get();
+
+        String respuesta = escribir(resultado);
+        claveRepository.guardarRespuesta(idClave, respuesta);
+        Entrada nueva = new Entrada(huella, respuesta, expiracion);
+        Transacciones.despuesDelCommit(() -> recientes.put(idClave, nueva));
+
+        return resultado;
+    }
+
+    /**
+     * Elimina las claves vencidas de la base de datos y de la memoria
+     */
+    @Scheduled(cron = "${app.idempotencia.purga:0 30 * * * *}")
+    public void purgarVencidas() {
+        LocalDateTime ahora = LocalDateTime.now();
+        int eliminadas = claveRepository.eliminarVencidas(ahora);
+        synchronized (recientes) {
+            recientes.values().removeIf(entrada -> !entrada.expiracion().isAfter(ahora));
+        }
+        if (eliminadas > 0) {
+            log.info("Claves de idempotencia vencidas eliminadas: {}", eliminadas);
+        }
+    }
+
+    private <T> T repetir(Entrada entrada, String huella, Class<T> tipo) {
+        if (!entrada.huella().equals(huella)) {
+            throw new ConflictException("La clave de idempotencia ya se usó con una solicitud diferente");
+        }
+        try {
+            return objectMapper.readValue(entrada.respuesta(), tipo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Respuesta idempotente ilegible", e);
+        }
+    }
+
+    private String escribir(Object valor) {
+        try {
+            return objectMapper.writeValueAsString(valor);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta idempotente", e);
+        }
+    }
+
+    // La clave se guarda en claro junto a la huella, así que la solicitud no debe llevar datos sensibles
+    private String huella(String clave, Object solicitud) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(clave.getBytes(StandardCharsets.UTF_8));
+            sha256.update(escribir(solicitud).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(sha256.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private record Entrada(String huella, String respuesta, LocalDateTime expiracion) {
+    }
+}
@@ -19,13 +19,16 @@ import com.sm_sport.repository.ComprobanteRepository;
 import com.sm_sport.repository.PagoRepository;
 import com.sm_sport.repository.ReservaRepository;
 //import com.sm_sport.service.NotificacionService;
+import com.sm_sport.service.IdempotenciaService;
 import com.sm_sport.service.PagoService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
@@ -40,8 +43,19 @@ public class PagoServiceImpl implements PagoService {
     private final ClienteRepository clienteRepository;
     private final ComprobanteRepository comprobanteRepository;
     private final PagoMapper pagoMapper;
+    private final IdempotenciaService idempotenciaService;
    // private final NotificacionService notificacionService;
 
+    // La transacción la abre IdempotenciaService, y sólo si la respuesta no está en memoria
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public PagoResponse procesarPago(String idCliente, PagoRequest request, String claveIdempotencia) {
+        // La huella no incluye los datos de la tarjeta: ni su hash debe guardarse
+        List<Object> huella = Arrays.asList(request.getIdReserva(), request.getMetodoPago(), request.getTokenPago());
+        return idempotenciaService.ejecutar(claveIdempotencia, idCliente, "PROCESAR_PAGO", huella,
+                PagoResponse.class, () -> procesarPago(idCliente, request));
+    }
+
     @Override
     public PagoResponse procesarPago(String idCliente, PagoRequest request) {
         log.info("Procesando pago para cliente: {}", idCliente);
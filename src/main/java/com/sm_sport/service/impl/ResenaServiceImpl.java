@@ -2,20 +2,30 @@ package com.sm_sport.service.impl;
 
 import com.sm_sport.dto.request.CrearResenaRequest;
 import com.sm_sport.dto.request.ResponderResenaRequest;
+import com.sm_sport.dto.response.CursorPageResponse;
 import com.sm_sport.dto.response.MessageResponse;
 import com.sm_sport.dto.response.ResenaResponse;
 import com.sm_sport.exception.BusinessException;
 import com.sm_sport.exception.ResourceNotFoundException;
+import com.sm_sport.index.Autocompletado;
+import com.sm_sport.index.CacheServicios;
+import com.sm_sport.index.ClasificacionServicios;
+import com.sm_sport.index.RecomendacionesServicios;
+import com.sm_sport.mapper.PageMapper;
 import com.sm_sport.mapper.ResenaMapper;
 import com.sm_sport.model.entity.*;
 import com.sm_sport.model.enums.EstadoReserva;
 import com.sm_sport.model.enums.EstadoRevision;
 import com.sm_sport.repository.*;
 import com.sm_sport.service.ResenaService;
+import com.sm_sport.util.CursorKeyset;
+import com.sm_sport.util.OrdenKeyset;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,18 +33,33 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ResenaServiceImpl implements ResenaService {
 
+    private static final Map<String, OrdenKeyset<Resena>> ORDENES = Map.of(
+            "fechaCreacion", OrdenKeyset.<Resena>de("fechaCreacion")
+                    .por("fechaCreacion", LocalDateTime.class, Resena::getFechaCreacion)
+                    .por("idResena", String.class, Resena::getIdResena),
+            "calificacion", OrdenKeyset.<Resena>de("calificacion")
+                    .por("calificacion", Integer.class, Resena::getCalificacion)
+                    .por("idResena", String.class, Resena::getIdResena)
+    );
+
     private final ResenaRepository resenaRepository;
     private final ClienteRepository clienteRepository;
     private final ReservaRepository reservaRepository;
     private final ServicioRepository servicioRepository;
     private final ProveedorRepository proveedorRepository;
     private final ResenaMapper resenaMapper;
+    private final PageMapper pageMapper;
+    private final Autocompletado autocompletado;
+    private final CacheServicios cacheServicios;
+    private final ClasificacionServicios clasificacionServicios;
+    private final RecomendacionesServicios recomendacionesServicios;
 
     @Override
     @Transactional
@@ -76,6 +101,9 @@ public class ResenaServiceImpl implements ResenaService {
         // Actualizar calificación promedio del servicio
         actualizarCalificacionServicio(reserva.getServicio().getIdServicio());
 
+        // La calificación cambia el peso de este servicio en las recomendaciones del cliente
+        recomendacionesServicios.marcar(idCliente);
+
         log.info("Reseña creada exitosamente con ID: {}", resenaGuardada.getIdResena());
 
         return resenaMapper.toResponse(resenaGuardada);
@@ -109,6 +137,32 @@ public class ResenaServiceImpl implements ResenaService {
         return resenas.map(resenaMapper::toResponse);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ResenaResponse> listarPorServicioPorCursor(String idServicio, String ordenarPor,
+                                                                         String direccion, String cursor, Integer tamano) {
+        log.info("Listando reseñas del servicio {} por cursor", idServicio);
+
+        OrdenKeyset<Resena> orden = ORDENES.get(ordenarPor);
+        if (orden == null) {
+            throw new BusinessException("No se puede ordenar por: " + ordenarPor
+                    + ". Valores permitidos: " + ORDENES.keySet());
+        }
+
+        // Validar que el servicio existe
+        if (!servicioRepository.existsById(idServicio)) {
+            throw new ResourceNotFoundException("Servicio no encontrado con ID: " + idServicio);
+        }
+
+        Specification<Resena> specification = (root, query, criteriaBuilder) ->
+                criteriaBuilder.equal(root.get("servicio").get("idServicio"), idServicio);
+
+        CursorPageResponse<Resena> resenas = CursorKeyset.paginar(resenaRepository, specification, orden,
+                "ASC".equalsIgnoreCase(direccion) ? Sort.Direction.ASC : Sort.Direction.DESC, cursor, tamano);
+
+        return pageMapper.toCursorPageResponse(resenas, resenaMapper::toResponse);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<ResenaResponse> listarPorCliente(String idCliente) {
@@ -154,6 +208,7 @@ public class ResenaServiceImpl implements ResenaService {
         resena.setFechaRespuesta(LocalDateTime.now());
 
         Resena resenaActualizada = resenaRepository.save(resena);
+        cacheServicios.invalidar(resena.getServicio().getIdServicio());
 
         log.info("Respuesta agregada exitosamente a la reseña: {}", idResena);
 
@@ -175,11 +230,19 @@ public class ResenaServiceImpl implements ResenaService {
         }
 
         // Marcar como reportada y cambiar estado a revisión
+        boolean estabaPublicada = resena.getEstadoRevision() == EstadoRevision.PUBLICADA;
         resena.setReportada(true);
         resena.setEstadoRevision(EstadoRevision.EN_REVISION);
 
         resenaRepository.save(resena);
 
+        // Mientras está en revisión no cuenta en la calificación ni en el histograma del servicio
+        if (estabaPublicada) {
+            actualizarCalificacionServicio(resena.getServicio().getIdServicio());
+        } else {
+            cacheServicios.invalidar(resena.getServicio().getIdServicio());
+        }
+
         log.info("Reseña {} marcada como reportada exitosamente", idResena);
 
         return MessageResponse.success("Reseña reportada exitosamente. Será revisada por un administrador.");
@@ -208,6 +271,9 @@ public class ResenaServiceImpl implements ResenaService {
         // Actualizar calificación promedio del servicio
         actualizarCalificacionServicio(idServicio);
 
+        // Sin la calificación, el servicio deja de pesar en las recomendaciones del cliente
+        recomendacionesServicios.marcar(idCliente);
+
         log.info("Reseña {} eliminada exitosamente", idResena);
 
         return MessageResponse.success("Reseña eliminada exitosamente");
@@ -234,8 +300,15 @@ public class ResenaServiceImpl implements ResenaService {
         }
 
         servicio.setTotalResenas(totalResenas != null ? totalResenas.intValue() : 0);
+        actualizarHistograma(servicio);
 
         servicioRepository.save(servicio);
+        cacheServicios.invalidar(idServicio);
+
+        // La calificación define el orden de las sugerencias del buscador y de la clasificación
+        autocompletado.registrar(servicio, servicio.getUbicacion());
+        clasificacionServicios.registrar(servicio, servicio.getUbicacion(),
+                resenaRepository.findUltimaFechaPublicada(idServicio));
 
         // Actualizar calificación promedio del proveedor
         actualizarCalificacionProveedor(servicio.getProveedor().getIdUsuario());
@@ -244,6 +317,26 @@ public class ResenaServiceImpl implements ResenaService {
                 servicio.getCalificacionPromedio(), servicio.getTotalResenas());
     }
 
+    /**
+     * Guarda en el servicio cuántas reseñas publicadas tiene con cada calificación,
+     * para que el detalle muestre el histograma sin recorrer las reseñas
+     */
+    private void actualizarHistograma(Servicio servicio) {
+        int[] cantidades = new int[5];
+        for (Object[] fila : resenaRepository.contarPorCalificacion(servicio.getIdServicio())) {
+            int calificacion = ((Number) fila[0]).intValue();
+            if (calificacion >= 1 && calificacion <= 5) {
+                cantidades[calificacion - 1] = ((Number) fila[1]).intValue();
+            }
+        }
+
+        servicio.setResenasUnaEstrella(cantidades[0]);
+        servicio.setResenasDosEstrellas(cantidades[1]);
+        servicio.setResenasTresEstrellas(cantidades[2]);
+        servicio.setResenasCuatroEstrellas(cantidades[3]);
+        servicio.setResenasCincoEstrellas(cantidades[4]);
+    }
+
     /**
      * Actualiza la calificación promedio de un proveedor basado en todos sus servicios
      */
@@ -2,36 +2,63 @@ package com.sm_sport.service.impl;
 
 import com.sm_sport.dto.request.CancelarReservaRequest;
 import com.sm_sport.dto.request.CrearReservaRequest;
+import com.sm_sport.dto.request.CrearReservasLoteRequest;
 import com.sm_sport.dto.request.FiltroReservaRequest;
+import com.sm_sport.dto.response.CursorPageResponse;
 import com.sm_sport.dto.response.MessageResponse;
 import com.sm_sport.dto.response.PageResponse;
 import com.sm_sport.dto.response.ReservaDetalleResponse;
 import com.sm_sport.dto.response.ReservaResponse;
+import com.sm_sport.dto.response.ReservasLoteResponse;
+import com.sm_sport.dto.response.ResultadoReservaLoteResponse;
 import com.sm_sport.exception.BusinessException;
 import com.sm_sport.exception.ForbiddenException;
 import com.sm_sport.exception.ResourceNotFoundException;
+import com.sm_sport.index.AgendaReservas;
+import com.sm_sport.index.CacheServicios;
+import com.sm_sport.index.ExpansionReglas;
+import com.sm_sport.index.IndiceDisponibilidad;
+import com.sm_sport.index.RecomendacionesServicios;
 import com.sm_sport.mapper.PageMapper;
 import com.sm_sport.mapper.ReservaMapper;
 import com.sm_sport.model.entity.*;
 import com.sm_sport.model.enums.EstadoReserva;
 import com.sm_sport.model.enums.EstadoServicio;
+import com.sm_sport.model.enums.ModoLote;
 import com.sm_sport.repository.ClienteRepository;
 import com.sm_sport.repository.DisponibilidadServicioRepository;
 import com.sm_sport.repository.ReservaRepository;
 import com.sm_sport.repository.ServicioRepository;
+import com.sm_sport.scheduler.ExpiracionReservas;
 //import com.sm_sport.service.NotificacionService;
+import com.sm_sport.service.IdempotenciaService;
 import com.sm_sport.service.ReservaService;
+import com.sm_sport.util.CursorKeyset;
+import com.sm_sport.util.OrdenKeyset;
+import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -39,14 +66,55 @@ import java.util.List;
 @Transactional
 public class ReservaServiceImpl implements ReservaService {
 
+    /**
+     * Campos de orden permitidos y las columnas que los desempatan hasta un orden
+     * total, necesario para que la paginación por cursor no repita ni salte filas
+     */
+    private static final OrdenKeyset<Reserva> POR_FECHA_RESERVA = OrdenKeyset.<Reserva>de("fechaReserva")
+            .por("fechaReserva", LocalDate.class, Reserva::getFechaReserva)
+            .por("horaReserva", LocalTime.class, Reserva::getHoraReserva)
+            .por("idReserva", String.class, Reserva::getIdReserva);
+
+    private static final OrdenKeyset<Reserva> POR_FECHA_CREACION = OrdenKeyset.<Reserva>de("fechaCreacion")
+            .por("fechaCreacion", LocalDateTime.class, Reserva::getFechaCreacion)
+            .por("idReserva", String.class, Reserva::getIdReserva);
+
+    private static final OrdenKeyset<Reserva> POR_COSTO = OrdenKeyset.<Reserva>de("costoTotal")
+            .por("costoTotal", BigDecimal.class, Reserva::getCostoTotal)
+            .por("idReserva", String.class, Reserva::getIdReserva);
+
+    private static final Map<String, OrdenKeyset<Reserva>> ORDENES = Map.of(
+            "fechaReserva", POR_FECHA_RESERVA,
+            "fechaCreacion", POR_FECHA_CREACION,
+            "costoTotal", POR_COSTO
+    );
+
     private final ReservaRepository reservaRepository;
     private final ClienteRepository clienteRepository;
     private final ServicioRepository servicioRepository;
     private final DisponibilidadServicioRepository disponibilidadRepository;
+    private final IndiceDisponibilidad indiceDisponibilidad;
+    private final AgendaReservas agendaReservas;
+    private final CacheServicios cacheServicios;
+    private final ExpansionReglas expansionReglas;
+    private final ExpiracionReservas expiracionReservas;
+    private final RecomendacionesServicios recomendacionesServicios;
+    private final IdempotenciaService idempotenciaService;
     private final ReservaMapper reservaMapper;
     private final PageMapper pageMapper;
     //private final NotificacionService notificacionService;
 
+    @Value("${app.reservas.duracion-predeterminada:60}")
+    private int duracionPredeterminada = 60;
+
+    // La transacción la abre IdempotenciaService, y sólo si la respuesta no está en memoria
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ReservaResponse crearReserva(String idCliente, CrearReservaRequest request, String claveIdempotencia) {
+        return idempotenciaService.ejecutar(claveIdempotencia, idCliente, "CREAR_RESERVA", request,
+                ReservaResponse.class, () -> crearReserva(idCliente, request));
+    }
+
     @Override
     public ReservaResponse crearReserva(String idCliente, CrearReservaRequest request) {
         log.info("Creando reserva para cliente: {}", idCliente);
@@ -59,54 +127,156 @@ public class ReservaServiceImpl implements ReservaService {
         Servicio servicio = servicioRepository.findById(request.getIdServicio())
                 .orElseThrow(() -> new ResourceNotFoundException("Servicio no encontrado"));
 
+        Reserva reserva = reservaRepository.save(nuevaReserva(cliente, servicio, request));
+
+        // Si no se paga a tiempo, la reserva expira y libera su cupo
+        expiracionReservas.programar(reserva.getIdReserva(), reserva.getFechaCreacion());
+        recomendacionesServicios.marcar(idCliente);
+
+        // Notificar al proveedor
+//        notificacionService.enviarNotificacion(
+//                servicio.getProveedor().getIdUsuario(),
+//                "RESERVA",
+//                "Nueva reserva recibida",
+//                String.format("Has recibido una nueva reserva para %s", servicio.getNombre())
+//        );
+
+        log.info("Reserva creada exitosamente: {}", reserva.getIdReserva());
+
+        return reservaMapper.toResponse(reserva);
+    }
+
+    @Override
+    public ReservasLoteResponse crearReservasLote(String idCliente, CrearReservasLoteRequest request) {
+        ModoLote modo = request.getModo();
+        List<CrearReservaRequest> solicitudes = request.getReservas();
+        log.info("Creando lote de {} reservas para cliente: {} - Modo: {}", solicitudes.size(), idCliente, modo);
+
+        Cliente cliente = clienteRepository.findById(idCliente)
+                .orElseThrow(() -> new ResourceNotFoundException("Cliente no encontrado"));
+
+        // Una sola consulta para todos los servicios del lote
+        Map<String, Servicio> servicios = servicioRepository.findAllById(solicitudes.stream()
+                        .map(CrearReservaRequest::getIdServicio)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Servicio::getIdServicio, Function.identity()));
+
+        // Los días del lote se bloquean antes de reservar y en un orden fijo, no en el de la solicitud
+        agendaReservas.bloquearDias(solicitudes.stream()
+                .filter(solicitud -> servicios.containsKey(solicitud.getIdServicio()))
+                .collect(Collectors.groupingBy(CrearReservaRequest::getIdServicio,
+                        Collectors.mapping(CrearReservaRequest::getFechaReserva, Collectors.toSet()))));
+
+        List<Reserva> reservas = new ArrayList<>();
+        List<Integer> indicesCreadas = new ArrayList<>();
+        ResultadoReservaLoteResponse[] resultados = new ResultadoReservaLoteResponse[solicitudes.size()];
+
+        for (int i = 0; i < solicitudes.size(); i++) {
+            CrearReservaRequest solicitud = solicitudes.get(i);
+            try {
+                Servicio servicio = servicios.get(solicitud.getIdServicio());
+                if (servicio == null) {
+                    throw new ResourceNotFoundException("Servicio no encontrado");
+                }
+                reservas.add(nuevaReserva(cliente, servicio, solicitud));
+                indicesCreadas.add(i);
+            } catch (BusinessException | ResourceNotFoundException e) {
+                resultados[i] = ResultadoReservaLoteResponse.builder()
+                        .indice(i)
+                        .exitosa(false)
+                        .error(e.getMessage())
+                        .build();
+
+                if (modo == ModoLote.TODO_O_NADA) {
+                    // Se devuelven los cupos ya tomados; ninguna reserva del lote se crea
+                    reservas.forEach(r -> liberarCupo(r, EstadoReserva.PENDIENTE));
+                    log.info("Lote rechazado por la reserva {}: {}", i, e.getMessage());
+                    return resultadoLote(modo, solicitudes.size(), 0, resultados);
+                }
+            }
+        }
+
+        // Inserciones agrupadas en lotes JDBC (hibernate.jdbc.batch_size)
+        List<Reserva> guardadas = reservaRepository.saveAll(reservas);
+        if (!guardadas.isEmpty()) {
+            recomendacionesServicios.marcar(idCliente);
+        }
+
+        for (int k = 0; k < guardadas.size(); k++) {
+            Reserva reserva = guardadas.get(k);
+            expiracionReservas.programar(reserva.getIdReserva(), reserva.getFechaCreacion());
+            int indice = indicesCreadas.get(k);
+            resultados[indice] = ResultadoReservaLoteResponse.builder()
+                    .indice(indice)
+                    .exitosa(true)
+                    .reserva(reservaMapper.toResponse(reserva))
+                    .build();
+        }
+
+        log.info("Lote de reservas creado: {} de {}", guardadas.size(), solicitudes.size());
+
+        return resultadoLote(modo, solicitudes.size(), guardadas.size(), resultados);
+    }
+
+    private ReservasLoteResponse resultadoLote(ModoLote modo, int solicitadas, int creadas,
+                                               ResultadoReservaLoteResponse[] resultados) {
+        return ReservasLoteResponse.builder()
+                .modo(modo)
+                .solicitadas(solicitadas)
+                .creadas(creadas)
+                .fallidas(solicitadas - creadas)
+                .resultados(Arrays.stream(resultados).filter(Objects::nonNull).toList())
+                .build();
+    }
+
+    /**
+     * Valida el servicio, ocupa el horario en la agenda, toma un cupo de forma
+     * atómica y arma la reserva (sin guardarla)
+     */
+    private Reserva nuevaReserva(Cliente cliente, Servicio servicio, CrearReservaRequest request) {
         // Validar que el servicio esté publicado
         if (servicio.getEstado() != EstadoServicio.PUBLICADO) {
             throw new BusinessException("El servicio no está disponible");
         }
 
-        // Verificar disponibilidad
-        if (!verificarDisponibilidad(request.getIdServicio(), request)) {
-            throw new BusinessException("No hay disponibilidad para la fecha y hora seleccionadas");
+        int duracion = duracionDe(request);
+        LocalTime horaFin = AgendaReservas.calcularFin(request.getHoraReserva(), duracion);
+        if (horaFin == null) {
+            throw new BusinessException("La reserva no puede pasar de la medianoche");
+        }
+
+        // El horario no puede cruzarse con más reservas de las que el servicio admite a la vez
+        if (!agendaReservas.ocupar(servicio.getIdServicio(), request.getFechaReserva(),
+                request.getHoraReserva(), horaFin)) {
+            throw new BusinessException("El horario seleccionado se cruza con otra reserva del servicio");
+        }
+
+        // Tomar un cupo de forma atómica (falla si no hay disponibilidad)
+        DisponibilidadServicio disponibilidad;
+        try {
+            disponibilidad = reservarCupo(
+                    servicio.getIdServicio(), request.getFechaReserva(), request.getHoraReserva(), horaFin);
+        } catch (BusinessException e) {
+            agendaReservas.liberar(servicio.getIdServicio(), request.getFechaReserva(),
+                    request.getHoraReserva(), horaFin);
+            throw e;
         }
 
-        // Crear reserva
         Reserva reserva = reservaMapper.toEntity(request);
+        reserva.setDuracionMinutos(duracion);
+        reserva.setHoraFin(horaFin);
         reserva.setCliente(cliente);
         reserva.setServicio(servicio);
         reserva.setProveedor(servicio.getProveedor());
+        reserva.setDisponibilidad(disponibilidad);
         reserva.setCostoTotal(servicio.getPrecio());
         reserva.setEstado(EstadoReserva.PENDIENTE);
+        return reserva;
+    }
 
-        reserva = reservaRepository.save(reserva);
-
-        // Reducir cupos disponibles
-        DisponibilidadServicio disponibilidad = disponibilidadRepository
-                .findByServicioAndFecha(request.getIdServicio(), request.getFechaReserva())
-                .stream()
-                .filter(d -> request.getHoraReserva().isAfter(d.getHoraInicio())
-                        && request.getHoraReserva().isBefore(d.getHoraFin()))
-                .findFirst()
-                .orElse(null);
-
-        if (disponibilidad != null && disponibilidad.getCuposDisponibles() > 0) {
-            disponibilidad.setCuposDisponibles(disponibilidad.getCuposDisponibles() - 1);
-            if (disponibilidad.getCuposDisponibles() == 0) {
-                disponibilidad.setDisponible(false);
-            }
-            disponibilidadRepository.save(disponibilidad);
-        }
-
-        // Notificar al proveedor
-//        notificacionService.enviarNotificacion(
-//                servicio.getProveedor().getIdUsuario(),
-//                "RESERVA",
-//                "Nueva reserva recibida",
-//                String.format("Has recibido una nueva reserva para %s", servicio.getNombre())
-//        );
-
-        log.info("Reserva creada exitosamente: {}", reserva.getIdReserva());
-
-        return reservaMapper.toResponse(reserva);
+    private int duracionDe(CrearReservaRequest request) {
+        return request.getDuracionMinutos() != null ? request.getDuracionMinutos() : duracionPredeterminada;
     }
 
     @Override
@@ -149,22 +319,117 @@ public class ReservaServiceImpl implements ReservaService {
         return pageMapper.toPageResponse(reservasResponse);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ReservaResponse> listarPorClientePorCursor(String idCliente, String cursor, Integer tamano) {
+        Specification<Reserva> specification = (root, query, criteriaBuilder) ->
+                criteriaBuilder.equal(root.get("cliente").get("idUsuario"), idCliente);
+
+        CursorPageResponse<Reserva> reservas = CursorKeyset.paginar(reservaRepository, specification,
+                POR_FECHA_RESERVA, Sort.Direction.DESC, cursor, tamano);
+
+        return pageMapper.toCursorPageResponse(reservas, reservaMapper::toResponse);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ReservaResponse> listarPorProveedorPorCursor(String idProveedor, String cursor, Integer tamano) {
+        Specification<Reserva> specification = (root, query, criteriaBuilder) ->
+                criteriaBuilder.equal(root.get("proveedor").get("idUsuario"), idProveedor);
+
+        CursorPageResponse<Reserva> reservas = CursorKeyset.paginar(reservaRepository, specification,
+                POR_FECHA_CREACION, Sort.Direction.DESC, cursor, tamano);
+
+        return pageMapper.toCursorPageResponse(reservas, reservaMapper::toResponse);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public PageResponse<ReservaResponse> filtrarReservas(FiltroReservaRequest filtros) {
-        Pageable pageable = PageRequest.of(
-                filtros.getPagina(),
-                filtros.getTamano(),
-                Sort.by(Sort.Direction.fromString(filtros.getDireccion()), filtros.getOrdenarPor())
-        );
-
-        // TODO: Implementar filtros dinámicos con Specifications
-        Page<Reserva> reservas = reservaRepository.findAll(pageable);
+        OrdenKeyset<Reserva> orden = ordenSolicitado(filtros.getOrdenarPor());
+        Sort sort = Sort.by(direccionOrden(filtros), orden.atributos().toArray(String[]::new));
+        Pageable pageable = PageRequest.of(filtros.getPagina(), filtros.getTamano(), sort);
+
+        Page<Reserva> reservas = reservaRepository.findAll(crearSpecification(filtros), pageable);
         Page<ReservaResponse> reservasResponse = reservas.map(reservaMapper::toResponse);
 
         return pageMapper.toPageResponse(reservasResponse);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ReservaResponse> filtrarReservasPorCursor(FiltroReservaRequest filtros) {
+        CursorPageResponse<Reserva> reservas = CursorKeyset.paginar(reservaRepository, crearSpecification(filtros),
+                ordenSolicitado(filtros.getOrdenarPor()), direccionOrden(filtros),
+                filtros.getCursor(), filtros.getTamano());
+
+        return pageMapper.toCursorPageResponse(reservas, reservaMapper::toResponse);
+    }
+
+    private Specification<Reserva> crearSpecification(FiltroReservaRequest filtros) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            // Filtros por participantes: comparan la FK sin unir la tabla relacionada
+            if (filtros.getIdCliente() != null && !filtros.getIdCliente().isEmpty()) {
+                predicates.add(criteriaBuilder.equal(
+                        root.get("cliente").get("idUsuario"), filtros.getIdCliente()));
+            }
+
+            if (filtros.getIdProveedor() != null && !filtros.getIdProveedor().isEmpty()) {
+                predicates.add(criteriaBuilder.equal(
+                        root.get("proveedor").get("idUsuario"), filtros.getIdProveedor()));
+            }
+
+            if (filtros.getIdServicio() != null && !filtros.getIdServicio().isEmpty()) {
+                predicates.add(criteriaBuilder.equal(
+                        root.get("servicio").get("idServicio"), filtros.getIdServicio()));
+            }
+
+            // Filtro por estados
+            if (filtros.getEstados() != null && !filtros.getEstados().isEmpty()) {
+                predicates.add(root.get("estado").in(filtros.getEstados()));
+            }
+
+            // Filtro por rango de fechas de la reserva
+            if (filtros.getFechaInicio() != null) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(
+                        root.get("fechaReserva"), filtros.getFechaInicio()));
+            }
+
+            if (filtros.getFechaFin() != null) {
+                predicates.add(criteriaBuilder.lessThanOrEqualTo(
+                        root.get("fechaReserva"), filtros.getFechaFin()));
+            }
+
+            // Filtro por rango de costo
+            if (filtros.getCostoMinimo() != null) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(
+                        root.get("costoTotal"), filtros.getCostoMinimo()));
+            }
+
+            if (filtros.getCostoMaximo() != null) {
+                predicates.add(criteriaBuilder.lessThanOrEqualTo(
+                        root.get("costoTotal"), filtros.getCostoMaximo()));
+            }
+
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private OrdenKeyset<Reserva> ordenSolicitado(String ordenarPor) {
+        OrdenKeyset<Reserva> orden = ORDENES.get(ordenarPor);
+        if (orden == null) {
+            throw new BusinessException("No se puede ordenar por: " + ordenarPor
+                    + ". Valores permitidos: " + ORDENES.keySet());
+        }
+        return orden;
+    }
+
+    private Sort.Direction direccionOrden(FiltroReservaRequest filtros) {
+        return "ASC".equalsIgnoreCase(filtros.getDireccion()) ? Sort.Direction.ASC : Sort.Direction.DESC;
+    }
+
     @Override
     public ReservaResponse confirmarReserva(String idReserva, String idProveedor) {
         log.info("Confirmando reserva: {} por proveedor: {}", idReserva, idProveedor);
@@ -184,6 +449,7 @@ public class ReservaServiceImpl implements ReservaService {
 
         reserva.setEstado(EstadoReserva.CONFIRMADA);
         reserva = reservaRepository.save(reserva);
+        expiracionReservas.descartar(idReserva);
 
         // Notificar al cliente
 //        notificacionService.enviarNotificacion(
@@ -210,11 +476,14 @@ public class ReservaServiceImpl implements ReservaService {
             throw new ForbiddenException("No tienes permiso para rechazar esta reserva");
         }
 
+        EstadoReserva estadoAnterior = reserva.getEstado();
         reserva.setEstado(EstadoReserva.RECHAZADA);
         reserva = reservaRepository.save(reserva);
 
         // Restaurar disponibilidad
-        // TODO: Implementar lógica de restauración de cupos
+        liberarCupo(reserva, estadoAnterior);
+        expiracionReservas.descartar(idReserva);
+        recomendacionesServicios.marcar(reserva.getCliente().getIdUsuario());
 
         // Notificar al cliente
 //        notificacionService.enviarNotificacion(
@@ -244,10 +513,16 @@ public class ReservaServiceImpl implements ReservaService {
             throw new BusinessException("No se puede cancelar una reserva finalizada");
         }
 
+        EstadoReserva estadoAnterior = reserva.getEstado();
         reserva.setEstado(EstadoReserva.CANCELADA);
         reserva.setNotasCliente(request.getMotivoCancelacion());
         reservaRepository.save(reserva);
 
+        // Restaurar disponibilidad
+        liberarCupo(reserva, estadoAnterior);
+        expiracionReservas.descartar(idReserva);
+        recomendacionesServicios.marcar(reserva.getCliente().getIdUsuario());
+
         // Notificar al proveedor
 //        notificacionService.enviarNotificacion(
 //                reserva.getProveedor().getIdUsuario(),
@@ -287,40 +562,95 @@ public class ReservaServiceImpl implements ReservaService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public boolean verificarDisponibilidad(String idServicio, CrearReservaRequest request) {
-        return disponibilidadRepository.verificarDisponibilidad(
-                idServicio,
-                request.getFechaReserva(),
-                request.getHoraReserva()
-        );
+        LocalTime horaFin = AgendaReservas.calcularFin(request.getHoraReserva(), duracionDe(request));
+        return horaFin != null
+                && indiceDisponibilidad.verificarDisponibilidad(
+                        idServicio,
+                        request.getFechaReserva(),
+                        request.getHoraReserva())
+                && agendaReservas.estaLibre(idServicio, request.getFechaReserva(), request.getHoraReserva(), horaFin);
     }
 
-    @Override
-    public Integer cancelarReservasExpiradas() {
-        log.info("Cancelando reservas pendientes expiradas");
+    /**
+     * Toma un cupo de la primera franja que contenga la reserva completa,
+     * desde su hora hasta su fin. Si ninguna franja guardada tiene cupo, se
+     * materializan las franjas de las reglas semanales que la contienen y se
+     * vuelve a intentar.
+     */
+    private DisponibilidadServicio reservarCupo(String idServicio, LocalDate fecha, LocalTime hora,
+                                                LocalTime horaFin) {
+        // Una reserva que termina a la medianoche sólo cabe en una franja que llegue al final del día
+        LocalTime fin = horaFin.equals(LocalTime.MIDNIGHT) ? LocalTime.MAX : horaFin;
+        DisponibilidadServicio disponibilidad = tomarPrimeraConCupo(idServicio, fecha, hora, fin);
+
+        if (disponibilidad == null && expansionReglas.materializar(idServicio, fecha, hora, fin) > 0) {
+            disponibilidad = tomarPrimeraConCupo(idServicio, fecha, hora, fin);
+        }
 
-        // Obtener tiempo de expiración (48 horas por defecto)
-        LocalDateTime fechaLimite = LocalDateTime.now().minusHours(48);
+        if (disponibilidad == null) {
+            throw new BusinessException("No hay disponibilidad para la fecha y hora seleccionadas");
+        }
 
-        List<Reserva> reservasExpiradas = reservaRepository.findReservasPendientesAntiguas(fechaLimite);
+        indiceDisponibilidad.registrarCupoTomado(idServicio, fecha, disponibilidad.getIdDisponibilidad());
+        // El detalle en caché muestra los cupos de cada franja
+        cacheServicios.invalidar(idServicio);
+        return disponibilidad;
+    }
+
+    /**
+     * Cada intento es un UPDATE condicional, así que si otra reserva se
+     * queda con el último cupo de una franja se prueba con la siguiente.
+     */
+    private DisponibilidadServicio tomarPrimeraConCupo(String idServicio, LocalDate fecha, LocalTime hora,
+                                                       LocalTime horaFin) {
+        List<DisponibilidadServicio> candidatas =
+                disponibilidadRepository.findCandidatasParaHora(idServicio, fecha, hora, horaFin);
+
+        for (DisponibilidadServicio candidata : candidatas) {
+            if (disponibilidadRepository.reservarCupo(candidata.getIdDisponibilidad()) == 1) {
+                log.debug("Cupo tomado de la disponibilidad: {}", candidata.getIdDisponibilidad());
+                return candidata;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Devuelve el cupo de la reserva si todavía lo tenía tomado
+     */
+    private void liberarCupo(Reserva reserva, EstadoReserva estadoAnterior) {
+        boolean teniaCupo = estadoAnterior == EstadoReserva.PENDIENTE
+                || estadoAnterior == EstadoReserva.CONFIRMADA;
+
+        if (!teniaCupo) {
+            return;
+        }
 
-        reservasExpiradas.forEach(reserva -> {
-            reserva.setEstado(EstadoReserva.CANCELADA);
+        agendaReservas.liberar(reserva.getServicio().getIdServicio(), reserva.getFechaReserva(),
+                reserva.getHoraReserva(), reserva.getHoraFin());
 
-            // Notificar al cliente
-//            notificacionService.enviarNotificacion(
-//                    reserva.getCliente().getIdUsuario(),
-//                    "CANCELACION",
-//                    "Reserva cancelada por expiración",
-//                    "Tu reserva ha sido cancelada automáticamente por falta de pago"
-//            );
-        });
+        if (reserva.getDisponibilidad() == null) {
+            return;
+        }
+
+        String idDisponibilidad = reserva.getDisponibilidad().getIdDisponibilidad();
+        disponibilidadRepository.liberarCupo(idDisponibilidad);
+        indiceDisponibilidad.registrarCupoLiberado(
+                reserva.getServicio().getIdServicio(), reserva.getFechaReserva(), idDisponibilidad);
+        cacheServicios.invalidar(reserva.getServicio().getIdServicio());
+    }
+
+    @Override
+    public Integer cancelarReservasExpiradas() {
+        log.info("Cancelando reservas pendientes expiradas");
 
-        reservaRepository.saveAll(reservasExpiradas);
+        // Cancela en lote las pendientes vencidas y devuelve sus cupos
+        Integer canceladas = expiracionReservas.barrerPendientesAntiguas();
 
-        log.info("Reservas canceladas: {}", reservasExpiradas.size());
+        log.info("Reservas canceladas: {}", canceladas);
 
-        return reservasExpiradas.size();
+        return canceladas;
     }
 }
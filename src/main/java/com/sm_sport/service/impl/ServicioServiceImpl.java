@@ -4,38 +4,97 @@ import com.sm_sport.dto.request.ActualizarServicioRequest;
 import com.sm_sport.dto.request.BusquedaServicioRequest;
 import com.sm_sport.dto.request.CrearServicioRequest;
 import com.sm_sport.dto.request.DisponibilidadRequest;
+import com.sm_sport.dto.request.ExcepcionDisponibilidadRequest;
+import com.sm_sport.dto.request.ReglaDisponibilidadRequest;
+import com.sm_sport.dto.response.AutocompletadoResponse;
+import com.sm_sport.dto.response.BusquedaServicioResponse;
+import com.sm_sport.dto.response.CalendarioDisponibilidadResponse;
+import com.sm_sport.dto.response.CursorPageResponse;
+import com.sm_sport.dto.response.ErrorImportacionResponse;
+import com.sm_sport.dto.response.FacetasResponse;
+import com.sm_sport.dto.response.GrupoMapaResponse;
+import com.sm_sport.dto.response.ImportacionServiciosResponse;
 import com.sm_sport.dto.response.MessageResponse;
 import com.sm_sport.dto.response.PageResponse;
 import com.sm_sport.dto.response.ServicioDetalleResponse;
 import com.sm_sport.dto.response.ServicioResponse;
+import com.sm_sport.dto.response.SugerenciaResponse;
 import com.sm_sport.exception.BusinessException;
 import com.sm_sport.exception.ResourceNotFoundException;
+import com.sm_sport.index.AgrupadorMapa;
+import com.sm_sport.index.Autocompletado;
+import com.sm_sport.index.CacheServicios;
+import com.sm_sport.index.ClasificacionServicios;
+import com.sm_sport.index.DiaDisponibilidad;
+import com.sm_sport.index.IndiceDisponibilidad;
+import com.sm_sport.index.IndiceGeografico;
+import com.sm_sport.index.IndiceTexto;
+import com.sm_sport.index.RecomendacionesServicios;
 import com.sm_sport.mapper.DisponibilidadMapper;
 import com.sm_sport.mapper.PageMapper;
+import com.sm_sport.mapper.ResenaMapper;
 import com.sm_sport.mapper.ServicioMapper;
 import com.sm_sport.mapper.UbicacionMapper;
 import com.sm_sport.model.entity.DisponibilidadServicio;
+import com.sm_sport.model.entity.ExcepcionDisponibilidad;
 import com.sm_sport.model.entity.Proveedor;
+import com.sm_sport.model.entity.ReglaDisponibilidad;
 import com.sm_sport.model.entity.Servicio;
 import com.sm_sport.model.entity.UbicacionServicio;
 import com.sm_sport.model.enums.EstadoReserva;
 import com.sm_sport.model.enums.EstadoServicio;
+import com.sm_sport.model.enums.FormatoImportacion;
 import com.sm_sport.repository.DisponibilidadServicioRepository;
+import com.sm_sport.repository.ExcepcionDisponibilidadRepository;
 import com.sm_sport.repository.ProveedorRepository;
+import com.sm_sport.repository.ReglaDisponibilidadRepository;
+import com.sm_sport.repository.ResenaRepository;
 import com.sm_sport.repository.ServicioRepository;
+import com.sm_sport.repository.ServicioRepositoryCustom;
 import com.sm_sport.repository.UbicacionServicioRepository;
 import com.sm_sport.service.ServicioService;
+import com.sm_sport.util.CursorKeyset;
+import com.sm_sport.util.LectorImportacion;
+import com.sm_sport.util.OrdenKeyset;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -44,14 +103,53 @@ import java.util.stream.Collectors;
 @Transactional
 public class ServicioServiceImpl implements ServicioService {
 
+    private static final int MAX_SERVICIOS_CALENDARIO = 50;
+    private static final int MAX_DIAS_CALENDARIO = 62;
+    private static final int MAX_MAS_CERCANOS = 100;
+    private static final int MAX_TESELAS_MAPA = 64;
+    private static final int MAX_RESULTADOS_TEXTO = 1000;
+    private static final int RESENAS_DETALLE = 5;
+    private static final int MAX_ERRORES_IMPORTACION = 1000;
+    // Rangos de precio de las facetas: menos de 20.000, 20.000 a 50.000, 50.000 a 100.000 y más
+    private static final List<BigDecimal> LIMITES_RANGO_PRECIO = List.of(
+            new BigDecimal("20000"), new BigDecimal("50000"), new BigDecimal("100000"));
+    private static final String ORDEN_DISTANCIA = "distancia";
+    private static final double KM_POR_GRADO = Math.PI * IndiceGeografico.RADIO_TIERRA_KM / 180;
+
+    private static final OrdenKeyset<Servicio> POR_FECHA_PUBLICACION = OrdenKeyset.<Servicio>de("fechaPublicacion")
+            .por("fechaPublicacion", LocalDateTime.class, Servicio::getFechaPublicacion)
+            .por("idServicio", String.class, Servicio::getIdServicio);
+
     private final ServicioRepository servicioRepository;
     private final ProveedorRepository proveedorRepository;
     private final UbicacionServicioRepository ubicacionRepository;
     private final DisponibilidadServicioRepository disponibilidadRepository;
+    private final ReglaDisponibilidadRepository reglaRepository;
+    private final ExcepcionDisponibilidadRepository excepcionRepository;
+    private final ResenaRepository resenaRepository;
+    private final IndiceDisponibilidad indiceDisponibilidad;
+    private final IndiceGeografico indiceGeografico;
+    private final AgrupadorMapa agrupadorMapa;
+    private final IndiceTexto indiceTexto;
+    private final Autocompletado autocompletado;
+    private final ClasificacionServicios clasificacionServicios;
+    private final RecomendacionesServicios recomendacionesServicios;
+    private final CacheServicios cacheServicios;
     private final ServicioMapper servicioMapper;
     private final UbicacionMapper ubicacionMapper;
     private final DisponibilidadMapper disponibilidadMapper;
     private final PageMapper pageMapper;
+    private final ResenaMapper resenaMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManager entityManager;
+
+    @Value("${app.servicios.importacion.tamano-lote:500}")
+    private int tamanoLoteImportacion = 500;
+
+    @Value("${app.servicios.importacion.max-filas:20000}")
+    private int maxFilasImportacion = 20000;
 
     @Override
     public ServicioResponse publicarServicio(String idProveedor, CrearServicioRequest request) {
@@ -75,11 +173,16 @@ public class ServicioServiceImpl implements ServicioService {
         servicio = servicioRepository.save(servicio);
 
         // Crear ubicación
+        UbicacionServicio ubicacion = null;
         if (request.getUbicacion() != null) {
-            UbicacionServicio ubicacion = ubicacionMapper.toEntity(request.getUbicacion());
+            ubicacion = ubicacionMapper.toEntity(request.getUbicacion());
             ubicacion.setServicio(servicio);
             ubicacionRepository.save(ubicacion);
+            indiceGeografico.registrar(servicio, ubicacion);
         }
+        indiceTexto.registrar(servicio);
+        autocompletado.registrar(servicio, ubicacion);
+        clasificacionServicios.registrar(servicio, ubicacion);
 
         // Crear disponibilidades
         if (request.getDisponibilidad() != null && !request.getDisponibilidad().isEmpty()) {
@@ -89,6 +192,7 @@ public class ServicioServiceImpl implements ServicioService {
             Servicio finalServicio = servicio;
             disponibilidades.forEach(d -> d.setServicio(finalServicio));
             disponibilidadRepository.saveAll(disponibilidades);
+            invalidarIndice(finalServicio.getIdServicio(), disponibilidades);
         }
 
         // Actualizar contador del proveedor
@@ -100,22 +204,186 @@ public class ServicioServiceImpl implements ServicioService {
         return servicioMapper.toResponse(servicio);
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImportacionServiciosResponse importarServicios(String idProveedor, InputStream contenido,
+                                                          FormatoImportacion formato) {
+        log.info("Importando servicios para proveedor: {} - Formato: {}", idProveedor, formato);
+
+        // Sin transacción propia: cada lote se guarda en la suya y al terminar se desprenden sus entidades
+        Proveedor proveedor = proveedorRepository.findById(idProveedor)
+                .orElseThrow(() -> new ResourceNotFoundException("Proveedor no encontrado"));
+        if (proveedor.getSaldoCuenta().compareTo(BigDecimal.ZERO) < 0) {
+            throw new BusinessException("Debe recargar saldo para publicar servicios");
+        }
+
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        List<ErrorImportacionResponse> errores = new ArrayList<>();
+        List<LectorImportacion.Fila> lote = new ArrayList<>(tamanoLoteImportacion);
+        int[] filas = {0};
+        int[] importadas = {0};
+        int[] fallidas = {0};
+
+        LectorImportacion.leer(contenido, formato, objectMapper, fila -> {
+            if (filas[0] >= maxFilasImportacion) {
+                fallidas[0]++;
+                agregarError(errores, fila.numero(), "Se superó el máximo de " + maxFilasImportacion +
+                        " filas por importación; no se leyó el resto del archivo");
+                return false;
+            }
+            filas[0]++;
+
+            String error = fila.error() != null ? fila.error() : validarFila(fila.solicitud());
+            if (error != null) {
+                fallidas[0]++;
+                agregarError(errores, fila.numero(), error);
+            } else {
+                lote.add(fila);
+                if (lote.size() >= tamanoLoteImportacion) {
+                    importarLote(transaccion, idProveedor, lote, importadas, fallidas, errores);
+                }
+            }
+            return true;
+        });
+        if (!lote.isEmpty()) {
+            importarLote(transaccion, idProveedor, lote, importadas, fallidas, errores);
+        }
+
+        // El contador del proveedor se actualiza una sola vez para toda la importación
+        if (importadas[0] > 0) {
+            transaccion.executeWithoutResult(estado ->
+                    proveedorRepository.sumarServiciosPublicados(idProveedor, importadas[0]));
+        }
+
+        log.info("Importación terminada para proveedor {}: {} filas, {} importadas, {} fallidas",
+                idProveedor, filas[0], importadas[0], fallidas[0]);
+
+        return ImportacionServiciosResponse.builder()
+                .filas(filas[0])
+                .importadas(importadas[0])
+                .fallidas(fallidas[0])
+                .errores(errores)
+                .build();
+    }
+
+    // Guarda un lote en una transacción con inserciones agrupadas (hibernate.jdbc.batch_size). Si la base de
+    // datos lo rechaza, cada fila se reintenta en su propia transacción para informar sólo las que fallan
+    private void importarLote(TransactionTemplate transaccion, String idProveedor, List<LectorImportacion.Fila> lote,
+                              int[] importadas, int[] fallidas, List<ErrorImportacionResponse> errores) {
+        try {
+            guardarLote(transaccion, idProveedor, lote);
+            importadas[0] += lote.size();
+        } catch (DataAccessException e) {
+            log.warn("Lote de importación rechazado por la base de datos, se reintenta fila por fila: {}",
+                    e.getMostSpecificCause().getMessage());
+            for (LectorImportacion.Fila fila : lote) {
+                try {
+                    guardarLote(transaccion, idProveedor, List.of(fila));
+                    importadas[0]++;
+                } catch (DataAccessException errorFila) {
+                    fallidas[0]++;
+                    agregarError(errores, fila.numero(),
+                            "Error al guardar la fila: " + errorFila.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        lote.clear();
+    }
+
+    private void guardarLote(TransactionTemplate transaccion, String idProveedor, List<LectorImportacion.Fila> lote) {
+        try {
+            transaccion.executeWithoutResult(estado -> {
+                Proveedor proveedor = proveedorRepository.getReferenceById(idProveedor);
+                List<Servicio> servicios = new ArrayList<>(lote.size());
+                List<UbicacionServicio> ubicaciones = new ArrayList<>(lote.size());
+                List<DisponibilidadServicio> disponibilidades = new ArrayList<>();
+
+                for (LectorImportacion.Fila fila : lote) {
+                    CrearServicioRequest solicitud = fila.solicitud();
+                    Servicio servicio = servicioMapper.toEntity(solicitud);
+                    servicio.setProveedor(proveedor);
+                    servicio.setEstado(EstadoServicio.PUBLICADO);
+                    servicios.add(servicio);
+
+                    UbicacionServicio ubicacion = ubicacionMapper.toEntity(solicitud.getUbicacion());
+                    ubicacion.setServicio(servicio);
+                    ubicaciones.add(ubicacion);
+
+                    if (solicitud.getDisponibilidad() != null) {
+                        List<DisponibilidadServicio> delServicio =
+                                disponibilidadMapper.toEntityList(solicitud.getDisponibilidad());
+                        delServicio.forEach(d -> d.setServicio(servicio));
+                        disponibilidades.addAll(delServicio);
+                    }
+                }
+
+                servicioRepository.saveAll(servicios);
+                ubicacionRepository.saveAll(ubicaciones);
+                disponibilidadRepository.saveAll(disponibilidades);
+                disponibilidades.stream()
+                        .map(d -> Map.entry(d.getServicio().getIdServicio(), d.getFecha()))
+                        .distinct()
+                        .forEach(e -> indiceDisponibilidad.invalidar(e.getKey(), e.getValue()));
+
+                for (int i = 0; i < servicios.size(); i++) {
+                    Servicio servicio = servicios.get(i);
+                    UbicacionServicio ubicacion = ubicaciones.get(i);
+                    indiceGeografico.registrar(servicio, ubicacion);
+                    indiceTexto.registrar(servicio);
+                    autocompletado.registrar(servicio, ubicacion);
+                    clasificacionServicios.registrar(servicio, ubicacion);
+                }
+            });
+        } finally {
+            // Con open-in-view la sesión de la petición sobrevive al commit: sin vaciarla, cada lote
+            // revisaría en el flush todas las entidades de los lotes anteriores y la memoria crecería con el archivo
+            entityManager.clear();
+        }
+    }
+
+    private String validarFila(CrearServicioRequest solicitud) {
+        Set<ConstraintViolation<CrearServicioRequest>> violaciones = validator.validate(solicitud);
+        if (violaciones.isEmpty()) {
+            return null;
+        }
+        return violaciones.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    // El reporte guarda los primeros errores; el total de fallidas siempre es exacto
+    private static void agregarError(List<ErrorImportacionResponse> errores, int fila, String error) {
+        if (errores.size() < MAX_ERRORES_IMPORTACION) {
+            errores.add(new ErrorImportacionResponse(fila, error));
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public ServicioResponse obtenerPorId(String idServicio) {
-        Servicio servicio = servicioRepository.findById(idServicio)
-                .orElseThrow(() -> new ResourceNotFoundException("Servicio no encontrado"));
+        return cacheServicios.resumen(idServicio, () -> {
+            Servicio servicio = servicioRepository.findById(idServicio)
+                    .orElseThrow(() -> new ResourceNotFoundException("Servicio no encontrado"));
 
-        return servicioMapper.toResponse(servicio);
+            return servicioMapper.toResponse(servicio);
+        });
     }
 
     @Override
     @Transactional(readOnly = true)
     public ServicioDetalleResponse obtenerDetalle(String idServicio) {
-        Servicio servicio = servicioRepository.findById(idServicio)
-                .orElseThrow(() -> new ResourceNotFoundException("Servicio no encontrado"));
+        return cacheServicios.detalle(idServicio, () -> {
+            Servicio servicio = servicioRepository.findById(idServicio)
+                    .orElseThrow(() -> new ResourceNotFoundException("Servicio no encontrado"));
 
-        return servicioMapper.toDetalleResponse(servicio);
+            // Sólo las reseñas que se muestran y el histograma guardado: el costo no depende de cuántas reseñas tenga
+            ServicioDetalleResponse detalle = servicioMapper.toDetalleResponse(servicio);
+            detalle.setResenas(resenaMapper.toResponseList(
+                    resenaRepository.findRecientesPublicadas(idServicio, PageRequest.of(0, RESENAS_DETALLE))));
+            detalle.setHistogramaCalificaciones(histogramaCalificaciones(servicio));
+            return detalle;
+        });
     }
 
     @Override
@@ -134,6 +402,8 @@ public class ServicioServiceImpl implements ServicioService {
         }
 
         servicio = servicioRepository.save(servicio);
+        cacheServicios.invalidar(idServicio);
+        actualizarIndicesBusqueda(servicio);
 
         log.info("Servicio actualizado exitosamente: {}", idServicio);
 
@@ -149,6 +419,8 @@ public class ServicioServiceImpl implements ServicioService {
 
         servicio.setEstado(nuevoEstado);
         servicio = servicioRepository.save(servicio);
+        cacheServicios.invalidar(idServicio);
+        actualizarIndicesBusqueda(servicio);
 
         return servicioMapper.toResponse(servicio);
     }
@@ -172,6 +444,11 @@ public class ServicioServiceImpl implements ServicioService {
         // Soft delete
         servicio.setEstado(EstadoServicio.ELIMINADO);
         servicioRepository.save(servicio);
+        cacheServicios.invalidar(idServicio);
+        indiceGeografico.retirar(idServicio);
+        indiceTexto.retirar(idServicio);
+        autocompletado.retirar(idServicio);
+        clasificacionServicios.retirar(idServicio);
 
         log.info("Servicio eliminado exitosamente: {}", idServicio);
 
@@ -190,6 +467,18 @@ public class ServicioServiceImpl implements ServicioService {
         return pageMapper.toPageResponse(serviciosResponse);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ServicioResponse> listarServiciosPorCursor(String cursor, Integer tamano) {
+        Specification<Servicio> specification = (root, query, criteriaBuilder) ->
+                criteriaBuilder.equal(root.get("estado"), EstadoServicio.PUBLICADO);
+
+        CursorPageResponse<Servicio> servicios = CursorKeyset.paginar(servicioRepository, specification,
+                POR_FECHA_PUBLICACION, Sort.Direction.DESC, cursor, tamano, "proveedor", "ubicacion");
+
+        return pageMapper.toCursorPageResponse(servicios, servicioMapper::toResponse);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<ServicioResponse> listarPorProveedor(String idProveedor) {
@@ -202,23 +491,326 @@ public class ServicioServiceImpl implements ServicioService {
     public PageResponse<ServicioResponse> buscarServicios(BusquedaServicioRequest filtros) {
         log.info("Buscando servicios con filtros: {}", filtros);
 
-        Pageable pageable = PageRequest.of(
-                filtros.getPagina(),
-                filtros.getTamano(),
-                Sort.by(Sort.Direction.fromString(filtros.getDireccion()), filtros.getOrdenarPor())
-        );
+        boolean conUbicacion = filtros.getLatitud() != null && filtros.getLongitud() != null;
+        boolean porDistancia = ORDEN_DISTANCIA.equals(filtros.getOrdenarPor());
+        if ((filtros.getLatitud() == null) != (filtros.getLongitud() == null)) {
+            throw new BusinessException("Se deben indicar latitud y longitud juntas");
+        }
+        if ((filtros.getRadioKm() != null || porDistancia) && !conUbicacion) {
+            throw new BusinessException("La búsqueda por distancia requiere latitud y longitud");
+        }
+        if (filtros.getRadioKm() != null && filtros.getRadioKm() <= 0) {
+            throw new BusinessException("El radio debe ser mayor a 0");
+        }
+
+        // El orden por distancia lo agrega la Specification; el resto va en el Pageable
+        Sort sort = porDistancia
+                ? Sort.unsorted()
+                : Sort.by(Sort.Direction.fromString(filtros.getDireccion()), filtros.getOrdenarPor());
+        Pageable pageable = PageRequest.of(filtros.getPagina(), filtros.getTamano(), sort);
 
-        Page<Servicio> servicios = servicioRepository.buscarConFiltros(
-                filtros.getDeporte(),
-                filtros.getCiudad(),
-                filtros.getPrecioMin(),
-                filtros.getPrecioMax(),
-                pageable
-        );
+        // Los candidatos por texto salen del índice en memoria, no de un LIKE sobre la tabla
+        List<String> idsPorTexto = filtros.getTexto() != null && !filtros.getTexto().isBlank()
+                ? indiceTexto.buscar(filtros.getTexto(), MAX_RESULTADOS_TEXTO).stream()
+                        .map(IndiceTexto.Resultado::idServicio)
+                        .toList()
+                : null;
 
-        Page<ServicioResponse> serviciosResponse = servicios.map(servicioMapper::toResponse);
+        Page<Servicio> servicios = servicioRepository.findAll(
+                crearSpecification(filtros, idsPorTexto, porDistancia), pageable);
 
-        return pageMapper.toPageResponse(serviciosResponse);
+        Page<ServicioResponse> serviciosResponse = servicios.map(servicio -> {
+            ServicioResponse response = servicioMapper.toResponse(servicio);
+            if (conUbicacion) {
+                response.setDistanciaKm(distanciaKm(filtros, servicio.getUbicacion()));
+            }
+            return response;
+        });
+
+        PageResponse<ServicioResponse> pagina = pageMapper.toPageResponse(serviciosResponse);
+        if (!Boolean.TRUE.equals(filtros.getIncluirFacetas())) {
+            return pagina;
+        }
+
+        // Una sola consulta agrupada para todas las facetas, con los mismos filtros y sin ordenar
+        List<ServicioRepositoryCustom.ConteoFacetas> conteos = servicioRepository.contarFacetas(
+                crearSpecification(filtros, idsPorTexto, false), LIMITES_RANGO_PRECIO);
+        return new BusquedaServicioResponse(pagina, facetas(conteos));
+    }
+
+    private static FacetasResponse facetas(List<ServicioRepositoryCustom.ConteoFacetas> conteos) {
+        Map<String, Long> deportes = new HashMap<>();
+        Map<String, Long> ciudades = new HashMap<>();
+        long[] porRango = new long[LIMITES_RANGO_PRECIO.size() + 1];
+        long total = 0;
+
+        for (ServicioRepositoryCustom.ConteoFacetas conteo : conteos) {
+            total += conteo.cantidad();
+            if (conteo.deporte() != null) {
+                deportes.merge(conteo.deporte(), conteo.cantidad(), Long::sum);
+            }
+            if (conteo.ciudad() != null) {
+                ciudades.merge(conteo.ciudad(), conteo.cantidad(), Long::sum);
+            }
+            if (conteo.rangoPrecio() != null) {
+                porRango[conteo.rangoPrecio()] += conteo.cantidad();
+            }
+        }
+
+        Map<String, Long> rangosPrecio = new LinkedHashMap<>();
+        for (int i = 0; i < porRango.length; i++) {
+            String desde = i == 0 ? "0" : LIMITES_RANGO_PRECIO.get(i - 1).toPlainString();
+            String etiqueta = i < LIMITES_RANGO_PRECIO.size()
+                    ? desde + "-" + LIMITES_RANGO_PRECIO.get(i).toPlainString()
+                    : desde + "+";
+            rangosPrecio.put(etiqueta, porRango[i]);
+        }
+
+        return FacetasResponse.builder()
+                .total(total)
+                .deportes(deMayorAMenor(deportes))
+                .ciudades(deMayorAMenor(ciudades))
+                .rangosPrecio(rangosPrecio)
+                .build();
+    }
+
+    private static Map<String, Long> deMayorAMenor(Map<String, Long> conteos) {
+        Map<String, Long> ordenados = new LinkedHashMap<>();
+        conteos.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .forEach(e -> ordenados.put(e.getKey(), e.getValue()));
+        return ordenados;
+    }
+
+    /**
+     * Filtros de búsqueda de servicios publicados. Con ubicación, un
+     * rectángulo sobre las columnas indexadas de coordenadas descarta primero
+     * los servicios lejanos y sólo a los que quedan se les calcula la
+     * distancia exacta (haversine) para compararla con el radio.
+     */
+    private Specification<Servicio> crearSpecification(BusquedaServicioRequest filtros, List<String> idsPorTexto,
+                                                       boolean porDistancia) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(criteriaBuilder.equal(root.get("estado"), EstadoServicio.PUBLICADO));
+
+            if (idsPorTexto != null) {
+                predicates.add(idsPorTexto.isEmpty()
+                        ? criteriaBuilder.disjunction()
+                        : root.get("idServicio").in(idsPorTexto));
+            }
+
+            if (filtros.getDeporte() != null && !filtros.getDeporte().isEmpty()) {
+                predicates.add(criteriaBuilder.equal(root.get("deporte"), filtros.getDeporte()));
+            }
+
+            if (filtros.getPrecioMin() != null) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("precio"), filtros.getPrecioMin()));
+            }
+
+            if (filtros.getPrecioMax() != null) {
+                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("precio"), filtros.getPrecioMax()));
+            }
+
+            Join<Servicio, UbicacionServicio> ubicacion = unirUbicacion(root, query);
+
+            if (filtros.getCiudad() != null && !filtros.getCiudad().isEmpty()) {
+                predicates.add(criteriaBuilder.equal(ubicacion.get("ciudad"), filtros.getCiudad()));
+            }
+
+            if (filtros.getLatitud() != null && filtros.getLongitud() != null) {
+                double latitud = filtros.getLatitud().doubleValue();
+                double longitud = filtros.getLongitud().doubleValue();
+                Expression<Double> distancia = expresionDistancia(
+                        criteriaBuilder, ubicacion, latitud, longitud);
+
+                if (filtros.getRadioKm() != null) {
+                    predicates.addAll(rectanguloEnvolvente(
+                            criteriaBuilder, ubicacion, latitud, longitud, filtros.getRadioKm()));
+                    predicates.add(criteriaBuilder.le(distancia, filtros.getRadioKm()));
+                }
+
+                if (porDistancia && !Long.class.equals(query.getResultType())) {
+                    query.orderBy(criteriaBuilder.asc(distancia), criteriaBuilder.asc(root.get("idServicio")));
+                }
+            }
+
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * En la consulta de la página trae proveedor y ubicación con fetch join y
+     * filtra sobre ese mismo join, para no unir ubicaciones dos veces; en la
+     * de conteo y en la de facetas sólo une la ubicación.
+     */
+    @SuppressWarnings("unchecked")
+    private static Join<Servicio, UbicacionServicio> unirUbicacion(Root<Servicio> root, CriteriaQuery<?> query) {
+        if (Servicio.class.equals(query.getResultType())) {
+            root.fetch("proveedor");
+            return (Join<Servicio, UbicacionServicio>) root.<Servicio, UbicacionServicio>fetch("ubicacion");
+        }
+        return root.join("ubicacion");
+    }
+
+    // Prefiltro por rango sobre (coordenadas_lat, coordenadas_lng); se omite la longitud cerca de los polos
+    private static List<Predicate> rectanguloEnvolvente(CriteriaBuilder cb, Join<Servicio, UbicacionServicio> ubicacion,
+                                                        double latitud, double longitud, double radioKm) {
+        double deltaLat = radioKm / KM_POR_GRADO;
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.between(ubicacion.get("coordenadasLat"),
+                BigDecimal.valueOf(latitud - deltaLat), BigDecimal.valueOf(latitud + deltaLat)));
+
+        double latExtrema = Math.min(90, Math.abs(latitud) + deltaLat);
+        double coseno = Math.cos(Math.toRadians(latExtrema));
+        if (coseno > 1e-6) {
+            double deltaLng = deltaLat / coseno;
+            if (longitud - deltaLng >= -180 && longitud + deltaLng <= 180) {
+                predicates.add(cb.between(ubicacion.get("coordenadasLng"),
+                        BigDecimal.valueOf(longitud - deltaLng), BigDecimal.valueOf(longitud + deltaLng)));
+            }
+        }
+        return predicates;
+    }
+
+    // Haversine en kilómetros: 2R·asin(√(sin²(Δφ/2) + cos φ1·cos φ2·sin²(Δλ/2)))
+    private static Expression<Double> expresionDistancia(CriteriaBuilder cb, Join<Servicio, UbicacionServicio> ubicacion,
+                                                         double latitud, double longitud) {
+        Expression<Double> lat = ubicacion.get("coordenadasLat").as(Double.class);
+        Expression<Double> lng = ubicacion.get("coordenadasLng").as(Double.class);
+
+        Expression<Double> senoLat = cb.function("sin", Double.class,
+                cb.quot(cb.function("radians", Double.class, cb.diff(lat, latitud)), 2).as(Double.class));
+        Expression<Double> senoLng = cb.function("sin", Double.class,
+                cb.quot(cb.function("radians", Double.class, cb.diff(lng, longitud)), 2).as(Double.class));
+        Expression<Double> cosenoLat = cb.function("cos", Double.class, cb.function("radians", Double.class, lat));
+
+        Expression<Double> a = cb.sum(
+                cb.prod(senoLat, senoLat),
+                cb.prod(cb.prod(cosenoLat, Math.cos(Math.toRadians(latitud))), cb.prod(senoLng, senoLng)));
+
+        return cb.prod(2 * IndiceGeografico.RADIO_TIERRA_KM,
+                cb.function("asin", Double.class, cb.sqrt(a).as(Double.class)));
+    }
+
+    private static Double distanciaKm(BusquedaServicioRequest filtros, UbicacionServicio ubicacion) {
+        if (ubicacion == null || ubicacion.getCoordenadasLat() == null || ubicacion.getCoordenadasLng() == null) {
+            return null;
+        }
+        double distancia = IndiceGeografico.distanciaKm(
+                filtros.getLatitud().doubleValue(), filtros.getLongitud().doubleValue(),
+                ubicacion.getCoordenadasLat().doubleValue(), ubicacion.getCoordenadasLng().doubleValue());
+        return Math.round(distancia * 100) / 100.0;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<ServicioResponse> buscarPorTexto(String texto, Integer pagina, Integer tamano) {
+        log.info("Buscando servicios por texto: '{}' (página {}/{})", texto, pagina, tamano);
+
+        if (texto == null || texto.isBlank()) {
+            throw new BusinessException("El texto de búsqueda es obligatorio");
+        }
+        if (pagina == null || pagina < 0 || tamano == null || tamano < 1) {
+            throw new BusinessException("La página debe ser mayor o igual a 0 y el tamaño mayor a 0");
+        }
+
+        // El índice devuelve los ids ya ordenados por relevancia; sólo se consulta la página pedida
+        List<IndiceTexto.Resultado> resultados = indiceTexto.buscar(texto, MAX_RESULTADOS_TEXTO);
+        int desde = (int) Math.min((long) pagina * tamano, resultados.size());
+        int hasta = Math.min(desde + tamano, resultados.size());
+        List<String> ids = resultados.subList(desde, hasta).stream()
+                .map(IndiceTexto.Resultado::idServicio)
+                .toList();
+
+        List<ServicioResponse> contenido = new ArrayList<>(ids.size());
+        if (!ids.isEmpty()) {
+            Map<String, Servicio> servicios = servicioRepository.findConProveedorYUbicacion(ids).stream()
+                    .collect(Collectors.toMap(Servicio::getIdServicio, Function.identity()));
+            for (String id : ids) {
+                Servicio servicio = servicios.get(id);
+                if (servicio != null && servicio.getEstado() == EstadoServicio.PUBLICADO) {
+                    contenido.add(servicioMapper.toResponse(servicio));
+                }
+            }
+        }
+
+        int totalPaginas = (resultados.size() + tamano - 1) / tamano;
+        return PageResponse.<ServicioResponse>builder()
+                .content(contenido)
+                .pageNumber(pagina)
+                .pageSize(tamano)
+                .totalElements((long) resultados.size())
+                .totalPages(totalPaginas)
+                .first(pagina == 0)
+                .last(pagina >= totalPaginas - 1)
+                .empty(contenido.isEmpty())
+                .build();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AutocompletadoResponse autocompletar(String prefijo, Integer cantidad) {
+        // Se responde desde memoria en cada tecla: sin transacción para no tomar una conexión del pool
+        if (cantidad == null || cantidad < 1 || cantidad > Autocompletado.MAX_SUGERENCIAS) {
+            throw new BusinessException("La cantidad debe estar entre 1 y " + Autocompletado.MAX_SUGERENCIAS);
+        }
+        if (prefijo == null) {
+            prefijo = "";
+        }
+
+        Autocompletado.Sugerencias sugerencias = autocompletado.sugerir(prefijo, cantidad);
+        return AutocompletadoResponse.builder()
+                .servicios(aSugerenciasResponse(sugerencias.servicios()))
+                .deportes(aSugerenciasResponse(sugerencias.deportes()))
+                .ciudades(aSugerenciasResponse(sugerencias.ciudades()))
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ServicioResponse> listarMejoresServicios(String deporte, String ciudad, Integer cantidad) {
+        if (cantidad == null || cantidad < 1 || cantidad > ClasificacionServicios.MAX_POSICIONES) {
+            throw new BusinessException("La cantidad debe estar entre 1 y " + ClasificacionServicios.MAX_POSICIONES);
+        }
+
+        // La clasificación ya está ordenada en memoria; sólo se cargan los servicios que se devuelven
+        return serviciosPublicadosEnOrden(clasificacionServicios.mejores(deporte, ciudad, cantidad).stream()
+                .map(ClasificacionServicios.Posicion::idServicio)
+                .toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ServicioResponse> listarServiciosRecomendados(String idCliente, Integer cantidad) {
+        if (cantidad == null || cantidad < 1 || cantidad > RecomendacionesServicios.MAX_RECOMENDACIONES) {
+            throw new BusinessException("La cantidad debe estar entre 1 y " + RecomendacionesServicios.MAX_RECOMENDACIONES);
+        }
+
+        return serviciosPublicadosEnOrden(recomendacionesServicios.recomendar(idCliente, cantidad).stream()
+                .map(RecomendacionesServicios.Recomendacion::idServicio)
+                .toList());
+    }
+
+    // Carga los servicios de una lista ya ordenada en memoria, conservando el orden y sólo los publicados
+    private List<ServicioResponse> serviciosPublicadosEnOrden(List<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Servicio> servicios = servicioRepository.findConProveedorYUbicacion(ids).stream()
+                .collect(Collectors.toMap(Servicio::getIdServicio, Function.identity()));
+        return ids.stream()
+                .map(servicios::get)
+                .filter(s -> s != null && s.getEstado() == EstadoServicio.PUBLICADO)
+                .map(servicioMapper::toResponse)
+                .toList();
+    }
+
+    private static List<SugerenciaResponse> aSugerenciasResponse(List<Autocompletado.Sugerencia> sugerencias) {
+        return sugerencias.stream()
+                .map(s -> new SugerenciaResponse(s.texto(), s.idServicio()))
+                .toList();
     }
 
     @Override
@@ -226,17 +818,87 @@ public class ServicioServiceImpl implements ServicioService {
     public List<ServicioResponse> buscarServiciosCercanos(Double latitud, Double longitud, Integer radioKm) {
         log.info("Buscando servicios cercanos a: {}, {} (radio: {} km)", latitud, longitud, radioKm);
 
-        List<UbicacionServicio> ubicaciones = ubicacionRepository.findServiciosCercanos(
-                BigDecimal.valueOf(latitud),
-                BigDecimal.valueOf(longitud),
-                radioKm
-        );
+        // El índice sólo contiene servicios publicados y devuelve los ids ordenados por distancia
+        return serviciosPorDistancia(indiceGeografico.buscarCercanos(latitud, longitud, radioKm));
+    }
 
-        return ubicaciones.stream()
-                .map(UbicacionServicio::getServicio)
-                .filter(s -> s.getEstado() == EstadoServicio.PUBLICADO)
-                .map(servicioMapper::toResponse)
-                .collect(Collectors.toList());
+    @Override
+    @Transactional(readOnly = true)
+    public List<ServicioResponse> buscarServiciosMasCercanos(Double latitud, Double longitud, Integer cantidad,
+                                                             String deporte, BigDecimal precioMinimo,
+                                                             BigDecimal precioMaximo) {
+        log.info("Buscando los {} servicios más cercanos a: {}, {} (deporte: {})", cantidad, latitud, longitud, deporte);
+
+        if (cantidad == null || cantidad < 1 || cantidad > MAX_MAS_CERCANOS) {
+            throw new BusinessException("La cantidad debe estar entre 1 y " + MAX_MAS_CERCANOS);
+        }
+        if (precioMinimo != null && precioMaximo != null && precioMinimo.compareTo(precioMaximo) > 0) {
+            throw new BusinessException("El precio mínimo no puede ser mayor al precio máximo");
+        }
+
+        IndiceGeografico.Filtro filtro = new IndiceGeografico.Filtro(
+                deporte != null && !deporte.isBlank() ? deporte : null, precioMinimo, precioMaximo);
+        return serviciosPorDistancia(indiceGeografico.buscarMasCercanos(latitud, longitud, cantidad, filtro));
+    }
+
+    @Override
+    public List<GrupoMapaResponse> agruparServiciosMapa(Double latitudMin, Double longitudMin,
+                                                        Double latitudMax, Double longitudMax, Integer zoom) {
+        log.info("Agrupando servicios del mapa en [{}, {}] - [{}, {}] (zoom: {})",
+                latitudMin, longitudMin, latitudMax, longitudMax, zoom);
+
+        if (zoom == null || zoom < 0 || zoom > AgrupadorMapa.ZOOM_MAXIMO) {
+            throw new BusinessException("El zoom debe estar entre 0 y " + AgrupadorMapa.ZOOM_MAXIMO);
+        }
+        if (latitudMin < -90 || latitudMax > 90 || latitudMin > latitudMax) {
+            throw new BusinessException("Las latitudes del área deben estar entre -90 y 90, de sur a norte");
+        }
+        if (longitudMin < -180 || longitudMin > 180 || longitudMax < -180 || longitudMax > 180) {
+            throw new BusinessException("Las longitudes del área deben estar entre -180 y 180");
+        }
+
+        List<AgrupadorMapa.Grupo> grupos = agrupadorMapa.agrupar(
+                latitudMin, longitudMin, latitudMax, longitudMax, zoom, MAX_TESELAS_MAPA);
+        if (grupos == null) {
+            throw new BusinessException("El área del mapa es demasiado grande para el zoom indicado");
+        }
+
+        return grupos.stream()
+                .map(grupo -> GrupoMapaResponse.builder()
+                        .latitud(grupo.latitud())
+                        .longitud(grupo.longitud())
+                        .cantidad(grupo.cantidad())
+                        .deportes(grupo.deportes())
+                        .idServicio(grupo.idServicio())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Carga los servicios encontrados por el índice geográfico en una sola
+     * consulta y los devuelve en el mismo orden, con su distancia
+     */
+    private List<ServicioResponse> serviciosPorDistancia(List<IndiceGeografico.Cercano> cercanos) {
+        if (cercanos.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Servicio> servicios = servicioRepository.findConProveedorYUbicacion(cercanos.stream()
+                        .map(IndiceGeografico.Cercano::idServicio)
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(Servicio::getIdServicio, Function.identity()));
+
+        List<ServicioResponse> resultado = new ArrayList<>(cercanos.size());
+        for (IndiceGeografico.Cercano cercano : cercanos) {
+            Servicio servicio = servicios.get(cercano.idServicio());
+            if (servicio != null && servicio.getEstado() == EstadoServicio.PUBLICADO) {
+                ServicioResponse response = servicioMapper.toResponse(servicio);
+                response.setDistanciaKm(Math.round(cercano.distanciaKm() * 100) / 100.0);
+                resultado.add(response);
+            }
+        }
+        return resultado;
     }
 
     @Override
@@ -250,9 +912,189 @@ public class ServicioServiceImpl implements ServicioService {
         disponibilidadList.forEach(d -> d.setServicio(servicio));
 
         disponibilidadRepository.saveAll(disponibilidadList);
+        invalidarIndice(idServicio, disponibilidadList);
+        cacheServicios.invalidar(idServicio);
 
         log.info("Disponibilidad agregada exitosamente: {} registros", disponibilidadList.size());
 
         return MessageResponse.success("Disponibilidad agregada exitosamente");
     }
+
+    @Override
+    public MessageResponse agregarReglasDisponibilidad(String idServicio, List<ReglaDisponibilidadRequest> reglas) {
+        log.info("Agregando reglas de disponibilidad para servicio: {}", idServicio);
+
+        Servicio servicio = servicioRepository.findById(idServicio)
+                .orElseThrow(() -> new ResourceNotFoundException("Servicio no encontrado"));
+
+        reglas.forEach(regla -> {
+            if (!regla.getHoraFin().isAfter(regla.getHoraInicio())) {
+                throw new BusinessException("La hora de fin debe ser posterior a la hora de inicio");
+            }
+            if (regla.getVigenteDesde() != null && regla.getVigenteHasta() != null
+                    && regla.getVigenteHasta().isBefore(regla.getVigenteDesde())) {
+                throw new BusinessException("La vigencia final no puede ser anterior a la inicial");
+            }
+        });
+
+        List<ReglaDisponibilidad> reglaList = disponibilidadMapper.toReglaEntityList(reglas);
+        reglaList.forEach(r -> r.setServicio(servicio));
+
+        reglaRepository.saveAll(reglaList);
+        indiceDisponibilidad.invalidarServicio(idServicio);
+        cacheServicios.invalidar(idServicio);
+
+        log.info("Reglas de disponibilidad agregadas: {} registros", reglaList.size());
+
+        return MessageResponse.success("Reglas de disponibilidad agregadas exitosamente");
+    }
+
+    @Override
+    public MessageResponse agregarExcepcionesDisponibilidad(String idServicio,
+                                                            List<ExcepcionDisponibilidadRequest> excepciones) {
+        log.info("Agregando excepciones de disponibilidad para servicio: {}", idServicio);
+
+        Servicio servicio = servicioRepository.findById(idServicio)
+                .orElseThrow(() -> new ResourceNotFoundException("Servicio no encontrado"));
+
+        excepciones.forEach(excepcion -> {
+            boolean diaCompleto = excepcion.getHoraInicio() == null && excepcion.getHoraFin() == null;
+            boolean rangoValido = excepcion.getHoraInicio() != null && excepcion.getHoraFin() != null
+                    && excepcion.getHoraFin().isAfter(excepcion.getHoraInicio());
+            if (!diaCompleto && !rangoValido) {
+                throw new BusinessException("La excepción debe cubrir el día completo o un rango horario válido");
+            }
+        });
+
+        List<ExcepcionDisponibilidad> excepcionList = disponibilidadMapper.toExcepcionEntityList(excepciones);
+        excepcionList.forEach(e -> e.setServicio(servicio));
+
+        excepcionRepository.saveAll(excepcionList);
+        excepcionList.stream()
+                .map(ExcepcionDisponibilidad::getFecha)
+                .distinct()
+                .forEach(fecha -> indiceDisponibilidad.invalidar(idServicio, fecha));
+        cacheServicios.invalidar(idServicio);
+
+        log.info("Excepciones de disponibilidad agregadas: {} registros", excepcionList.size());
+
+        return MessageResponse.success("Excepciones de disponibilidad agregadas exitosamente");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CalendarioDisponibilidadResponse obtenerCalendarioDisponibilidad(List<String> idsServicio,
+                                                                            LocalDate fechaInicio,
+                                                                            LocalDate fechaFin) {
+        log.info("Calendario de disponibilidad: {} servicios, {} a {}",
+                idsServicio == null ? 0 : idsServicio.size(), fechaInicio, fechaFin);
+
+        if (idsServicio == null || idsServicio.isEmpty()) {
+            throw new BusinessException("Debe indicar al menos un servicio");
+        }
+        if (idsServicio.size() > MAX_SERVICIOS_CALENDARIO) {
+            throw new BusinessException("No se pueden consultar más de " + MAX_SERVICIOS_CALENDARIO + " servicios");
+        }
+        if (fechaFin.isBefore(fechaInicio)) {
+            throw new BusinessException("La fecha final no puede ser anterior a la inicial");
+        }
+        if (ChronoUnit.DAYS.between(fechaInicio, fechaFin) >= MAX_DIAS_CALENDARIO) {
+            throw new BusinessException("El rango no puede superar " + MAX_DIAS_CALENDARIO + " días");
+        }
+
+        Map<String, Map<String, List<String>>> servicios = new LinkedHashMap<>();
+        indiceDisponibilidad.obtenerDias(new LinkedHashSet<>(idsServicio), fechaInicio, fechaFin)
+                .forEach((idServicio, dias) -> {
+                    Map<String, List<String>> calendario = new LinkedHashMap<>();
+                    dias.forEach((fecha, dia) -> {
+                        List<String> rangos = comprimirRangos(dia);
+                        if (!rangos.isEmpty()) {
+                            calendario.put(fecha.toString(), rangos);
+                        }
+                    });
+                    servicios.put(idServicio, calendario);
+                });
+
+        return CalendarioDisponibilidadResponse.builder()
+                .fechaInicio(fechaInicio)
+                .fechaFin(fechaFin)
+                .servicios(servicios)
+                .build();
+    }
+
+    // Une las franjas con cupos que se tocan o solapan (vienen ordenadas por hora de inicio)
+    private List<String> comprimirRangos(DiaDisponibilidad dia) {
+        List<String> rangos = new ArrayList<>();
+        LocalTime inicio = null;
+        LocalTime fin = null;
+
+        for (int i = 0; i < dia.getCantidad(); i++) {
+            if (dia.getCupos(i) <= 0) {
+                continue;
+            }
+            if (inicio != null && !dia.getHoraInicio(i).isAfter(fin)) {
+                fin = dia.getHoraFin(i).isAfter(fin) ? dia.getHoraFin(i) : fin;
+                continue;
+            }
+            if (inicio != null) {
+                rangos.add(inicio + "-" + fin);
+            }
+            inicio = dia.getHoraInicio(i);
+            fin = dia.getHoraFin(i);
+        }
+        if (inicio != null) {
+            rangos.add(inicio + "-" + fin);
+        }
+        return rangos;
+    }
+
+    // Reseñas publicadas por calificación, de 5 a 1; los servicios aún sin histograma guardado se cuentan en la consulta
+    private Map<Integer, Integer> histogramaCalificaciones(Servicio servicio) {
+        Integer[] guardado = {servicio.getResenasUnaEstrella(), servicio.getResenasDosEstrellas(),
+                servicio.getResenasTresEstrellas(), servicio.getResenasCuatroEstrellas(),
+                servicio.getResenasCincoEstrellas()};
+
+        int[] cantidades = new int[5];
+        if (servicio.getResenasCincoEstrellas() != null) {
+            for (int i = 0; i < 5; i++) {
+                cantidades[i] = guardado[i] != null ? guardado[i] : 0;
+            }
+        } else {
+            for (Object[] fila : resenaRepository.contarPorCalificacion(servicio.getIdServicio())) {
+                int calificacion = ((Number) fila[0]).intValue();
+                if (calificacion >= 1 && calificacion <= 5) {
+                    cantidades[calificacion - 1] = ((Number) fila[1]).intValue();
+                }
+            }
+        }
+
+        Map<Integer, Integer> histograma = new LinkedHashMap<>();
+        for (int estrellas = 5; estrellas >= 1; estrellas--) {
+            histograma.put(estrellas, cantidades[estrellas - 1]);
+        }
+        return histograma;
+    }
+
+    // Sólo los servicios publicados aparecen en la búsqueda por texto, y si tienen coordenadas, por cercanía
+    private void actualizarIndicesBusqueda(Servicio servicio) {
+        UbicacionServicio ubicacion = servicio.getUbicacion();
+        indiceTexto.registrar(servicio);
+        autocompletado.registrar(servicio, ubicacion);
+        clasificacionServicios.registrar(servicio, ubicacion);
+
+        if (servicio.getEstado() == EstadoServicio.PUBLICADO && ubicacion != null) {
+            indiceGeografico.registrar(servicio, ubicacion);
+        } else {
+            indiceGeografico.retirar(servicio.getIdServicio());
+        }
+    }
+
+    // Los días con disponibilidad nueva se recargan en la próxima consulta
+    private void invalidarIndice(String idServicio, List<DisponibilidadServicio> disponibilidades) {
+        disponibilidades.stream()
+                .map(DisponibilidadServicio::getFecha)
+                .distinct()
+                .forEach(fecha -> indiceDisponibilidad.invalidar(idServicio, fecha));
+        cacheServicios.invalidar(idServicio);
+    }
 }
@@ -6,6 +6,8 @@ import com.sm_sport.dto.request.FiltroUsuarioRequest;
 import com.sm_sport.dto.response.*;
 import com.sm_sport.exception.BusinessException;
 import com.sm_sport.exception.ResourceNotFoundException;
+import com.sm_sport.index.CargasCompartidas;
+import com.sm_sport.index.RecomendacionesServicios;
 import com.sm_sport.mapper.UsuarioMapper;
 import com.sm_sport.model.entity.Cliente;
 import com.sm_sport.model.entity.Proveedor;
@@ -15,6 +17,8 @@ import com.sm_sport.repository.ClienteRepository;
 import com.sm_sport.repository.ProveedorRepository;
 import com.sm_sport.repository.UsuarioRepository;
 import com.sm_sport.service.UsuarioService;
+import com.sm_sport.util.CursorKeyset;
+import com.sm_sport.util.OrdenKeyset;
 import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,18 +30,31 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UsuarioServiceImpl implements UsuarioService {
 
+    private static final Map<String, OrdenKeyset<Usuario>> ORDENES = Map.of(
+            "fechaRegistro", OrdenKeyset.<Usuario>de("fechaRegistro")
+                    .por("fechaRegistro", LocalDateTime.class, Usuario::getFechaRegistro)
+                    .por("idUsuario", String.class, Usuario::getIdUsuario),
+            "nombre", OrdenKeyset.<Usuario>de("nombre")
+                    .por("nombre", String.class, Usuario::getNombre)
+                    .por("idUsuario", String.class, Usuario::getIdUsuario)
+    );
+
     private final UsuarioRepository usuarioRepository;
     private final ClienteRepository clienteRepository;
     private final ProveedorRepository proveedorRepository;
     private final UsuarioMapper usuarioMapper;
+    private final CargasCompartidas cargasCompartidas;
+    private final RecomendacionesServicios recomendacionesServicios;
 
     @Override
     @Transactional(readOnly = true)
@@ -96,6 +113,7 @@ public class UsuarioServiceImpl implements UsuarioService {
                 Cliente cliente = (Cliente) usuario;
                 if (request.getPreferenciaDeportes() != null) {
                     cliente.setPreferenciaDeportes(request.getPreferenciaDeportes());
+                    recomendacionesServicios.marcar(idUsuario);
                 }
                 if (request.getNivelExperiencia() != null) {
                     cliente.setNivelExperiencia(request.getNivelExperiencia());
@@ -152,6 +170,30 @@ public class UsuarioServiceImpl implements UsuarioService {
                 .build();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<UsuarioResponse> listarUsuariosPorCursor(FiltroUsuarioRequest filtros) {
+        log.info("Listando usuarios por cursor con filtros: {}", filtros);
+
+        OrdenKeyset<Usuario> orden = ORDENES.get(filtros.getOrdenarPor());
+        if (orden == null) {
+            throw new BusinessException("No se puede ordenar por: " + filtros.getOrdenarPor()
+                    + ". Valores permitidos: " + ORDENES.keySet());
+        }
+
+        Sort.Direction direccion = filtros.getDireccion().equalsIgnoreCase("ASC") ? Sort.Direction.ASC : Sort.Direction.DESC;
+
+        CursorPageResponse<Usuario> page = CursorKeyset.paginar(usuarioRepository, crearSpecification(filtros),
+                orden, direccion, filtros.getCursor(), filtros.getTamano());
+
+        return CursorPageResponse.<UsuarioResponse>builder()
+                .content(usuarioMapper.toResponseList(page.getContent()))
+                .pageSize(page.getPageSize())
+                .nextCursor(page.getNextCursor())
+                .hasNext(page.getHasNext())
+                .build();
+    }
+
     @Override
     @Transactional
     public MessageResponse cambiarEstado(String idUsuario, ActualizarEstadoUsuarioRequest request) {
@@ -221,10 +263,12 @@ public class UsuarioServiceImpl implements UsuarioService {
     public ProveedorResponse obtenerProveedor(String idProveedor) {
         log.info("Obteniendo información del proveedor: {}", idProveedor);
 
-        Proveedor proveedor = proveedorRepository.findById(idProveedor)
-                .orElseThrow(() -> new ResourceNotFoundException("Proveedor no encontrado con ID: " + idProveedor));
+        return cargasCompartidas.cargar("proveedor.perfil", idProveedor, () -> {
+            Proveedor proveedor = proveedorRepository.findById(idProveedor)
+                    .orElseThrow(() -> new ResourceNotFoundException("Proveedor no encontrado con ID: " + idProveedor));
 
-        return usuarioMapper.toProveedorResponse(proveedor);
+            return usuarioMapper.toProveedorResponse(proveedor);
+        });
     }
 
     @Override
@@ -0,0 +1,163 @@
+package com.sm_sport.util;
+
+import com.sm_sport.dto.response.CursorPageResponse;
+import com.sm_sport.exception.BusinessException;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Utilidades para paginación por cursor (keyset / seek).
+ * <p>
+ * El cursor es opaco para el cliente: codifica una firma del orden aplicado y
+ * los valores de las columnas de orden de la última fila entregada. La página
+ * siguiente se obtiene con un predicado lexicográfico "después de" esa fila en
+ * lugar de un OFFSET, así que cada página cuesta lo mismo sin importar su
+ * profundidad y las inserciones concurrentes no desplazan resultados.
+ * La última columna de orden debe ser única (normalmente el id) para que el
+ * orden sea total.
+ */
+public final class CursorKeyset {
+
+    private static final String SEPARADOR = "\u001F";
+    private static final int TAMANO_MAXIMO = 100;
+
+    private CursorKeyset() {
+    }
+
+    /**
+     * Obtiene una página por cursor. Lee una fila de más para saber si existe
+     * página siguiente, de modo que nunca se ejecuta un COUNT ni un OFFSET.
+     *
+     * @param repositorio Repositorio con soporte de Specifications
+     * @param filtro      Filtros de la consulta
+     * @param orden       Orden total de la paginación
+     * @param direccion   Dirección común a todas las columnas de orden
+     * @param cursor      Cursor de la página anterior, o null para la primera
+     * @param tamano      Cantidad de filas por página
+     * @param relaciones  Asociaciones que se traen en la misma consulta (grafo de carga)
+     * @return Página de entidades con el cursor de la siguiente
+     */
+    public static <T> CursorPageResponse<T> paginar(JpaSpecificationExecutor<T> repositorio, Specification<T> filtro,
+                                                    OrdenKeyset<T> orden, Sort.Direction direccion,
+                                                    String cursor, int tamano, String... relaciones) {
+        if (tamano < 1 || tamano > TAMANO_MAXIMO) {
+            throw new BusinessException("El tamaño de página debe estar entre 1 y " + TAMANO_MAXIMO);
+        }
+
+        String firma = orden.getNombre() + ":" + direccion;
+        Specification<T> specification = filtro;
+        if (cursor != null && !cursor.isBlank()) {
+            List<String> valores = decodificar(cursor, firma, orden.tamano());
+            List<Comparable<?>> posicion;
+            try {
+                posicion = orden.parsear(valores);
+            } catch (DateTimeException | IllegalArgumentException e) {
+                throw new BusinessException("Cursor de paginación inválido");
+            }
+            specification = specification.and(despuesDe(orden.atributos(), posicion, direccion));
+        }
+
+        Sort sort = Sort.by(direccion, orden.atributos().toArray(String[]::new));
+        List<T> filas = repositorio.findBy(specification, q -> {
+            FluentQuery.FetchableFluentQuery<T> consulta = q.sortBy(sort).limit(tamano + 1);
+            return (relaciones.length > 0 ? consulta.project(relaciones) : consulta).all();
+        });
+
+        boolean hayMas = filas.size() > tamano;
+        List<T> pagina = hayMas ? filas.subList(0, tamano) : filas;
+        String siguiente = hayMas
+                ? codificar(firma, orden.valoresDe(pagina.get(pagina.size() - 1)).toArray())
+                : null;
+
+        return CursorPageResponse.<T>builder()
+                .content(pagina)
+                .pageSize(tamano)
+                .nextCursor(siguiente)
+                .hasNext(hayMas)
+                .build();
+    }
+
+    /**
+     * Codifica la posición de una fila
+     *
+     * @param firma   Identifica el orden (campo y dirección) con que se generó el cursor
+     * @param valores Valores de las columnas de orden de la fila, en orden
+     * @return Cursor en Base64 URL-safe
+     */
+    public static String codificar(String firma, Object... valores) {
+        StringBuilder sb = new StringBuilder(firma);
+        for (Object valor : valores) {
+            sb.append(SEPARADOR).append(valor);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor y valida que corresponda al orden solicitado
+     *
+     * @param cursor   Cursor recibido del cliente
+     * @param firma    Firma esperada
+     * @param columnas Número de columnas de orden esperadas
+     * @return Valores en texto de las columnas de orden
+     */
+    public static List<String> decodificar(String cursor, String firma, int columnas) {
+        String texto;
+        try {
+            texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Cursor de paginación inválido");
+        }
+
+        String[] partes = texto.split(SEPARADOR, -1);
+        if (partes.length != columnas + 1 || !partes[0].equals(firma)) {
+            throw new BusinessException("El cursor no corresponde al orden solicitado");
+        }
+        return Arrays.asList(partes).subList(1, partes.length);
+    }
+
+    /**
+     * Predicado que selecciona las filas posteriores a la posición dada según el orden
+     * (a, b, c): a &gt; x OR (a = x AND b &gt; y) OR (a = x AND b = y AND c &gt; z),
+     * con &lt; cuando la dirección es descendente.
+     *
+     * @param atributos Atributos de orden, el último único
+     * @param valores   Valores de la última fila entregada
+     * @param direccion Dirección común a todas las columnas
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> Specification<T> despuesDe(List<String> atributos, List<? extends Comparable> valores,
+                                                 Sort.Direction direccion) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> alternativas = new ArrayList<>();
+
+            for (int i = 0; i < atributos.size(); i++) {
+                List<Predicate> condiciones = new ArrayList<>();
+                for (int j = 0; j < i; j++) {
+                    condiciones.add(criteriaBuilder.equal(root.get(atributos.get(j)), valores.get(j)));
+                }
+
+                Expression<Comparable> campo = root.get(atributos.get(i));
+                Comparable valor = valores.get(i);
+                condiciones.add(direccion.isAscending()
+                        ? criteriaBuilder.greaterThan(campo, valor)
+                        : criteriaBuilder.lessThan(campo, valor));
+
+                alternativas.add(criteriaBuilder.and(condiciones.toArray(new Predicate[0])));
+            }
+
+            return criteriaBuilder.or(alternativas.toArray(new Predicate[0]));
+        };
+    }
+}
@@ -0,0 +1,209 @@
+package com.sm_sport.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sm_sport.dto.request.CrearServicioRequest;
+import com.sm_sport.dto.request.UbicacionRequest;
+import com.sm_sport.exception.BusinessException;
+import com.sm_sport.model.enums.FormatoImportacion;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Lectura fila por fila de un archivo de importación de servicios.
+ * <p>
+ * El archivo se recorre como flujo, sin cargarlo completo en memoria, y cada
+ * fila se entrega al consumidor apenas se lee. Formatos admitidos:
+ * <ul>
+ *     <li>NDJSON: un {@link CrearServicioRequest} en JSON por línea, con
+ *     ubicación y disponibilidad.</li>
+ *     <li>CSV: la primera línea es el encabezado con los nombres de columna
+ *     (nombre, deporte, descripcion, precio, capacidadSimultanea, direccion,
+ *     ciudad, departamento, pais, latitud, longitud), en cualquier orden.
+ *     Admite campos entre comillas dobles dentro de una línea; no admite
+ *     disponibilidad.</li>
+ * </ul>
+ * Las líneas vacías se omiten. Una fila que no se puede interpretar se
+ * entrega con su error para que el llamador la informe y siga con la
+ * siguiente.
+ */
+public final class LectorImportacion {
+
+    private static final char SEPARADOR = ',';
+    private static final char COMILLAS = '"';
+
+    private LectorImportacion() {
+    }
+
+    /**
+     * Fila leída: la solicitud interpretada, o el error si no se pudo interpretar
+     *
+     * @param numero Número de línea en el archivo (empieza en 1)
+     */
+    public record Fila(int numero, CrearServicioRequest solicitud, String error) {
+    }
+
+    /**
+     * Lee el archivo y entrega cada fila al consumidor; deja de leer cuando el consumidor devuelve false
+     */
+    public static void leer(InputStream entrada, FormatoImportacion formato, ObjectMapper objectMapper,
+                            Predicate<Fila> consumidor) {
+        try (BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+            if (formato == FormatoImportacion.CSV) {
+                leerCsv(lector, consumidor);
+            } else {
+                leerNdjson(lector, objectMapper, consumidor);
+            }
+        } catch (IOException e) {
+            throw new BusinessException("No se pudo leer el archivo de importación: " + e.getMessage());
+        }
+    }
+
+    private static void leerNdjson(BufferedReader lector, ObjectMapper objectMapper, Predicate<Fila> consumidor)
+            throws IOException {
+        int numero = 0;
+        String linea;
+        while ((linea = lector.readLine()) != null) {
+            numero++;
+            if (linea.isBlank()) {
+                continue;
+            }
+            Fila fila;
+            try {
+                fila = new Fila(numero, objectMapper.readValue(linea, CrearServicioRequest.class), null);
+            } catch (JsonProcessingException e) {
+                fila = new Fila(numero, null, "JSON inválido: " + e.getOriginalMessage());
+            }
+            if (!consumidor.test(fila)) {
+                return;
+            }
+        }
+    }
+
+    private static void leerCsv(BufferedReader lector, Predicate<Fila> consumidor) throws IOException {
+        String encabezado = lector.readLine();
+        if (encabezado == null) {
+            return;
+        }
+        // Sin distinguir mayúsculas; el BOM de algunos editores se ignora
+        Map<String, Integer> columnas = new HashMap<>();
+        List<String> nombres;
+        try {
+            nombres = dividir(encabezado.replace("\uFEFF", ""));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Encabezado del CSV inválido: " + e.getMessage());
+        }
+        for (int i = 0; i < nombres.size(); i++) {
+            columnas.put(nombres.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columnas.containsKey("nombre")) {
+            throw new BusinessException("El encabezado del CSV debe incluir al menos la columna 'nombre'");
+        }
+
+        int numero = 1;
+        String linea;
+        while ((linea = lector.readLine()) != null) {
+            numero++;
+            if (linea.isBlank()) {
+                continue;
+            }
+            Fila fila;
+            try {
+                fila = new Fila(numero, solicitud(columnas, dividir(linea)), null);
+            } catch (IllegalArgumentException e) {
+                fila = new Fila(numero, null, e.getMessage());
+            }
+            if (!consumidor.test(fila)) {
+                return;
+            }
+        }
+    }
+
+    private static CrearServicioRequest solicitud(Map<String, Integer> columnas, List<String> valores) {
+        return CrearServicioRequest.builder()
+                .nombre(texto(columnas, valores, "nombre"))
+                .deporte(texto(columnas, valores, "deporte"))
+                .descripcion(texto(columnas, valores, "descripcion"))
+                .precio(numero(columnas, valores, "precio"))
+                .capacidadSimultanea(entero(columnas, valores, "capacidadsimultanea"))
+                .ubicacion(UbicacionRequest.builder()
+                        .direccion(texto(columnas, valores, "direccion"))
+                        .ciudad(texto(columnas, valores, "ciudad"))
+                        .departamento(texto(columnas, valores, "departamento"))
+                        .pais(texto(columnas, valores, "pais"))
+                        .coordenadasLat(numero(columnas, valores, "latitud"))
+                        .coordenadasLng(numero(columnas, valores, "longitud"))
+                        .build())
+                .build();
+    }
+
+    private static String texto(Map<String, Integer> columnas, List<String> valores, String columna) {
+        Integer indice = columnas.get(columna);
+        if (indice == null || indice >= valores.size()) {
+            return null;
+        }
+        String valor = valores.get(indice).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    private static BigDecimal numero(Map<String, Integer> columnas, List<String> valores, String columna) {
+        String valor = texto(columnas, valores, columna);
+        try {
+            return valor != null ? new BigDecimal(valor) : null;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(columna + ": número inválido '" + valor + "'");
+        }
+    }
+
+    private static Integer entero(Map<String, Integer> columnas, List<String> valores, String columna) {
+        String valor = texto(columnas, valores, columna);
+        try {
+            return valor != null ? Integer.valueOf(valor) : null;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(columna + ": entero inválido '" + valor + "'");
+        }
+    }
+
+    // Divide una línea CSV; dentro de comillas la coma es literal y "" es una comilla
+    static List<String> dividir(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == COMILLAS && i + 1 < linea.length() && linea.charAt(i + 1) == COMILLAS) {
+                    campo.append(COMILLAS);
+                    i++;
+                } else if (c == COMILLAS) {
+                    entreComillas = false;
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == COMILLAS) {
+                entreComillas = true;
+            } else if (c == SEPARADOR) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("Comillas sin cerrar");
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+}
@@ -0,0 +1,117 @@
+package com.sm_sport.util;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Orden total usado por la paginación por cursor: las columnas de orden de una
+ * entidad, cómo leer su valor de una fila y cómo reconstruirlo desde el cursor.
+ * La última columna debe ser única (el id) para desempatar.
+ * <p>
+ * Las instancias son inmutables y se declaran como constantes en cada servicio.
+ *
+ * @param <T> entidad ordenada
+ */
+public final class OrdenKeyset<T> {
+
+    private static final Set<Class<?>> TIPOS_SOPORTADOS = Set.of(
+            String.class, Integer.class, Long.class, Double.class, BigDecimal.class,
+            LocalDate.class, LocalTime.class, LocalDateTime.class
+    );
+
+    private final String nombre;
+    private final List<Columna<T>> columnas;
+
+    private OrdenKeyset(String nombre, List<Columna<T>> columnas) {
+        this.nombre = nombre;
+        this.columnas = columnas;
+    }
+
+    /**
+     * Inicia un orden
+     *
+     * @param nombre Nombre público del orden (el valor de ordenarPor); forma parte de la firma del cursor
+     */
+    public static <T> OrdenKeyset<T> de(String nombre) {
+        return new OrdenKeyset<>(nombre, List.of());
+    }
+
+    /**
+     * Devuelve un nuevo orden con una columna más
+     *
+     * @param atributo Atributo JPA de la entidad
+     * @param tipo     Tipo del atributo, usado para reconstruir el valor desde el cursor
+     * @param valor    Lectura del atributo en una fila
+     */
+    public <V extends Comparable<? super V>> OrdenKeyset<T> por(String atributo, Class<V> tipo,
+                                                                Function<T, V> valor) {
+        if (!TIPOS_SOPORTADOS.contains(tipo)) {
+            throw new IllegalArgumentException("Tipo no soportado en un cursor: " + tipo.getSimpleName());
+        }
+        List<Columna<T>> nuevas = new ArrayList<>(columnas);
+        nuevas.add(new Columna<>(atributo, tipo, valor));
+        return new OrdenKeyset<>(nombre, List.copyOf(nuevas));
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public List<String> atributos() {
+        return columnas.stream().map(Columna::atributo).toList();
+    }
+
+    int tamano() {
+        return columnas.size();
+    }
+
+    List<Object> valoresDe(T fila) {
+        List<Object> valores = new ArrayList<>(columnas.size());
+        for (Columna<T> columna : columnas) {
+            valores.add(columna.valor().apply(fila));
+        }
+        return valores;
+    }
+
+    List<Comparable<?>> parsear(List<String> textos) {
+        List<Comparable<?>> valores = new ArrayList<>(columnas.size());
+        for (int i = 0; i < columnas.size(); i++) {
+            valores.add(parsear(columnas.get(i).tipo(), textos.get(i)));
+        }
+        return valores;
+    }
+
+    private static Comparable<?> parsear(Class<?> tipo, String texto) {
+        if (tipo == LocalDate.class) {
+            return LocalDate.parse(texto);
+        }
+        if (tipo == LocalTime.class) {
+            return LocalTime.parse(texto);
+        }
+        if (tipo == LocalDateTime.class) {
+            return LocalDateTime.parse(texto);
+        }
+        if (tipo == BigDecimal.class) {
+            return new BigDecimal(texto);
+        }
+        if (tipo == Integer.class) {
+            return Integer.valueOf(texto);
+        }
+        if (tipo == Long.class) {
+            return Long.valueOf(texto);
+        }
+        if (tipo == Double.class) {
+            return Double.valueOf(texto);
+        }
+        return texto;
+    }
+
+    private record Columna<T>(String atributo, Class<?> tipo, Function<T, ?> valor) {
+    }
+}
@@ -0,0 +1,138 @@
+package com.sm_sport.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rueda de temporización jerárquica.
+ * Cada nivel tiene 64 ranuras y cada ranura de un nivel equivale a una vuelta
+ * completa del nivel inferior, así que programar y cancelar cuestan O(1) y
+ * avanzar sólo toca las ranuras que vencen. Con ticks de un segundo y cuatro
+ * niveles cubre unos 194 días; los vencimientos más lejanos se reprograman
+ * al llegar al último nivel.
+ * <p>
+ * Cancelar es perezoso: la clave se olvida y se descarta cuando su ranura vence.
+ * Es segura para uso concurrente.
+ *
+ * @param <K> tipo de la clave programada
+ */
+public class RuedaTemporizadora<K> {
+
+    private static final int BITS_POR_NIVEL = 6;
+    private static final int RANURAS = 1 << BITS_POR_NIVEL;
+    private static final int MASCARA = RANURAS - 1;
+
+    private final long tickMillis;
+    private final int niveles;
+    private final List<List<Set<K>>> ruedas = new ArrayList<>();
+    private final Map<K, Long> vencimientos = new HashMap<>();
+    private long tickActual;
+
+    public RuedaTemporizadora(long tickMillis, int niveles, long ahoraMillis) {
+        if (tickMillis <= 0 || niveles <= 0 || niveles * BITS_POR_NIVEL >= Long.SIZE - 1) {
+            throw new IllegalArgumentException("Configuración de rueda inválida");
+        }
+        this.tickMillis = tickMillis;
+        this.niveles = niveles;
+        this.tickActual = ahoraMillis / tickMillis;
+        for (int n = 0; n < niveles; n++) {
+            List<Set<K>> ranuras = new ArrayList<>(RANURAS);
+            for (int r = 0; r < RANURAS; r++) {
+                ranuras.add(new HashSet<>());
+            }
+            ruedas.add(ranuras);
+        }
+    }
+
+    /**
+     * Programa (o reprograma) el vencimiento de una clave
+     */
+    public synchronized void programar(K clave, long vencimientoMillis) {
+        long tick = Math.max(vencimientoMillis / tickMillis, tickActual + 1);
+        vencimientos.put(clave, tick);
+        ubicar(clave, tick);
+    }
+
+    /**
+     * Olvida una clave; no vencerá aunque siga en su ranura
+     */
+    public synchronized void cancelar(K clave) {
+        vencimientos.remove(clave);
+    }
+
+    /**
+     * Avanza la rueda hasta el instante indicado
+     *
+     * @return claves vencidas, en orden de vencimiento
+     */
+    public synchronized List<K> avanzar(long ahoraMillis) {
+        List<K> vencidas = new ArrayList<>();
+        long destino = ahoraMillis / tickMillis;
+
+        while (tickActual < destino) {
+            tickActual++;
+            cascada();
+
+            Set<K> ranura = ruedas.get(0).get((int) (tickActual & MASCARA));
+            if (ranura.isEmpty()) {
+                continue;
+            }
+            List<K> claves = new ArrayList<>(ranura);
+            ranura.clear();
+            for (K clave : claves) {
+                Long tick = vencimientos.get(clave);
+                if (tick == null) {
+                    continue;
+                }
+                if (tick <= tickActual) {
+                    vencimientos.remove(clave);
+                    vencidas.add(clave);
+                } else {
+                    ubicar(clave, tick);
+                }
+            }
+        }
+        return vencidas;
+    }
+
+    public synchronized int tamano() {
+        return vencimientos.size();
+    }
+
+    // Al completar una vuelta de un nivel se reparte la ranura siguiente del nivel superior
+    private void cascada() {
+        for (int n = 1; n < niveles; n++) {
+            if ((tickActual & ((1L << (BITS_POR_NIVEL * n)) - 1)) != 0) {
+                return;
+            }
+            Set<K> ranura = ruedas.get(n).get((int) ((tickActual >>> (BITS_POR_NIVEL * n)) & MASCARA));
+            List<K> claves = new ArrayList<>(ranura);
+            ranura.clear();
+            for (K clave : claves) {
+                Long tick = vencimientos.get(clave);
+                if (tick != null) {
+                    ubicar(clave, tick);
+                }
+            }
+        }
+    }
+
+    private void ubicar(K clave, long tick) {
+        long delta = tick - tickActual;
+        for (int n = 0; n < niveles; n++) {
+            if (delta < (1L << (BITS_POR_NIVEL * (n + 1)))) {
+                int ranura = (int) ((tick >>> (BITS_POR_NIVEL * n)) & MASCARA);
+                ruedas.get(n).get(ranura).add(clave);
+                return;
+            }
+        }
+        // Más allá del alcance: se deja en la ranura más lejana del último nivel
+        int ultimo = niveles - 1;
+        long tope = tickActual + (1L << (BITS_POR_NIVEL * niveles)) - 1;
+        ruedas.get(ultimo).get((int) ((tope >>> (BITS_POR_NIVEL * ultimo)) & MASCARA)).add(clave);
+    }
+}
@@ -0,0 +1,55 @@
+package com.sm_sport.util;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Identificadores UUID versión 7 (RFC 9562): los primeros 48 bits son los
+ * milisegundos de la época Unix, así que los IDs nuevos se ordenan por
+ * momento de creación y se insertan al final del índice en lugar de en una
+ * página al azar.
+ * <p>
+ * Los 12 bits siguientes son un contador que arranca en un valor aleatorio
+ * en cada milisegundo, de modo que los IDs generados por este proceso son
+ * estrictamente crecientes aun dentro del mismo milisegundo o si el reloj
+ * retrocede. Los últimos 62 bits son aleatorios.
+ * <p>
+ * El texto tiene el mismo formato que {@link UUID#toString()} y su orden
+ * alfabético coincide con el orden de los bytes, así que convive con los IDs
+ * aleatorios ya guardados y se puede convertir al tipo uuid de PostgreSQL.
+ */
+public final class UuidOrdenado {
+
+    private static final int BITS_CONTADOR = 12;
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANTE = 0x8000000000000000L;
+    private static final long MASCARA_ALEATORIO = 0x3FFFFFFFFFFFFFFFL;
+
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+
+    // Milisegundos y contador del último ID generado: (millis << 12) | contador
+    private static final AtomicLong ULTIMO = new AtomicLong();
+
+    private UuidOrdenado() {
+    }
+
+    /**
+     * Genera un nuevo ID, mayor que todos los generados antes por este proceso
+     */
+    public static String nuevo() {
+        return generar(System.currentTimeMillis()).toString();
+    }
+
+    static UUID generar(long millis) {
+        // La mitad inferior del contador queda libre para no desbordar en ráfagas
+        long candidato = (millis << BITS_CONTADOR) | ALEATORIO.nextInt(1 << (BITS_CONTADOR - 1));
+        long marca = ULTIMO.accumulateAndGet(candidato, (ultimo, nuevo) -> Math.max(ultimo + 1, nuevo));
+
+        long masSignificativos = ((marca >>> BITS_CONTADOR) << 16)
+                | VERSION
+                | (marca & ((1L << BITS_CONTADOR) - 1));
+        long menosSignificativos = VARIANTE | (ALEATORIO.nextLong() & MASCARA_ALEATORIO);
+        return new UUID(masSignificativos, menosSignificativos);
+    }
+}
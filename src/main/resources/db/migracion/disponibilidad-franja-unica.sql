@@ -0,0 +1,54 @@
+-- Unicidad de franjas en disponibilidad_servicio
+--
+-- DisponibilidadServicio declara uk_disponibilidad_franja sobre
+-- (id_servicio, fecha, hora_inicio, hora_fin) y la materialización de reglas
+-- depende de ella (INSERT ... ON CONFLICT). Con ddl-auto: update, Hibernate no
+-- logra crearla si ya hay franjas repetidas, sólo registra el error y sigue;
+-- desde entonces materializar una franja falla.
+--
+-- Este script fusiona las franjas repetidas en la de menor ID: suma sus cupos
+-- disponibles, conserva la franja disponible si alguna lo estaba y apunta a
+-- ella las reservas de las demás. Después crea la restricción. Se puede
+-- volver a ejecutar: si no hay repetidas sólo recrea la restricción.
+--
+-- No se ejecuta automáticamente. Correrlo con la aplicación detenida.
+
+BEGIN;
+
+LOCK TABLE disponibilidad_servicio IN SHARE ROW EXCLUSIVE MODE;
+
+CREATE TEMP TABLE franjas_repetidas ON COMMIT DROP AS
+SELECT id_disponibilidad, id_conservada
+FROM (SELECT id_disponibilidad,
+             first_value(id_disponibilidad) OVER (
+                 PARTITION BY id_servicio, fecha, hora_inicio, hora_fin
+                 ORDER BY id_disponibilidad) AS id_conservada
+      FROM disponibilidad_servicio) franjas
+WHERE id_disponibilidad <> id_conservada;
+
+UPDATE disponibilidad_servicio d
+SET cupos_disponibles = COALESCE(d.cupos_disponibles, 0) + r.cupos,
+    disponible        = d.disponible OR r.disponible
+FROM (SELECT f.id_conservada,
+             SUM(COALESCE(o.cupos_disponibles, 0)) AS cupos,
+             bool_or(o.disponible)                 AS disponible
+      FROM franjas_repetidas f
+               JOIN disponibilidad_servicio o ON o.id_disponibilidad = f.id_disponibilidad
+      GROUP BY f.id_conservada) r
+WHERE d.id_disponibilidad = r.id_conservada;
+
+UPDATE reservas r
+SET id_disponibilidad = f.id_conservada
+FROM franjas_repetidas f
+WHERE r.id_disponibilidad = f.id_disponibilidad;
+
+DELETE
+FROM disponibilidad_servicio d
+    USING franjas_repetidas f
+WHERE d.id_disponibilidad = f.id_disponibilidad;
+
+ALTER TABLE disponibilidad_servicio DROP CONSTRAINT IF EXISTS uk_disponibilidad_franja;
+ALTER TABLE disponibilidad_servicio
+    ADD CONSTRAINT uk_disponibilidad_franja UNIQUE (id_servicio, fecha, hora_inicio, hora_fin);
+
+COMMIT;
@@ -0,0 +1,74 @@
+-- Migración opcional: IDs como uuid nativo de PostgreSQL
+--
+-- Las claves primarias generadas (@IdOrdenado) y las claves foráneas que las
+-- referencian pasan de varchar(50) a uuid: 16 bytes por valor en lugar de 37,
+-- en la tabla y en cada índice que las incluye. Los IDs aleatorios ya
+-- guardados se conservan (son UUID válidos); los nuevos siguen siendo UUID
+-- versión 7 ordenados por tiempo. Al reescribir las columnas los índices se
+-- reconstruyen compactos.
+--
+-- No se ejecuta automáticamente. Antes de correrla:
+--   1. Respaldar la base y detener la aplicación (bloquea las tablas mientras
+--      las reescribe).
+--   2. Agregar stringtype=unspecified a SPRING_DATASOURCE_URL, por ejemplo
+--      jdbc:postgresql://host:5432/sm_sport?stringtype=unspecified, para que
+--      los parámetros de texto se comparen con las columnas uuid. Las entidades
+--      siguen usando String y no requieren cambios. Probar antes en un
+--      ambiente de pruebas, en especial las búsquedas con filtros opcionales
+--      (":filtro IS NULL"), que con esta opción envían parámetros sin tipo.
+-- Con ddl-auto: update, una tabla nueva que referencie estas columnas se crea
+-- con varchar(50) y su clave foránea falla: crearla a mano con uuid.
+--
+-- Si algún valor no es un UUID válido la conversión falla y no se aplica nada.
+
+BEGIN;
+
+DO $$
+DECLARE
+    fila record;
+BEGIN
+    CREATE TEMP TABLE claves_foraneas ON COMMIT DROP AS
+    SELECT conrelid::regclass AS tabla, conname AS nombre, pg_get_constraintdef(oid) AS definicion
+    FROM pg_constraint
+    WHERE contype = 'f'
+      AND connamespace = 'public'::regnamespace;
+
+    -- Claves primarias varchar(50) (atttypmod = largo + 4)
+    CREATE TEMP TABLE columnas_id ON COMMIT DROP AS
+    SELECT a.attrelid::regclass AS tabla, a.attname AS columna
+    FROM pg_constraint c
+             JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+    WHERE c.contype = 'p'
+      AND c.connamespace = 'public'::regnamespace
+      AND a.atttypid = 'varchar'::regtype
+      AND a.atttypmod = 50 + 4;
+
+    -- Claves foráneas que apuntan a ellas
+    INSERT INTO columnas_id
+    SELECT a.attrelid::regclass, a.attname
+    FROM pg_constraint c
+             JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+             JOIN pg_attribute ref ON ref.attrelid = c.confrelid AND ref.attnum = c.confkey[1]
+    WHERE c.contype = 'f'
+      AND c.connamespace = 'public'::regnamespace
+      AND a.atttypid = 'varchar'::regtype
+      AND (ref.attrelid::regclass, ref.attname) IN (SELECT tabla, columna FROM columnas_id)
+    EXCEPT
+    SELECT tabla, columna FROM columnas_id;
+
+    FOR fila IN SELECT tabla, nombre FROM claves_foraneas LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fila.tabla, fila.nombre);
+    END LOOP;
+
+    FOR fila IN SELECT tabla, columna FROM columnas_id LOOP
+        EXECUTE format('ALTER TABLE %s ALTER COLUMN %I TYPE uuid USING %I::uuid',
+                       fila.tabla, fila.columna, fila.columna);
+    END LOOP;
+
+    FOR fila IN SELECT tabla, nombre, definicion FROM claves_foraneas LOOP
+        EXECUTE format('ALTER TABLE %s ADD CONSTRAINT %I %s', fila.tabla, fila.nombre, fila.definicion);
+    END LOOP;
+END
+$$;
+
+COMMIT;
@@ -104,7 +104,7 @@ class PagoControllerTest {
     @WithMockUser(username = "cliente-123", roles = "CLIENTE")
     void procesarPago_Exitoso() throws Exception {
         // Arrange
-        when(pagoService.procesarPago(anyString(), any(PagoRequest.class)))
+        when(pagoService.procesarPago(anyString(), any(PagoRequest.class), any()))
                 .thenReturn(pagoResponse);
 
         // Act & Assert
@@ -122,7 +122,7 @@ class PagoControllerTest {
                 .andExpect(jsonPath("$.referenciaPago").value("PAY-ABC123"))
                 .andExpect(jsonPath("$.proveedorPasarela").value("STRIPE"));
 
-        verify(pagoService, times(1)).procesarPago(eq("cliente-123"), any(PagoRequest.class));
+        verify(pagoService, times(1)).procesarPago(eq("cliente-123"), any(PagoRequest.class), any());
     }
 
     @Test
@@ -140,7 +140,7 @@ class PagoControllerTest {
                 .andDo(print())
                 .andExpect(status().isBadRequest());
 
-        verify(pagoService, never()).procesarPago(anyString(), any(PagoRequest.class));
+        verify(pagoService, never()).procesarPago(anyString(), any(PagoRequest.class), any());
     }
 
     @Test
@@ -158,7 +158,7 @@ class PagoControllerTest {
                 .andDo(print())
                 .andExpect(status().isBadRequest());
 
-        verify(pagoService, never()).procesarPago(anyString(), any(PagoRequest.class));
+        verify(pagoService, never()).procesarPago(anyString(), any(PagoRequest.class), any());
     }
 
     @Test
@@ -166,7 +166,7 @@ class PagoControllerTest {
     @WithMockUser(username = "cliente-123", roles = "CLIENTE")
     void procesarPago_ReservaNoEncontrada() throws Exception {
         // Arrange
-        when(pagoService.procesarPago(anyString(), any(PagoRequest.class)))
+        when(pagoService.procesarPago(anyString(), any(PagoRequest.class), any()))
                 .thenThrow(new ResourceNotFoundException("Reserva no encontrada"));
 
         // Act & Assert
@@ -177,7 +177,7 @@ class PagoControllerTest {
                 .andDo(print())
                 .andExpect(status().isNotFound());
 
-        verify(pagoService, times(1)).procesarPago(anyString(), any(PagoRequest.class));
+        verify(pagoService, times(1)).procesarPago(anyString(), any(PagoRequest.class), any());
     }
 
     @Test
@@ -185,7 +185,7 @@ class PagoControllerTest {
     @WithMockUser(username = "cliente-123", roles = "CLIENTE")
     void procesarPago_ReservaNoPertenece() throws Exception {
         // Arrange
-        when(pagoService.procesarPago(anyString(), any(PagoRequest.class)))
+        when(pagoService.procesarPago(anyString(), any(PagoRequest.class), any()))
                 .thenThrow(new BusinessException("La reserva no pertenece al cliente"));
 
         // Act & Assert
@@ -196,7 +196,7 @@ class PagoControllerTest {
                 .andDo(print())
                 .andExpect(status().isBadRequest());
 
-        verify(pagoService, times(1)).procesarPago(anyString(), any(PagoRequest.class));
+        verify(pagoService, times(1)).procesarPago(anyString(), any(PagoRequest.class), any());
     }
 
     @Test
@@ -204,7 +204,7 @@ class PagoControllerTest {
     @WithMockUser(username = "cliente-123", roles = "CLIENTE")
     void procesarPago_PagoRechazado() throws Exception {
         // Arrange
-        when(pagoService.procesarPago(anyString(), any(PagoRequest.class)))
+        when(pagoService.procesarPago(anyString(), any(PagoRequest.class), any()))
                 .thenThrow(new PaymentException("El pago fue rechazado por la pasarela"));
 
         // Act & Assert
@@ -215,7 +215,7 @@ class PagoControllerTest {
                 .andDo(print())
                 .andExpect(status().isPaymentRequired());
 
-        verify(pagoService, times(1)).procesarPago(anyString(), any(PagoRequest.class));
+        verify(pagoService, times(1)).procesarPago(anyString(), any(PagoRequest.class), any());
     }
 
 
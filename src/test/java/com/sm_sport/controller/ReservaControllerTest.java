@@ -5,9 +5,11 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.sm_sport.dto.request.CancelarReservaRequest;
 import com.sm_sport.dto.request.CrearReservaRequest;
+import com.sm_sport.dto.request.CrearReservasLoteRequest;
 import com.sm_sport.dto.request.FiltroReservaRequest;
 import com.sm_sport.dto.response.*;
 import com.sm_sport.model.enums.EstadoReserva;
+import com.sm_sport.model.enums.ModoLote;
 import com.sm_sport.service.ReservaService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -76,16 +78,57 @@ class ReservaControllerTest {
                 .fechaCreacion(LocalDateTime.now())
                 .build();
 
-        when(reservaService.crearReserva(eq("cliente-1"), any(CrearReservaRequest.class))).thenReturn(resp);
+        when(reservaService.crearReserva(eq("cliente-1"), any(CrearReservaRequest.class), any())).thenReturn(resp);
 
         mockMvc.perform(post("/api/v1/reservas")
+                        .header("Idempotency-Key", "intento-1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(req)))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.idReserva").value("res-100"))
                 .andExpect(jsonPath("$.idCliente").value("cliente-1"));
 
-        verify(reservaService, times(1)).crearReserva(eq("cliente-1"), any(CrearReservaRequest.class));
+        verify(reservaService, times(1)).crearReserva(eq("cliente-1"), any(CrearReservaRequest.class), eq("intento-1"));
+    }
+
+    // ========================= CREAR RESERVAS EN LOTE =========================
+    @Test
+    void crearReservasLote_parcial_retornaMultiStatus() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("cliente-1", null, "ROLE_CLIENTE")
+        );
+
+        CrearReservaRequest item = CrearReservaRequest.builder()
+                .idServicio("serv-10")
+                .fechaReserva(LocalDate.now().plusDays(7))
+                .horaReserva(LocalTime.of(10, 0))
+                .build();
+        CrearReservasLoteRequest req = CrearReservasLoteRequest.builder()
+                .reservas(List.of(item, item))
+                .modo(ModoLote.PARCIAL)
+                .build();
+
+        ReservasLoteResponse resp = ReservasLoteResponse.builder()
+                .modo(ModoLote.PARCIAL)
+                .solicitadas(2)
+                .creadas(1)
+                .fallidas(1)
+                .resultados(List.of(
+                        ResultadoReservaLoteResponse.builder().indice(0).exitosa(true).build(),
+                        ResultadoReservaLoteResponse.builder().indice(1).exitosa(false)
+                                .error("No hay disponibilidad para la fecha y hora seleccionadas").build()))
+                .build();
+
+        when(reservaService.crearReservasLote(eq("cliente-1"), any(CrearReservasLoteRequest.class))).thenReturn(resp);
+
+        mockMvc.perform(post("/api/v1/reservas/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.creadas").value(1))
+                .andExpect(jsonPath("$.resultados[1].exitosa").value(false));
+
+        verify(reservaService, times(1)).crearReservasLote(eq("cliente-1"), any(CrearReservasLoteRequest.class));
     }
 
     // ========================= LISTAR MIS RESERVAS (CLIENTE) =========================
@@ -355,6 +398,36 @@ class ReservaControllerTest {
         verify(reservaService, times(1)).filtrarReservas(any(FiltroReservaRequest.class));
     }
 
+    @Test
+    void buscarReservasPorCursor_proveedor_exito() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("prov-20", null, "ROLE_PROVEEDOR")
+        );
+
+        FiltroReservaRequest filtro = FiltroReservaRequest.builder()
+                .idProveedor("prov-20")
+                .tamano(1)
+                .build();
+
+        CursorPageResponse<ReservaResponse> page = CursorPageResponse.<ReservaResponse>builder()
+                .content(List.of(ReservaResponse.builder().idReserva("rX").build()))
+                .pageSize(1)
+                .nextCursor("c1")
+                .hasNext(true)
+                .build();
+
+        when(reservaService.filtrarReservasPorCursor(any(FiltroReservaRequest.class))).thenReturn(page);
+
+        mockMvc.perform(post("/api/v1/reservas/buscar/cursor")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(filtro)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("c1"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+
+        verify(reservaService, times(1)).filtrarReservasPorCursor(any(FiltroReservaRequest.class));
+    }
+
     // ========================= VERIFICAR DISPONIBILIDAD =========================
     @Test
     void verificarDisponibilidad_cliente_exito() throws Exception {
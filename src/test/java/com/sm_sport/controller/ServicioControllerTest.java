@@ -6,6 +6,7 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.sm_sport.dto.request.*;
 import com.sm_sport.dto.response.*;
 import com.sm_sport.model.enums.EstadoServicio;
+import com.sm_sport.model.enums.FormatoImportacion;
 import com.sm_sport.service.ServicioService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,10 +19,12 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -281,6 +284,132 @@ class ServicioControllerTest {
         verify(servicioService, times(1)).buscarServiciosCercanos(11.0, -74.8, 5);
     }
 
+    @Test
+    void buscarServiciosMasCercanos_exito() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("cliente", null, "ROLE_CLIENTE")
+        );
+
+        List<ServicioResponse> servicios = List.of(
+                ServicioResponse.builder().idServicio("c1").distanciaKm(1.25).build()
+        );
+
+        when(servicioService.buscarServiciosMasCercanos(11.0, -74.8, 20, "Fútbol", null, null))
+                .thenReturn(servicios);
+
+        mockMvc.perform(get("/api/v1/servicios/mas-cercanos")
+                        .param("latitud", "11.0")
+                        .param("longitud", "-74.8")
+                        .param("deporte", "Fútbol"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].idServicio").value("c1"))
+                .andExpect(jsonPath("$[0].distanciaKm").value(1.25));
+
+        verify(servicioService, times(1)).buscarServiciosMasCercanos(11.0, -74.8, 20, "Fútbol", null, null);
+    }
+
+    @Test
+    void importarServicios_csvParcial_devuelve207() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("prov-1", null, "ROLE_PROVEEDOR")
+        );
+        ImportacionServiciosResponse resultado = ImportacionServiciosResponse.builder()
+                .filas(2)
+                .importadas(1)
+                .fallidas(1)
+                .errores(List.of(new ErrorImportacionResponse(3, "precio: El precio es obligatorio")))
+                .build();
+        when(servicioService.importarServicios(eq("prov-1"), any(), eq(FormatoImportacion.CSV))).thenReturn(resultado);
+
+        mockMvc.perform(post("/api/v1/servicios/importar")
+                        .contentType("text/csv")
+                        .content("nombre,deporte,precio\nCancha 1,Fútbol,80000\nCancha 2,Fútbol,\n"))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.importadas").value(1))
+                .andExpect(jsonPath("$.errores[0].fila").value(3));
+    }
+
+    @Test
+    void autocompletar_exito() throws Exception {
+        AutocompletadoResponse respuesta = AutocompletadoResponse.builder()
+                .servicios(List.of(new SugerenciaResponse("Futbolito Rodadero", "s1")))
+                .deportes(List.of(new SugerenciaResponse("Fútbol", null)))
+                .ciudades(List.of())
+                .build();
+
+        when(servicioService.autocompletar("fut", 5)).thenReturn(respuesta);
+
+        mockMvc.perform(get("/api/v1/servicios/autocompletar").param("prefijo", "fut"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.servicios[0].idServicio").value("s1"))
+                .andExpect(jsonPath("$.deportes[0].texto").value("Fútbol"));
+    }
+
+    @Test
+    void listarMejoresServicios_exito() throws Exception {
+        when(servicioService.listarMejoresServicios("Fútbol", null, 10))
+                .thenReturn(List.of(ServicioResponse.builder().idServicio("s1").build()));
+
+        mockMvc.perform(get("/api/v1/servicios/mejores").param("deporte", "Fútbol"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].idServicio").value("s1"));
+
+        verify(servicioService, times(1)).listarMejoresServicios("Fútbol", null, 10);
+    }
+
+    @Test
+    void listarServiciosRecomendados_usaClienteAutenticado() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("cli", null, "ROLE_CLIENTE")
+        );
+        when(servicioService.listarServiciosRecomendados("cli", 10))
+                .thenReturn(List.of(ServicioResponse.builder().idServicio("s1").build()));
+
+        mockMvc.perform(get("/api/v1/servicios/recomendados"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].idServicio").value("s1"));
+
+        verify(servicioService, times(1)).listarServiciosRecomendados("cli", 10);
+    }
+
+    @Test
+    void buscarPorTexto_exito() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("cli", null, "ROLE_CLIENTE")
+        );
+
+        PageResponse<ServicioResponse> pagina = PageResponse.<ServicioResponse>builder()
+                .content(List.of(ServicioResponse.builder().idServicio("s1").build()))
+                .totalElements(1L)
+                .build();
+
+        when(servicioService.buscarPorTexto("cancha futbol", 0, 20)).thenReturn(pagina);
+
+        mockMvc.perform(get("/api/v1/servicios/texto").param("texto", "cancha futbol"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].idServicio").value("s1"));
+    }
+
+    @Test
+    void agruparServiciosMapa_exito() throws Exception {
+        List<GrupoMapaResponse> grupos = List.of(
+                GrupoMapaResponse.builder().latitud(11.24).longitud(-74.21).cantidad(12)
+                        .deportes(Map.of("Fútbol", 12)).build()
+        );
+
+        when(servicioService.agruparServiciosMapa(11.1, -74.3, 11.3, -74.1, 12)).thenReturn(grupos);
+
+        mockMvc.perform(get("/api/v1/servicios/mapa")
+                        .param("latitudMin", "11.1")
+                        .param("longitudMin", "-74.3")
+                        .param("latitudMax", "11.3")
+                        .param("longitudMax", "-74.1")
+                        .param("zoom", "12"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].cantidad").value(12))
+                .andExpect(jsonPath("$[0].deportes.Fútbol").value(12));
+    }
+
     // ========================= SERVICIOS POR PROVEEDOR =========================
 
     @Test
@@ -356,6 +485,61 @@ class ServicioControllerTest {
         verify(servicioService, times(1)).agregarDisponibilidad(eq("serv-90"), anyList());
     }
 
+    @Test
+    void agregarReglasDisponibilidad_exito() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("prov-1", null, "ROLE_PROVEEDOR")
+        );
+
+        ReglaDisponibilidadRequest regla = ReglaDisponibilidadRequest.builder()
+                .diaSemana(DayOfWeek.MONDAY)
+                .horaInicio(LocalTime.parse("06:00"))
+                .horaFin(LocalTime.parse("22:00"))
+                .cupos(10)
+                .build();
+
+        when(servicioService.agregarReglasDisponibilidad(eq("serv-90"), anyList()))
+                .thenReturn(MessageResponse.success("Reglas de disponibilidad agregadas exitosamente"));
+
+        mockMvc.perform(post("/api/v1/servicios/{id}/reglas-disponibilidad", "serv-90")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(regla))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.message").value("Reglas de disponibilidad agregadas exitosamente"));
+
+        verify(servicioService, times(1)).agregarReglasDisponibilidad(eq("serv-90"), anyList());
+    }
+
+    // ========================= CALENDARIO =========================
+
+    @Test
+    void obtenerCalendarioDisponibilidad_exito() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("cli-1", null, "ROLE_CLIENTE")
+        );
+
+        LocalDate inicio = LocalDate.parse("2030-01-01");
+        LocalDate fin = LocalDate.parse("2030-01-07");
+        CalendarioDisponibilidadResponse resp = CalendarioDisponibilidadResponse.builder()
+                .fechaInicio(inicio)
+                .fechaFin(fin)
+                .servicios(Map.of("serv-1", Map.of("2030-01-02", List.of("08:00-10:00"))))
+                .build();
+
+        when(servicioService.obtenerCalendarioDisponibilidad(List.of("serv-1", "serv-2"), inicio, fin))
+                .thenReturn(resp);
+
+        mockMvc.perform(get("/api/v1/servicios/calendario")
+                        .param("idsServicio", "serv-1", "serv-2")
+                        .param("fechaInicio", "2030-01-01")
+                        .param("fechaFin", "2030-01-07"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.servicios.serv-1['2030-01-02'][0]").value("08:00-10:00"));
+
+        verify(servicioService, times(1))
+                .obtenerCalendarioDisponibilidad(List.of("serv-1", "serv-2"), inicio, fin);
+    }
+
     // ========================= CAMBIAR ESTADO =========================
 
     @Test
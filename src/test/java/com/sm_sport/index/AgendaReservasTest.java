@@ -0,0 +1,277 @@
+package com.sm_sport.index;
+
+import com.sm_sport.repository.ReservaRepository;
+import com.sm_sport.repository.ServicioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para AgendaReservas")
+class AgendaReservasTest {
+
+    @Mock
+    private ReservaRepository reservaRepository;
+
+    @Mock
+    private ServicioRepository servicioRepository;
+
+    private AgendaReservas agenda;
+    private LocalDate fecha;
+
+    @BeforeEach
+    void setUp() {
+        agenda = new AgendaReservas(reservaRepository, servicioRepository);
+        fecha = LocalDate.now().plusDays(1);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        terminar(TransactionSynchronization.STATUS_ROLLED_BACK);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar horarios que se cruzan aunque empiecen a otra hora")
+    void ocupar_HorarioSeCruza_RetornaFalse() {
+        // Arrange: reserva existente de 10:00 a 11:30
+        when(servicioRepository.findCapacidadSimultanea("serv-001")).thenReturn(1);
+        when(reservaRepository.findIntervalosActivos("serv-001", fecha))
+                .thenReturn(List.of(intervalo(LocalTime.of(10, 0), LocalTime.of(11, 30))));
+
+        // Act & Assert
+        assertThat(agenda.ocupar("serv-001", fecha, LocalTime.of(11, 0), LocalTime.of(12, 0))).isFalse();
+        assertThat(agenda.ocupar("serv-001", fecha, LocalTime.of(9, 0), LocalTime.of(10, 15))).isFalse();
+        assertThat(agenda.ocupar("serv-001", fecha, LocalTime.of(11, 30), LocalTime.of(12, 30))).isTrue();
+        assertThat(agenda.ocupar("serv-001", fecha, LocalTime.of(9, 0), LocalTime.of(10, 0))).isTrue();
+
+        // La transacción bloqueó el día y lo leyó una sola vez
+        verify(reservaRepository, times(1)).bloquearAgendaDia("serv-001".hashCode(), (int) fecha.toEpochDay());
+        verify(reservaRepository, times(1)).findIntervalosActivos("serv-001", fecha);
+    }
+
+    @Test
+    @DisplayName("Un lote debe bloquear sus días en el mismo orden sin importar el de la solicitud")
+    void bloquearDias_CualquierOrden_BloqueaEnOrdenFijo() {
+        // Arrange
+        LocalDate otraFecha = fecha.plusDays(1);
+        Map<String, List<LocalDate>> unOrden = new LinkedHashMap<>();
+        unOrden.put("serv-001", List.of(otraFecha, fecha));
+        unOrden.put("serv-002", List.of(fecha));
+        Map<String, List<LocalDate>> otroOrden = new LinkedHashMap<>();
+        otroOrden.put("serv-002", List.of(fecha));
+        otroOrden.put("serv-001", List.of(fecha, otraFecha));
+
+        // Act
+        List<List<Object>> bloqueos = new ArrayList<>();
+        for (Map<String, List<LocalDate>> dias : List.of(unOrden, otroOrden)) {
+            clearInvocations(reservaRepository);
+            agenda.bloquearDias(dias);
+            terminar(TransactionSynchronization.STATUS_ROLLED_BACK);
+            TransactionSynchronizationManager.initSynchronization();
+
+            ArgumentCaptor<Integer> servicios = ArgumentCaptor.forClass(Integer.class);
+            ArgumentCaptor<Integer> fechas = ArgumentCaptor.forClass(Integer.class);
+            verify(reservaRepository, times(3)).bloquearAgendaDia(servicios.capture(), fechas.capture());
+            bloqueos.add(List.of(servicios.getAllValues(), fechas.getAllValues()));
+        }
+
+        // Assert
+        assertThat(bloqueos.get(0)).isEqualTo(bloqueos.get(1));
+    }
+
+    @Test
+    @DisplayName("Debe admitir cruces hasta la capacidad simultánea del servicio")
+    void ocupar_CapacidadSimultanea_AdmiteHastaElLimite() {
+        // Arrange
+        when(servicioRepository.findCapacidadSimultanea("serv-001")).thenReturn(2);
+        when(reservaRepository.findIntervalosActivos("serv-001", fecha)).thenReturn(List.of());
+
+        // Act & Assert
+        assertThat(agenda.ocupar("serv-001", fecha, LocalTime.of(10, 0), LocalTime.of(11, 0))).isTrue();
+        assertThat(agenda.ocupar("serv-001", fecha, LocalTime.of(10, 30), LocalTime.of(11, 30))).isTrue();
+        assertThat(agenda.ocupar("serv-001", fecha, LocalTime.of(10, 45), LocalTime.of(11, 15))).isFalse();
+        assertThat(agenda.estaLibre("serv-001", fecha, LocalTime.of(11, 0), LocalTime.of(12, 0))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Liberar un horario debe dejarlo disponible otra vez")
+    void liberar_HorarioOcupado_QuedaLibre() {
+        // Arrange
+        when(servicioRepository.findCapacidadSimultanea("serv-001")).thenReturn(1);
+        when(reservaRepository.findIntervalosActivos("serv-001", fecha)).thenReturn(List.of());
+        agenda.ocupar("serv-001", fecha, LocalTime.of(18, 0), LocalTime.of(19, 0));
+
+        // Act
+        agenda.liberar("serv-001", fecha, LocalTime.of(18, 0), LocalTime.of(19, 0));
+
+        // Assert
+        assertThat(agenda.estaLibre("serv-001", fecha, LocalTime.of(18, 30), LocalTime.of(19, 30))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Las reservas sin hora de fin deben tomarse con la duración predeterminada")
+    void cargar_ReservaSinHoraFin_UsaDuracionPredeterminada() {
+        // Arrange
+        when(servicioRepository.findCapacidadSimultanea("serv-001")).thenReturn(null);
+        when(reservaRepository.findIntervalosActivos("serv-001", fecha))
+                .thenReturn(List.of(intervalo(LocalTime.of(20, 0), null), intervalo(LocalTime.of(23, 30), null)));
+
+        // Act & Assert: 20:00 + 60 minutos, y la de 23:30 se corta a medianoche
+        assertThat(agenda.estaLibre("serv-001", fecha, LocalTime.of(20, 55), LocalTime.of(21, 0))).isFalse();
+        assertThat(agenda.estaLibre("serv-001", fecha, LocalTime.of(21, 0), LocalTime.of(22, 0))).isTrue();
+        assertThat(agenda.estaLibre("serv-001", fecha, LocalTime.of(23, 45), LocalTime.MIDNIGHT)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Debe mantener la ocupación correcta con cientos de reservas en el día")
+    void ocupar_CientosDeReservas_CoincideConFuerzaBruta() {
+        // Arrange
+        when(servicioRepository.findCapacidadSimultanea("serv-001")).thenReturn(3);
+        when(reservaRepository.findIntervalosActivos("serv-001", fecha)).thenReturn(List.of());
+
+        Random random = new Random(42);
+        List<int[]> aceptadas = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 500; i++) {
+            int inicio = random.nextInt(23 * 12) * 5;
+            int fin = inicio + (1 + random.nextInt(12)) * 5;
+
+            boolean esperado = maximoCruce(aceptadas, inicio, fin) < 3;
+            boolean obtenido = agenda.ocupar("serv-001", fecha, minuto(inicio), minuto(fin));
+
+            // Assert
+            assertThat(obtenido).isEqualTo(esperado);
+            if (obtenido) {
+                aceptadas.add(new int[]{inicio, fin});
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Cada transacción debe releer el día con su bloqueo tomado")
+    void ocupar_OtraTransaccion_ReleeDesdeLaBaseDeDatos() {
+        // Arrange: tras el primer commit, otra instancia guardó una reserva de 10:00 a 11:00
+        when(servicioRepository.findCapacidadSimultanea("serv-001")).thenReturn(1);
+        when(reservaRepository.findIntervalosActivos("serv-001", fecha))
+                .thenReturn(List.of())
+                .thenReturn(List.of(intervalo(LocalTime.of(10, 0), LocalTime.of(11, 0))));
+        assertThat(agenda.ocupar("serv-001", fecha, LocalTime.of(8, 0), LocalTime.of(9, 0))).isTrue();
+        terminar(TransactionSynchronization.STATUS_COMMITTED);
+
+        // Act
+        TransactionSynchronizationManager.initSynchronization();
+        boolean ocupado = agenda.ocupar("serv-001", fecha, LocalTime.of(10, 30), LocalTime.of(11, 30));
+
+        // Assert
+        assertThat(ocupado).isFalse();
+        verify(reservaRepository, times(2)).bloquearAgendaDia("serv-001".hashCode(), (int) fecha.toEpochDay());
+    }
+
+    @Test
+    @DisplayName("La copia en memoria se descarta al confirmar un cambio y no al revertirlo")
+    void estaLibre_CambioConfirmado_RecargaElDia() {
+        // Arrange
+        when(servicioRepository.findCapacidadSimultanea("serv-001")).thenReturn(1);
+        when(reservaRepository.findIntervalosActivos("serv-001", fecha)).thenReturn(List.of());
+        terminar(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(agenda.estaLibre("serv-001", fecha, LocalTime.of(10, 0), LocalTime.of(11, 0))).isTrue();
+
+        TransactionSynchronizationManager.initSynchronization();
+        agenda.ocupar("serv-001", fecha, LocalTime.of(10, 0), LocalTime.of(11, 0));
+        terminar(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(agenda.tamano()).isEqualTo(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        agenda.ocupar("serv-001", fecha, LocalTime.of(10, 0), LocalTime.of(11, 0));
+
+        // Act
+        terminar(TransactionSynchronization.STATUS_COMMITTED);
+
+        // Assert
+        assertThat(agenda.tamano()).isZero();
+        when(reservaRepository.findIntervalosActivos("serv-001", fecha))
+                .thenReturn(List.of(intervalo(LocalTime.of(10, 0), LocalTime.of(11, 0))));
+        assertThat(agenda.estaLibre("serv-001", fecha, LocalTime.of(10, 0), LocalTime.of(11, 0))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Un día cargado debe recargarse al vencer su vigencia")
+    void estaLibre_DiaVencido_Recarga() {
+        // Arrange
+        ReflectionTestUtils.setField(agenda, "vigencia", Duration.ZERO);
+        when(servicioRepository.findCapacidadSimultanea("serv-001")).thenReturn(1);
+        when(reservaRepository.findIntervalosActivos("serv-001", fecha))
+                .thenReturn(List.of())
+                .thenReturn(List.of(intervalo(LocalTime.of(10, 0), LocalTime.of(11, 0))));
+        assertThat(agenda.estaLibre("serv-001", fecha, LocalTime.of(10, 0), LocalTime.of(11, 0))).isTrue();
+
+        // Act & Assert
+        assertThat(agenda.estaLibre("serv-001", fecha, LocalTime.of(10, 0), LocalTime.of(11, 0))).isFalse();
+    }
+
+    // Máximo de intervalos aceptados que se cruzan en algún minuto de [inicio, fin)
+    private static int maximoCruce(List<int[]> intervalos, int inicio, int fin) {
+        int maximo = 0;
+        for (int minuto = inicio; minuto < fin; minuto++) {
+            int cruce = 0;
+            for (int[] intervalo : intervalos) {
+                if (intervalo[0] <= minuto && minuto < intervalo[1]) {
+                    cruce++;
+                }
+            }
+            maximo = Math.max(maximo, cruce);
+        }
+        return maximo;
+    }
+
+    // Simula el fin de la transacción en curso
+    private static void terminar(int estado) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        List<TransactionSynchronization> sincronizaciones = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        if (estado == TransactionSynchronization.STATUS_COMMITTED) {
+            sincronizaciones.forEach(TransactionSynchronization::afterCommit);
+        }
+        sincronizaciones.forEach(sincronizacion -> sincronizacion.afterCompletion(estado));
+    }
+
+    private static LocalTime minuto(int minutos) {
+        return minutos >= 24 * 60 ? LocalTime.MIDNIGHT : LocalTime.of(minutos / 60, minutos % 60);
+    }
+
+    private static ReservaRepository.IntervaloReserva intervalo(LocalTime inicio, LocalTime fin) {
+        return new ReservaRepository.IntervaloReserva() {
+            public LocalTime getHoraReserva() {
+                return inicio;
+            }
+
+            public LocalTime getHoraFin() {
+                return fin;
+            }
+        };
+    }
+}
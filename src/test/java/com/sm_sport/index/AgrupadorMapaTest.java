@@ -0,0 +1,157 @@
+package com.sm_sport.index;
+
+import com.sm_sport.model.entity.Servicio;
+import com.sm_sport.model.entity.UbicacionServicio;
+import com.sm_sport.repository.UbicacionServicioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para AgrupadorMapa")
+class AgrupadorMapaTest {
+
+    @Mock
+    private UbicacionServicioRepository ubicacionRepository;
+
+    private IndiceGeografico indice;
+    private AgrupadorMapa agrupador;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceGeografico(ubicacionRepository);
+        agrupador = new AgrupadorMapa(indice);
+    }
+
+    @Test
+    @DisplayName("Con zoom bajo los servicios de la ciudad deben quedar en un solo grupo")
+    void agrupar_ZoomBajo_UnGrupoConMezclaDeDeportes() {
+        // Arrange
+        when(ubicacionRepository.findPuntosPublicados()).thenReturn(List.of(
+                punto("centro", 11.2420, -74.2120, "Fútbol"),
+                punto("rodadero", 11.2040, -74.2270, "Tenis"),
+                punto("taganga", 11.2670, -74.1900, "Fútbol"),
+                punto("bogota", 4.6500, -74.0800, "Fútbol")));
+        indice.reconstruir();
+
+        // Act
+        List<AgrupadorMapa.Grupo> grupos = agrupador.agrupar(10.5, -75, 12, -73.5, 7, 64);
+
+        // Assert
+        assertThat(grupos).hasSize(1);
+        AgrupadorMapa.Grupo grupo = grupos.get(0);
+        assertThat(grupo.cantidad()).isEqualTo(3);
+        assertThat(grupo.deportes()).containsExactly(
+                entry("Fútbol", 2),
+                entry("Tenis", 1));
+        assertThat(grupo.latitud()).isCloseTo(11.2377, within(0.001));
+        assertThat(grupo.longitud()).isCloseTo(-74.2097, within(0.001));
+        assertThat(grupo.idServicio()).isNull();
+    }
+
+    @Test
+    @DisplayName("Cada servicio debe contarse exactamente una vez en todos los niveles de zoom")
+    void agrupar_VariosZooms_ConservaElTotal() {
+        // Arrange: servicios dispersos alrededor de Santa Marta
+        Random random = new Random(7);
+        List<UbicacionServicioRepository.PuntoServicio> puntos = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            puntos.add(punto("svc-" + i, 11 + random.nextDouble() * 0.5, -74.5 + random.nextDouble() * 0.5, "Fútbol"));
+        }
+        when(ubicacionRepository.findPuntosPublicados()).thenReturn(puntos);
+        indice.reconstruir();
+
+        for (int zoom = 0; zoom <= 12; zoom++) {
+            // Act
+            List<AgrupadorMapa.Grupo> grupos = agrupador.agrupar(10.9, -74.6, 11.6, -73.9, zoom, 1_000);
+
+            // Assert
+            assertThat(grupos.stream().mapToInt(AgrupadorMapa.Grupo::cantidad).sum()).isEqualTo(2_000);
+            assertThat(grupos.size()).isLessThanOrEqualTo(agrupador.agrupar(
+                    10.9, -74.6, 11.6, -73.9, zoom + 1, 4_000).size());
+        }
+    }
+
+    @Test
+    @DisplayName("La caché debe descartarse cuando se publica un servicio")
+    void agrupar_ServicioNuevo_InvalidaLaCache() {
+        // Arrange
+        when(ubicacionRepository.findPuntosPublicados()).thenReturn(List.of(
+                punto("centro", 11.2420, -74.2120, "Fútbol")));
+        indice.reconstruir();
+        assertThat(agrupador.agrupar(11, -74.5, 11.5, -74, 10, 64)).hasSize(1);
+        assertThat(agrupador.teselasEnCache(10)).isPositive();
+
+        // Act: un servicio lejos del primero, en la misma área
+        indice.registrar(Servicio.builder().idServicio("nuevo").deporte("Tenis").build(),
+                UbicacionServicio.builder()
+                        .coordenadasLat(BigDecimal.valueOf(11.45))
+                        .coordenadasLng(BigDecimal.valueOf(-74.05))
+                        .build());
+        List<AgrupadorMapa.Grupo> grupos = agrupador.agrupar(11, -74.5, 11.5, -74, 10, 64);
+
+        // Assert
+        assertThat(grupos).extracting(AgrupadorMapa.Grupo::idServicio).containsExactlyInAnyOrder("centro", "nuevo");
+    }
+
+    @Test
+    @DisplayName("Debe devolver los servicios a ambos lados del antimeridiano")
+    void agrupar_AreaCruzaAntimeridiano_IncluyeAmbosLados() {
+        // Arrange: Fiyi a ambos lados de la longitud 180
+        when(ubicacionRepository.findPuntosPublicados()).thenReturn(List.of(
+                punto("este", -16.8, 179.9, "Surf"),
+                punto("oeste", -16.8, -179.9, "Surf"),
+                punto("lejos", -16.8, 170, "Surf")));
+        indice.reconstruir();
+
+        // Act
+        List<AgrupadorMapa.Grupo> grupos = agrupador.agrupar(-17.5, 179, -16, -179, 8, 64);
+
+        // Assert
+        assertThat(grupos.stream().mapToInt(AgrupadorMapa.Grupo::cantidad).sum()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Un área demasiado grande para el zoom no debe calcularse")
+    void agrupar_DemasiadasTeselas_RetornaNull() {
+        assertThat(agrupador.agrupar(-60, -170, 60, 170, 12, 64)).isNull();
+    }
+
+    private static UbicacionServicioRepository.PuntoServicio punto(String idServicio, double lat, double lng,
+                                                                   String deporte) {
+        return new UbicacionServicioRepository.PuntoServicio() {
+            public String getIdServicio() {
+                return idServicio;
+            }
+
+            public BigDecimal getLatitud() {
+                return BigDecimal.valueOf(lat);
+            }
+
+            public BigDecimal getLongitud() {
+                return BigDecimal.valueOf(lng);
+            }
+
+            public String getDeporte() {
+                return deporte;
+            }
+
+            public BigDecimal getPrecio() {
+                return new BigDecimal("50000");
+            }
+        };
+    }
+}
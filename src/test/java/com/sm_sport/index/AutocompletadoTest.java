@@ -0,0 +1,169 @@
+package com.sm_sport.index;
+
+import com.sm_sport.model.entity.Servicio;
+import com.sm_sport.model.entity.UbicacionServicio;
+import com.sm_sport.model.enums.EstadoServicio;
+import com.sm_sport.repository.ServicioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para Autocompletado")
+class AutocompletadoTest {
+
+    @Mock
+    private ServicioRepository servicioRepository;
+
+    private Autocompletado autocompletado;
+
+    @BeforeEach
+    void setUp() {
+        autocompletado = new Autocompletado(servicioRepository);
+    }
+
+    @Test
+    @DisplayName("Debe sugerir servicios por prefijo sin tildes y por cualquier palabra del nombre")
+    void sugerir_PrefijoSinTildes_OrdenaPorPopularidad() {
+        // Arrange
+        when(servicioRepository.findSugerenciasPublicadas()).thenReturn(List.of(
+                sugerencia("s1", "Fútbol 5 El Prado", "Fútbol", "Santa Marta", "3.5", 4),
+                sugerencia("s2", "Futbolito Rodadero", "Fútbol", "Santa Marta", "4.8", 30),
+                sugerencia("s3", "Club de Tenis", "Tenis", "Barranquilla", "4.0", 10)));
+        autocompletado.reconstruir();
+
+        // Act
+        Autocompletado.Sugerencias futbol = autocompletado.sugerir("fút", 5);
+        Autocompletado.Sugerencias tenis = autocompletado.sugerir("TEN", 5);
+
+        // Assert
+        assertThat(futbol.servicios()).extracting(Autocompletado.Sugerencia::idServicio).containsExactly("s2", "s1");
+        assertThat(futbol.deportes()).extracting(Autocompletado.Sugerencia::texto).containsExactly("Fútbol");
+        assertThat(tenis.servicios()).extracting(Autocompletado.Sugerencia::texto).containsExactly("Club de Tenis");
+        assertThat(autocompletado.sugerir("san", 5).ciudades())
+                .extracting(Autocompletado.Sugerencia::texto).containsExactly("Santa Marta");
+    }
+
+    @Test
+    @DisplayName("Las ciudades deben ordenarse por cantidad de servicios y desaparecer al quedar sin servicios")
+    void registrarYRetirar_ActualizanConteos() {
+        // Arrange
+        when(servicioRepository.findSugerenciasPublicadas()).thenReturn(List.of(
+                sugerencia("s1", "Cancha Sintética", "Fútbol", "Barranquilla", "4.0", 1),
+                sugerencia("s2", "Cancha Techada", "Fútbol", "Barrancabermeja", "4.0", 1),
+                sugerencia("s3", "Piscina", "Natación", "Barrancabermeja", "4.0", 1)));
+        autocompletado.reconstruir();
+        assertThat(autocompletado.sugerir("barran", 5).ciudades())
+                .extracting(Autocompletado.Sugerencia::texto).containsExactly("Barrancabermeja", "Barranquilla");
+
+        // Act
+        autocompletado.retirar("s2");
+        autocompletado.retirar("s3");
+        autocompletado.registrar(servicio("s4", "Cancha Barranquillera", EstadoServicio.PUBLICADO),
+                UbicacionServicio.builder().ciudad("Barranquilla").build());
+
+        // Assert
+        assertThat(autocompletado.sugerir("barran", 5).ciudades())
+                .extracting(Autocompletado.Sugerencia::texto).containsExactly("Barranquilla");
+        assertThat(autocompletado.sugerir("pis", 5).servicios()).isEmpty();
+        assertThat(autocompletado.sugerir("cancha", 5).servicios())
+                .extracting(Autocompletado.Sugerencia::idServicio).containsExactlyInAnyOrder("s1", "s4");
+        assertThat(autocompletado.sugerir("barranquillera", 5).servicios())
+                .extracting(Autocompletado.Sugerencia::idServicio).containsExactly("s4");
+    }
+
+    @Test
+    @DisplayName("Un servicio que deja de estar publicado no debe sugerirse")
+    void registrar_ServicioPausado_SeRetira() {
+        when(servicioRepository.findSugerenciasPublicadas()).thenReturn(List.of(
+                sugerencia("s1", "Gimnasio Centro", "Gimnasio", "Santa Marta", "4.0", 1)));
+        autocompletado.reconstruir();
+
+        autocompletado.registrar(servicio("s1", "Gimnasio Centro", EstadoServicio.PAUSADO), null);
+
+        assertThat(autocompletado.sugerir("gim", 5).servicios()).isEmpty();
+        assertThat(autocompletado.sugerir("gim", 5).deportes()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Los mejores de cada prefijo deben coincidir con ordenar todos los nombres que empiezan igual")
+    void sugerir_MuchosServicios_CoincideConFuerzaBruta() {
+        // Arrange
+        Random random = new Random(11);
+        String[] palabras = {"cancha", "canchita", "club", "clinica", "futbol", "futsal", "tenis", "tejo"};
+        List<ServicioRepository.SugerenciaServicio> servicios = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String nombre = palabras[random.nextInt(palabras.length)] + " " + i;
+            servicios.add(sugerencia("s" + i, nombre, "Fútbol", "Santa Marta",
+                    String.valueOf(random.nextInt(50) / 10.0), random.nextInt(100)));
+        }
+        when(servicioRepository.findSugerenciasPublicadas()).thenReturn(servicios);
+        autocompletado.reconstruir();
+        autocompletado.retirar("s0");
+
+        for (String prefijo : List.of("c", "can", "cl", "fut", "te", "tej")) {
+            // Act
+            List<String> obtenidos = autocompletado.sugerir(prefijo, 10).servicios().stream()
+                    .map(Autocompletado.Sugerencia::idServicio).toList();
+
+            // Assert
+            List<String> esperados = servicios.stream()
+                    .filter(s -> !s.getIdServicio().equals("s0") && s.getNombre().startsWith(prefijo))
+                    .sorted(Comparator.comparingDouble((ServicioRepository.SugerenciaServicio s) ->
+                                    Autocompletado.peso(s.getCalificacionPromedio(), s.getTotalResenas()))
+                            .reversed()
+                            .thenComparing(ServicioRepository.SugerenciaServicio::getNombre))
+                    .limit(10)
+                    .map(ServicioRepository.SugerenciaServicio::getIdServicio)
+                    .toList();
+            assertThat(obtenidos).isEqualTo(esperados);
+        }
+    }
+
+    private static Servicio servicio(String idServicio, String nombre, EstadoServicio estado) {
+        return Servicio.builder().idServicio(idServicio).nombre(nombre).deporte("Fútbol").estado(estado)
+                .calificacionPromedio(new BigDecimal("4.0")).totalResenas(1).build();
+    }
+
+    private static ServicioRepository.SugerenciaServicio sugerencia(String idServicio, String nombre, String deporte,
+                                                                    String ciudad, String calificacion,
+                                                                    int totalResenas) {
+        return new ServicioRepository.SugerenciaServicio() {
+            public String getIdServicio() {
+                return idServicio;
+            }
+
+            public String getNombre() {
+                return nombre;
+            }
+
+            public String getDeporte() {
+                return deporte;
+            }
+
+            public String getCiudad() {
+                return ciudad;
+            }
+
+            public BigDecimal getCalificacionPromedio() {
+                return new BigDecimal(calificacion);
+            }
+
+            public Integer getTotalResenas() {
+                return totalResenas;
+            }
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package com.sm_sport.index;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Tests para CacheFrecuencia")
+class CacheFrecuenciaTest {
+
+    private final AtomicLong reloj = new AtomicLong();
+    private final AtomicInteger cargas = new AtomicInteger();
+
+    @Test
+    @DisplayName("Debe cargar una sola vez mientras la entrada esté en caché")
+    void obtener_SegundaLectura_NoCarga() {
+        CacheFrecuencia<String> cache = crear(100);
+
+        assertThat(cache.obtener("a", () -> cargar("a"))).isEqualTo("valor-a");
+        assertThat(cache.obtener("a", () -> cargar("a"))).isEqualTo("valor-a");
+
+        assertThat(cargas).hasValue(1);
+        assertThat(cache.aciertos()).isEqualTo(1);
+        assertThat(cache.fallos()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe conservar las entradas populares frente a un recorrido de entradas nuevas")
+    void obtener_Recorrido_NoDesplazaPopulares() {
+        CacheFrecuencia<String> cache = crear(100);
+        for (int vuelta = 0; vuelta < 5; vuelta++) {
+            for (int i = 0; i < 50; i++) {
+                cache.obtener("popular-" + i, () -> "p");
+            }
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            cache.obtener("unica-" + i, () -> "u");
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(cache.contiene("popular-" + i)).as("popular-" + i).isTrue();
+        }
+        assertThat(cache.pesoTotal()).isLessThanOrEqualTo(100);
+        assertThat(cache.expulsiones()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Debe respetar el peso de cada entrada")
+    void obtener_Peso_AcotaPorPesoTotal() {
+        CacheFrecuencia<String> cache = new CacheFrecuencia<>(() -> 100, () -> Duration.ofMinutes(1),
+                String::length, reloj::get);
+
+        for (int i = 0; i < 20; i++) {
+            cache.obtener("k" + i, () -> "x".repeat(30));
+        }
+        cache.obtener("enorme", () -> "x".repeat(101));
+
+        assertThat(cache.pesoTotal()).isLessThanOrEqualTo(100);
+        assertThat(cache.contiene("enorme")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Debe volver a cargar después de invalidar o al vencer")
+    void obtener_InvalidadaOVencida_VuelveACargar() {
+        CacheFrecuencia<String> cache = crear(100);
+        cache.obtener("a", () -> cargar("a"));
+
+        cache.invalidar("a");
+        cache.obtener("a", () -> cargar("a"));
+        reloj.addAndGet(Duration.ofMinutes(2).toNanos());
+        cache.obtener("a", () -> cargar("a"));
+
+        assertThat(cargas).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("No debe guardar un valor cargado antes de una invalidación")
+    void obtener_InvalidacionDuranteCarga_NoGuarda() {
+        CacheFrecuencia<String> cache = crear(100);
+
+        String valor = cache.obtener("a", () -> {
+            cache.invalidar("a");
+            return "antiguo";
+        });
+
+        assertThat(valor).isEqualTo("antiguo");
+        assertThat(cache.contiene("a")).isFalse();
+    }
+
+    private CacheFrecuencia<String> crear(int capacidad) {
+        return new CacheFrecuencia<>(() -> capacidad, () -> Duration.ofMinutes(1), valor -> 1, reloj::get);
+    }
+
+    private String cargar(String clave) {
+        cargas.incrementAndGet();
+        return "valor-" + clave;
+    }
+}
@@ -0,0 +1,80 @@
+package com.sm_sport.index;
+
+import com.sm_sport.dto.response.ServicioResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Tests para CacheServicios")
+class CacheServiciosTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CacheServicios cache = new CacheServicios(new CargasCompartidas(registry));
+
+    @Test
+    @DisplayName("No debe guardar una carga compartida que empezó antes de una invalidación")
+    void resumen_SeUneTrasInvalidar_NoGuardaElValorAntiguo() throws Exception {
+        AtomicInteger cargas = new AtomicInteger();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        @SuppressWarnings("unchecked")
+        Future<ServicioResponse>[] unida = new Future[1];
+        try {
+            ServicioResponse antiguo = cache.resumen("svc-1", () -> {
+                cargas.incrementAndGet();
+                // El servicio cambia mientras se lee y otra visita se une a esta carga después
+                cache.invalidar("svc-1");
+                unida[0] = executor.submit(() -> cache.resumen("svc-1", () -> {
+                    cargas.incrementAndGet();
+                    return respuesta("otra");
+                }));
+                esperarCompartidas(1);
+                return respuesta("antiguo");
+            });
+            assertThat(antiguo.getNombre()).isEqualTo("antiguo");
+            assertThat(unida[0].get(5, TimeUnit.SECONDS).getNombre()).isEqualTo("antiguo");
+        } finally {
+            executor.shutdown();
+            assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        ServicioResponse siguiente = cache.resumen("svc-1", () -> {
+            cargas.incrementAndGet();
+            return respuesta("nuevo");
+        });
+
+        assertThat(siguiente.getNombre()).isEqualTo("nuevo");
+        assertThat(cargas).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Debe responder desde la caché la segunda lectura")
+    void resumen_SegundaLectura_UsaCache() {
+        AtomicInteger cargas = new AtomicInteger();
+
+        cache.resumen("svc-1", () -> respuesta("r" + cargas.incrementAndGet()));
+        ServicioResponse segunda = cache.resumen("svc-1", () -> respuesta("r" + cargas.incrementAndGet()));
+
+        assertThat(segunda.getNombre()).isEqualTo("r1");
+        assertThat(cargas).hasValue(1);
+    }
+
+    private void esperarCompartidas(int esperadas) {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.counter("cargas.compartidas", "grupo", "servicio.resumen", "resultado", "compartida")
+                .count() < esperadas && System.nanoTime() - limite < 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static ServicioResponse respuesta(String nombre) {
+        return ServicioResponse.builder().idServicio("svc-1").nombre(nombre).build();
+    }
+}
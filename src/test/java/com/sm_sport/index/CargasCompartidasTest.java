@@ -0,0 +1,100 @@
+package com.sm_sport.index;
+
+import com.sm_sport.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Tests para CargasCompartidas")
+class CargasCompartidasTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CargasCompartidas cargas = new CargasCompartidas(registry);
+
+    @Test
+    @DisplayName("Debe ejecutar una sola carga para las lecturas simultáneas de la misma clave")
+    void cargar_Concurrentes_CompartenUnaCarga() throws Exception {
+        int hilos = 8;
+        CountDownLatch enCarga = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger ejecuciones = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<String>> resultados = new ArrayList<>();
+            resultados.add(executor.submit(() -> cargas.cargar("servicio", "svc-1", () -> {
+                ejecuciones.incrementAndGet();
+                enCarga.countDown();
+                esperar(liberar);
+                return "detalle";
+            })));
+            assertThat(enCarga.await(5, TimeUnit.SECONDS)).isTrue();
+
+            for (int i = 1; i < hilos; i++) {
+                resultados.add(executor.submit(() -> cargas.cargar("servicio", "svc-1", () -> {
+                    ejecuciones.incrementAndGet();
+                    return "otra";
+                })));
+            }
+            // Espera a que todas las lecturas estén esperando la carga en curso
+            while (registry.counter("cargas.compartidas", "grupo", "servicio", "resultado", "compartida").count()
+                    < hilos - 1) {
+                Thread.sleep(5);
+            }
+            liberar.countDown();
+
+            for (Future<String> resultado : resultados) {
+                assertThat(resultado.get(5, TimeUnit.SECONDS)).isEqualTo("detalle");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ejecuciones).hasValue(1);
+        assertThat(cargas.enCurso()).isZero();
+        assertThat(registry.counter("cargas.compartidas", "grupo", "servicio", "resultado", "ejecutada").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe volver a cargar cuando no hay una carga en curso")
+    void cargar_Sucesivas_CarganCadaVez() {
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        cargas.cargar("servicio", "svc-1", ejecuciones::incrementAndGet);
+        cargas.cargar("servicio", "svc-1", ejecuciones::incrementAndGet);
+        cargas.cargar("proveedor", "svc-1", ejecuciones::incrementAndGet);
+
+        assertThat(ejecuciones).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("Debe propagar la excepción original y olvidar la clave")
+    void cargar_Falla_PropagaExcepcion() {
+        assertThatThrownBy(() -> cargas.cargar("servicio", "no-existe", () -> {
+            throw new ResourceNotFoundException("Servicio no encontrado");
+        })).isInstanceOf(ResourceNotFoundException.class);
+
+        assertThat(cargas.enCurso()).isZero();
+        assertThat(cargas.cargar("servicio", "no-existe", () -> "ok")).isEqualTo("ok");
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
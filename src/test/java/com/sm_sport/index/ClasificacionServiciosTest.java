@@ -0,0 +1,154 @@
+package com.sm_sport.index;
+
+import com.sm_sport.model.entity.Servicio;
+import com.sm_sport.model.entity.UbicacionServicio;
+import com.sm_sport.model.enums.EstadoServicio;
+import com.sm_sport.repository.ServicioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para ClasificacionServicios")
+class ClasificacionServiciosTest {
+
+    private static final LocalDateTime RECIENTE = LocalDateTime.now().minusDays(1);
+
+    @Mock
+    private ServicioRepository servicioRepository;
+
+    private ClasificacionServicios clasificacion;
+
+    @BeforeEach
+    void setUp() {
+        clasificacion = new ClasificacionServicios(servicioRepository);
+    }
+
+    @Test
+    @DisplayName("Una sola reseña de 5 estrellas no debe superar a muchas reseñas de 4,8")
+    void mejores_PromedioBayesiano_PocasResenasNoGanan() {
+        // Arrange
+        when(servicioRepository.findClasificacionesPublicadas()).thenReturn(List.of(
+                fila("s1", "Fútbol", "Santa Marta", "5.0", 1, RECIENTE),
+                fila("s2", "Fútbol", "Santa Marta", "4.8", 400, RECIENTE),
+                fila("s3", "Fútbol", "Santa Marta", "3.9", 50, RECIENTE)));
+        clasificacion.reconstruir();
+
+        // Act
+        List<ClasificacionServicios.Posicion> mejores = clasificacion.mejores("futbol", "SANTA MARTA", 10);
+
+        // Assert
+        assertThat(mejores).extracting(ClasificacionServicios.Posicion::idServicio).containsExactly("s2", "s1", "s3");
+    }
+
+    @Test
+    @DisplayName("Debe separar las tablas por deporte y ciudad y respetar la cantidad pedida")
+    void mejores_TablasPorDeporteYCiudad() {
+        // Arrange
+        when(servicioRepository.findClasificacionesPublicadas()).thenReturn(List.of(
+                fila("s1", "Fútbol", "Santa Marta", "4.5", 20, RECIENTE),
+                fila("s2", "Tenis", "Santa Marta", "4.9", 20, RECIENTE),
+                fila("s3", "Fútbol", "Barranquilla", "4.7", 20, RECIENTE)));
+        clasificacion.reconstruir();
+
+        // Act & Assert
+        assertThat(clasificacion.mejores("Fútbol", "Santa Marta", 10))
+                .extracting(ClasificacionServicios.Posicion::idServicio).containsExactly("s1");
+        assertThat(clasificacion.mejores("Fútbol", null, 10))
+                .extracting(ClasificacionServicios.Posicion::idServicio).containsExactly("s3", "s1");
+        assertThat(clasificacion.mejores(null, "Santa Marta", 10))
+                .extracting(ClasificacionServicios.Posicion::idServicio).containsExactly("s2", "s1");
+        assertThat(clasificacion.mejores("", " ", 2))
+                .extracting(ClasificacionServicios.Posicion::idServicio).containsExactly("s2", "s3");
+        assertThat(clasificacion.mejores("Natación", null, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Debe reubicar un servicio al cambiar su calificación y sacarlo al retirarlo")
+    void registrar_CambioDeCalificacion_ReubicaServicio() {
+        // Arrange
+        when(servicioRepository.findClasificacionesPublicadas()).thenReturn(List.of(
+                fila("s1", "Fútbol", "Santa Marta", "4.0", 30, RECIENTE),
+                fila("s2", "Fútbol", "Santa Marta", "4.5", 30, RECIENTE)));
+        clasificacion.reconstruir();
+
+        // Act
+        clasificacion.registrar(servicio("s1", "4.9", 40), ubicacion("Santa Marta"), RECIENTE);
+
+        // Assert
+        assertThat(clasificacion.mejores("Fútbol", "Santa Marta", 10))
+                .extracting(ClasificacionServicios.Posicion::idServicio).containsExactly("s1", "s2");
+
+        clasificacion.retirar("s1");
+        assertThat(clasificacion.mejores(null, null, 10))
+                .extracting(ClasificacionServicios.Posicion::idServicio).containsExactly("s2");
+    }
+
+    @Test
+    @DisplayName("Una reseña reciente debe pesar más que una antigua con la misma calificación")
+    void puntaje_ResenaAntigua_PuntuaMenos() {
+        LocalDateTime ahora = LocalDateTime.now();
+        BigDecimal calificacion = new BigDecimal("4.5");
+
+        double reciente = ClasificacionServicios.puntaje(3.5, calificacion, 30, ahora.minusDays(2), ahora);
+        double antigua = ClasificacionServicios.puntaje(3.5, calificacion, 30, ahora.minusYears(2), ahora);
+        double sinResenas = ClasificacionServicios.puntaje(3.5, null, 0, null, ahora);
+
+        assertThat(reciente).isGreaterThan(antigua);
+        assertThat(antigua).isGreaterThan(sinResenas);
+    }
+
+    private static Servicio servicio(String idServicio, String calificacion, int totalResenas) {
+        return Servicio.builder()
+                .idServicio(idServicio)
+                .deporte("Fútbol")
+                .estado(EstadoServicio.PUBLICADO)
+                .calificacionPromedio(new BigDecimal(calificacion))
+                .totalResenas(totalResenas)
+                .build();
+    }
+
+    private static UbicacionServicio ubicacion(String ciudad) {
+        return UbicacionServicio.builder().ciudad(ciudad).build();
+    }
+
+    private static ServicioRepository.ClasificacionServicio fila(String idServicio, String deporte, String ciudad,
+                                                                 String calificacion, int totalResenas,
+                                                                 LocalDateTime ultimaResena) {
+        return new ServicioRepository.ClasificacionServicio() {
+            public String getIdServicio() {
+                return idServicio;
+            }
+
+            public String getDeporte() {
+                return deporte;
+            }
+
+            public String getCiudad() {
+                return ciudad;
+            }
+
+            public BigDecimal getCalificacionPromedio() {
+                return new BigDecimal(calificacion);
+            }
+
+            public Integer getTotalResenas() {
+                return totalResenas;
+            }
+
+            public LocalDateTime getUltimaResena() {
+                return ultimaResena;
+            }
+        };
+    }
+}
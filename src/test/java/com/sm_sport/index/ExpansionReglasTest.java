@@ -0,0 +1,208 @@
+package com.sm_sport.index;
+
+import com.sm_sport.model.entity.DisponibilidadServicio;
+import com.sm_sport.model.entity.ExcepcionDisponibilidad;
+import com.sm_sport.model.entity.ReglaDisponibilidad;
+import com.sm_sport.model.entity.Servicio;
+import com.sm_sport.repository.DisponibilidadServicioRepository;
+import com.sm_sport.repository.ExcepcionDisponibilidadRepository;
+import com.sm_sport.repository.ReglaDisponibilidadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para ExpansionReglas")
+class ExpansionReglasTest {
+
+    @Mock
+    private ReglaDisponibilidadRepository reglaRepository;
+
+    @Mock
+    private ExcepcionDisponibilidadRepository excepcionRepository;
+
+    @Mock
+    private DisponibilidadServicioRepository disponibilidadRepository;
+
+    @InjectMocks
+    private ExpansionReglas expansionReglas;
+
+    private Servicio servicio;
+    private LocalDate lunes;
+    private ReglaDisponibilidad reglaLunes;
+
+    @BeforeEach
+    void setUp() {
+        servicio = Servicio.builder().idServicio("serv-001").build();
+        lunes = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+        reglaLunes = ReglaDisponibilidad.builder()
+                .servicio(servicio)
+                .diaSemana(DayOfWeek.MONDAY)
+                .horaInicio(LocalTime.of(6, 0))
+                .horaFin(LocalTime.of(22, 0))
+                .cupos(10)
+                .activa(true)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Debe generar la franja de la regla sólo en su día de la semana")
+    void franjas_ReglaSemanal_SoloEnSuDia() {
+        // Arrange
+        when(reglaRepository.findVigentesEnRango(anyCollection(), any(), any())).thenReturn(List.of(reglaLunes));
+
+        // Act
+        ExpansionReglas.Reglas reglas = expansionReglas.cargar(List.of("serv-001"), lunes, lunes.plusDays(1));
+        List<DisponibilidadServicio> delLunes = reglas.franjas("serv-001", lunes, List.of());
+        List<DisponibilidadServicio> delMartes = reglas.franjas("serv-001", lunes.plusDays(1), List.of());
+
+        // Assert
+        assertThat(delLunes).hasSize(1);
+        assertThat(delLunes.get(0).getIdDisponibilidad()).isNull();
+        assertThat(delLunes.get(0).getCuposDisponibles()).isEqualTo(10);
+        assertThat(delMartes).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Debe respetar la vigencia de la regla")
+    void franjas_FueraDeVigencia_NoGenera() {
+        // Arrange
+        reglaLunes.setVigenteHasta(lunes.minusDays(1));
+        when(reglaRepository.findVigentesEnRango(anyCollection(), any(), any())).thenReturn(List.of(reglaLunes));
+
+        // Act
+        List<DisponibilidadServicio> franjas = expansionReglas
+                .cargar(List.of("serv-001"), lunes, lunes)
+                .franjas("serv-001", lunes, List.of());
+
+        // Assert
+        assertThat(franjas).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Debe usar la franja materializada en lugar de la de la regla")
+    void franjas_YaMaterializada_NoDuplica() {
+        // Arrange
+        DisponibilidadServicio materializada = DisponibilidadServicio.builder()
+                .idDisponibilidad("disp-001")
+                .fecha(lunes)
+                .horaInicio(LocalTime.of(6, 0))
+                .horaFin(LocalTime.of(22, 0))
+                .disponible(true)
+                .cuposDisponibles(3)
+                .build();
+        when(reglaRepository.findVigentesEnRango(anyCollection(), any(), any())).thenReturn(List.of(reglaLunes));
+
+        // Act
+        List<DisponibilidadServicio> franjas = expansionReglas
+                .cargar(List.of("serv-001"), lunes, lunes)
+                .franjas("serv-001", lunes, List.of(materializada));
+
+        // Assert
+        assertThat(franjas).containsExactly(materializada);
+    }
+
+    @Test
+    @DisplayName("Debe omitir las franjas cerradas por una excepción")
+    void franjas_ConExcepcion_OmiteFranja() {
+        // Arrange
+        ExcepcionDisponibilidad festivo = ExcepcionDisponibilidad.builder()
+                .servicio(servicio)
+                .fecha(lunes)
+                .motivo("Festivo")
+                .build();
+        when(reglaRepository.findVigentesEnRango(anyCollection(), any(), any())).thenReturn(List.of(reglaLunes));
+        when(excepcionRepository.findByServiciosEnRango(anyCollection(), any(), any())).thenReturn(List.of(festivo));
+
+        // Act
+        ExpansionReglas.Reglas reglas = expansionReglas.cargar(List.of("serv-001"), lunes, lunes.plusDays(7));
+
+        // Assert
+        assertThat(reglas.franjas("serv-001", lunes, List.of())).isEmpty();
+        assertThat(reglas.franjas("serv-001", lunes.plusDays(7), List.of())).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Una excepción con horas debe cerrar sólo ese rango de la regla")
+    void franjas_ExcepcionParcial_ParteLaRegla() {
+        // Arrange: mantenimiento de 10:00 a 11:00 y cierre temprano desde las 20:00 (se cruzan con 21:00)
+        when(reglaRepository.findVigentesEnRango(anyCollection(), any(), any())).thenReturn(List.of(reglaLunes));
+        when(excepcionRepository.findByServiciosEnRango(anyCollection(), any(), any())).thenReturn(List.of(
+                cierre(LocalTime.of(20, 0), LocalTime.of(23, 0)),
+                cierre(LocalTime.of(10, 0), LocalTime.of(11, 0)),
+                cierre(LocalTime.of(19, 30), LocalTime.of(21, 0))));
+
+        // Act
+        List<DisponibilidadServicio> franjas = expansionReglas
+                .cargar(List.of("serv-001"), lunes, lunes)
+                .franjas("serv-001", lunes, List.of());
+
+        // Assert
+        assertThat(franjas).extracting(DisponibilidadServicio::getHoraInicio, DisponibilidadServicio::getHoraFin)
+                .containsExactly(
+                        tuple(LocalTime.of(6, 0), LocalTime.of(10, 0)),
+                        tuple(LocalTime.of(11, 0), LocalTime.of(19, 30)));
+        assertThat(franjas).extracting(DisponibilidadServicio::getCuposDisponibles).containsOnly(10);
+    }
+
+    @Test
+    @DisplayName("Debe materializar las franjas de reglas que cubren la hora")
+    void materializar_HoraCubierta_InsertaFranja() {
+        // Arrange
+        when(reglaRepository.findVigentesEnRango(anyCollection(), any(), any())).thenReturn(List.of(reglaLunes));
+        when(disponibilidadRepository.materializarFranja(anyString(), eq("serv-001"), eq(lunes),
+                eq(LocalTime.of(6, 0)), eq(LocalTime.of(22, 0)), eq(10))).thenReturn(1);
+
+        // Act
+        int cubren = expansionReglas.materializar("serv-001", lunes, LocalTime.of(7, 0), LocalTime.of(8, 0));
+        int fueraDeHorario = expansionReglas.materializar("serv-001", lunes, LocalTime.of(23, 0), LocalTime.MAX);
+
+        // Assert
+        assertThat(cubren).isEqualTo(1);
+        assertThat(fueraDeHorario).isZero();
+        verify(disponibilidadRepository, times(1))
+                .materializarFranja(anyString(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("No debe materializar franjas que no contienen la reserva completa")
+    void materializar_ReservaPasaDelFinDeLaFranja_NoInserta() {
+        // Arrange: la regla del lunes va de 06:00 a 22:00
+        when(reglaRepository.findVigentesEnRango(anyCollection(), any(), any())).thenReturn(List.of(reglaLunes));
+
+        // Act
+        int cruzaElFin = expansionReglas.materializar("serv-001", lunes, LocalTime.of(21, 0), LocalTime.of(23, 0));
+        int empiezaAlCierre = expansionReglas.materializar("serv-001", lunes, LocalTime.of(22, 0), LocalTime.of(23, 0));
+
+        // Assert
+        assertThat(cruzaElFin).isZero();
+        assertThat(empiezaAlCierre).isZero();
+        verify(disponibilidadRepository, never()).materializarFranja(anyString(), any(), any(), any(), any(), any());
+    }
+
+    private ExcepcionDisponibilidad cierre(LocalTime inicio, LocalTime fin) {
+        return ExcepcionDisponibilidad.builder()
+                .servicio(servicio)
+                .fecha(lunes)
+                .horaInicio(inicio)
+                .horaFin(fin)
+                .motivo("Mantenimiento")
+                .build();
+    }
+}
@@ -0,0 +1,217 @@
+package com.sm_sport.index;
+
+import com.sm_sport.model.entity.DisponibilidadServicio;
+import com.sm_sport.model.entity.Servicio;
+import com.sm_sport.model.entity.ReglaDisponibilidad;
+import com.sm_sport.repository.DisponibilidadServicioRepository;
+import com.sm_sport.repository.ExcepcionDisponibilidadRepository;
+import com.sm_sport.repository.ReglaDisponibilidadRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para IndiceDisponibilidad")
+class IndiceDisponibilidadTest {
+
+    @Mock
+    private DisponibilidadServicioRepository disponibilidadRepository;
+
+    @Mock
+    private ReglaDisponibilidadRepository reglaRepository;
+
+    @Mock
+    private ExcepcionDisponibilidadRepository excepcionRepository;
+
+    private IndiceDisponibilidad indice;
+
+    private LocalDate fecha;
+    private DisponibilidadServicio manana;
+    private DisponibilidadServicio tarde;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceDisponibilidad(disponibilidadRepository,
+                new ExpansionReglas(reglaRepository, excepcionRepository, disponibilidadRepository),
+                new CargasCompartidas(new SimpleMeterRegistry()));
+        fecha = LocalDate.now().plusDays(1);
+
+        manana = DisponibilidadServicio.builder()
+                .idDisponibilidad("disp-am")
+                .fecha(fecha)
+                .horaInicio(LocalTime.of(8, 0))
+                .horaFin(LocalTime.of(10, 0))
+                .disponible(true)
+                .cuposDisponibles(1)
+                .build();
+
+        tarde = DisponibilidadServicio.builder()
+                .idDisponibilidad("disp-pm")
+                .fecha(fecha)
+                .horaInicio(LocalTime.of(14, 15))
+                .horaFin(LocalTime.of(16, 0))
+                .disponible(true)
+                .cuposDisponibles(3)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Debe cargar el día una sola vez y responder desde memoria")
+    void verificarDisponibilidad_ConsultasRepetidas_CargaUnaVez() {
+        // Arrange
+        when(disponibilidadRepository.findByServicioAndFecha("serv-001", fecha))
+                .thenReturn(List.of(manana, tarde));
+
+        // Act
+        boolean a = indice.verificarDisponibilidad("serv-001", fecha, LocalTime.of(9, 0));
+        boolean b = indice.verificarDisponibilidad("serv-001", fecha, LocalTime.of(15, 0));
+        boolean c = indice.verificarDisponibilidad("serv-001", fecha, LocalTime.of(12, 0));
+
+        // Assert
+        assertThat(a).isTrue();
+        assertThat(b).isTrue();
+        assertThat(c).isFalse();
+        verify(disponibilidadRepository, times(1)).findByServicioAndFecha("serv-001", fecha);
+    }
+
+    @Test
+    @DisplayName("Debe respetar los límites exactos de cada franja")
+    void verificarDisponibilidad_LimitesDeFranja_MismaSemanticaQueConsulta() {
+        // Arrange
+        when(disponibilidadRepository.findByServicioAndFecha("serv-001", fecha))
+                .thenReturn(List.of(manana, tarde));
+
+        // Act & Assert
+        assertThat(indice.verificarDisponibilidad("serv-001", fecha, LocalTime.of(10, 0))).isTrue();
+        assertThat(indice.verificarDisponibilidad("serv-001", fecha, LocalTime.of(10, 1))).isFalse();
+        assertThat(indice.verificarDisponibilidad("serv-001", fecha, LocalTime.of(14, 0))).isFalse();
+        assertThat(indice.verificarDisponibilidad("serv-001", fecha, LocalTime.of(14, 15))).isTrue();
+        assertThat(indice.verificarDisponibilidad("serv-001", fecha, LocalTime.of(7, 59))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Debe reflejar cupos tomados y liberados sin recargar")
+    void registrarCupo_TomadoYLiberado_ActualizaEnMemoria() {
+        // Arrange
+        when(disponibilidadRepository.findByServicioAndFecha("serv-001", fecha))
+                .thenReturn(List.of(manana, tarde));
+        indice.verificarDisponibilidad("serv-001", fecha, LocalTime.of(9, 0));
+
+        // Act & Assert
+        indice.registrarCupoTomado("serv-001", fecha, "disp-am");
+        assertThat(indice.verificarDisponibilidad("serv-001", fecha, LocalTime.of(9, 0))).isFalse();
+
+        indice.registrarCupoLiberado("serv-001", fecha, "disp-am");
+        assertThat(indice.verificarDisponibilidad("serv-001", fecha, LocalTime.of(9, 0))).isTrue();
+
+        verify(disponibilidadRepository, times(1)).findByServicioAndFecha("serv-001", fecha);
+    }
+
+    @Test
+    @DisplayName("Debe recargar el día tras una invalidación")
+    void invalidar_DiaCargado_RecargaEnSiguienteConsulta() {
+        // Arrange
+        when(disponibilidadRepository.findByServicioAndFecha("serv-001", fecha))
+                .thenReturn(List.of(manana))
+                .thenReturn(List.of(manana, tarde));
+        assertThat(indice.verificarDisponibilidad("serv-001", fecha, LocalTime.of(15, 0))).isFalse();
+
+        // Act
+        indice.invalidar("serv-001", fecha);
+
+        // Assert
+        assertThat(indice.verificarDisponibilidad("serv-001", fecha, LocalTime.of(15, 0))).isTrue();
+        verify(disponibilidadRepository, times(2)).findByServicioAndFecha("serv-001", fecha);
+    }
+
+    @Test
+    @DisplayName("Debe tratar como no disponibles las franjas marcadas no disponibles")
+    void verificarDisponibilidad_FranjaNoDisponible_RetornaFalse() {
+        // Arrange
+        manana.setDisponible(false);
+        when(disponibilidadRepository.findByServicioAndFecha("serv-001", fecha))
+                .thenReturn(List.of(manana));
+
+        // Act & Assert
+        assertThat(indice.verificarDisponibilidad("serv-001", fecha, LocalTime.of(9, 0))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Debe cargar con una sola consulta los días que faltan de varios servicios")
+    void obtenerDias_VariosServicios_UnaConsultaYLuegoMemoria() {
+        // Arrange
+        Servicio servicio = Servicio.builder().idServicio("serv-001").build();
+        manana.setServicio(servicio);
+        tarde.setServicio(servicio);
+        LocalDate pasado = fecha.plusDays(1);
+        when(disponibilidadRepository.findByServiciosEnRango(anyCollection(), eq(fecha), eq(pasado)))
+                .thenReturn(List.of(manana, tarde));
+
+        // Act
+        Map<String, SortedMap<LocalDate, DiaDisponibilidad>> dias =
+                indice.obtenerDias(List.of("serv-001", "serv-002"), fecha, pasado);
+        indice.obtenerDias(List.of("serv-001", "serv-002"), fecha, pasado);
+
+        // Assert
+        assertThat(dias.get("serv-001").get(fecha).getCantidad()).isEqualTo(2);
+        assertThat(dias.get("serv-001").get(pasado).getCantidad()).isZero();
+        assertThat(dias.get("serv-002")).hasSize(2);
+        assertThat(indice.verificarDisponibilidad("serv-001", fecha, LocalTime.of(9, 0))).isTrue();
+        verify(disponibilidadRepository, times(1)).findByServiciosEnRango(anyCollection(), any(), any());
+        verify(disponibilidadRepository, never()).findByServicioAndFecha(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Debe incluir las franjas generadas por reglas semanales")
+    void verificarDisponibilidad_ConRegla_IncluyeFranjaNoMaterializada() {
+        // Arrange
+        ReglaDisponibilidad regla = ReglaDisponibilidad.builder()
+                .servicio(Servicio.builder().idServicio("serv-001").build())
+                .diaSemana(fecha.getDayOfWeek())
+                .horaInicio(LocalTime.of(18, 0))
+                .horaFin(LocalTime.of(20, 0))
+                .cupos(4)
+                .activa(true)
+                .build();
+        when(disponibilidadRepository.findByServicioAndFecha("serv-001", fecha))
+                .thenReturn(List.of(manana));
+        when(reglaRepository.findVigentesEnRango(anyCollection(), eq(fecha), eq(fecha)))
+                .thenReturn(List.of(regla));
+
+        // Act & Assert
+        assertThat(indice.verificarDisponibilidad("serv-001", fecha, LocalTime.of(19, 0))).isTrue();
+        assertThat(indice.verificarDisponibilidad("serv-001", fecha, LocalTime.of(9, 0))).isTrue();
+        assertThat(indice.obtenerDia("serv-001", fecha).getCantidad()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Debe purgar los días que ya pasaron")
+    void purgarDiasPasados_DiasAntiguos_SeEliminan() {
+        // Arrange
+        LocalDate ayer = LocalDate.now().minusDays(1);
+        when(disponibilidadRepository.findByServicioAndFecha(anyString(), any())).thenReturn(List.of());
+        indice.obtenerDia("serv-001", ayer);
+        indice.obtenerDia("serv-001", fecha);
+
+        // Act
+        indice.purgarDiasPasados();
+
+        // Assert
+        assertThat(indice.tamano()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,196 @@
+package com.sm_sport.index;
+
+import com.sm_sport.model.entity.Servicio;
+import com.sm_sport.model.entity.UbicacionServicio;
+import com.sm_sport.repository.UbicacionServicioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para IndiceGeografico")
+class IndiceGeograficoTest {
+
+    // Parque de los Novios, Santa Marta
+    private static final double LAT = 11.2408;
+    private static final double LNG = -74.2110;
+
+    @Mock
+    private UbicacionServicioRepository ubicacionRepository;
+
+    private IndiceGeografico indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceGeografico(ubicacionRepository);
+    }
+
+    @Test
+    @DisplayName("Debe devolver sólo los servicios dentro del radio, ordenados por distancia")
+    void buscarCercanos_VariosServicios_FiltraYOrdena() {
+        // Arrange
+        when(ubicacionRepository.findPuntosPublicados()).thenReturn(List.of(
+                punto("rodadero", 11.2040, -74.2270),      // ~4.4 km
+                punto("centro", 11.2420, -74.2120),        // ~0.2 km
+                punto("barranquilla", 10.9685, -74.7813)   // ~68 km
+        ));
+        indice.reconstruir();
+
+        // Act
+        List<IndiceGeografico.Cercano> cercanos = indice.buscarCercanos(LAT, LNG, 10);
+
+        // Assert
+        assertThat(cercanos).extracting(IndiceGeografico.Cercano::idServicio)
+                .containsExactly("centro", "rodadero");
+        assertThat(cercanos.get(1).distanciaKm()).isCloseTo(4.4, within(0.3));
+    }
+
+    @Test
+    @DisplayName("Registrar y retirar deben reflejarse en las búsquedas")
+    void registrarYRetirar_ActualizanElIndice() {
+        // Arrange
+        when(ubicacionRepository.findPuntosPublicados()).thenReturn(List.of());
+        indice.reconstruir();
+
+        // Act
+        indice.registrar(servicio("svc-1", "Fútbol"), ubicacion(LAT, LNG));
+        indice.registrar(servicio("svc-1", "Fútbol"), ubicacion(10.9685, -74.7813));
+
+        // Assert: se movió a Barranquilla, ya no está cerca de Santa Marta
+        assertThat(indice.buscarCercanos(LAT, LNG, 5)).isEmpty();
+        assertThat(indice.buscarCercanos(10.97, -74.78, 5)).hasSize(1);
+
+        indice.retirar("svc-1");
+        assertThat(indice.buscarCercanos(10.97, -74.78, 5)).isEmpty();
+        assertThat(indice.tamano()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debe coincidir con un recorrido completo para radios pequeños y grandes")
+    void buscarCercanos_PuntosAleatorios_CoincideConFuerzaBruta() {
+        // Arrange
+        Random random = new Random(7);
+        List<UbicacionServicioRepository.PuntoServicio> puntos = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            puntos.add(punto("svc-" + i, 10 + random.nextDouble() * 2, -75 + random.nextDouble() * 2));
+        }
+        when(ubicacionRepository.findPuntosPublicados()).thenReturn(puntos);
+        indice.reconstruir();
+
+        for (double radio : new double[]{0.5, 3, 25, 400}) {
+            // Act
+            List<IndiceGeografico.Cercano> cercanos = indice.buscarCercanos(LAT, LNG, radio);
+
+            // Assert
+            long esperados = puntos.stream()
+                    .filter(p -> IndiceGeografico.distanciaKm(LAT, LNG,
+                            p.getLatitud().doubleValue(), p.getLongitud().doubleValue()) <= radio)
+                    .count();
+            assertThat(cercanos).hasSize((int) esperados);
+            for (int i = 1; i < cercanos.size(); i++) {
+                assertThat(cercanos.get(i).distanciaKm()).isGreaterThanOrEqualTo(cercanos.get(i - 1).distanciaKm());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Los k más cercanos deben coincidir con un recorrido completo, aplicando filtros")
+    void buscarMasCercanos_PuntosAleatorios_CoincideConFuerzaBruta() {
+        // Arrange
+        Random random = new Random(11);
+        String[] deportes = {"Fútbol", "Tenis", "Natación"};
+        List<UbicacionServicioRepository.PuntoServicio> puntos = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            puntos.add(punto("svc-" + i, 10 + random.nextDouble() * 2, -75 + random.nextDouble() * 2,
+                    deportes[i % 3], BigDecimal.valueOf(10_000 + random.nextInt(90_000))));
+        }
+        when(ubicacionRepository.findPuntosPublicados()).thenReturn(puntos);
+        indice.reconstruir();
+        IndiceGeografico.Filtro filtro = new IndiceGeografico.Filtro("fútbol", null, new BigDecimal("50000"));
+
+        // Act
+        List<IndiceGeografico.Cercano> cercanos = indice.buscarMasCercanos(LAT, LNG, 20, filtro);
+
+        // Assert
+        List<String> esperados = puntos.stream()
+                .filter(p -> p.getDeporte().equals("Fútbol") && p.getPrecio().compareTo(new BigDecimal("50000")) <= 0)
+                .sorted(Comparator.comparingDouble(p -> IndiceGeografico.distanciaKm(LAT, LNG,
+                        p.getLatitud().doubleValue(), p.getLongitud().doubleValue())))
+                .limit(20)
+                .map(UbicacionServicioRepository.PuntoServicio::getIdServicio)
+                .toList();
+        assertThat(cercanos).extracting(IndiceGeografico.Cercano::idServicio).containsExactlyElementsOf(esperados);
+    }
+
+    @Test
+    @DisplayName("Los cambios posteriores a la construcción del árbol deben verse en los k más cercanos")
+    void buscarMasCercanos_CambiosRecientes_SeCombinanConElArbol() {
+        // Arrange
+        when(ubicacionRepository.findPuntosPublicados()).thenReturn(List.of(
+                punto("centro", 11.2420, -74.2120),
+                punto("rodadero", 11.2040, -74.2270)));
+        indice.reconstruir();
+
+        // Act: "centro" se despublica y aparece un servicio nuevo aún más cerca
+        indice.retirar("centro");
+        indice.registrar(servicio("nuevo", "Tenis"), ubicacion(LAT, LNG));
+
+        // Assert
+        assertThat(indice.buscarMasCercanos(LAT, LNG, 5, IndiceGeografico.Filtro.NINGUNO))
+                .extracting(IndiceGeografico.Cercano::idServicio)
+                .containsExactly("nuevo", "rodadero");
+    }
+
+    private static Servicio servicio(String idServicio, String deporte) {
+        return Servicio.builder().idServicio(idServicio).deporte(deporte).precio(new BigDecimal("40000")).build();
+    }
+
+    private static UbicacionServicio ubicacion(double lat, double lng) {
+        return UbicacionServicio.builder()
+                .coordenadasLat(BigDecimal.valueOf(lat))
+                .coordenadasLng(BigDecimal.valueOf(lng))
+                .build();
+    }
+
+    private static UbicacionServicioRepository.PuntoServicio punto(String idServicio, double lat, double lng) {
+        return punto(idServicio, lat, lng, "Fútbol", new BigDecimal("50000"));
+    }
+
+    private static UbicacionServicioRepository.PuntoServicio punto(String idServicio, double lat, double lng,
+                                                                   String deporte, BigDecimal precio) {
+        return new UbicacionServicioRepository.PuntoServicio() {
+            public String getIdServicio() {
+                return idServicio;
+            }
+
+            public BigDecimal getLatitud() {
+                return BigDecimal.valueOf(lat);
+            }
+
+            public BigDecimal getLongitud() {
+                return BigDecimal.valueOf(lng);
+            }
+
+            public String getDeporte() {
+                return deporte;
+            }
+
+            public BigDecimal getPrecio() {
+                return precio;
+            }
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package com.sm_sport.index;
+
+import com.sm_sport.model.entity.Servicio;
+import com.sm_sport.model.enums.EstadoServicio;
+import com.sm_sport.repository.ServicioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para IndiceTexto")
+class IndiceTextoTest {
+
+    @Mock
+    private ServicioRepository servicioRepository;
+
+    private IndiceTexto indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceTexto(servicioRepository);
+        when(servicioRepository.findTextosPublicados()).thenReturn(List.of(
+                texto("futbol5", "Cancha de Fútbol 5", "Fútbol", "Cancha sintética techada en El Rodadero"),
+                texto("tenis", "Club de Tenis Bello Horizonte", "Tenis", "Canchas de arcilla y clases para niños"),
+                texto("natacion", "Escuela de natación", "Natación", "Piscina semiolímpica con clases de fútbol acuático")));
+        indice.reconstruir();
+    }
+
+    @Test
+    @DisplayName("Debe encontrar servicios sin importar tildes ni mayúsculas")
+    void buscar_SinTildes_EncuentraConTildes() {
+        assertThat(ids(indice.buscar("FUTBOL", 10))).containsExactly("futbol5", "natacion");
+        assertThat(ids(indice.buscar("natacion", 10))).containsExactly("natacion");
+    }
+
+    @Test
+    @DisplayName("Debe unir singular y plural")
+    void buscar_Plural_EncuentraSingular() {
+        assertThat(ids(indice.buscar("canchas", 10))).containsExactlyInAnyOrder("futbol5", "tenis");
+        assertThat(ids(indice.buscar("clase", 10))).containsExactlyInAnyOrder("tenis", "natacion");
+    }
+
+    @Test
+    @DisplayName("Debe tolerar errores de tipeo con los trigramas del vocabulario")
+    void buscar_ErrorDeTipeo_EncuentraTerminoParecido() {
+        assertThat(ids(indice.buscar("tennis", 10))).containsExactly("tenis");
+        assertThat(indice.buscar("xyzw", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Los servicios que contienen todos los términos deben ir primero")
+    void buscar_VariosTerminos_PrimeroLosQueLosContienenTodos() {
+        List<IndiceTexto.Resultado> resultados = indice.buscar("cancha futbol", 10);
+
+        assertThat(ids(resultados).get(0)).isEqualTo("futbol5");
+        assertThat(ids(resultados)).containsExactlyInAnyOrder("futbol5", "tenis", "natacion");
+    }
+
+    @Test
+    @DisplayName("Registrar y retirar deben reflejarse en las búsquedas")
+    void registrarYRetirar_ActualizanElIndice() {
+        // Act
+        indice.registrar(Servicio.builder().idServicio("voley").nombre("Voleibol playa")
+                .deporte("Voleibol").estado(EstadoServicio.PUBLICADO).build());
+        indice.registrar(Servicio.builder().idServicio("tenis").nombre("Club de Tenis")
+                .deporte("Tenis").estado(EstadoServicio.PAUSADO).build());
+
+        // Assert
+        assertThat(ids(indice.buscar("voleibol", 10))).containsExactly("voley");
+        assertThat(indice.buscar("tenis", 10)).isEmpty();
+        assertThat(indice.tamano()).isEqualTo(3);
+
+        indice.retirar("voley");
+        assertThat(indice.buscar("voleibol", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("El analizador debe normalizar tildes, palabras vacías y plurales")
+    void analizador_TerminosEnEspanol() {
+        assertThat(AnalizadorTexto.terminos("Las Canchas de Fútbol")).containsExactly("canch", "futbol");
+        assertThat(AnalizadorTexto.terminos("Piscinas y niños")).containsExactly("piscin", "nin");
+        assertThat(AnalizadorTexto.raiz("lapices")).isEqualTo(AnalizadorTexto.raiz("lapiz"));
+    }
+
+    private static List<String> ids(List<IndiceTexto.Resultado> resultados) {
+        return resultados.stream().map(IndiceTexto.Resultado::idServicio).toList();
+    }
+
+    private static ServicioRepository.TextoServicio texto(String idServicio, String nombre, String deporte,
+                                                          String descripcion) {
+        return new ServicioRepository.TextoServicio() {
+            public String getIdServicio() {
+                return idServicio;
+            }
+
+            public String getNombre() {
+                return nombre;
+            }
+
+            public String getDeporte() {
+                return deporte;
+            }
+
+            public String getDescripcion() {
+                return descripcion;
+            }
+        };
+    }
+}
@@ -0,0 +1,191 @@
+package com.sm_sport.index;
+
+import com.sm_sport.repository.ClienteRepository;
+import com.sm_sport.repository.ReservaRepository;
+import com.sm_sport.repository.ServicioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para RecomendacionesServicios")
+class RecomendacionesServiciosTest {
+
+    private static final LocalDateTime RECIENTE = LocalDateTime.now().minusDays(1);
+
+    @Mock
+    private ServicioRepository servicioRepository;
+
+    @Mock
+    private ClienteRepository clienteRepository;
+
+    @Mock
+    private ReservaRepository reservaRepository;
+
+    private RecomendacionesServicios recomendaciones;
+
+    @BeforeEach
+    void setUp() {
+        recomendaciones = new RecomendacionesServicios(servicioRepository, clienteRepository, reservaRepository);
+        when(servicioRepository.findClasificacionesPublicadas()).thenReturn(List.of(
+                servicio("futbol-sm", "Fútbol", "Santa Marta", "4.5"),
+                servicio("futbol-sm-2", "Fútbol", "Santa Marta", "4.0"),
+                servicio("futbol-baq", "Fútbol", "Barranquilla", "4.9"),
+                servicio("tenis-sm", "Tenis", "Santa Marta", "4.2"),
+                servicio("padel-sm", "Pádel", "Santa Marta", "3.8")));
+    }
+
+    @Test
+    @DisplayName("Debe recomendar los servicios reservados por clientes con reservas en común")
+    void recomendar_ReservasEnComun_RecomiendaServiciosSimilares() {
+        // Arrange: quienes reservan fútbol en Santa Marta también reservan pádel
+        when(clienteRepository.findPreferenciasActivas()).thenReturn(List.of(
+                preferencia("ana", null), preferencia("beto", null), preferencia("carla", null)));
+        when(reservaRepository.findHistorialClientes()).thenReturn(List.of(
+                historial("ana", "futbol-sm", 2, 5.0), historial("ana", "padel-sm", 1, 4.0),
+                historial("beto", "futbol-sm", 1, null), historial("beto", "padel-sm", 3, 5.0),
+                historial("carla", "futbol-sm", 1, null)));
+
+        // Act
+        recomendaciones.reconstruir();
+
+        // Assert
+        List<RecomendacionesServicios.Recomendacion> paraCarla = recomendaciones.recomendar("carla", 10);
+        assertThat(paraCarla.get(0).idServicio()).isEqualTo("padel-sm");
+        assertThat(paraCarla).extracting(RecomendacionesServicios.Recomendacion::idServicio)
+                .doesNotContain("futbol-sm");
+    }
+
+    @Test
+    @DisplayName("Debe recomendar por deporte preferido y ciudad donde reserva")
+    void recomendar_Preferencias_PriorizaDeporteYCiudad() {
+        // Arrange
+        when(clienteRepository.findPreferenciasActivas()).thenReturn(List.of(
+                preferencia("ana", "fútbol, Tenis"), preferencia("beto", "Fútbol")));
+        when(reservaRepository.findHistorialClientes()).thenReturn(List.of(
+                historial("ana", "tenis-sm", 1, null)));
+
+        // Act
+        recomendaciones.reconstruir();
+
+        // Assert: Ana reserva en Santa Marta; Beto no tiene reservas y ve el mejor fútbol de cualquier ciudad
+        assertThat(recomendaciones.recomendar("ana", 2))
+                .extracting(RecomendacionesServicios.Recomendacion::idServicio)
+                .containsExactly("futbol-sm", "futbol-sm-2");
+        assertThat(recomendaciones.recomendar("beto", 1))
+                .extracting(RecomendacionesServicios.Recomendacion::idServicio)
+                .containsExactly("futbol-baq");
+    }
+
+    @Test
+    @DisplayName("Sin historial ni preferencias debe devolver los servicios mejor clasificados")
+    void recomendar_SinPerfil_DevuelvePopulares() {
+        when(clienteRepository.findPreferenciasActivas()).thenReturn(List.of(preferencia("ana", "")));
+        when(reservaRepository.findHistorialClientes()).thenReturn(List.of());
+
+        recomendaciones.reconstruir();
+
+        assertThat(recomendaciones.recomendar("ana", 2))
+                .extracting(RecomendacionesServicios.Recomendacion::idServicio)
+                .containsExactly("futbol-baq", "futbol-sm");
+        assertThat(recomendaciones.recomendar("desconocido", 5)).hasSize(5);
+    }
+
+    @Test
+    @DisplayName("Debe recalcular sólo a los clientes marcados")
+    void actualizarPendientes_ClienteMarcado_Recalcula() {
+        // Arrange
+        when(clienteRepository.findPreferenciasActivas()).thenReturn(List.of(preferencia("ana", null)));
+        when(reservaRepository.findHistorialClientes()).thenReturn(List.of());
+        recomendaciones.reconstruir();
+        recomendaciones.actualizarPendientes();
+        verify(clienteRepository, never()).findPreferenciasActivas(anyCollection());
+
+        when(clienteRepository.findPreferenciasActivas(List.of("ana"))).thenReturn(List.of(preferencia("ana", "Tenis")));
+        when(reservaRepository.findHistorialClientes(List.of("ana"))).thenReturn(List.of());
+
+        // Act
+        recomendaciones.marcar("ana");
+        recomendaciones.actualizarPendientes();
+
+        // Assert
+        assertThat(recomendaciones.recomendar("ana", 1))
+                .extracting(RecomendacionesServicios.Recomendacion::idServicio)
+                .containsExactly("tenis-sm");
+    }
+
+    private static ServicioRepository.ClasificacionServicio servicio(String idServicio, String deporte,
+                                                                     String ciudad, String calificacion) {
+        return new ServicioRepository.ClasificacionServicio() {
+            public String getIdServicio() {
+                return idServicio;
+            }
+
+            public String getDeporte() {
+                return deporte;
+            }
+
+            public String getCiudad() {
+                return ciudad;
+            }
+
+            public BigDecimal getCalificacionPromedio() {
+                return new BigDecimal(calificacion);
+            }
+
+            public Integer getTotalResenas() {
+                return 40;
+            }
+
+            public LocalDateTime getUltimaResena() {
+                return RECIENTE;
+            }
+        };
+    }
+
+    private static ClienteRepository.PreferenciaCliente preferencia(String idCliente, String preferencias) {
+        return new ClienteRepository.PreferenciaCliente() {
+            public String getIdCliente() {
+                return idCliente;
+            }
+
+            public String getPreferencias() {
+                return preferencias;
+            }
+        };
+    }
+
+    private static ReservaRepository.HistorialCliente historial(String idCliente, String idServicio, long reservas,
+                                                                Double calificacion) {
+        return new ReservaRepository.HistorialCliente() {
+            public String getIdCliente() {
+                return idCliente;
+            }
+
+            public String getIdServicio() {
+                return idServicio;
+            }
+
+            public Long getReservas() {
+                return reservas;
+            }
+
+            public Double getCalificacion() {
+                return calificacion;
+            }
+        };
+    }
+}
@@ -0,0 +1,142 @@
+package com.sm_sport.repository;
+
+import com.sm_sport.model.entity.DisponibilidadServicio;
+import com.sm_sport.model.entity.Proveedor;
+import com.sm_sport.model.entity.Servicio;
+import com.sm_sport.model.enums.EstadoServicio;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Contención real sobre PostgreSQL: muchas reservas simultáneas contra una
+ * sola franja. Requiere Docker; sin él la prueba se omite.
+ */
+@DataJpaTest(properties = "spring.datasource.hikari.maximum-pool-size=16")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Slf4j
+@DisplayName("Tests de concurrencia para DisponibilidadServicioRepository")
+class DisponibilidadServicioRepositoryTest {
+
+    private static final int HILOS = 16;
+    private static final int CUPOS = 500;
+    private static final int INTENTOS = 2_000;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private DisponibilidadServicioRepository disponibilidadRepository;
+
+    @Autowired
+    private ServicioRepository servicioRepository;
+
+    @Autowired
+    private ProveedorRepository proveedorRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Las reservas simultáneas sobre una franja no deben tomar más cupos de los que tiene")
+    void reservarCupo_Concurrentes_NoSobrevendeLaFranja() throws Exception {
+        // Arrange
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        String idDisponibilidad = transaccion.execute(estado -> crearFranja(CUPOS));
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicInteger tomados = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+
+        // Act: cada intento es una transacción propia, como una reserva
+        long nanos;
+        try {
+            List<Future<?>> intentos = new ArrayList<>();
+            for (int i = 0; i < INTENTOS; i++) {
+                intentos.add(executor.submit(() -> {
+                    salida.await();
+                    Integer filas = transaccion.execute(estado ->
+                            disponibilidadRepository.reservarCupo(idDisponibilidad));
+                    if (filas != null && filas == 1) {
+                        tomados.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            long inicio = System.nanoTime();
+            salida.countDown();
+            for (Future<?> intento : intentos) {
+                intento.get(60, TimeUnit.SECONDS);
+            }
+            nanos = System.nanoTime() - inicio;
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("reservarCupo: {} intentos en {} hilos sobre una franja de {} cupos en {} ms ({} intentos/s)",
+                INTENTOS, HILOS, CUPOS, TimeUnit.NANOSECONDS.toMillis(nanos),
+                Math.round(INTENTOS / (nanos / 1e9)));
+
+        // Assert
+        DisponibilidadServicio franja = disponibilidadRepository.findById(idDisponibilidad).orElseThrow();
+        assertThat(tomados).hasValue(CUPOS);
+        assertThat(franja.getCuposDisponibles()).isZero();
+        assertThat(franja.getDisponible()).isFalse();
+    }
+
+    private String crearFranja(int cupos) {
+        Proveedor proveedor = new Proveedor();
+        proveedor.setNombre("Proveedor de prueba");
+        proveedor.setCorreo("proveedor-" + System.nanoTime() + "@smsport.com");
+        proveedor.setContrasena("secreta");
+        proveedor.setFechaRegistro(LocalDateTime.now());
+        proveedorRepository.save(proveedor);
+
+        Servicio servicio = Servicio.builder()
+                .proveedor(proveedor)
+                .nombre("Cancha Sintética")
+                .deporte("Fútbol")
+                .precio(new BigDecimal("80000"))
+                .estado(EstadoServicio.PUBLICADO)
+                .fechaPublicacion(LocalDateTime.now())
+                .build();
+        servicioRepository.save(servicio);
+
+        DisponibilidadServicio franja = DisponibilidadServicio.builder()
+                .servicio(servicio)
+                .fecha(LocalDate.now().plusDays(1))
+                .horaInicio(LocalTime.of(18, 0))
+                .horaFin(LocalTime.of(22, 0))
+                .disponible(true)
+                .cuposDisponibles(cupos)
+                .build();
+        return disponibilidadRepository.save(franja).getIdDisponibilidad();
+    }
+}
@@ -0,0 +1,154 @@
+package com.sm_sport.scheduler;
+
+import com.sm_sport.index.AgendaReservas;
+import com.sm_sport.index.CacheServicios;
+import com.sm_sport.index.IndiceDisponibilidad;
+import com.sm_sport.repository.ReservaRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para ExpiracionReservas")
+class ExpiracionReservasTest {
+
+    @Mock
+    private ReservaRepository reservaRepository;
+
+    @Mock
+    private IndiceDisponibilidad indiceDisponibilidad;
+
+    @Mock
+    private AgendaReservas agendaReservas;
+
+    @Mock
+    private CacheServicios cacheServicios;
+
+    @InjectMocks
+    private ExpiracionReservas expiracionReservas;
+
+    @Test
+    @DisplayName("Debe expirar en lote las reservas vencidas y devolver sus cupos al índice")
+    void procesarVencidas_ReservaVencida_ExpiraYLiberaCupo() {
+        // Arrange
+        LocalDate fecha = LocalDate.now().plusDays(1);
+        expiracionReservas.programar("res-001", LocalDateTime.now().minusDays(3));
+        expiracionReservas.programar("res-002", LocalDateTime.now());
+        when(reservaRepository.expirarPendientes(List.of("res-001")))
+                .thenReturn(List.of(expirada("res-001", "serv-001", fecha, "disp-001")));
+
+        // Act
+        esperarTick();
+        expiracionReservas.procesarVencidas();
+
+        // Assert
+        verify(reservaRepository).expirarPendientes(List.of("res-001"));
+        verify(indiceDisponibilidad).registrarCupoLiberado("serv-001", fecha, "disp-001");
+        verify(cacheServicios).invalidar("serv-001");
+        assertThat(expiracionReservas.tamano()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("No debe expirar reservas descartadas")
+    void procesarVencidas_ReservaDescartada_NoExpira() {
+        // Arrange
+        expiracionReservas.programar("res-001", LocalDateTime.now().minusDays(3));
+        expiracionReservas.descartar("res-001");
+
+        // Act
+        esperarTick();
+        expiracionReservas.procesarVencidas();
+
+        // Assert
+        verifyNoInteractions(reservaRepository, indiceDisponibilidad);
+    }
+
+    @Test
+    @DisplayName("Debe reconstruir la rueda con las reservas pendientes al arrancar")
+    void rehidratar_PendientesEnBaseDeDatos_SeProgramanTodas() {
+        // Arrange
+        ReservaRepository.PendienteVencimiento p1 = mock(ReservaRepository.PendienteVencimiento.class);
+        ReservaRepository.PendienteVencimiento p2 = mock(ReservaRepository.PendienteVencimiento.class);
+        when(p1.getIdReserva()).thenReturn("res-001");
+        when(p1.getFechaCreacion()).thenReturn(LocalDateTime.now());
+        when(p2.getIdReserva()).thenReturn("res-002");
+        when(p2.getFechaCreacion()).thenReturn(LocalDateTime.now().minusHours(1));
+        when(reservaRepository.findPendientesParaVencimiento()).thenReturn(List.of(p1, p2));
+
+        // Act
+        expiracionReservas.rehidratar();
+
+        // Assert
+        assertThat(expiracionReservas.tamano()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("El barrido de respaldo debe expirar las pendientes antiguas")
+    void barrerPendientesAntiguas_HayAntiguas_RetornaCantidad() {
+        // Arrange
+        when(reservaRepository.findIdsPendientesAntiguas(any(LocalDateTime.class)))
+                .thenReturn(List.of("res-001", "res-002"));
+        when(reservaRepository.expirarPendientes(List.of("res-001", "res-002")))
+                .thenReturn(List.of(
+                        expirada("res-001", "serv-001", LocalDate.now(), null),
+                        expirada("res-002", "serv-001", LocalDate.now(), "disp-001")));
+
+        // Act
+        int expiradas = expiracionReservas.barrerPendientesAntiguas();
+
+        // Assert
+        assertThat(expiradas).isEqualTo(2);
+        verify(indiceDisponibilidad, times(1)).registrarCupoLiberado(any(), any(), any());
+        verify(agendaReservas, times(2)).liberar(eq("serv-001"), any(), eq(LocalTime.of(10, 0)), eq(LocalTime.of(11, 0)));
+    }
+
+    private ReservaRepository.ReservaExpirada expirada(String idReserva, String idServicio,
+                                                       LocalDate fecha, String idDisponibilidad) {
+        return new ReservaRepository.ReservaExpirada() {
+            public String getIdReserva() {
+                return idReserva;
+            }
+
+            public String getIdServicio() {
+                return idServicio;
+            }
+
+            public LocalDate getFechaReserva() {
+                return fecha;
+            }
+
+            public LocalTime getHoraReserva() {
+                return LocalTime.of(10, 0);
+            }
+
+            public LocalTime getHoraFin() {
+                return LocalTime.of(11, 0);
+            }
+
+            public String getIdDisponibilidad() {
+                return idDisponibilidad;
+            }
+        };
+    }
+
+    // La rueda avanza por ticks de un segundo
+    private void esperarTick() {
+        try {
+            Thread.sleep(1_100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.sm_sport.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sm_sport.dto.request.CrearReservaRequest;
+import com.sm_sport.dto.response.ReservaResponse;
+import com.sm_sport.exception.ConflictException;
+import com.sm_sport.model.entity.ClaveIdempotencia;
+import com.sm_sport.repository.ClaveIdempotenciaRepository;
+import com.sm_sport.service.impl.IdempotenciaServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para IdempotenciaService")
+class IdempotenciaServiceTest {
+
+    @Mock
+    private ClaveIdempotenciaRepository claveRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private IdempotenciaService idempotenciaService;
+    private CrearReservaRequest request;
+    private AtomicInteger ejecuciones;
+    private Supplier<ReservaResponse> accion;
+
+    @BeforeEach
+    void setUp() {
+        idempotenciaService = new IdempotenciaServiceImpl(claveRepository, objectMapper, transactionManager);
+        request = CrearReservaRequest.builder()
+                .idServicio("serv-001")
+                .fechaReserva(LocalDate.of(2025, 6, 1))
+                .horaReserva(LocalTime.of(10, 0))
+                .build();
+        ejecuciones = new AtomicInteger();
+        accion = () -> ReservaResponse.builder()
+                .idReserva("res-" + ejecuciones.incrementAndGet())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Sin clave debe ejecutar siempre la operación")
+    void ejecutar_SinClave_EjecutaSiempre() {
+        idempotenciaService.ejecutar(null, "cli-001", "CREAR_RESERVA", request, ReservaResponse.class, accion);
+        idempotenciaService.ejecutar(" ", "cli-001", "CREAR_RESERVA", request, ReservaResponse.class, accion);
+
+        assertThat(ejecuciones).hasValue(2);
+        verifyNoInteractions(claveRepository);
+    }
+
+    @Test
+    @DisplayName("El reintento con la misma clave debe responder desde memoria sin ejecutar de nuevo")
+    void ejecutar_Reintento_RespondeDesdeMemoria() {
+        when(claveRepository.reservar(eq("CREAR_RESERVA:cli-001:k1"), anyString(), any(), any())).thenReturn(1);
+
+        ReservaResponse original = idempotenciaService.ejecutar("k1", "cli-001", "CREAR_RESERVA",
+                request, ReservaResponse.class, accion);
+        ReservaResponse repetida = idempotenciaService.ejecutar("k1", "cli-001", "CREAR_RESERVA",
+                request, ReservaResponse.class, accion);
+
+        assertThat(ejecuciones).hasValue(1);
+        assertThat(repetida.getIdReserva()).isEqualTo(original.getIdReserva());
+        verify(claveRepository, times(1)).reservar(anyString(), anyString(), any(), any());
+        verify(claveRepository).guardarRespuesta(eq("CREAR_RESERVA:cli-001:k1"), anyString());
+        // Sólo la primera ejecución abrió una transacción
+        verify(transactionManager, times(1)).getTransaction(any());
+    }
+
+    @Test
+    @DisplayName("Reutilizar la clave con otra solicitud debe lanzar conflicto")
+    void ejecutar_MismaClaveOtraSolicitud_LanzaConflicto() {
+        when(claveRepository.reservar(anyString(), anyString(), any(), any())).thenReturn(1);
+        idempotenciaService.ejecutar("k1", "cli-001", "CREAR_RESERVA", request, ReservaResponse.class, accion);
+
+        CrearReservaRequest otra = CrearReservaRequest.builder()
+                .idServicio("serv-002")
+                .fechaReserva(request.getFechaReserva())
+                .horaReserva(request.getHoraReserva())
+                .build();
+
+        assertThatThrownBy(() -> idempotenciaService.ejecutar("k1", "cli-001", "CREAR_RESERVA",
+                otra, ReservaResponse.class, accion))
+                .isInstanceOf(ConflictException.class);
+        assertThat(ejecuciones).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Una clave confirmada por otra instancia debe responder desde la base de datos")
+    void ejecutar_ClaveEnBaseDeDatos_DevuelveRespuestaGuardada() throws Exception {
+        // La huella se toma de la ejecución original en otra instancia
+        ClaveIdempotenciaRepository repositorioOtra = mock(ClaveIdempotenciaRepository.class);
+        when(repositorioOtra.reservar(anyString(), anyString(), any(), any())).thenReturn(1);
+        new IdempotenciaServiceImpl(repositorioOtra, objectMapper, transactionManager)
+                .ejecutar("k1", "cli-001", "CREAR_RESERVA", request, ReservaResponse.class, accion);
+        ArgumentCaptor<String> huella = ArgumentCaptor.forClass(String.class);
+        verify(repositorioOtra).reservar(anyString(), huella.capture(), any(), any());
+        String huellaOriginal = huella.getValue();
+
+        when(claveRepository.reservar(anyString(), anyString(), any(), any())).thenReturn(0);
+        when(claveRepository.findById("CREAR_RESERVA:cli-001:k1")).thenReturn(Optional.of(
+                ClaveIdempotencia.builder()
+                        .idClave("CREAR_RESERVA:cli-001:k1")
+                        .huella(huellaOriginal)
+                        .respuesta(objectMapper.writeValueAsString(ReservaResponse.builder().idReserva("res-1").build()))
+                        .fechaExpiracion(LocalDateTime.now().plusHours(1))
+                        .build()));
+
+        ReservaResponse repetida = idempotenciaService.ejecutar("k1", "cli-001", "CREAR_RESERVA",
+                request, ReservaResponse.class, accion);
+
+        assertThat(repetida.getIdReserva()).isEqualTo("res-1");
+        assertThat(ejecuciones).hasValue(1);
+        verify(claveRepository, never()).guardarRespuesta(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Si la solicitud original no ha terminado debe lanzar conflicto")
+    void ejecutar_OriginalEnProceso_LanzaConflicto() {
+        when(claveRepository.reservar(anyString(), anyString(), any(), any())).thenReturn(0);
+        when(claveRepository.findById("CREAR_RESERVA:cli-001:k1")).thenReturn(Optional.of(
+                ClaveIdempotencia.builder()
+                        .idClave("CREAR_RESERVA:cli-001:k1")
+                        .huella("x")
+                        .fechaExpiracion(LocalDateTime.now().plusHours(1))
+                        .build()));
+
+        assertThatThrownBy(() -> idempotenciaService.ejecutar("k1", "cli-001", "CREAR_RESERVA",
+                request, ReservaResponse.class, accion))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("en proceso");
+        assertThat(ejecuciones).hasValue(0);
+    }
+}
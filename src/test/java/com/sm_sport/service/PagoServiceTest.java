@@ -13,11 +13,13 @@ import com.sm_sport.model.enums.EstadoPago;
 import com.sm_sport.model.enums.EstadoReserva;
 import com.sm_sport.model.enums.MetodoPago;
 import com.sm_sport.repository.*;
+import com.sm_sport.service.IdempotenciaService;
 import com.sm_sport.service.impl.PagoServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -53,6 +55,9 @@ class PagoServiceTest {
     @Mock
     private PagoMapper pagoMapper;
 
+    @Mock
+    private IdempotenciaService idempotenciaService;
+
     @InjectMocks
     private PagoServiceImpl pagoService;
 
@@ -81,6 +86,24 @@ class PagoServiceTest {
 
     // ==================== TESTS DE PROCESAR PAGO ====================
 
+    @Test
+    @DisplayName("Procesar pago con clave de idempotencia - La huella no incluye datos de tarjeta")
+    void testProcesarPagoIdempotente_HuellaSinDatosDeTarjeta() {
+        // Arrange
+        when(idempotenciaService.ejecutar(eq("k1"), eq("cliente123"), eq("PROCESAR_PAGO"), any(),
+                eq(PagoResponse.class), any())).thenReturn(pagoResponseMock);
+
+        // Act
+        PagoResponse response = pagoService.procesarPago("cliente123", pagoTarjetaRequest, "k1");
+
+        // Assert
+        assertThat(response).isSameAs(pagoResponseMock);
+        ArgumentCaptor<Object> huella = ArgumentCaptor.forClass(Object.class);
+        verify(idempotenciaService).ejecutar(eq("k1"), eq("cliente123"), eq("PROCESAR_PAGO"), huella.capture(),
+                eq(PagoResponse.class), any());
+        assertThat(huella.getValue()).isEqualTo(Arrays.asList("reserva123", MetodoPago.TARJETA_CREDITO, null));
+    }
+
     @Test
     @DisplayName("Procesar pago con tarjeta - Exitoso")
     void testProcesarPagoConTarjeta_Exitoso() {
@@ -6,6 +6,11 @@ import com.sm_sport.dto.response.MessageResponse;
 import com.sm_sport.dto.response.ResenaResponse;
 import com.sm_sport.exception.BusinessException;
 import com.sm_sport.exception.ResourceNotFoundException;
+import com.sm_sport.index.Autocompletado;
+import com.sm_sport.index.CacheServicios;
+import com.sm_sport.index.ClasificacionServicios;
+import com.sm_sport.index.RecomendacionesServicios;
+import com.sm_sport.mapper.PageMapper;
 import com.sm_sport.mapper.ResenaMapper;
 import com.sm_sport.model.entity.*;
 import com.sm_sport.model.enums.EstadoReserva;
@@ -23,6 +28,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -59,6 +65,21 @@ class ResenaServiceTest {
     @Mock
     private ResenaMapper resenaMapper;
 
+    @Mock
+    private PageMapper pageMapper;
+
+    @Mock
+    private Autocompletado autocompletado;
+
+    @Mock
+    private CacheServicios cacheServicios;
+
+    @Mock
+    private ClasificacionServicios clasificacionServicios;
+
+    @Mock
+    private RecomendacionesServicios recomendacionesServicios;
+
     @InjectMocks
     private ResenaServiceImpl resenaService;
 
@@ -158,6 +179,8 @@ class ResenaServiceTest {
         when(servicioRepository.findById(anyString())).thenReturn(Optional.of(servicioMock));
         when(resenaRepository.calcularPromedioCalificacion(anyString())).thenReturn(BigDecimal.valueOf(5.0));
         when(resenaRepository.contarResenasPorServicio(anyString())).thenReturn(1L);
+        when(resenaRepository.contarPorCalificacion("servicio-789"))
+                .thenReturn(List.<Object[]>of(new Object[]{5, 1L}));
         when(servicioRepository.save(any(Servicio.class))).thenReturn(servicioMock);
 
         // Mocks para actualizarCalificacionProveedor - USA ID ESPECÍFICO
@@ -180,6 +203,8 @@ class ResenaServiceTest {
         verify(resenaRepository).save(any(Resena.class));
         verify(servicioRepository).save(any(Servicio.class));
         verify(resenaRepository).findResenasByServicio("servicio-789");
+        assertEquals(1, servicioMock.getResenasCincoEstrellas());
+        assertEquals(0, servicioMock.getResenasUnaEstrella());
         verify(proveedorRepository).save(any(Proveedor.class));
     }
 
@@ -355,6 +380,34 @@ class ResenaServiceTest {
         verify(resenaRepository, never()).findByServicioIdServicio(anyString(), any(Pageable.class));
     }
 
+    @Test
+    @DisplayName("Listar reseñas por servicio con cursor - Orden no permitido")
+    void listarPorServicioPorCursor_OrdenNoPermitido() {
+        // Act & Assert
+        BusinessException exception = assertThrows(
+                BusinessException.class,
+                () -> resenaService.listarPorServicioPorCursor("servicio-789", "comentario", "DESC", null, 10)
+        );
+
+        assertTrue(exception.getMessage().contains("comentario"));
+        verify(resenaRepository, never()).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    @DisplayName("Listar reseñas por servicio con cursor - Servicio no encontrado")
+    void listarPorServicioPorCursor_ServicioNoEncontrado() {
+        // Arrange
+        when(servicioRepository.existsById(anyString())).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(
+                ResourceNotFoundException.class,
+                () -> resenaService.listarPorServicioPorCursor("servicio-inexistente", "calificacion", "DESC", null, 10)
+        );
+
+        verify(resenaRepository, never()).findBy(any(Specification.class), any());
+    }
+
     // ==================== TESTS DE LISTAR POR CLIENTE ====================
 
     @Test
@@ -508,18 +561,31 @@ class ResenaServiceTest {
     @Test
     @DisplayName("Reportar reseña - Exitoso")
     void reportarResena_Exitoso() {
-        // Arrange
+        // Arrange: la reseña de 5 estrellas era la única publicada
         when(resenaRepository.findById(anyString())).thenReturn(Optional.of(resenaMock));
         when(resenaRepository.save(any(Resena.class))).thenReturn(resenaMock);
 
+        // Mocks para actualizarCalificacionServicio: ya no quedan reseñas publicadas
+        servicioMock.setResenasCincoEstrellas(1);
+        when(servicioRepository.findById(anyString())).thenReturn(Optional.of(servicioMock));
+        when(resenaRepository.calcularPromedioCalificacion(anyString())).thenReturn(null);
+        when(resenaRepository.contarResenasPorServicio(anyString())).thenReturn(0L);
+        when(resenaRepository.contarPorCalificacion(anyString())).thenReturn(List.of());
+        when(proveedorRepository.findById(anyString())).thenReturn(Optional.of(proveedorMock));
+
         // Act
         MessageResponse resultado = resenaService.reportarResena("resena-222", "usuario-999");
 
         // Assert
         assertNotNull(resultado);
         assertTrue(resultado.getMessage().contains("reportada exitosamente"));
+        assertEquals(EstadoRevision.EN_REVISION, resenaMock.getEstadoRevision());
+        assertEquals(0, servicioMock.getTotalResenas());
+        assertEquals(0, servicioMock.getResenasCincoEstrellas());
         verify(resenaRepository).findById("resena-222");
         verify(resenaRepository).save(any(Resena.class));
+        verify(servicioRepository).save(servicioMock);
+        verify(cacheServicios).invalidar(servicioMock.getIdServicio());
     }
 
     @Test
@@ -590,7 +656,7 @@ class ResenaServiceTest {
         verify(resenaRepository).delete(resenaMock);
         verify(servicioRepository).save(any(Servicio.class));
         verify(resenaRepository).findResenasByServicio("servicio-789");
-        verify(proveedorRepository).save(any(Proveedor.class));
+        verify(proveedorRepository).save(any(Proveedor.class));        verify(recomendacionesServicios).marcar("cliente-123");
     }
 
     @Test
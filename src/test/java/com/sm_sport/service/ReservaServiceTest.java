@@ -2,24 +2,37 @@ package com.sm_sport.service;
 
 import com.sm_sport.dto.request.CancelarReservaRequest;
 import com.sm_sport.dto.request.CrearReservaRequest;
+import com.sm_sport.dto.request.CrearReservasLoteRequest;
 import com.sm_sport.dto.request.FiltroReservaRequest;
+import com.sm_sport.dto.response.CursorPageResponse;
 import com.sm_sport.dto.response.MessageResponse;
 import com.sm_sport.dto.response.PageResponse;
 import com.sm_sport.dto.response.ReservaDetalleResponse;
 import com.sm_sport.dto.response.ReservaResponse;
+import com.sm_sport.dto.response.ReservasLoteResponse;
+import com.sm_sport.dto.response.ResultadoReservaLoteResponse;
 import com.sm_sport.exception.BusinessException;
 import com.sm_sport.exception.ForbiddenException;
 import com.sm_sport.exception.ResourceNotFoundException;
+import com.sm_sport.index.ExpansionReglas;
+import com.sm_sport.index.AgendaReservas;
+import com.sm_sport.index.CacheServicios;
+import com.sm_sport.index.IndiceDisponibilidad;
+import com.sm_sport.index.RecomendacionesServicios;
 import com.sm_sport.mapper.PageMapper;
 import com.sm_sport.mapper.ReservaMapper;
 import com.sm_sport.model.entity.*;
 import com.sm_sport.model.enums.EstadoReserva;
 import com.sm_sport.model.enums.EstadoServicio;
+import com.sm_sport.model.enums.ModoLote;
 import com.sm_sport.repository.ClienteRepository;
 import com.sm_sport.repository.DisponibilidadServicioRepository;
 import com.sm_sport.repository.ReservaRepository;
 import com.sm_sport.repository.ServicioRepository;
+import com.sm_sport.scheduler.ExpiracionReservas;
+import com.sm_sport.service.IdempotenciaService;
 import com.sm_sport.service.impl.ReservaServiceImpl;
+import com.sm_sport.util.CursorKeyset;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -29,14 +42,18 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -55,6 +72,23 @@ class ReservaServiceTest {
     @Mock
     private DisponibilidadServicioRepository disponibilidadRepository;
     @Mock
+    private IndiceDisponibilidad indiceDisponibilidad;
+
+    @Mock
+    private AgendaReservas agendaReservas;
+    @Mock
+    private CacheServicios cacheServicios;
+    @Mock
+    private ExpansionReglas expansionReglas;
+    @Mock
+    private ExpiracionReservas expiracionReservas;
+
+    @Mock
+    private RecomendacionesServicios recomendacionesServicios;
+
+    @Mock
+    private IdempotenciaService idempotenciaService;
+    @Mock
     private ReservaMapper reservaMapper;
     @Mock
     private PageMapper pageMapper;
@@ -140,6 +174,9 @@ class ReservaServiceTest {
                 .idProveedor("prov-001")
                 .nombreProveedor("Juan Proveedor")
                 .build();
+
+        // Por defecto la agenda no tiene reservas que se crucen
+        lenient().when(agendaReservas.ocupar(anyString(), any(), any(), any())).thenReturn(true);
     }
 
     // ==================== TESTS CREAR RESERVA ====================
@@ -147,18 +184,33 @@ class ReservaServiceTest {
     @DisplayName("Tests para crearReserva()")
     class CrearReservaTests {
 
+        @Test
+        @DisplayName("Con Idempotency-Key debe delegar en el servicio de idempotencia")
+        void crearReserva_ConClaveIdempotencia_DelegaEnIdempotencia() {
+            // Arrange
+            when(idempotenciaService.ejecutar(eq("intento-1"), eq("cli-001"), eq("CREAR_RESERVA"),
+                    same(crearReservaRequest), eq(ReservaResponse.class), any())).thenReturn(reservaResponse);
+
+            // Act
+            ReservaResponse resultado = reservaService.crearReserva("cli-001", crearReservaRequest, "intento-1");
+
+            // Assert: el reintento no vuelve a tomar cupo ni a guardar
+            assertThat(resultado).isSameAs(reservaResponse);
+            verify(reservaRepository, never()).save(any(Reserva.class));
+            verify(disponibilidadRepository, never()).reservarCupo(anyString());
+        }
+
         @Test
         @DisplayName("Debe crear reserva exitosamente cuando todos los datos son válidos")
         void crearReserva_DatosValidos_RetornaReservaResponse() {
             // Arrange
             when(clienteRepository.findById("cli-001")).thenReturn(Optional.of(cliente));
             when(servicioRepository.findById("serv-001")).thenReturn(Optional.of(servicio));
-            when(disponibilidadRepository.verificarDisponibilidad(anyString(), any(), any()))
-                    .thenReturn(true);
+            when(disponibilidadRepository.findCandidatasParaHora(anyString(), any(), any(), any()))
+                    .thenReturn(List.of(disponibilidad));
+            when(disponibilidadRepository.reservarCupo("disp-001")).thenReturn(1);
             when(reservaMapper.toEntity(crearReservaRequest)).thenReturn(reserva);
             when(reservaRepository.save(any(Reserva.class))).thenReturn(reserva);
-            when(disponibilidadRepository.findByServicioAndFecha(anyString(), any()))
-                    .thenReturn(List.of(disponibilidad));
             when(reservaMapper.toResponse(reserva)).thenReturn(reservaResponse);
 
             // Act
@@ -168,8 +220,17 @@ class ReservaServiceTest {
             assertThat(resultado).isNotNull();
             assertThat(resultado.getIdReserva()).isEqualTo("res-001");
             assertThat(resultado.getEstado()).isEqualTo(EstadoReserva.PENDIENTE);
-            verify(reservaRepository).save(any(Reserva.class));
-            verify(disponibilidadRepository).save(any(DisponibilidadServicio.class));
+            verify(reservaRepository).save(argThat(r -> r.getDisponibilidad() == disponibilidad
+                    && r.getDuracionMinutos() == 60
+                    && LocalTime.of(11, 0).equals(r.getHoraFin())));
+            verify(agendaReservas).ocupar("serv-001", crearReservaRequest.getFechaReserva(),
+                    LocalTime.of(10, 0), LocalTime.of(11, 0));
+            verify(disponibilidadRepository).reservarCupo("disp-001");
+            verify(disponibilidadRepository, never()).save(any(DisponibilidadServicio.class));
+            verify(indiceDisponibilidad).registrarCupoTomado(
+                    "serv-001", crearReservaRequest.getFechaReserva(), "disp-001");
+            verify(cacheServicios).invalidar("serv-001");
+            verify(expiracionReservas).programar(reserva.getIdReserva(), reserva.getFechaCreacion());
         }
 
         @Test
@@ -223,8 +284,8 @@ class ReservaServiceTest {
             // Arrange
             when(clienteRepository.findById("cli-001")).thenReturn(Optional.of(cliente));
             when(servicioRepository.findById("serv-001")).thenReturn(Optional.of(servicio));
-            when(disponibilidadRepository.verificarDisponibilidad(anyString(), any(), any()))
-                    .thenReturn(false);
+            when(disponibilidadRepository.findCandidatasParaHora(anyString(), any(), any(), any()))
+                    .thenReturn(Collections.emptyList());
 
             // Act & Assert
             assertThatThrownBy(() -> reservaService.crearReserva("cli-001", crearReservaRequest))
@@ -235,27 +296,235 @@ class ReservaServiceTest {
         }
 
         @Test
-        @DisplayName("Debe reducir cupos y marcar como no disponible cuando cupos llegan a 0")
-        void crearReserva_UltimoCupo_MarcaNoDisponible() {
+        @DisplayName("Debe rechazar un horario que se cruza con otra reserva sin tomar cupo")
+        void crearReserva_HorarioSeCruza_LanzaExcepcion() {
+            // Arrange: 10:30-12:00 se cruza con una reserva existente de 10:00-11:00
+            crearReservaRequest.setHoraReserva(LocalTime.of(10, 30));
+            crearReservaRequest.setDuracionMinutos(90);
+            when(clienteRepository.findById("cli-001")).thenReturn(Optional.of(cliente));
+            when(servicioRepository.findById("serv-001")).thenReturn(Optional.of(servicio));
+            when(agendaReservas.ocupar("serv-001", crearReservaRequest.getFechaReserva(),
+                    LocalTime.of(10, 30), LocalTime.of(12, 0))).thenReturn(false);
+
+            // Act & Assert
+            assertThatThrownBy(() -> reservaService.crearReserva("cli-001", crearReservaRequest))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessage("El horario seleccionado se cruza con otra reserva del servicio");
+
+            verify(disponibilidadRepository, never()).reservarCupo(anyString());
+            verify(reservaRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Debe rechazar una reserva que pasa de la medianoche")
+        void crearReserva_PasaDeMedianoche_LanzaExcepcion() {
             // Arrange
-            disponibilidad.setCuposDisponibles(1);
+            crearReservaRequest.setHoraReserva(LocalTime.of(23, 30));
             when(clienteRepository.findById("cli-001")).thenReturn(Optional.of(cliente));
             when(servicioRepository.findById("serv-001")).thenReturn(Optional.of(servicio));
-            when(disponibilidadRepository.verificarDisponibilidad(anyString(), any(), any()))
-                    .thenReturn(true);
+
+            // Act & Assert
+            assertThatThrownBy(() -> reservaService.crearReserva("cli-001", crearReservaRequest))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessage("La reserva no puede pasar de la medianoche");
+
+            verify(agendaReservas, never()).ocupar(anyString(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Si no hay cupo debe devolver el horario ocupado en la agenda")
+        void crearReserva_SinCupo_LiberaHorarioEnAgenda() {
+            // Arrange
+            when(clienteRepository.findById("cli-001")).thenReturn(Optional.of(cliente));
+            when(servicioRepository.findById("serv-001")).thenReturn(Optional.of(servicio));
+            when(disponibilidadRepository.findCandidatasParaHora(anyString(), any(), any(), any()))
+                    .thenReturn(Collections.emptyList());
+
+            // Act & Assert
+            assertThatThrownBy(() -> reservaService.crearReserva("cli-001", crearReservaRequest))
+                    .isInstanceOf(BusinessException.class);
+
+            verify(agendaReservas).liberar("serv-001", crearReservaRequest.getFechaReserva(),
+                    LocalTime.of(10, 0), LocalTime.of(11, 0));
+        }
+
+        @Test
+        @DisplayName("Debe buscar franjas que contengan la reserva completa, no sólo su hora de inicio")
+        void crearReserva_ReservaLarga_BuscaFranjaHastaSuFin() {
+            // Arrange: 120 minutos desde las 21:00; la franja de 18:00 a 22:00 no la contiene
+            crearReservaRequest.setHoraReserva(LocalTime.of(21, 0));
+            crearReservaRequest.setDuracionMinutos(120);
+            when(clienteRepository.findById("cli-001")).thenReturn(Optional.of(cliente));
+            when(servicioRepository.findById("serv-001")).thenReturn(Optional.of(servicio));
+            when(disponibilidadRepository.findCandidatasParaHora(anyString(), any(), any(), any()))
+                    .thenReturn(Collections.emptyList());
+
+            // Act & Assert
+            assertThatThrownBy(() -> reservaService.crearReserva("cli-001", crearReservaRequest))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessage("No hay disponibilidad para la fecha y hora seleccionadas");
+
+            verify(disponibilidadRepository).findCandidatasParaHora("serv-001",
+                    crearReservaRequest.getFechaReserva(), LocalTime.of(21, 0), LocalTime.of(23, 0));
+            verify(expansionReglas).materializar("serv-001",
+                    crearReservaRequest.getFechaReserva(), LocalTime.of(21, 0), LocalTime.of(23, 0));
+        }
+
+        @Test
+        @DisplayName("Debe lanzar BusinessException cuando otra reserva tomó el último cupo")
+        void crearReserva_CupoTomadoPorOtraReserva_LanzaExcepcion() {
+            // Arrange
+            when(clienteRepository.findById("cli-001")).thenReturn(Optional.of(cliente));
+            when(servicioRepository.findById("serv-001")).thenReturn(Optional.of(servicio));
+            when(disponibilidadRepository.findCandidatasParaHora(anyString(), any(), any(), any()))
+                    .thenReturn(List.of(disponibilidad));
+            when(disponibilidadRepository.reservarCupo("disp-001")).thenReturn(0);
+
+            // Act & Assert
+            assertThatThrownBy(() -> reservaService.crearReserva("cli-001", crearReservaRequest))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessage("No hay disponibilidad para la fecha y hora seleccionadas");
+
+            verify(reservaRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Debe tomar el cupo de la siguiente franja cuando la primera se agotó")
+        void crearReserva_PrimeraFranjaAgotada_UsaSiguienteFranja() {
+            // Arrange
+            DisponibilidadServicio otraFranja = DisponibilidadServicio.builder()
+                    .idDisponibilidad("disp-002")
+                    .servicio(servicio)
+                    .fecha(LocalDate.now().plusDays(1))
+                    .horaInicio(LocalTime.of(9, 0))
+                    .horaFin(LocalTime.of(12, 0))
+                    .disponible(true)
+                    .cuposDisponibles(2)
+                    .build();
+            when(clienteRepository.findById("cli-001")).thenReturn(Optional.of(cliente));
+            when(servicioRepository.findById("serv-001")).thenReturn(Optional.of(servicio));
+            when(disponibilidadRepository.findCandidatasParaHora(anyString(), any(), any(), any()))
+                    .thenReturn(List.of(disponibilidad, otraFranja));
+            when(disponibilidadRepository.reservarCupo("disp-001")).thenReturn(0);
+            when(disponibilidadRepository.reservarCupo("disp-002")).thenReturn(1);
             when(reservaMapper.toEntity(crearReservaRequest)).thenReturn(reserva);
             when(reservaRepository.save(any(Reserva.class))).thenReturn(reserva);
-            when(disponibilidadRepository.findByServicioAndFecha(anyString(), any()))
+            when(reservaMapper.toResponse(reserva)).thenReturn(reservaResponse);
+
+            // Act
+            reservaService.crearReserva("cli-001", crearReservaRequest);
+
+            // Assert
+            verify(reservaRepository).save(argThat(r -> r.getDisponibilidad() == otraFranja));
+        }
+
+        @Test
+        @DisplayName("Debe materializar la franja de una regla semanal y tomar su cupo")
+        void crearReserva_FranjaDeRegla_SeMaterializaYReserva() {
+            // Arrange
+            when(clienteRepository.findById("cli-001")).thenReturn(Optional.of(cliente));
+            when(servicioRepository.findById("serv-001")).thenReturn(Optional.of(servicio));
+            when(disponibilidadRepository.findCandidatasParaHora(anyString(), any(), any(), any()))
+                    .thenReturn(Collections.emptyList())
                     .thenReturn(List.of(disponibilidad));
+            when(expansionReglas.materializar("serv-001", crearReservaRequest.getFechaReserva(),
+                    crearReservaRequest.getHoraReserva(), LocalTime.of(11, 0))).thenReturn(1);
+            when(disponibilidadRepository.reservarCupo("disp-001")).thenReturn(1);
+            when(reservaMapper.toEntity(crearReservaRequest)).thenReturn(reserva);
+            when(reservaRepository.save(any(Reserva.class))).thenReturn(reserva);
             when(reservaMapper.toResponse(reserva)).thenReturn(reservaResponse);
 
             // Act
             reservaService.crearReserva("cli-001", crearReservaRequest);
 
             // Assert
-            assertThat(disponibilidad.getCuposDisponibles()).isZero();
-            assertThat(disponibilidad.getDisponible()).isFalse();
-            verify(disponibilidadRepository).save(disponibilidad);
+            verify(disponibilidadRepository, times(2)).findCandidatasParaHora(anyString(), any(), any(), any());
+            verify(indiceDisponibilidad).registrarCupoTomado(
+                    "serv-001", crearReservaRequest.getFechaReserva(), "disp-001");
+        }
+    }
+
+    // ==================== TESTS CREAR RESERVAS EN LOTE ====================
+    @Nested
+    @DisplayName("Tests para crearReservasLote()")
+    class CrearReservasLoteTests {
+
+        private List<CrearReservaRequest> semanas;
+
+        @BeforeEach
+        void setUp() {
+            semanas = new ArrayList<>();
+            for (int i = 1; i <= 3; i++) {
+                semanas.add(CrearReservaRequest.builder()
+                        .idServicio("serv-001")
+                        .fechaReserva(LocalDate.now().plusWeeks(i))
+                        .horaReserva(LocalTime.of(10, 0))
+                        .build());
+            }
+
+            when(clienteRepository.findById("cli-001")).thenReturn(Optional.of(cliente));
+            when(servicioRepository.findAllById(any())).thenReturn(List.of(servicio));
+            when(disponibilidadRepository.findCandidatasParaHora(anyString(), any(), any(), any()))
+                    .thenReturn(List.of(disponibilidad));
+            // La segunda semana ya no tiene cupos
+            when(disponibilidadRepository.findCandidatasParaHora("serv-001", semanas.get(1).getFechaReserva(),
+                    LocalTime.of(10, 0), LocalTime.of(11, 0))).thenReturn(Collections.emptyList());
+            when(disponibilidadRepository.reservarCupo("disp-001")).thenReturn(1);
+            when(reservaMapper.toEntity(any(CrearReservaRequest.class))).thenAnswer(inv -> {
+                CrearReservaRequest r = inv.getArgument(0);
+                return Reserva.builder()
+                        .fechaReserva(r.getFechaReserva())
+                        .horaReserva(r.getHoraReserva())
+                        .build();
+            });
+        }
+
+        @Test
+        @DisplayName("En modo PARCIAL debe crear las reservas con cupo y reportar las fallidas")
+        void crearReservasLote_Parcial_CreaLasDisponibles() {
+            // Arrange
+            when(reservaRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+            when(reservaMapper.toResponse(any(Reserva.class))).thenReturn(reservaResponse);
+            CrearReservasLoteRequest request = CrearReservasLoteRequest.builder()
+                    .reservas(semanas)
+                    .modo(ModoLote.PARCIAL)
+                    .build();
+
+            // Act
+            ReservasLoteResponse resultado = reservaService.crearReservasLote("cli-001", request);
+
+            // Assert
+            assertThat(resultado.getCreadas()).isEqualTo(2);
+            assertThat(resultado.getFallidas()).isEqualTo(1);
+            assertThat(resultado.getResultados()).extracting(ResultadoReservaLoteResponse::getExitosa)
+                    .containsExactly(true, false, true);
+            assertThat(resultado.getResultados().get(1).getError())
+                    .isEqualTo("No hay disponibilidad para la fecha y hora seleccionadas");
+            verify(reservaRepository, times(1)).saveAll(argThat(l -> ((List<?>) l).size() == 2));
+            verify(servicioRepository, never()).findById(anyString());
+            verify(expiracionReservas, times(2)).programar(any(), any());
+            verify(agendaReservas).bloquearDias(Map.of("serv-001",
+                    semanas.stream().map(CrearReservaRequest::getFechaReserva).collect(Collectors.toSet())));
+        }
+
+        @Test
+        @DisplayName("Por defecto (TODO_O_NADA) no debe crear ninguna reserva y debe devolver los cupos tomados")
+        void crearReservasLote_TodoONada_DevuelveCupos() {
+            // Arrange: sin modo, el lote es TODO_O_NADA
+            CrearReservasLoteRequest request = CrearReservasLoteRequest.builder()
+                    .reservas(semanas)
+                    .build();
+
+            // Act
+            ReservasLoteResponse resultado = reservaService.crearReservasLote("cli-001", request);
+
+            // Assert
+            assertThat(resultado.getCreadas()).isZero();
+            assertThat(resultado.getFallidas()).isEqualTo(3);
+            assertThat(resultado.getResultados()).hasSize(1);
+            assertThat(resultado.getResultados().get(0).getIndice()).isEqualTo(1);
+            verify(disponibilidadRepository, times(1)).liberarCupo("disp-001");
+            verify(reservaRepository, never()).saveAll(any());
         }
     }
 
@@ -512,6 +781,24 @@ class ReservaServiceTest {
                     r.getEstado() == EstadoReserva.RECHAZADA));
         }
 
+        @Test
+        @DisplayName("Debe devolver el cupo a la disponibilidad al rechazar")
+        void rechazarReserva_ConCupoTomado_LiberaCupo() {
+            // Arrange
+            reserva.setDisponibilidad(disponibilidad);
+            when(reservaRepository.findById("res-001")).thenReturn(Optional.of(reserva));
+            when(reservaRepository.save(any(Reserva.class))).thenReturn(reserva);
+
+            // Act
+            reservaService.rechazarReserva("res-001", "prov-001", "Cancha en mantenimiento");
+
+            // Assert
+            verify(disponibilidadRepository).liberarCupo("disp-001");
+            verify(indiceDisponibilidad).registrarCupoLiberado(
+                    "serv-001", reserva.getFechaReserva(), "disp-001");
+            verify(cacheServicios).invalidar("serv-001");
+        }
+
         @Test
         @DisplayName("Debe lanzar ForbiddenException cuando proveedor no es dueño")
         void rechazarReserva_ProveedorNoDueno_LanzaExcepcion() {
@@ -558,6 +845,38 @@ class ReservaServiceTest {
                             r.getNotasCliente().equals("Ya no puedo asistir")));
         }
 
+        @Test
+        @DisplayName("Debe devolver el cupo a la disponibilidad al cancelar")
+        void cancelarReserva_ConCupoTomado_LiberaCupo() {
+            // Arrange
+            reserva.setDisponibilidad(disponibilidad);
+            when(reservaRepository.findById("res-001")).thenReturn(Optional.of(reserva));
+
+            // Act
+            reservaService.cancelarReserva("res-001", "cli-001", cancelarRequest);
+
+            // Assert
+            verify(disponibilidadRepository).liberarCupo("disp-001");
+            verify(indiceDisponibilidad).registrarCupoLiberado(
+                    "serv-001", reserva.getFechaReserva(), "disp-001");
+        }
+
+        @Test
+        @DisplayName("No debe liberar cupo al cancelar una reserva ya rechazada")
+        void cancelarReserva_ReservaRechazada_NoLiberaCupo() {
+            // Arrange
+            reserva.setDisponibilidad(disponibilidad);
+            reserva.setEstado(EstadoReserva.RECHAZADA);
+            when(reservaRepository.findById("res-001")).thenReturn(Optional.of(reserva));
+
+            // Act
+            reservaService.cancelarReserva("res-001", "cli-001", cancelarRequest);
+
+            // Assert
+            verify(disponibilidadRepository, never()).liberarCupo(anyString());
+            verifyNoInteractions(indiceDisponibilidad);
+        }
+
         @Test
         @DisplayName("Debe lanzar ForbiddenException cuando cliente no es dueño")
         void cancelarReserva_ClienteNoDueno_LanzaExcepcion() {
@@ -641,9 +960,11 @@ class ReservaServiceTest {
         @DisplayName("Debe retornar true cuando hay disponibilidad")
         void verificarDisponibilidad_HayDisponibilidad_RetornaTrue() {
             // Arrange
-            when(disponibilidadRepository.verificarDisponibilidad(
+            when(indiceDisponibilidad.verificarDisponibilidad(
                     eq("serv-001"), any(LocalDate.class), any(LocalTime.class)))
                     .thenReturn(true);
+            when(agendaReservas.estaLibre("serv-001", crearReservaRequest.getFechaReserva(),
+                    LocalTime.of(10, 0), LocalTime.of(11, 0))).thenReturn(true);
 
             // Act
             boolean resultado = reservaService
@@ -657,7 +978,7 @@ class ReservaServiceTest {
         @DisplayName("Debe retornar false cuando no hay disponibilidad")
         void verificarDisponibilidad_NoHayDisponibilidad_RetornaFalse() {
             // Arrange
-            when(disponibilidadRepository.verificarDisponibilidad(
+            when(indiceDisponibilidad.verificarDisponibilidad(
                     eq("serv-001"), any(LocalDate.class), any(LocalTime.class)))
                     .thenReturn(false);
 
@@ -667,6 +988,7 @@ class ReservaServiceTest {
 
             // Assert
             assertThat(resultado).isFalse();
+            verifyNoInteractions(disponibilidadRepository);
         }
     }
 
@@ -676,47 +998,30 @@ class ReservaServiceTest {
     class CancelarReservasExpiradasTests {
 
         @Test
-        @DisplayName("Debe cancelar reservas pendientes antiguas y retornar cantidad")
+        @DisplayName("Debe cancelar en lote las reservas pendientes vencidas y retornar cantidad")
         void cancelarReservasExpiradas_HayReservasExpiradas_CancelaYRetornaCantidad() {
             // Arrange
-            Reserva reservaExpirada1 = Reserva.builder()
-                    .idReserva("res-exp-001")
-                    .estado(EstadoReserva.PENDIENTE)
-                    .cliente(cliente)
-                    .build();
-            Reserva reservaExpirada2 = Reserva.builder()
-                    .idReserva("res-exp-002")
-                    .estado(EstadoReserva.PENDIENTE)
-                    .cliente(cliente)
-                    .build();
-
-            List<Reserva> reservasExpiradas = List.of(reservaExpirada1, reservaExpirada2);
-            when(reservaRepository.findReservasPendientesAntiguas(any(LocalDateTime.class)))
-                    .thenReturn(reservasExpiradas);
+            when(expiracionReservas.barrerPendientesAntiguas()).thenReturn(2);
 
             // Act
             Integer resultado = reservaService.cancelarReservasExpiradas();
 
             // Assert
             assertThat(resultado).isEqualTo(2);
-            assertThat(reservaExpirada1.getEstado()).isEqualTo(EstadoReserva.CANCELADA);
-            assertThat(reservaExpirada2.getEstado()).isEqualTo(EstadoReserva.CANCELADA);
-            verify(reservaRepository).saveAll(reservasExpiradas);
+            verify(reservaRepository, never()).saveAll(any());
         }
 
         @Test
         @DisplayName("Debe retornar cero cuando no hay reservas expiradas")
         void cancelarReservasExpiradas_NoHayExpiradas_RetornaCero() {
             // Arrange
-            when(reservaRepository.findReservasPendientesAntiguas(any(LocalDateTime.class)))
-                    .thenReturn(Collections.emptyList());
+            when(expiracionReservas.barrerPendientesAntiguas()).thenReturn(0);
 
             // Act
             Integer resultado = reservaService.cancelarReservasExpiradas();
 
             // Assert
             assertThat(resultado).isZero();
-            verify(reservaRepository).saveAll(Collections.emptyList());
         }
     }
 
@@ -744,7 +1049,7 @@ class ReservaServiceTest {
                     .pageSize(10)
                     .build();
 
-            when(reservaRepository.findAll(any(Pageable.class))).thenReturn(pageReservas);
+            when(reservaRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(pageReservas);
             when(reservaMapper.toResponse(reserva)).thenReturn(reservaResponse);
             doReturn(pageResponse).when(pageMapper).toPageResponse(any());
 
@@ -774,18 +1079,146 @@ class ReservaServiceTest {
                     .content(Collections.emptyList())
                     .build();
 
-            when(reservaRepository.findAll(any(Pageable.class))).thenReturn(pageReservas);
+            when(reservaRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(pageReservas);
             doReturn(pageResponse).when(pageMapper).toPageResponse(any());
 
             // Act
             reservaService.filtrarReservas(filtros);
 
-            // Assert
-            verify(reservaRepository).findAll(argThat((Pageable p) ->
+            // Assert: el id desempata para que el orden sea total
+            verify(reservaRepository).findAll(any(Specification.class), argThat((Pageable p) ->
                     p.getSort().getOrderFor("costoTotal") != null &&
-                            p.getSort().getOrderFor("costoTotal").getDirection() == Sort.Direction.ASC
+                            p.getSort().getOrderFor("costoTotal").getDirection() == Sort.Direction.ASC &&
+                            p.getSort().getOrderFor("idReserva") != null
             ));
         }
+
+        @Test
+        @DisplayName("Debe rechazar un campo de orden no permitido")
+        void filtrarReservas_OrdenNoPermitido_LanzaExcepcion() {
+            // Arrange
+            FiltroReservaRequest filtros = FiltroReservaRequest.builder()
+                    .pagina(0)
+                    .tamano(20)
+                    .ordenarPor("notasCliente")
+                    .direccion("ASC")
+                    .build();
+
+            // Act & Assert
+            assertThatThrownBy(() -> reservaService.filtrarReservas(filtros))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("notasCliente");
+
+            verify(reservaRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("Por cursor debe devolver el cursor de la última fila cuando hay más resultados")
+        void filtrarReservasPorCursor_HayMas_RetornaSiguienteCursor() {
+            // Arrange
+            Reserva otra = Reserva.builder()
+                    .idReserva("res-002")
+                    .fechaReserva(reserva.getFechaReserva().minusDays(1))
+                    .horaReserva(LocalTime.of(9, 0))
+                    .build();
+
+            FiltroReservaRequest filtros = FiltroReservaRequest.builder()
+                    .tamano(1)
+                    .ordenarPor("fechaReserva")
+                    .direccion("DESC")
+                    .build();
+
+            doReturn(List.of(reserva, otra)).when(reservaRepository).findBy(any(Specification.class), any());
+            when(reservaMapper.toResponse(reserva)).thenReturn(reservaResponse);
+            mapearPaginaCursor();
+
+            // Act
+            CursorPageResponse<ReservaResponse> resultado = reservaService.filtrarReservasPorCursor(filtros);
+
+            // Assert
+            assertThat(resultado.getContent()).containsExactly(reservaResponse);
+            assertThat(resultado.getHasNext()).isTrue();
+            assertThat(CursorKeyset.decodificar(resultado.getNextCursor(), "fechaReserva:DESC", 3))
+                    .containsExactly(reserva.getFechaReserva().toString(),
+                            reserva.getHoraReserva().toString(), reserva.getIdReserva());
+        }
+
+        @Test
+        @DisplayName("Por cursor la última página no debe incluir cursor siguiente")
+        void filtrarReservasPorCursor_UltimaPagina_SinCursor() {
+            // Arrange
+            FiltroReservaRequest filtros = FiltroReservaRequest.builder()
+                    .tamano(10)
+                    .ordenarPor("fechaReserva")
+                    .direccion("DESC")
+                    .cursor(CursorKeyset.codificar("fechaReserva:DESC", LocalDate.now(), LocalTime.NOON, "res-009"))
+                    .build();
+
+            doReturn(List.of(reserva)).when(reservaRepository).findBy(any(Specification.class), any());
+            when(reservaMapper.toResponse(reserva)).thenReturn(reservaResponse);
+            mapearPaginaCursor();
+
+            // Act
+            CursorPageResponse<ReservaResponse> resultado = reservaService.filtrarReservasPorCursor(filtros);
+
+            // Assert
+            assertThat(resultado.getContent()).hasSize(1);
+            assertThat(resultado.getHasNext()).isFalse();
+            assertThat(resultado.getNextCursor()).isNull();
+        }
+
+        @Test
+        @DisplayName("Por cursor debe rechazar un cursor generado con otro orden")
+        void filtrarReservasPorCursor_CursorDeOtroOrden_LanzaExcepcion() {
+            // Arrange
+            FiltroReservaRequest filtros = FiltroReservaRequest.builder()
+                    .tamano(10)
+                    .ordenarPor("costoTotal")
+                    .direccion("ASC")
+                    .cursor(CursorKeyset.codificar("fechaReserva:DESC", LocalDate.now(), LocalTime.NOON, "res-009"))
+                    .build();
+
+            // Act & Assert
+            assertThatThrownBy(() -> reservaService.filtrarReservasPorCursor(filtros))
+                    .isInstanceOf(BusinessException.class);
+
+            verify(reservaRepository, never()).findBy(any(Specification.class), any());
+        }
+
+        @Test
+        @DisplayName("El listado por cursor del cliente debe rechazar un tamaño de página fuera de rango")
+        void listarPorClientePorCursor_TamanoInvalido_LanzaExcepcion() {
+            assertThatThrownBy(() -> reservaService.listarPorClientePorCursor("cli-001", null, 0))
+                    .isInstanceOf(BusinessException.class);
+            assertThatThrownBy(() -> reservaService.listarPorClientePorCursor("cli-001", null, 1000))
+                    .isInstanceOf(BusinessException.class);
+
+            verify(reservaRepository, never()).findBy(any(Specification.class), any());
+        }
+
+        @Test
+        @DisplayName("El listado por cursor del proveedor debe mapear la página sin consultar totales")
+        void listarPorProveedorPorCursor_PrimeraPagina_RetornaContenido() {
+            // Arrange
+            doReturn(List.of(reserva)).when(reservaRepository).findBy(any(Specification.class), any());
+            when(reservaMapper.toResponse(reserva)).thenReturn(reservaResponse);
+            mapearPaginaCursor();
+
+            // Act
+            CursorPageResponse<ReservaResponse> resultado =
+                    reservaService.listarPorProveedorPorCursor("prov-001", null, 20);
+
+            // Assert
+            assertThat(resultado.getContent()).containsExactly(reservaResponse);
+            assertThat(resultado.getHasNext()).isFalse();
+            verify(reservaRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+        }
+
+        private void mapearPaginaCursor() {
+            PageMapper real = new PageMapper();
+            when(pageMapper.toCursorPageResponse(any(), any())).thenAnswer(inv ->
+                    real.toCursorPageResponse(inv.getArgument(0), inv.getArgument(1)));
+        }
     }
 
     // ==================== TESTS ADICIONALES DE EDGE CASES ====================
@@ -800,12 +1233,11 @@ class ReservaServiceTest {
             crearReservaRequest.setNotasCliente(null);
             when(clienteRepository.findById("cli-001")).thenReturn(Optional.of(cliente));
             when(servicioRepository.findById("serv-001")).thenReturn(Optional.of(servicio));
-            when(disponibilidadRepository.verificarDisponibilidad(anyString(), any(), any()))
-                    .thenReturn(true);
+            when(disponibilidadRepository.findCandidatasParaHora(anyString(), any(), any(), any()))
+                    .thenReturn(List.of(disponibilidad));
+            when(disponibilidadRepository.reservarCupo("disp-001")).thenReturn(1);
             when(reservaMapper.toEntity(crearReservaRequest)).thenReturn(reserva);
             when(reservaRepository.save(any(Reserva.class))).thenReturn(reserva);
-            when(disponibilidadRepository.findByServicioAndFecha(anyString(), any()))
-                    .thenReturn(Collections.emptyList());
             when(reservaMapper.toResponse(reserva)).thenReturn(reservaResponse);
 
             // Act
@@ -854,4 +1286,4 @@ class ReservaServiceTest {
             assertThat(resultado.getSuccess()).isTrue();
         }
     }
-}
\ No newline at end of file
+}
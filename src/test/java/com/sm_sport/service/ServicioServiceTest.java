@@ -1,35 +1,84 @@
 package com.sm_sport.service;
 
+import com.sm_sport.dto.request.BusquedaServicioRequest;
 import com.sm_sport.dto.request.CrearServicioRequest;
 import com.sm_sport.dto.request.DisponibilidadRequest;
+import com.sm_sport.dto.request.ReglaDisponibilidadRequest;
+import com.sm_sport.dto.response.AutocompletadoResponse;
+import com.sm_sport.dto.response.BusquedaServicioResponse;
+import com.sm_sport.dto.response.CalendarioDisponibilidadResponse;
+import com.sm_sport.dto.response.GrupoMapaResponse;
+import com.sm_sport.dto.response.ImportacionServiciosResponse;
+import com.sm_sport.dto.response.FacetasResponse;
 import com.sm_sport.dto.response.MessageResponse;
+import com.sm_sport.dto.response.PageResponse;
+import com.sm_sport.dto.response.ResenaResponse;
+import com.sm_sport.dto.response.ServicioDetalleResponse;
 import com.sm_sport.dto.response.ServicioResponse;
 import com.sm_sport.exception.BusinessException;
 import com.sm_sport.exception.ResourceNotFoundException;
+import com.sm_sport.index.AgrupadorMapa;
+import com.sm_sport.index.Autocompletado;
+import com.sm_sport.index.CacheServicios;
+import com.sm_sport.index.ClasificacionServicios;
+import com.sm_sport.index.CargasCompartidas;
+import com.sm_sport.index.DiaDisponibilidad;
+import com.sm_sport.index.IndiceDisponibilidad;
+import com.sm_sport.index.IndiceGeografico;
+import com.sm_sport.index.IndiceTexto;
+import com.sm_sport.index.RecomendacionesServicios;
 import com.sm_sport.mapper.DisponibilidadMapper;
 import com.sm_sport.mapper.PageMapper;
+import com.sm_sport.mapper.ResenaMapper;
 import com.sm_sport.mapper.ServicioMapper;
 import com.sm_sport.mapper.UbicacionMapper;
 import com.sm_sport.model.entity.DisponibilidadServicio;
 import com.sm_sport.model.entity.Proveedor;
+import com.sm_sport.model.entity.ReglaDisponibilidad;
+import com.sm_sport.model.entity.Resena;
 import com.sm_sport.model.entity.Reserva;
 import com.sm_sport.model.entity.Servicio;
 import com.sm_sport.model.entity.UbicacionServicio;
 import com.sm_sport.model.enums.EstadoReserva;
 import com.sm_sport.model.enums.EstadoServicio;
+import com.sm_sport.model.enums.FormatoImportacion;
 import com.sm_sport.repository.DisponibilidadServicioRepository;
+import com.sm_sport.repository.ExcepcionDisponibilidadRepository;
 import com.sm_sport.repository.ProveedorRepository;
+import com.sm_sport.repository.ReglaDisponibilidadRepository;
+import com.sm_sport.repository.ResenaRepository;
 import com.sm_sport.repository.ServicioRepository;
+import com.sm_sport.repository.ServicioRepositoryCustom;
 import com.sm_sport.repository.UbicacionServicioRepository;
 import com.sm_sport.service.impl.ServicioServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -57,6 +106,48 @@ class ServicioServiceTest {
     @Mock
     private DisponibilidadServicioRepository disponibilidadRepository;
 
+    @Mock
+    private ReglaDisponibilidadRepository reglaRepository;
+
+    @Mock
+    private ExcepcionDisponibilidadRepository excepcionRepository;
+
+    @Mock
+    private IndiceDisponibilidad indiceDisponibilidad;
+
+    @Mock
+    private IndiceGeografico indiceGeografico;
+
+    @Mock
+    private AgrupadorMapa agrupadorMapa;
+
+    @Mock
+    private IndiceTexto indiceTexto;
+
+    @Mock
+    private Autocompletado autocompletado;
+
+    @Mock
+    private ClasificacionServicios clasificacionServicios;
+
+    @Mock
+    private RecomendacionesServicios recomendacionesServicios;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private CacheServicios cacheServicios = new CacheServicios(new CargasCompartidas(new SimpleMeterRegistry()));
+
     @Mock
     private ServicioMapper servicioMapper;
 
@@ -69,6 +160,12 @@ class ServicioServiceTest {
     @Mock
     private PageMapper pageMapper;
 
+    @Mock
+    private ResenaRepository resenaRepository;
+
+    @Mock
+    private ResenaMapper resenaMapper;
+
     // objetos reutilizables en pruebas
     private Proveedor proveedor;
     private Servicio servicio;
@@ -150,6 +247,81 @@ class ServicioServiceTest {
         verify(proveedorRepository).save(proveedor);
     }
 
+    @Test
+    void importarServicios_guardaFilasValidasEInformaErrores() {
+        // Arrange: una fila válida, una sin precio y una con JSON inválido
+        String ndjson = String.join("\n",
+                "{\"nombre\":\"Cancha Sintética 1\",\"deporte\":\"Fútbol\",\"precio\":80000," +
+                        "\"ubicacion\":{\"direccion\":\"Calle 1\",\"ciudad\":\"Santa Marta\"," +
+                        "\"departamento\":\"Magdalena\",\"pais\":\"Colombia\"}}",
+                "{\"nombre\":\"Cancha Sintética 2\",\"deporte\":\"Fútbol\"," +
+                        "\"ubicacion\":{\"direccion\":\"Calle 1\",\"ciudad\":\"Santa Marta\"," +
+                        "\"departamento\":\"Magdalena\",\"pais\":\"Colombia\"}}",
+                "",
+                "{\"nombre\": ");
+        when(proveedorRepository.findById("prov-1")).thenReturn(Optional.of(proveedor));
+        when(proveedorRepository.getReferenceById("prov-1")).thenReturn(proveedor);
+        when(servicioMapper.toEntity(any(CrearServicioRequest.class))).thenAnswer(invocation ->
+                Servicio.builder().nombre(((CrearServicioRequest) invocation.getArgument(0)).getNombre()).build());
+        when(ubicacionMapper.toEntity(any())).thenAnswer(invocation -> new UbicacionServicio());
+
+        // Act
+        ImportacionServiciosResponse resultado = servicioService.importarServicios("prov-1",
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), FormatoImportacion.NDJSON);
+
+        // Assert
+        assertEquals(3, resultado.getFilas());
+        assertEquals(1, resultado.getImportadas());
+        assertEquals(2, resultado.getFallidas());
+        assertEquals(List.of(2, 4), resultado.getErrores().stream().map(e -> e.getFila()).toList());
+        assertTrue(resultado.getErrores().get(0).getError().startsWith("precio"));
+
+        ArgumentCaptor<List<Servicio>> guardados = ArgumentCaptor.forClass(List.class);
+        verify(servicioRepository, times(1)).saveAll(guardados.capture());
+        assertEquals("Cancha Sintética 1", guardados.getValue().get(0).getNombre());
+        assertEquals(EstadoServicio.PUBLICADO, guardados.getValue().get(0).getEstado());
+        verify(proveedorRepository, times(1)).sumarServiciosPublicados("prov-1", 1);
+        verify(proveedorRepository, never()).save(any());
+    }
+
+    @Test
+    void importarServicios_loteRechazado_reintentaFilaPorFilaEInformaSoloLasQueFallan() {
+        // Arrange: dos filas válidas; la base de datos rechaza la segunda
+        String ndjson = String.join("\n",
+                "{\"nombre\":\"Cancha Sintética 1\",\"deporte\":\"Fútbol\",\"precio\":80000," +
+                        "\"ubicacion\":{\"direccion\":\"Calle 1\",\"ciudad\":\"Santa Marta\"," +
+                        "\"departamento\":\"Magdalena\",\"pais\":\"Colombia\"}}",
+                "{\"nombre\":\"Cancha Sintética 2\",\"deporte\":\"Fútbol\",\"precio\":80000," +
+                        "\"ubicacion\":{\"direccion\":\"Calle 1\",\"ciudad\":\"Santa Marta\"," +
+                        "\"departamento\":\"Magdalena\",\"pais\":\"Colombia\"}}");
+        when(proveedorRepository.findById("prov-1")).thenReturn(Optional.of(proveedor));
+        when(proveedorRepository.getReferenceById("prov-1")).thenReturn(proveedor);
+        when(servicioMapper.toEntity(any(CrearServicioRequest.class))).thenAnswer(invocation ->
+                Servicio.builder().nombre(((CrearServicioRequest) invocation.getArgument(0)).getNombre()).build());
+        when(ubicacionMapper.toEntity(any())).thenAnswer(invocation -> new UbicacionServicio());
+        when(servicioRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Servicio> servicios = invocation.getArgument(0);
+            if (servicios.stream().anyMatch(s -> s.getNombre().equals("Cancha Sintética 2"))) {
+                throw new DataIntegrityViolationException("valor demasiado largo");
+            }
+            return servicios;
+        });
+
+        // Act
+        ImportacionServiciosResponse resultado = servicioService.importarServicios("prov-1",
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), FormatoImportacion.NDJSON);
+
+        // Assert: el lote completo y luego cada fila en su propia transacción
+        assertEquals(2, resultado.getFilas());
+        assertEquals(1, resultado.getImportadas());
+        assertEquals(1, resultado.getFallidas());
+        assertEquals(List.of(2), resultado.getErrores().stream().map(e -> e.getFila()).toList());
+        assertTrue(resultado.getErrores().get(0).getError().contains("valor demasiado largo"));
+        verify(servicioRepository, times(3)).saveAll(anyList());
+        verify(entityManager, times(3)).clear();
+        verify(proveedorRepository, times(1)).sumarServiciosPublicados("prov-1", 1);
+    }
+
     @Test
     void publicarServicio_proveedorNoEncontrado_throwsResourceNotFound() {
         // Arrange
@@ -193,6 +365,43 @@ class ServicioServiceTest {
         verify(servicioRepository).findById("svc-1");
     }
 
+    @Test
+    void obtenerPorId_segundaLectura_usaCacheHastaActualizar() {
+        when(servicioRepository.findById("svc-1")).thenReturn(Optional.of(servicio));
+        when(servicioMapper.toResponse(servicio)).thenReturn(ServicioResponse.builder().idServicio("svc-1").build());
+
+        servicioService.obtenerPorId("svc-1");
+        servicioService.obtenerPorId("svc-1");
+        verify(servicioRepository, times(1)).findById("svc-1");
+
+        // Cambiar el estado invalida la respuesta guardada
+        when(servicioRepository.save(servicio)).thenReturn(servicio);
+        servicioService.cambiarEstado("svc-1", EstadoServicio.PAUSADO);
+        servicioService.obtenerPorId("svc-1");
+
+        verify(servicioRepository, times(3)).findById("svc-1");
+    }
+
+    @Test
+    void obtenerDetalle_consultaSoloResenasRecientesYUsaHistogramaGuardado() {
+        servicio.setResenasCincoEstrellas(7);
+        servicio.setResenasCuatroEstrellas(2);
+        servicio.setResenasUnaEstrella(1);
+        List<Resena> recientes = List.of(Resena.builder().idResena("res-1").build());
+        List<ResenaResponse> recientesResponse = List.of(ResenaResponse.builder().idResena("res-1").build());
+        when(servicioRepository.findById("svc-1")).thenReturn(Optional.of(servicio));
+        when(servicioMapper.toDetalleResponse(servicio)).thenReturn(new ServicioDetalleResponse());
+        when(resenaRepository.findRecientesPublicadas("svc-1", PageRequest.of(0, 5))).thenReturn(recientes);
+        when(resenaMapper.toResponseList(recientes)).thenReturn(recientesResponse);
+
+        ServicioDetalleResponse detalle = servicioService.obtenerDetalle("svc-1");
+
+        assertEquals(recientesResponse, detalle.getResenas());
+        assertEquals(List.of(5, 4, 3, 2, 1), List.copyOf(detalle.getHistogramaCalificaciones().keySet()));
+        assertEquals(List.of(7, 2, 0, 0, 1), List.copyOf(detalle.getHistogramaCalificaciones().values()));
+        verify(resenaRepository, never()).contarPorCalificacion(any());
+    }
+
     @Test
     void obtenerPorId_noExiste_throwsResourceNotFound() {
         when(servicioRepository.findById("no-existe")).thenReturn(Optional.empty());
@@ -244,6 +453,7 @@ class ServicioServiceTest {
         List<DisponibilidadRequest> reqs = List.of(dReq);
 
         DisponibilidadServicio dEntity = new DisponibilidadServicio();
+        dEntity.setFecha(LocalDate.now().plusDays(1));
         when(disponibilidadMapper.toEntityList(reqs)).thenReturn(List.of(dEntity));
         when(disponibilidadRepository.saveAll(anyList())).thenReturn(List.of(dEntity));
 
@@ -254,6 +464,101 @@ class ServicioServiceTest {
         assertNotNull(resp);
         assertEquals("Disponibilidad agregada exitosamente", resp.getMessage());
         verify(disponibilidadRepository).saveAll(anyList());
+        verify(indiceDisponibilidad).invalidar("svc-4", dEntity.getFecha());
+    }
+
+    @Test
+    void agregarReglasDisponibilidad_success() {
+        // Arrange
+        Servicio svc = Servicio.builder().idServicio("svc-6").build();
+        when(servicioRepository.findById("svc-6")).thenReturn(Optional.of(svc));
+
+        ReglaDisponibilidadRequest req = ReglaDisponibilidadRequest.builder()
+                .diaSemana(DayOfWeek.MONDAY)
+                .horaInicio(LocalTime.of(6, 0))
+                .horaFin(LocalTime.of(22, 0))
+                .cupos(10)
+                .build();
+        ReglaDisponibilidad regla = new ReglaDisponibilidad();
+        when(disponibilidadMapper.toReglaEntityList(List.of(req))).thenReturn(List.of(regla));
+
+        // Act
+        MessageResponse resp = servicioService.agregarReglasDisponibilidad("svc-6", List.of(req));
+
+        // Assert
+        assertEquals("Reglas de disponibilidad agregadas exitosamente", resp.getMessage());
+        assertSame(svc, regla.getServicio());
+        verify(reglaRepository).saveAll(List.of(regla));
+        verify(indiceDisponibilidad).invalidarServicio("svc-6");
+        verify(cacheServicios).invalidar("svc-6");
+    }
+
+    @Test
+    void agregarReglasDisponibilidad_horarioInvalido_lanzaBusinessException() {
+        // Arrange
+        when(servicioRepository.findById("svc-6")).thenReturn(Optional.of(Servicio.builder().idServicio("svc-6").build()));
+        ReglaDisponibilidadRequest req = ReglaDisponibilidadRequest.builder()
+                .diaSemana(DayOfWeek.MONDAY)
+                .horaInicio(LocalTime.of(22, 0))
+                .horaFin(LocalTime.of(6, 0))
+                .cupos(10)
+                .build();
+
+        // Act & Assert
+        assertThrows(BusinessException.class,
+                () -> servicioService.agregarReglasDisponibilidad("svc-6", List.of(req)));
+        verifyNoInteractions(reglaRepository);
+    }
+
+    @Test
+    void obtenerCalendarioDisponibilidad_uneFranjasYOmiteDiasSinCupos() {
+        // Arrange
+        LocalDate dia1 = LocalDate.now().plusDays(1);
+        LocalDate dia2 = dia1.plusDays(1);
+        DiaDisponibilidad conCupos = DiaDisponibilidad.desde(List.of(
+                franja("d-1", dia1, "08:00", "09:00", 2),
+                franja("d-2", dia1, "09:00", "10:00", 1),
+                franja("d-3", dia1, "11:00", "12:00", 0),
+                franja("d-4", dia1, "14:00", "16:00", 3)));
+        DiaDisponibilidad sinCupos = DiaDisponibilidad.desde(List.of(
+                franja("d-5", dia2, "08:00", "09:00", 0)));
+
+        SortedMap<LocalDate, DiaDisponibilidad> dias = new TreeMap<>(Map.of(dia1, conCupos, dia2, sinCupos));
+        when(indiceDisponibilidad.obtenerDias(anyCollection(), eq(dia1), eq(dia2)))
+                .thenReturn(Map.of("svc-1", dias));
+
+        // Act
+        CalendarioDisponibilidadResponse resp =
+                servicioService.obtenerCalendarioDisponibilidad(List.of("svc-1"), dia1, dia2);
+
+        // Assert
+        Map<String, List<String>> calendario = resp.getServicios().get("svc-1");
+        assertEquals(List.of("08:00-10:00", "14:00-16:00"), calendario.get(dia1.toString()));
+        assertFalse(calendario.containsKey(dia2.toString()));
+    }
+
+    @Test
+    void obtenerCalendarioDisponibilidad_rangoExcedido_lanzaBusinessException() {
+        LocalDate inicio = LocalDate.now();
+
+        assertThrows(BusinessException.class, () ->
+                servicioService.obtenerCalendarioDisponibilidad(List.of("svc-1"), inicio, inicio.plusDays(62)));
+        assertThrows(BusinessException.class, () ->
+                servicioService.obtenerCalendarioDisponibilidad(List.of("svc-1"), inicio, inicio.minusDays(1)));
+        assertThrows(BusinessException.class, () ->
+                servicioService.obtenerCalendarioDisponibilidad(List.of(), inicio, inicio));
+        verifyNoInteractions(indiceDisponibilidad);
+    }
+
+    private DisponibilidadServicio franja(String id, LocalDate fecha, String inicio, String fin, int cupos) {
+        return DisponibilidadServicio.builder()
+                .idDisponibilidad(id)
+                .fecha(fecha)
+                .horaInicio(LocalTime.parse(inicio))
+                .horaFin(LocalTime.parse(fin))
+                .disponible(cupos > 0)
+                .cuposDisponibles(cupos)
+                .build();
     }
 
     @Test
@@ -276,6 +581,277 @@ class ServicioServiceTest {
         assertNotNull(resultado);
         assertEquals(EstadoServicio.PAUSADO, resultado.getEstado());
         verify(servicioRepository).save(any(Servicio.class));
+        // un servicio pausado deja de aparecer en la búsqueda por cercanía
+        verify(indiceGeografico).retirar("svc-5");
+    }
+
+    @Test
+    void buscarServiciosCercanos_usaIndiceYConservaOrdenPorDistancia() {
+        // Arrange: el índice devuelve los ids ya ordenados por distancia
+        Servicio lejano = Servicio.builder().idServicio("svc-lejos").estado(EstadoServicio.PUBLICADO).build();
+        Servicio cercano = Servicio.builder().idServicio("svc-cerca").estado(EstadoServicio.PUBLICADO).build();
+        when(indiceGeografico.buscarCercanos(11.24, -74.2, 5))
+                .thenReturn(List.of(new IndiceGeografico.Cercano("svc-cerca", 0.8),
+                        new IndiceGeografico.Cercano("svc-lejos", 3.1)));
+        when(servicioRepository.findConProveedorYUbicacion(List.of("svc-cerca", "svc-lejos")))
+                .thenReturn(List.of(lejano, cercano));
+        when(servicioMapper.toResponse(any(Servicio.class))).thenAnswer(invocation ->
+                ServicioResponse.builder().idServicio(((Servicio) invocation.getArgument(0)).getIdServicio()).build());
+
+        // Act
+        List<ServicioResponse> resultado = servicioService.buscarServiciosCercanos(11.24, -74.2, 5);
+
+        // Assert
+        assertEquals(List.of("svc-cerca", "svc-lejos"),
+                resultado.stream().map(ServicioResponse::getIdServicio).toList());
+        assertEquals(0.8, resultado.get(0).getDistanciaKm());
+        verify(ubicacionRepository, never()).findServiciosCercanos(any(), any(), any());
+    }
+
+    @Test
+    void buscarServiciosMasCercanos_pasaFiltrosAlIndice() {
+        // Arrange
+        Servicio cancha = Servicio.builder().idServicio("svc-1").estado(EstadoServicio.PUBLICADO).build();
+        IndiceGeografico.Filtro filtro = new IndiceGeografico.Filtro("Fútbol", null, new BigDecimal("80000"));
+        when(indiceGeografico.buscarMasCercanos(11.24, -74.2, 20, filtro))
+                .thenReturn(List.of(new IndiceGeografico.Cercano("svc-1", 2.345)));
+        when(servicioRepository.findConProveedorYUbicacion(List.of("svc-1"))).thenReturn(List.of(cancha));
+        when(servicioMapper.toResponse(cancha)).thenReturn(ServicioResponse.builder().idServicio("svc-1").build());
+
+        // Act
+        List<ServicioResponse> resultado = servicioService.buscarServiciosMasCercanos(
+                11.24, -74.2, 20, "Fútbol", null, new BigDecimal("80000"));
+
+        // Assert
+        assertEquals(1, resultado.size());
+        assertEquals(2.35, resultado.get(0).getDistanciaKm());
+    }
+
+    @Test
+    void buscarServiciosMasCercanos_cantidadInvalida_lanzaBusinessException() {
+        assertThrows(BusinessException.class,
+                () -> servicioService.buscarServiciosMasCercanos(11.24, -74.2, 500, null, null, null));
+        verifyNoInteractions(indiceGeografico);
+    }
+
+    @Test
+    void buscarServicios_ordenPorDistancia_usaSpecificationYCalculaDistancia() {
+        // Arrange
+        BusquedaServicioRequest filtros = new BusquedaServicioRequest();
+        filtros.setLatitud(new BigDecimal("11.24"));
+        filtros.setLongitud(new BigDecimal("-74.2"));
+        filtros.setRadioKm(10);
+        filtros.setOrdenarPor("distancia");
+
+        servicio.setUbicacion(UbicacionServicio.builder()
+                .coordenadasLat(new BigDecimal("11.25"))
+                .coordenadasLng(new BigDecimal("-74.2"))
+                .build());
+        when(servicioRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(servicio)));
+        when(servicioMapper.toResponse(servicio)).thenReturn(ServicioResponse.builder().idServicio("svc-1").build());
+        when(pageMapper.toPageResponse(any())).thenAnswer(invocation -> {
+            Page<ServicioResponse> pagina = invocation.getArgument(0);
+            assertEquals(1.11, pagina.getContent().get(0).getDistanciaKm());
+            return null;
+        });
+
+        // Act
+        servicioService.buscarServicios(filtros);
+
+        // Assert: el orden por distancia lo agrega la Specification, no el Pageable
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(servicioRepository).findAll(any(Specification.class), pageable.capture());
+        assertTrue(pageable.getValue().getSort().isUnsorted());
+        verify(servicioRepository, never()).buscarConFiltros(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void buscarServicios_conFacetas_sumaLosConteosDeUnaSolaConsulta() {
+        // Arrange
+        BusquedaServicioRequest filtros = new BusquedaServicioRequest();
+        filtros.setIncluirFacetas(true);
+
+        when(servicioRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of()));
+        when(pageMapper.<ServicioResponse>toPageResponse(any())).thenReturn(PageResponse.<ServicioResponse>builder()
+                .content(List.of()).totalElements(6L).build());
+        when(servicioRepository.contarFacetas(any(Specification.class), anyList())).thenReturn(List.of(
+                new ServicioRepositoryCustom.ConteoFacetas("Fútbol", "Santa Marta", 1, 3),
+                new ServicioRepositoryCustom.ConteoFacetas("Fútbol", "Ciénaga", 0, 1),
+                new ServicioRepositoryCustom.ConteoFacetas("Tenis", "Santa Marta", 3, 2)));
+
+        // Act
+        PageResponse<ServicioResponse> resultado = servicioService.buscarServicios(filtros);
+
+        // Assert
+        FacetasResponse facetas = assertInstanceOf(BusquedaServicioResponse.class, resultado).getFacetas();
+        assertEquals(6L, facetas.getTotal());
+        assertEquals(List.of("Fútbol", "Tenis"), List.copyOf(facetas.getDeportes().keySet()));
+        assertEquals(4L, facetas.getDeportes().get("Fútbol"));
+        assertEquals(5L, facetas.getCiudades().get("Santa Marta"));
+        assertEquals(List.of("0-20000", "20000-50000", "50000-100000", "100000+"),
+                List.copyOf(facetas.getRangosPrecio().keySet()));
+        assertEquals(3L, facetas.getRangosPrecio().get("20000-50000"));
+        assertEquals(0L, facetas.getRangosPrecio().get("50000-100000"));
+        verify(servicioRepository, times(1)).contarFacetas(any(Specification.class), anyList());
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void buscarServicios_filtroPorCiudad_reutilizaElFetchJoinDeUbicacion() {
+        // Arrange
+        BusquedaServicioRequest filtros = new BusquedaServicioRequest();
+        filtros.setCiudad("Santa Marta");
+        when(servicioRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of()));
+        servicioService.buscarServicios(filtros);
+        ArgumentCaptor<Specification<Servicio>> captor = ArgumentCaptor.forClass(Specification.class);
+        verify(servicioRepository).findAll(captor.capture(), any(Pageable.class));
+
+        Root<Servicio> root = mock(Root.class);
+        Join ubicacion = mock(Join.class, withSettings().extraInterfaces(Fetch.class));
+        doReturn(ubicacion).when(root).fetch(anyString());
+        doReturn(ubicacion).when(root).join("ubicacion");
+        CriteriaQuery pagina = mock(CriteriaQuery.class);
+        CriteriaQuery conteo = mock(CriteriaQuery.class);
+        when(pagina.getResultType()).thenReturn(Servicio.class);
+        when(conteo.getResultType()).thenReturn(Long.class);
+        CriteriaBuilder criteriaBuilder = mock(CriteriaBuilder.class);
+
+        // Act
+        captor.getValue().toPredicate(root, pagina, criteriaBuilder);
+        captor.getValue().toPredicate(root, conteo, criteriaBuilder);
+
+        // Assert: la página filtra sobre el fetch join; el conteo sólo une la ubicación
+        verify(root).fetch("proveedor");
+        verify(root, times(1)).fetch("ubicacion");
+        verify(root, times(1)).join("ubicacion");
+        verify(ubicacion, times(2)).get("ciudad");
+    }
+
+    @Test
+    void buscarServicios_ordenPorDistanciaSinCoordenadas_lanzaBusinessException() {
+        BusquedaServicioRequest filtros = new BusquedaServicioRequest();
+        filtros.setOrdenarPor("distancia");
+
+        assertThrows(BusinessException.class, () -> servicioService.buscarServicios(filtros));
+        verifyNoInteractions(servicioRepository);
+    }
+
+    @Test
+    void buscarPorTexto_paginaSobreResultadosDelIndice() {
+        // Arrange: 3 resultados ordenados por relevancia, página 1 de tamaño 2
+        when(indiceTexto.buscar("futbol", 1000)).thenReturn(List.of(
+                new IndiceTexto.Resultado("svc-a", 3.0),
+                new IndiceTexto.Resultado("svc-b", 2.0),
+                new IndiceTexto.Resultado("svc-1", 1.0)));
+        when(servicioRepository.findConProveedorYUbicacion(List.of("svc-1"))).thenReturn(List.of(servicio));
+        when(servicioMapper.toResponse(servicio)).thenReturn(ServicioResponse.builder().idServicio("svc-1").build());
+
+        // Act
+        PageResponse<ServicioResponse> pagina = servicioService.buscarPorTexto("futbol", 1, 2);
+
+        // Assert
+        assertEquals(List.of("svc-1"), pagina.getContent().stream().map(ServicioResponse::getIdServicio).toList());
+        assertEquals(3L, pagina.getTotalElements());
+        assertEquals(2, pagina.getTotalPages());
+        assertTrue(pagina.getLast());
+    }
+
+    @Test
+    void autocompletar_convierteSugerenciasPorTipo() {
+        // Arrange
+        when(autocompletado.sugerir("fut", 5)).thenReturn(new Autocompletado.Sugerencias(
+                List.of(new Autocompletado.Sugerencia("Futbolito Rodadero", "svc-1", 8.2)),
+                List.of(new Autocompletado.Sugerencia("Fútbol", null, 12)),
+                List.of()));
+
+        // Act
+        AutocompletadoResponse respuesta = servicioService.autocompletar("fut", 5);
+
+        // Assert
+        assertEquals("svc-1", respuesta.getServicios().get(0).getIdServicio());
+        assertEquals("Fútbol", respuesta.getDeportes().get(0).getTexto());
+        assertTrue(respuesta.getCiudades().isEmpty());
+        verifyNoInteractions(servicioRepository);
+    }
+
+    @Test
+    void listarMejoresServicios_conservaOrdenDeLaClasificacion() {
+        // Arrange: la clasificación devuelve los ids ya ordenados por puntaje
+        Servicio primero = Servicio.builder().idServicio("svc-1").estado(EstadoServicio.PUBLICADO).build();
+        Servicio segundo = Servicio.builder().idServicio("svc-2").estado(EstadoServicio.PUBLICADO).build();
+        Servicio pausado = Servicio.builder().idServicio("svc-3").estado(EstadoServicio.PAUSADO).build();
+        when(clasificacionServicios.mejores("Fútbol", "Santa Marta", 10)).thenReturn(List.of(
+                new ClasificacionServicios.Posicion("svc-1", 4.7),
+                new ClasificacionServicios.Posicion("svc-3", 4.5),
+                new ClasificacionServicios.Posicion("svc-2", 4.1)));
+        when(servicioRepository.findConProveedorYUbicacion(List.of("svc-1", "svc-3", "svc-2")))
+                .thenReturn(List.of(segundo, pausado, primero));
+        when(servicioMapper.toResponse(any(Servicio.class))).thenAnswer(invocation ->
+                ServicioResponse.builder().idServicio(((Servicio) invocation.getArgument(0)).getIdServicio()).build());
+
+        // Act
+        List<ServicioResponse> resultado = servicioService.listarMejoresServicios("Fútbol", "Santa Marta", 10);
+
+        // Assert
+        assertEquals(List.of("svc-1", "svc-2"), resultado.stream().map(ServicioResponse::getIdServicio).toList());
+    }
+
+    @Test
+    void listarMejoresServicios_cantidadInvalida_lanzaBusinessException() {
+        assertThrows(BusinessException.class, () -> servicioService.listarMejoresServicios(null, null, 51));
+        verifyNoInteractions(clasificacionServicios);
+    }
+
+    @Test
+    void listarServiciosRecomendados_conservaOrdenDeLasRecomendaciones() {
+        // Arrange
+        Servicio primero = Servicio.builder().idServicio("svc-1").estado(EstadoServicio.PUBLICADO).build();
+        Servicio segundo = Servicio.builder().idServicio("svc-2").estado(EstadoServicio.PUBLICADO).build();
+        when(recomendacionesServicios.recomendar("cli-1", 5)).thenReturn(List.of(
+                new RecomendacionesServicios.Recomendacion("svc-2", 1.4),
+                new RecomendacionesServicios.Recomendacion("svc-1", 0.6)));
+        when(servicioRepository.findConProveedorYUbicacion(List.of("svc-2", "svc-1")))
+                .thenReturn(List.of(primero, segundo));
+        when(servicioMapper.toResponse(any(Servicio.class))).thenAnswer(invocation ->
+                ServicioResponse.builder().idServicio(((Servicio) invocation.getArgument(0)).getIdServicio()).build());
+
+        // Act
+        List<ServicioResponse> resultado = servicioService.listarServiciosRecomendados("cli-1", 5);
+
+        // Assert
+        assertEquals(List.of("svc-2", "svc-1"), resultado.stream().map(ServicioResponse::getIdServicio).toList());
+    }
+
+    @Test
+    void buscarPorTexto_textoVacio_lanzaBusinessException() {
+        assertThrows(BusinessException.class, () -> servicioService.buscarPorTexto("  ", 0, 20));
+        verifyNoInteractions(indiceTexto);
+    }
+
+    @Test
+    void agruparServiciosMapa_convierteGrupos() {
+        // Arrange
+        when(agrupadorMapa.agrupar(11.1, -74.3, 11.3, -74.1, 12, 64)).thenReturn(List.of(
+                new AgrupadorMapa.Grupo(11.2, -74.2, 1, Map.of("Fútbol", 1), "svc-1")));
+
+        // Act
+        List<GrupoMapaResponse> grupos = servicioService.agruparServiciosMapa(11.1, -74.3, 11.3, -74.1, 12);
+
+        // Assert
+        assertEquals(1, grupos.size());
+        assertEquals("svc-1", grupos.get(0).getIdServicio());
+        assertEquals(Map.of("Fútbol", 1), grupos.get(0).getDeportes());
+    }
+
+    @Test
+    void agruparServiciosMapa_areaDemasiadoGrande_lanzaBusinessException() {
+        when(agrupadorMapa.agrupar(-60.0, -170.0, 60.0, 170.0, 12, 64)).thenReturn(null);
+
+        assertThrows(BusinessException.class,
+                () -> servicioService.agruparServiciosMapa(-60.0, -170.0, 60.0, 170.0, 12));
     }
 
     @Test
@@ -294,4 +870,19 @@ class ServicioServiceTest {
         verify(servicioRepository).findByEstado(eq(EstadoServicio.PUBLICADO), any(Pageable.class));
         verify(pageMapper).toPageResponse(any());
     }
+
+    @Test
+    void listarServiciosPorCursor_noEjecutaConteo() {
+        // Arrange
+        doReturn(List.of(servicio)).when(servicioRepository).findBy(any(Specification.class), any());
+        when(pageMapper.toCursorPageResponse(any(), any())).thenReturn(null);
+
+        // Act
+        servicioService.listarServiciosPorCursor(null, 10);
+
+        // Assert
+        verify(servicioRepository).findBy(any(Specification.class), any());
+        verify(servicioRepository, never()).findByEstado(any(EstadoServicio.class), any(Pageable.class));
+        verify(pageMapper).toCursorPageResponse(any(), any());
+    }
 }
@@ -6,6 +6,8 @@ import com.sm_sport.dto.request.FiltroUsuarioRequest;
 import com.sm_sport.dto.response.*;
 import com.sm_sport.exception.BusinessException;
 import com.sm_sport.exception.ResourceNotFoundException;
+import com.sm_sport.index.CargasCompartidas;
+import com.sm_sport.index.RecomendacionesServicios;
 import com.sm_sport.mapper.UsuarioMapper;
 import com.sm_sport.model.entity.Cliente;
 import com.sm_sport.model.entity.Proveedor;
@@ -17,12 +19,14 @@ import com.sm_sport.repository.ProveedorRepository;
 import com.sm_sport.repository.UsuarioRepository;
 import com.sm_sport.service.impl.UsuarioServiceImpl;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -53,6 +57,12 @@ class UsuarioServiceTest {
     @Mock
     private UsuarioMapper usuarioMapper;
 
+    @Spy
+    private CargasCompartidas cargasCompartidas = new CargasCompartidas(new SimpleMeterRegistry());
+
+    @Mock
+    private RecomendacionesServicios recomendacionesServicios;
+
     @InjectMocks
     private UsuarioServiceImpl usuarioService;
 
@@ -258,6 +268,38 @@ class UsuarioServiceTest {
         verify(usuarioRepository).findAll(any(Specification.class), any(Pageable.class));
     }
 
+    @Test
+    @DisplayName("listarUsuariosPorCursor - Última página sin cursor siguiente ni conteo")
+    void testListarUsuariosPorCursor() {
+        FiltroUsuarioRequest filtros = new FiltroUsuarioRequest();
+        filtros.setTamano(10);
+        filtros.setDireccion("ASC");
+        filtros.setOrdenarPor("nombre");
+
+        List<Usuario> usuarios = List.of(usuarioMock);
+
+        doReturn(usuarios).when(usuarioRepository).findBy(any(Specification.class), any());
+        when(usuarioMapper.toResponseList(usuarios))
+                .thenReturn(List.of(UsuarioResponse.builder().idUsuario("user123").build()));
+
+        CursorPageResponse<UsuarioResponse> result = usuarioService.listarUsuariosPorCursor(filtros);
+
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getHasNext()).isFalse();
+        assertThat(result.getNextCursor()).isNull();
+        verify(usuarioRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("listarUsuariosPorCursor - Orden no permitido")
+    void testListarUsuariosPorCursor_OrdenNoPermitido() {
+        FiltroUsuarioRequest filtros = new FiltroUsuarioRequest();
+        filtros.setOrdenarPor("contrasena");
+
+        assertThatThrownBy(() -> usuarioService.listarUsuariosPorCursor(filtros))
+                .isInstanceOf(BusinessException.class);
+    }
+
     // =============================================================
     // cambiarEstado()
     // =============================================================
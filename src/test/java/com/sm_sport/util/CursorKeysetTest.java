@@ -0,0 +1,91 @@
+package com.sm_sport.util;
+
+import com.sm_sport.dto.response.CursorPageResponse;
+import com.sm_sport.exception.BusinessException;
+import com.sm_sport.model.entity.Resena;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("Tests para CursorKeyset")
+class CursorKeysetTest {
+
+    private static final OrdenKeyset<Resena> ORDEN = OrdenKeyset.<Resena>de("fechaCreacion")
+            .por("fechaCreacion", LocalDateTime.class, Resena::getFechaCreacion)
+            .por("idResena", String.class, Resena::getIdResena);
+
+    private static final Specification<Resena> TODAS = (root, query, criteriaBuilder) -> null;
+
+    @Test
+    @DisplayName("Debe recuperar los valores codificados con la misma firma")
+    void codificarYDecodificar_MismaFirma_RecuperaValores() {
+        String cursor = CursorKeyset.codificar("costoTotal:ASC", new BigDecimal("25.50"), "res-001");
+
+        assertThat(cursor).doesNotContain("=", "+", "/");
+        assertThat(CursorKeyset.decodificar(cursor, "costoTotal:ASC", 2))
+                .containsExactly("25.50", "res-001");
+    }
+
+    @Test
+    @DisplayName("Debe rechazar cursores de otro orden, con otro número de columnas o corruptos")
+    void decodificar_CursorInvalido_LanzaExcepcion() {
+        String cursor = CursorKeyset.codificar("fechaReserva:DESC", LocalDate.of(2025, 1, 10), "res-001");
+
+        assertThatThrownBy(() -> CursorKeyset.decodificar(cursor, "fechaReserva:ASC", 2))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> CursorKeyset.decodificar(cursor, "fechaReserva:DESC", 3))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> CursorKeyset.decodificar("%%no-base64%%", "fechaReserva:DESC", 2))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    @DisplayName("Debe recortar la fila extra y devolver el cursor de la última fila entregada")
+    @SuppressWarnings("unchecked")
+    void paginar_FilaExtra_RetornaCursorDeLaUltima() {
+        JpaSpecificationExecutor<Resena> repositorio = mock(JpaSpecificationExecutor.class);
+        Resena primera = resena("r-3", LocalDateTime.of(2025, 3, 1, 10, 0));
+        Resena segunda = resena("r-2", LocalDateTime.of(2025, 2, 1, 10, 0));
+        Resena extra = resena("r-1", LocalDateTime.of(2025, 1, 1, 10, 0));
+        doReturn(List.of(primera, segunda, extra)).when(repositorio).findBy(any(Specification.class), any());
+
+        CursorPageResponse<Resena> pagina = CursorKeyset.paginar(repositorio, TODAS, ORDEN, Sort.Direction.DESC, null, 2);
+
+        assertThat(pagina.getContent()).containsExactly(primera, segunda);
+        assertThat(pagina.getHasNext()).isTrue();
+        assertThat(CursorKeyset.decodificar(pagina.getNextCursor(), "fechaCreacion:DESC", 2))
+                .containsExactly("2025-02-01T10:00", "r-2");
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un cursor con valores que no corresponden al tipo de la columna")
+    @SuppressWarnings("unchecked")
+    void paginar_ValorCorrupto_LanzaExcepcion() {
+        JpaSpecificationExecutor<Resena> repositorio = mock(JpaSpecificationExecutor.class);
+        String cursor = CursorKeyset.codificar("fechaCreacion:DESC", "no-es-fecha", "r-1");
+
+        assertThatThrownBy(() -> CursorKeyset.paginar(repositorio, TODAS, ORDEN, Sort.Direction.DESC, cursor, 10))
+                .isInstanceOf(BusinessException.class);
+
+        verify(repositorio, never()).findBy(any(Specification.class), any());
+    }
+
+    private Resena resena(String id, LocalDateTime fechaCreacion) {
+        return Resena.builder().idResena(id).fechaCreacion(fechaCreacion).build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.sm_sport.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sm_sport.exception.BusinessException;
+import com.sm_sport.model.enums.FormatoImportacion;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Tests para LectorImportacion")
+class LectorImportacionTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    @DisplayName("Debe leer el CSV por nombre de columna con campos entre comillas")
+    void leer_Csv_InterpretaColumnas() {
+        String csv = """
+                Deporte,Nombre,precio,ciudad,latitud
+                Fútbol,"Cancha 1, techada",80000,Santa Marta,11.24
+
+                Tenis,"Club ""El Rodadero\""",abc,Santa Marta,
+                """;
+
+        List<LectorImportacion.Fila> filas = leer(csv, FormatoImportacion.CSV);
+
+        assertThat(filas).hasSize(2);
+        assertThat(filas.get(0).numero()).isEqualTo(2);
+        assertThat(filas.get(0).solicitud().getNombre()).isEqualTo("Cancha 1, techada");
+        assertThat(filas.get(0).solicitud().getPrecio()).isEqualByComparingTo(new BigDecimal("80000"));
+        assertThat(filas.get(0).solicitud().getUbicacion().getCiudad()).isEqualTo("Santa Marta");
+        assertThat(filas.get(0).solicitud().getUbicacion().getCoordenadasLat())
+                .isEqualByComparingTo(new BigDecimal("11.24"));
+        assertThat(filas.get(1).numero()).isEqualTo(4);
+        assertThat(filas.get(1).solicitud()).isNull();
+        assertThat(filas.get(1).error()).contains("precio");
+    }
+
+    @Test
+    @DisplayName("Debe leer NDJSON línea por línea y seguir después de una línea inválida")
+    void leer_Ndjson_InformaLineaInvalida() {
+        String ndjson = """
+                {"nombre":"Cancha 1","disponibilidad":[{"fecha":"2030-01-01","horaInicio":"08:00","horaFin":"09:00"}]}
+                {"nombre":
+                {"nombre":"Cancha 3"}
+                """;
+
+        List<LectorImportacion.Fila> filas = leer(ndjson, FormatoImportacion.NDJSON);
+
+        assertThat(filas).extracting(LectorImportacion.Fila::numero).containsExactly(1, 2, 3);
+        assertThat(filas.get(0).solicitud().getDisponibilidad()).hasSize(1);
+        assertThat(filas.get(1).error()).startsWith("JSON inválido");
+        assertThat(filas.get(2).solicitud().getNombre()).isEqualTo("Cancha 3");
+    }
+
+    @Test
+    @DisplayName("Debe dejar de leer cuando el consumidor lo pide y rechazar un CSV sin columna nombre")
+    void leer_DetenerYEncabezadoInvalido() {
+        List<LectorImportacion.Fila> filas = new ArrayList<>();
+        LectorImportacion.leer(entrada("nombre\nA\nB\nC\n"), FormatoImportacion.CSV, objectMapper,
+                fila -> filas.add(fila) && filas.size() < 2);
+
+        assertThat(filas).hasSize(2);
+        assertThatThrownBy(() -> leer("deporte,precio\nFútbol,1\n", FormatoImportacion.CSV))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    private List<LectorImportacion.Fila> leer(String contenido, FormatoImportacion formato) {
+        List<LectorImportacion.Fila> filas = new ArrayList<>();
+        LectorImportacion.leer(entrada(contenido), formato, objectMapper, filas::add);
+        return filas;
+    }
+
+    private static ByteArrayInputStream entrada(String contenido) {
+        return new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+}
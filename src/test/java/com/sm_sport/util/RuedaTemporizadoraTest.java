@@ -0,0 +1,91 @@
+package com.sm_sport.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Tests para RuedaTemporizadora")
+class RuedaTemporizadoraTest {
+
+    private static final long INICIO = 1_000_000_000L;
+
+    @Test
+    @DisplayName("Debe vencer cada clave en su tick y no antes")
+    void avanzar_VariosNiveles_VenceEnSuTick() {
+        RuedaTemporizadora<String> rueda = new RuedaTemporizadora<>(1000, 4, INICIO);
+        rueda.programar("cercana", INICIO + 5_000);
+        rueda.programar("minutos", INICIO + 130_000);
+        rueda.programar("horas", INICIO + 48 * 3600_000L);
+
+        assertThat(rueda.avanzar(INICIO + 4_000)).isEmpty();
+        assertThat(rueda.avanzar(INICIO + 5_000)).containsExactly("cercana");
+        assertThat(rueda.avanzar(INICIO + 129_000)).isEmpty();
+        assertThat(rueda.avanzar(INICIO + 130_000)).containsExactly("minutos");
+        assertThat(rueda.avanzar(INICIO + 48 * 3600_000L - 1_000)).isEmpty();
+        assertThat(rueda.avanzar(INICIO + 48 * 3600_000L)).containsExactly("horas");
+        assertThat(rueda.tamano()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debe ignorar las claves canceladas y respetar la reprogramación")
+    void cancelarYReprogramar_NoVenceLaAnterior() {
+        RuedaTemporizadora<String> rueda = new RuedaTemporizadora<>(1000, 4, INICIO);
+        rueda.programar("cancelada", INICIO + 10_000);
+        rueda.programar("movida", INICIO + 10_000);
+        rueda.cancelar("cancelada");
+        rueda.programar("movida", INICIO + 200_000);
+
+        assertThat(rueda.avanzar(INICIO + 100_000)).isEmpty();
+        assertThat(rueda.avanzar(INICIO + 200_000)).containsExactly("movida");
+    }
+
+    @Test
+    @DisplayName("Debe vencer en el siguiente tick lo que ya estaba vencido")
+    void programar_VencimientoPasado_VenceEnSiguienteTick() {
+        RuedaTemporizadora<String> rueda = new RuedaTemporizadora<>(1000, 4, INICIO);
+        rueda.programar("atrasada", INICIO - 60_000);
+
+        assertThat(rueda.avanzar(INICIO + 1_000)).containsExactly("atrasada");
+    }
+
+    @Test
+    @DisplayName("Debe reprogramar los vencimientos que exceden el alcance de la rueda")
+    void programar_FueraDeAlcance_VenceIgual() {
+        RuedaTemporizadora<String> rueda = new RuedaTemporizadora<>(1000, 2, INICIO);
+        long lejano = INICIO + 10_000_000L; // más de 64^2 ticks
+
+        rueda.programar("lejana", lejano);
+
+        assertThat(rueda.avanzar(lejano - 1_000)).isEmpty();
+        assertThat(rueda.avanzar(lejano)).containsExactly("lejana");
+    }
+
+    @Test
+    @DisplayName("Debe vencer todas las claves aleatorias en orden y exactamente una vez")
+    void avanzar_ClavesAleatorias_OrdenYUnicidad() {
+        RuedaTemporizadora<Integer> rueda = new RuedaTemporizadora<>(1000, 4, INICIO);
+        Random random = new Random(42);
+        long[] vencimientos = new long[2_000];
+        for (int i = 0; i < vencimientos.length; i++) {
+            vencimientos[i] = INICIO + 1_000 + random.nextInt(7 * 24 * 3600) * 1000L;
+            rueda.programar(i, vencimientos[i]);
+        }
+
+        List<Integer> vencidas = new ArrayList<>();
+        long ahora = INICIO;
+        while (vencidas.size() < vencimientos.length) {
+            ahora += 3_600_000;
+            for (Integer clave : rueda.avanzar(ahora)) {
+                assertThat(vencimientos[clave]).isLessThanOrEqualTo(ahora).isGreaterThan(ahora - 3_600_000);
+                vencidas.add(clave);
+            }
+        }
+
+        assertThat(vencidas).doesNotHaveDuplicates().hasSize(vencimientos.length);
+    }
+}
@@ -0,0 +1,40 @@
+package com.sm_sport.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Tests para UuidOrdenado")
+class UuidOrdenadoTest {
+
+    @Test
+    @DisplayName("Debe generar UUID versión 7 con los milisegundos en los primeros 48 bits")
+    void generar_VersionYMarcaDeTiempo() {
+        long millis = System.currentTimeMillis() + 60_000;
+
+        UUID uuid = UuidOrdenado.generar(millis);
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(uuid.getMostSignificantBits() >>> 16).isEqualTo(millis);
+    }
+
+    @Test
+    @DisplayName("Debe generar IDs crecientes en el mismo milisegundo y si el reloj retrocede")
+    void nuevo_MismoMilisegundo_IdsCrecientes() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(UuidOrdenado.nuevo());
+        }
+        String despuesDeRetroceder = UuidOrdenado.generar(System.currentTimeMillis() - 3_600_000).toString();
+
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+        assertThat(despuesDeRetroceder).isGreaterThan(ids.get(ids.size() - 1));
+        assertThat(UUID.fromString(ids.get(0)).toString()).isEqualTo(ids.get(0));
+    }
+}